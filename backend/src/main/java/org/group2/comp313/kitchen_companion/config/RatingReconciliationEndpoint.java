@@ -0,0 +1,49 @@
+package org.group2.comp313.kitchen_companion.config;
+
+import org.apache.camel.ProducerTemplate;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingReconciliationReport;
+import org.group2.comp313.kitchen_companion.service.RatingReconciliationService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint of the rating reconciliation: {@code GET /actuator/ratings} returns the report of the last run,
+ * {@code POST /actuator/ratings} queues a run on the {@link RatingReconciliationService#RECONCILE_ROUTE}. A run
+ * recomputes the ratings of every recipe and the report is for operators only, so both require a token with the
+ * {@link #ADMIN_SCOPE} scope, see {@link SecurityConfig}.
+ */
+@Component
+@Endpoint(id = "ratings")
+public class RatingReconciliationEndpoint {
+
+    public static final String ADMIN_SCOPE = "ratings:admin";
+
+    private final RatingReconciliationService ratingReconciliationService;
+    private final ProducerTemplate producerTemplate;
+
+    public RatingReconciliationEndpoint(RatingReconciliationService ratingReconciliationService, ProducerTemplate producerTemplate) {
+        this.ratingReconciliationService = ratingReconciliationService;
+        this.producerTemplate = producerTemplate;
+    }
+
+    @ReadOperation
+    public RatingReconciliationReport lastReport() {
+        return this.ratingReconciliationService.getLastReport();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reconcile() {
+
+        boolean running = this.ratingReconciliationService.isRunning();
+
+        if (!running) {
+            this.producerTemplate.asyncSendBody(RatingReconciliationService.RECONCILE_ROUTE, null);
+        }
+
+        return Map.of("queued", !running, "running", running);
+    }
+}
@@ -36,6 +36,7 @@ public class SecurityConfig {
         http
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers(HttpMethod.OPTIONS).permitAll()
+                        .requestMatchers(new AntPathRequestMatcher("/actuator/ratings/**")).hasAuthority("SCOPE_" + RatingReconciliationEndpoint.ADMIN_SCOPE)
                         .requestMatchers(new AntPathRequestMatcher("/actuator/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/public/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/error")).permitAll()
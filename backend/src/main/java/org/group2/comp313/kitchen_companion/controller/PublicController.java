@@ -1,27 +1,47 @@
 package org.group2.comp313.kitchen_companion.controller;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.apache.camel.ProducerTemplate;
 import org.apache.camel.support.DefaultExchange;
-import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.domain.RecipeDetailDocument;
 import org.group2.comp313.kitchen_companion.domain.UserInteraction;
 import org.group2.comp313.kitchen_companion.dto.ApiResult;
+import org.group2.comp313.kitchen_companion.dto.CursorPage;
 import org.group2.comp313.kitchen_companion.dto.UserInteractionDto;
 import org.group2.comp313.kitchen_companion.dto.rating.RecipeRatingDto;
+import org.group2.comp313.kitchen_companion.dto.recipe.NutritionFilter;
+import org.group2.comp313.kitchen_companion.dto.recipe.PantryRecipeMatchDto;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetailDocumentHeader;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSearchResult;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSuggestionDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCards;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCardsWithScore;
+import org.group2.comp313.kitchen_companion.service.PantrySearchService;
 import org.group2.comp313.kitchen_companion.service.RatingsService;
+import org.group2.comp313.kitchen_companion.service.RecipeCardCacheService;
+import org.group2.comp313.kitchen_companion.service.RecipeDetailDocumentService;
 import org.group2.comp313.kitchen_companion.service.RecipeService;
+import org.group2.comp313.kitchen_companion.service.RecipeSuggestionService;
+import org.group2.comp313.kitchen_companion.service.UserInteractionEventsService;
+import org.group2.comp313.kitchen_companion.utility.InvalidCursorException;
+import org.group2.comp313.kitchen_companion.utility.InvalidSortException;
+import org.group2.comp313.kitchen_companion.utility.SearchIndexNotReadyException;
 import org.springframework.dao.InvalidDataAccessResourceUsageException;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 @RestController
@@ -31,18 +51,34 @@ public class PublicController extends BaseController {
 
     private final RecipeService recipeService;
     private final RatingsService ratingsService;
-    private final ProducerTemplate producerTemplate;
+    private final UserInteractionEventsService userInteractionEventsService;
+    private final PantrySearchService pantrySearchService;
+    private final RecipeSuggestionService recipeSuggestionService;
+    private final RecipeDetailDocumentService recipeDetailDocumentService;
+    private final RecipeCardCacheService recipeCardCacheService;
 
-    public PublicController(RecipeService recipeService, RatingsService ratingsService, ProducerTemplate producerTemplate) {
+    public PublicController(RecipeService recipeService, RatingsService ratingsService, UserInteractionEventsService userInteractionEventsService, PantrySearchService pantrySearchService, RecipeSuggestionService recipeSuggestionService, RecipeDetailDocumentService recipeDetailDocumentService, RecipeCardCacheService recipeCardCacheService) {
         this.recipeService = recipeService;
         this.ratingsService = ratingsService;
-        this.producerTemplate = producerTemplate;
+        this.userInteractionEventsService = userInteractionEventsService;
+        this.pantrySearchService = pantrySearchService;
+        this.recipeSuggestionService = recipeSuggestionService;
+        this.recipeDetailDocumentService = recipeDetailDocumentService;
+        this.recipeCardCacheService = recipeCardCacheService;
     }
 
+    /**
+     * Returns the full detail of a recipe. Anonymous requests are served the materialized document of the recipe,
+     * gzip compressed when the client accepts it, with a strong ETag and Last-Modified; a matching If-None-Match or
+     * If-Modified-Since is answered with 304 without reading the document. Recipes without a document yet, and
+     * authenticated requests, whose favorite flag is per user, are served from the recipe detail cache.
+     */
     @GetMapping("/recipe/{id}")
-    public ResponseEntity<ApiResult<Recipe>> getRecipe(@PathVariable Integer id,
-                                                       @AuthenticationPrincipal Jwt jwt,
-                                                       @RequestHeader(value = "Session-Id", required = false) String sessionId) {
+    public ResponseEntity<?> getRecipe(@PathVariable Integer id,
+                                       @AuthenticationPrincipal Jwt jwt,
+                                       @RequestHeader(value = "Session-Id", required = false) String sessionId,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       WebRequest webRequest) {
 
         log.info("Get recipe with id {}", id);
 
@@ -50,19 +86,38 @@ public class PublicController extends BaseController {
 
         if(sessionId != null) {
             UserInteractionDto userInteractionDto = new UserInteractionDto(sessionId, id, "view");
-            this.producerTemplate.asyncSendBody("direct:userInteractionEvents", userInteractionDto);
+            this.userInteractionEventsService.queueUserInteractionEvent(userInteractionDto);
         }
 
         if(jwt != null) {
             email = jwt.getClaimAsString("email");
         }
 
-        ApiResult<Recipe> apiResult;
+        ApiResult<RecipeDetail> apiResult;
         HttpStatus status;
 
         try {
 
-            Recipe recipe = this.recipeService.getRecipeById(id, email);
+            if(jwt == null) {
+
+                RecipeDetailDocumentHeader header = this.recipeDetailDocumentService.getHeader(id);
+
+                if(header != null) {
+
+                    // checkNotModified sets the 304 status and validators on the response itself.
+                    if(webRequest.checkNotModified(header.etag(), header.lastModified().toEpochMilli())) {
+                        return null;
+                    }
+
+                    RecipeDetailDocument document = this.recipeDetailDocumentService.getDocument(header);
+
+                    if(document != null) {
+                        return this.recipeDocumentResponse(document, acceptEncoding);
+                    }
+                }
+            }
+
+            RecipeDetail recipe = this.recipeService.getRecipeById(id, email);
 
             if(recipe == null) {
                 status = HttpStatus.NOT_FOUND;
@@ -79,11 +134,52 @@ public class PublicController extends BaseController {
         }
     }
 
+    private ResponseEntity<byte[]> recipeDocumentResponse(RecipeDetailDocument document, String acceptEncoding) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(document.getEtag())
+                .lastModified(document.getLastModified())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.AUTHORIZATION);
+
+        if(acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(document.getDocumentGzip());
+        }
+
+        return response.body(this.recipeDetailDocumentService.decompress(document));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+
+        if(acceptEncoding == null) {
+            return false;
+        }
+
+        for(String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if(parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+
+        return false;
+    }
+
     @GetMapping("/recipe")
     public ResponseEntity<ApiResult<Page<RecipeSummaryCardWithCategory>>> getRecipes(@RequestParam(required = false) String search,
                                                                                      @RequestParam(required = false) String category,
                                                                                      @RequestParam(defaultValue = "0") Integer page,
                                                                                      @RequestParam(defaultValue = "10") Integer size,
+                                                                                     @RequestParam(required = false) Float caloriesMin,
+                                                                                     @RequestParam(required = false) Float caloriesMax,
+                                                                                     @RequestParam(required = false) Float carbsMin,
+                                                                                     @RequestParam(required = false) Float carbsMax,
+                                                                                     @RequestParam(required = false) Float sugarsMin,
+                                                                                     @RequestParam(required = false) Float sugarsMax,
+                                                                                     @RequestParam(required = false) Float fatMin,
+                                                                                     @RequestParam(required = false) Float fatMax,
+                                                                                     @RequestParam(required = false) Integer maxTotalMinutes,
                                                                                      @RequestParam(required = false) String[] sort, @AuthenticationPrincipal Jwt jwt) {
 
         log.debug("Request to retrieve all recipe");
@@ -95,7 +191,22 @@ public class PublicController extends BaseController {
         }
 
         try {
-            return ResponseEntity.ok(new ApiResult<>("", recipeService.getRecipes(search, category, page, size, sort, email)));
+            NutritionFilter nutrition = new NutritionFilter(caloriesMin, caloriesMax, carbsMin, carbsMax, sugarsMin, sugarsMax, fatMin, fatMax);
+            RecipeSearchResult searchResult = recipeService.getRecipes(search, category, nutrition, maxTotalMinutes, page, size, sort, email);
+
+            Map<String, Object> metadata = new HashMap<>();
+            if (searchResult.categoryCounts() != null) {
+                metadata.put("categoryCounts", searchResult.categoryCounts());
+            }
+            if (searchResult.didYouMean() != null) {
+                metadata.put("didYouMean", searchResult.didYouMean());
+            }
+
+            return ResponseEntity.ok(new ApiResult<>("", searchResult.page(), metadata));
+        } catch (InvalidSortException exception) {
+            return new ResponseEntity<>(new ApiResult<>(exception.getLocalizedMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (SearchIndexNotReadyException exception) {
+            return new ResponseEntity<>(new ApiResult<>(exception.getLocalizedMessage(), null), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (InvalidDataAccessResourceUsageException exception) {
                 return new ResponseEntity<>(new ApiResult<>("Sort Criteria might be invalid please verify", null), HttpStatus.INTERNAL_SERVER_ERROR);
         } catch (Exception e) {
@@ -103,6 +214,88 @@ public class PublicController extends BaseController {
         }
     }
 
+    /**
+     * Returns the summary cards of a list of recipes in one request, in the order of the ids, so meal plans and
+     * carousels do not fetch each recipe detail separately. Ids of recipes that do not exist are skipped.
+     */
+    @GetMapping("/recipe/cards")
+    public ResponseEntity<ApiResult<List<RecipeSummaryCardWithCategory>>> getRecipeCards(@RequestParam List<Integer> ids,
+                                                                                        @AuthenticationPrincipal Jwt jwt) {
+
+        log.debug("Request to retrieve {} recipe cards", ids.size());
+
+        String email = "";
+
+        if(jwt != null) {
+            email = jwt.getClaimAsString("email");
+        }
+
+        try {
+            return ResponseEntity.ok(new ApiResult<>("", recipeCardCacheService.getCards(ids, email)));
+        } catch (IllegalArgumentException exception) {
+            return new ResponseEntity<>(new ApiResult<>(exception.getLocalizedMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/recipe/cursor")
+    public ResponseEntity<ApiResult<CursorPage<RecipeSummaryCardWithCategory>>> getRecipesByCursor(@RequestParam(required = false) String search,
+                                                                                                 @RequestParam(required = false) String category,
+                                                                                                 @RequestParam(required = false) String cursor,
+                                                                                                 @RequestParam(defaultValue = "10") Integer size,
+                                                                                                 @AuthenticationPrincipal Jwt jwt) {
+
+        log.debug("Request to retrieve recipes by cursor");
+
+        String email = "";
+
+        if(jwt != null) {
+            email = jwt.getClaimAsString("email");
+        }
+
+        try {
+            return ResponseEntity.ok(new ApiResult<>("", recipeService.getRecipesByCursor(search, category, cursor, size, email)));
+        } catch (InvalidCursorException exception) {
+            return new ResponseEntity<>(new ApiResult<>(exception.getLocalizedMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/recipe/suggest")
+    public ResponseEntity<ApiResult<List<RecipeSuggestionDto>>> getSuggestions(@RequestParam(name = "q") String prefix,
+                                                                               @RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            return ResponseEntity.ok(new ApiResult<>("", recipeSuggestionService.suggest(prefix, limit)));
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/recipe/pantry")
+    public ResponseEntity<ApiResult<Page<PantryRecipeMatchDto>>> getRecipesByPantry(@RequestParam List<String> ingredients,
+                                                                                    @RequestParam(defaultValue = "0") Integer page,
+                                                                                    @RequestParam(defaultValue = "10") Integer size,
+                                                                                    @AuthenticationPrincipal Jwt jwt) {
+
+        log.debug("Request to retrieve recipes by pantry ingredients");
+
+        String email = "";
+
+        if(jwt != null) {
+            email = jwt.getClaimAsString("email");
+        }
+
+        try {
+            return ResponseEntity.ok(new ApiResult<>("", pantrySearchService.findRecipesByPantry(ingredients, page, size, email)));
+        } catch (SearchIndexNotReadyException exception) {
+            return new ResponseEntity<>(new ApiResult<>(exception.getLocalizedMessage(), null), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @GetMapping("/top-recipe")
     public ResponseEntity<ApiResult<List<RecipeSummaryForCardsWithScore>>> getTop10RecipeBasedOnUserInteraction() {
 
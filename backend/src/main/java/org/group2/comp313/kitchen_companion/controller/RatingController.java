@@ -3,17 +3,20 @@ package org.group2.comp313.kitchen_companion.controller;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.apache.camel.ProducerTemplate;
 import org.group2.comp313.kitchen_companion.dto.ApiResult;
 import org.group2.comp313.kitchen_companion.dto.UserInteractionDto;
 import org.group2.comp313.kitchen_companion.dto.rating.PostRatingDto;
 import org.group2.comp313.kitchen_companion.dto.rating.RecipeRatingDto;
 import org.group2.comp313.kitchen_companion.service.RatingsService;
+import org.group2.comp313.kitchen_companion.service.UserInteractionEventsService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/rating")
 @SecurityRequirement(name = "Keycloak")
@@ -21,11 +24,11 @@ import org.springframework.web.bind.annotation.*;
 public class RatingController extends BaseController {
 
     private final RatingsService ratingsService;
-    private final ProducerTemplate producerTemplate;
+    private final UserInteractionEventsService userInteractionEventsService;
 
-    public RatingController(RatingsService ratingsService, ProducerTemplate producerTemplate) {
+    public RatingController(RatingsService ratingsService, UserInteractionEventsService userInteractionEventsService) {
         this.ratingsService = ratingsService;
-        this.producerTemplate = producerTemplate;
+        this.userInteractionEventsService = userInteractionEventsService;
     }
 
     @PutMapping("/{recipeId}")
@@ -36,7 +39,7 @@ public class RatingController extends BaseController {
 
         if(sessionId != null) {
             UserInteractionDto userInteractionDto = new UserInteractionDto(sessionId, recipeId, "rating");
-            this.producerTemplate.asyncSendBody("direct:userInteractionEvents", userInteractionDto);
+            this.userInteractionEventsService.queueUserInteractionEvent(userInteractionDto);
         }
 
         try {
@@ -64,6 +67,19 @@ public class RatingController extends BaseController {
         }
     }
 
+    @GetMapping("/my-rating/recipes")
+    public ResponseEntity<ApiResult<Map<Integer, RecipeRatingDto>>> getRatingsForUser(@RequestParam List<Integer> ids,
+                                                                                      @AuthenticationPrincipal(expression = "claims['email']") String userEmail) {
+        try {
+            return new ResponseEntity<>(new ApiResult<>(null, this.ratingsService.getRecipeRatingsForUser(ids, userEmail)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            this.log.error(e.getMessage());
+            return new ResponseEntity<>(new ApiResult<>("Failed to retrieve user ratings for these recipes. ", null), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/my-rating/recipe/{recipeId}")
     public ResponseEntity<ApiResult<RecipeRatingDto>> getRatingForUser(@PathVariable(name = "recipeId") Integer recipeId,
                                                                        @AuthenticationPrincipal(expression = "claims['email']") String userEmail) {
@@ -4,12 +4,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
-import org.apache.camel.ProducerTemplate;
 import org.group2.comp313.kitchen_companion.domain.Recipe;
 import org.group2.comp313.kitchen_companion.dto.UserInteractionDto;
 import org.group2.comp313.kitchen_companion.dto.ai.AIRecipeRecommendationResult;
 import org.group2.comp313.kitchen_companion.dto.ai.AIRecipeRecommendationRequest;
 import org.group2.comp313.kitchen_companion.dto.ApiResult;
+import org.group2.comp313.kitchen_companion.dto.CursorPage;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeComponentUpdateDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCards;
@@ -19,7 +19,9 @@ import org.group2.comp313.kitchen_companion.service.IngredientGroupService;
 import org.group2.comp313.kitchen_companion.service.RecipeService;
 
 import org.group2.comp313.kitchen_companion.service.StepGroupService;
+import org.group2.comp313.kitchen_companion.service.UserInteractionEventsService;
 import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
+import org.group2.comp313.kitchen_companion.utility.InvalidCursorException;
 import org.group2.comp313.kitchen_companion.utility.ValidationGroups;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -40,14 +42,14 @@ public class RecipeController extends BaseController {
     private final AWSS3Service awss3Service;
     private final IngredientGroupService ingredientGroupService;
     private final StepGroupService stepGroupService;
-    private final ProducerTemplate camelTemplate;
+    private final UserInteractionEventsService userInteractionEventsService;
 
-    public RecipeController(RecipeService recipeService, AWSS3Service awss3Service, IngredientGroupService ingredientGroupService, StepGroupService stepGroupService, ProducerTemplate camelTemplate) {
+    public RecipeController(RecipeService recipeService, AWSS3Service awss3Service, IngredientGroupService ingredientGroupService, StepGroupService stepGroupService, UserInteractionEventsService userInteractionEventsService) {
         this.recipeService = recipeService;
         this.awss3Service = awss3Service;
         this.ingredientGroupService = ingredientGroupService;
         this.stepGroupService = stepGroupService;
-        this.camelTemplate = camelTemplate;
+        this.userInteractionEventsService = userInteractionEventsService;
     }
 
     @GetMapping("/my-recipe")
@@ -66,6 +68,23 @@ public class RecipeController extends BaseController {
 
     }
 
+    @GetMapping("/my-recipe/cursor")
+    public ResponseEntity<ApiResult<CursorPage<RecipeSummaryForCards>>> getAllUserRecipesByCursor(@RequestParam(required = false) String cursor,
+                                                                                                @RequestParam(defaultValue = "10") Integer size,
+                                                                                                @AuthenticationPrincipal(expression = "claims['email']") String userEmail) {
+
+        log.info("Request to retrieve my recipe by cursor for {}", userEmail);
+
+        try {
+            return ResponseEntity.ok(new ApiResult<>("", this.recipeService.getRecipesByCreatedByCursor(userEmail, cursor, size)));
+        } catch (InvalidCursorException e) {
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error(e.getLocalizedMessage());
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @PostMapping
     public ResponseEntity<ApiResult<Recipe>> createRecipe(@NotNull @RequestBody @Validated(ValidationGroups.Create.class) RecipeDto createRecipeDto,
                                                           @AuthenticationPrincipal(expression = "claims['email']") String createdByEmail) {
@@ -167,7 +186,7 @@ public class RecipeController extends BaseController {
 
         if(sessionId != null) {
             UserInteractionDto userInteractionDto = new UserInteractionDto(sessionId, saveRecipeDto.recipeId(), "saved");
-            this.camelTemplate.asyncSendBody("direct:userInteractionEvents", userInteractionDto);
+            this.userInteractionEventsService.queueUserInteractionEvent(userInteractionDto);
         }
 
         try {
@@ -198,6 +217,20 @@ public class RecipeController extends BaseController {
         }
     }
 
+    @GetMapping("/saved/cursor")
+    public ResponseEntity<ApiResult<CursorPage<RecipeSummaryForCards>>> getSavedRecipesByCursor(@RequestParam(required = false) String cursor,
+                                                                                              @RequestParam(defaultValue = "10") Integer size,
+                                                                                              @AuthenticationPrincipal(expression = "claims['email']") String email) {
+        try {
+            return ResponseEntity.ok(new ApiResult<>(null, this.recipeService.getSavedRecipeForUserByCursor(cursor, size, email)));
+        } catch (InvalidCursorException e) {
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error(e.getLocalizedMessage());
+            return new ResponseEntity<>(new ApiResult<>(e.getLocalizedMessage(), null), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     private ResponseEntity<ApiResult<Boolean>> updateRecipeComponent(Integer recipeId,
                                                                      Integer groupId,
                                                                      RecipeComponentUpdateDto recipeComponentUpdateDto,
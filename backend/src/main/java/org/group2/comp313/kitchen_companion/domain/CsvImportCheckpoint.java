@@ -0,0 +1,49 @@
+package org.group2.comp313.kitchen_companion.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "csv_import_checkpoint")
+public class CsvImportCheckpoint {
+    @Id
+    @Size(max = 255)
+    @Column(name = "import_name", nullable = false)
+    private String importName;
+
+    @NotNull
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @NotNull
+    @Column(name = "file_last_modified", nullable = false)
+    private Long fileLastModified;
+
+    @NotNull
+    @Column(name = "rows_processed", nullable = false)
+    private Long rowsProcessed = 0L;
+
+    @NotNull
+    @Column(name = "recipes_created", nullable = false)
+    private Long recipesCreated = 0L;
+
+    @NotNull
+    @Column(name = "rows_skipped", nullable = false)
+    private Long rowsSkipped = 0L;
+
+    @NotNull
+    @Column(name = "completed", nullable = false)
+    private Boolean completed = false;
+
+    @NotNull
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+}
@@ -33,4 +33,28 @@ public class RatingCalculated {
     @Column(name = "rating_count", nullable = false)
     private Integer ratingCount;
 
+    @NotNull
+    @Column(name = "rating_sum", nullable = false, precision = 12, scale = 2)
+    private BigDecimal ratingSum = BigDecimal.ZERO;
+
+    @NotNull
+    @Column(name = "rating_count_1", nullable = false)
+    private Integer ratingCount1 = 0;
+
+    @NotNull
+    @Column(name = "rating_count_2", nullable = false)
+    private Integer ratingCount2 = 0;
+
+    @NotNull
+    @Column(name = "rating_count_3", nullable = false)
+    private Integer ratingCount3 = 0;
+
+    @NotNull
+    @Column(name = "rating_count_4", nullable = false)
+    private Integer ratingCount4 = 0;
+
+    @NotNull
+    @Column(name = "rating_count_5", nullable = false)
+    private Integer ratingCount5 = 0;
+
 }
\ No newline at end of file
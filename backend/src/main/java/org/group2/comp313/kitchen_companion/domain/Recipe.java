@@ -51,6 +51,13 @@ public class Recipe {
     @Fetch(FetchMode.JOIN)
     private CodeValue cookTimeUnitCd;
 
+    /**
+     * Prep time plus cook time in minutes, computed on write by {@code RecipeService} so it can be filtered and
+     * sorted on through an index.
+     */
+    @Column(name = "total_minutes")
+    private Integer totalMinutes;
+
     @NotNull
     @Column(name = "servings", nullable = false)
     private Integer servings;
@@ -0,0 +1,35 @@
+package org.group2.comp313.kitchen_companion.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "recipe_detail_document")
+public class RecipeDetailDocument {
+    @Id
+    @Column(name = "recipe_id", nullable = false)
+    private Integer recipe;
+
+    @NotNull
+    @Column(name = "document_gzip", nullable = false, columnDefinition = "mediumblob")
+    private byte[] documentGzip;
+
+    @NotNull
+    @Column(name = "etag", nullable = false, length = 64)
+    private String etag;
+
+    @NotNull
+    @Column(name = "format_version", nullable = false)
+    private Integer formatVersion;
+
+    @NotNull
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
+
+}
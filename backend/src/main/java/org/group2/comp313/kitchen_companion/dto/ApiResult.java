@@ -1,7 +1,15 @@
 package org.group2.comp313.kitchen_companion.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
 public record ApiResult<T>(
         String message,
-        T result
+        T result,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) Map<String, Object> metadata
 ) {
+    public ApiResult(String message, T result) {
+        this(message, result, null);
+    }
 }
@@ -0,0 +1,18 @@
+package org.group2.comp313.kitchen_companion.dto;
+
+import java.util.List;
+
+/**
+ * A slice of a cursor based listing. Unlike {@code Page} it carries no total count, which is what
+ * allows the listing to skip the count query.
+ *
+ * @param content the rows of this slice
+ * @param nextCursor the token to send back to read the next slice; null when there is none
+ * @param hasNext true if more rows are available after this slice
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext
+) {
+}
@@ -0,0 +1,14 @@
+package org.group2.comp313.kitchen_companion.dto.rating;
+
+import java.math.BigDecimal;
+
+public record RatingDriftRow(
+        Integer recipeId,
+        BigDecimal storedSum,
+        long storedCount,
+        RatingHistogram storedHistogram,
+        BigDecimal actualSum,
+        long actualCount,
+        RatingHistogram actualHistogram
+) {
+}
@@ -0,0 +1,63 @@
+package org.group2.comp313.kitchen_companion.dto.rating;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Number of the ratings of a recipe by star, or a change to them. A rating counts for its value rounded half up,
+ * a rating of 0 counting as one star.
+ */
+public record RatingHistogram(
+        long oneStar,
+        long twoStars,
+        long threeStars,
+        long fourStars,
+        long fiveStars
+) {
+
+    public static final RatingHistogram EMPTY = new RatingHistogram(0, 0, 0, 0, 0);
+
+    /**
+     * @param counts the number of ratings of 1 to 5 stars
+     */
+    public static RatingHistogram of(long[] counts) {
+        return new RatingHistogram(counts[0], counts[1], counts[2], counts[3], counts[4]);
+    }
+
+    /**
+     * @param ratingValue the value of a rating, between 0 and 5
+     * @return the number of stars the rating counts for, between 1 and 5
+     */
+    public static int stars(BigDecimal ratingValue) {
+        return Math.min(5, Math.max(1, ratingValue.setScale(0, RoundingMode.HALF_UP).intValue()));
+    }
+
+    /**
+     * @return the histogram of a single rating
+     */
+    public static RatingHistogram ofRating(BigDecimal ratingValue) {
+        long[] counts = new long[5];
+        counts[stars(ratingValue) - 1] = 1;
+        return of(counts);
+    }
+
+    /**
+     * @return the number of ratings of 1 to 5 stars
+     */
+    public long[] toArray() {
+        return new long[]{this.oneStar, this.twoStars, this.threeStars, this.fourStars, this.fiveStars};
+    }
+
+    public RatingHistogram plus(RatingHistogram other) {
+        return new RatingHistogram(this.oneStar + other.oneStar, this.twoStars + other.twoStars,
+                this.threeStars + other.threeStars, this.fourStars + other.fourStars, this.fiveStars + other.fiveStars);
+    }
+
+    public RatingHistogram negate() {
+        return new RatingHistogram(-this.oneStar, -this.twoStars, -this.threeStars, -this.fourStars, -this.fiveStars);
+    }
+
+    public boolean isEmpty() {
+        return this.equals(EMPTY);
+    }
+}
@@ -0,0 +1,28 @@
+package org.group2.comp313.kitchen_companion.dto.rating;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Outcome of a reconciliation of the stored rating totals with the {@code rating} table.
+ *
+ * @param startedAt when the reconciliation started
+ * @param durationMs how long it took
+ * @param chunks the number of recipe id ranges recomputed
+ * @param failedChunks the number of ranges that failed and were left as they were
+ * @param recipesCorrected the number of recipes whose stored totals had drifted
+ * @param countDrift the sum over those recipes of the absolute difference of the number of ratings
+ * @param sumDrift the sum over those recipes of the absolute difference of the sum of the ratings
+ * @param histogramDrift the sum over those recipes of the absolute differences of the number of ratings by star
+ */
+public record RatingReconciliationReport(
+        Instant startedAt,
+        long durationMs,
+        int chunks,
+        int failedChunks,
+        long recipesCorrected,
+        long countDrift,
+        BigDecimal sumDrift,
+        long histogramDrift
+) {
+}
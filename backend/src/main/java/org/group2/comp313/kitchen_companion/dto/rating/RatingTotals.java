@@ -0,0 +1,55 @@
+package org.group2.comp313.kitchen_companion.dto.rating;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Sum, number and histogram of the ratings of a recipe, or a change to them.
+ */
+public record RatingTotals(
+        BigDecimal sum,
+        long count,
+        RatingHistogram histogram
+) {
+
+    public static final RatingTotals EMPTY = new RatingTotals(BigDecimal.ZERO, 0, RatingHistogram.EMPTY);
+
+    /**
+     * @return the change of adding a rating of the given value
+     */
+    public static RatingTotals ofRating(BigDecimal ratingValue) {
+        return new RatingTotals(ratingValue, 1, RatingHistogram.ofRating(ratingValue));
+    }
+
+    public RatingTotals plus(RatingTotals delta) {
+        return new RatingTotals(this.sum.add(delta.sum), this.count + delta.count, this.histogram.plus(delta.histogram));
+    }
+
+    public RatingTotals negate() {
+        return new RatingTotals(this.sum.negate(), -this.count, this.histogram.negate());
+    }
+
+    /**
+     * @return true if this is a change that changes nothing
+     */
+    public boolean isEmpty() {
+        return this.count == 0 && this.sum.signum() == 0 && this.histogram.isEmpty();
+    }
+
+    /**
+     * @return the average rating rounded up to one decimal, as stored in {@code rating_calculated}, between 0 and 5
+     */
+    public BigDecimal average() {
+
+        if (this.count <= 0) {
+            return new BigDecimal("0.00");
+        }
+
+        BigDecimal average = this.sum.multiply(BigDecimal.TEN)
+                .divide(BigDecimal.valueOf(this.count), 0, RoundingMode.CEILING)
+                .divide(BigDecimal.TEN)
+                .setScale(2, RoundingMode.UNNECESSARY);
+
+        return average.max(BigDecimal.ZERO).min(new BigDecimal("5.00"));
+    }
+}
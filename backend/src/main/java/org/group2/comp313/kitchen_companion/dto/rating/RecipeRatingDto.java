@@ -6,6 +6,7 @@ public record RecipeRatingDto(
         BigDecimal ratingValue,
         Long numberOfRatings,
         BigDecimal currentUserRating,
-        Integer ratingIdForUser
+        Integer ratingIdForUser,
+        RatingHistogram ratingHistogram
 ) {
 }
@@ -0,0 +1,23 @@
+package org.group2.comp313.kitchen_companion.dto.recipe;
+
+/**
+ * Optional inclusive nutrition ranges applied to a recipe search. A null bound is not applied.
+ */
+public record NutritionFilter(
+        Float caloriesMin,
+        Float caloriesMax,
+        Float carbsMin,
+        Float carbsMax,
+        Float sugarsMin,
+        Float sugarsMax,
+        Float fatMin,
+        Float fatMax
+) {
+
+    public static final NutritionFilter NONE = new NutritionFilter(null, null, null, null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return caloriesMin == null && caloriesMax == null && carbsMin == null && carbsMax == null
+                && sugarsMin == null && sugarsMax == null && fatMin == null && fatMax == null;
+    }
+}
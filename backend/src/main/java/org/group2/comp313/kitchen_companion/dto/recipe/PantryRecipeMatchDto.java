@@ -0,0 +1,9 @@
+package org.group2.comp313.kitchen_companion.dto.recipe;
+
+public record PantryRecipeMatchDto(
+        RecipeSummaryCardWithCategory recipe,
+        Integer matchedIngredientCount,
+        Integer ingredientCount,
+        Double coverage
+) {
+}
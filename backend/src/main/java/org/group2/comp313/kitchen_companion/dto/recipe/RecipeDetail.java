@@ -0,0 +1,185 @@
+package org.group2.comp313.kitchen_companion.dto.recipe;
+
+import org.group2.comp313.kitchen_companion.domain.CodeValue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Full recipe detail returned by the public recipe endpoint, with the same fields as the {@code Recipe} entity.
+ * Assembled from flat per-table queries instead of hydrating the joined entity graph; groups, ingredients and
+ * steps are ordered by their order column.
+ *
+ * The detail and everything it holds are immutable and detached from the persistence context, so one instance can
+ * be cached and shared by every reader.
+ */
+public record RecipeDetail(
+        Integer id,
+        String title,
+        String summary,
+        Integer prepTime,
+        CodeValueDetail prepTimeUnitCd,
+        Integer cookTime,
+        CodeValueDetail cookTimeUnitCd,
+        Integer servings,
+        String yield,
+        String imageUrl,
+        String thumbnailUrl,
+        BigDecimal calories,
+        BigDecimal carbsG,
+        BigDecimal sugarsG,
+        BigDecimal fatG,
+        Integer totalMinutes,
+        String createdBy,
+        Instant createdAt,
+        Instant updatedAt,
+        String updatedBy,
+        List<IngredientGroupDetail> ingredientGroups,
+        List<StepGroupDetail> stepGroups,
+        List<CategoryDetail> categories,
+        Boolean isFavorite
+) {
+
+    public RecipeDetail {
+        ingredientGroups = List.copyOf(ingredientGroups);
+        stepGroups = List.copyOf(stepGroups);
+        categories = List.copyOf(categories);
+    }
+
+    /**
+     * Recipe columns only, used by the JPQL constructor expression of the recipe row.
+     */
+    public RecipeDetail(Integer id, String title, String summary, Integer prepTime, CodeValue prepTimeUnitCd,
+                        Integer cookTime, CodeValue cookTimeUnitCd, Integer servings, String yield, String imageUrl,
+                        String thumbnailUrl, BigDecimal calories, BigDecimal carbsG, BigDecimal sugarsG, BigDecimal fatG,
+                        Integer totalMinutes, String createdBy, Instant createdAt, Instant updatedAt, String updatedBy) {
+        this(id, title, summary, prepTime, CodeValueDetail.of(prepTimeUnitCd), cookTime, CodeValueDetail.of(cookTimeUnitCd),
+                servings, yield, imageUrl, thumbnailUrl, calories, carbsG, sugarsG, fatG, totalMinutes, createdBy, createdAt,
+                updatedAt, updatedBy, List.of(), List.of(), List.of(), null);
+    }
+
+    public RecipeDetail withComponents(List<IngredientGroupDetail> ingredientGroups, List<StepGroupDetail> stepGroups, List<CategoryDetail> categories) {
+        return new RecipeDetail(id, title, summary, prepTime, prepTimeUnitCd, cookTime, cookTimeUnitCd, servings, yield, imageUrl,
+                thumbnailUrl, calories, carbsG, sugarsG, fatG, totalMinutes, createdBy, createdAt, updatedAt, updatedBy,
+                ingredientGroups, stepGroups, categories, isFavorite);
+    }
+
+    public RecipeDetail withFavorite(Boolean favorite) {
+        return new RecipeDetail(id, title, summary, prepTime, prepTimeUnitCd, cookTime, cookTimeUnitCd, servings, yield, imageUrl,
+                thumbnailUrl, calories, carbsG, sugarsG, fatG, totalMinutes, createdBy, createdAt, updatedAt, updatedBy,
+                ingredientGroups, stepGroups, categories, favorite);
+    }
+
+    public record CodeValueDetail(
+            Integer id,
+            Integer codeBook,
+            String label,
+            Instant createdAt,
+            String createdBy,
+            Instant updatedAt,
+            String updatedBy
+    ) {
+
+        /**
+         * @return a copy of the code value, or null if there is none
+         */
+        public static CodeValueDetail of(CodeValue codeValue) {
+
+            if (codeValue == null) {
+                return null;
+            }
+
+            return new CodeValueDetail(codeValue.getId(), codeValue.getCodeBook(), codeValue.getLabel(),
+                    codeValue.getCreatedAt(), codeValue.getCreatedBy(), codeValue.getUpdatedAt(), codeValue.getUpdatedBy());
+        }
+    }
+
+    public record CategoryDetail(
+            Integer id,
+            String label,
+            Instant createdAt,
+            String createdBy,
+            Instant updatedAt,
+            String updatedBy
+    ) {
+    }
+
+    public record IngredientGroupDetail(
+            Integer id,
+            Integer recipe,
+            Integer ingredientGroupOrder,
+            String label,
+            String createdBy,
+            Instant createdAt,
+            Instant updatedAt,
+            String updatedBy,
+            List<IngredientDetail> ingredients
+    ) {
+
+        public IngredientGroupDetail {
+            ingredients = List.copyOf(ingredients);
+        }
+
+        public IngredientGroupDetail(Integer id, Integer recipe, Integer ingredientGroupOrder, String label,
+                                     String createdBy, Instant createdAt, Instant updatedAt, String updatedBy) {
+            this(id, recipe, ingredientGroupOrder, label, createdBy, createdAt, updatedAt, updatedBy, List.of());
+        }
+
+        public IngredientGroupDetail withIngredients(List<IngredientDetail> ingredients) {
+            return new IngredientGroupDetail(id, recipe, ingredientGroupOrder, label, createdBy, createdAt, updatedAt, updatedBy, ingredients);
+        }
+    }
+
+    public record IngredientDetail(
+            Integer id,
+            Integer ingredientGroup,
+            Integer ingredientOrder,
+            String imageUrl,
+            String label,
+            String createdBy,
+            Instant createdAt,
+            Instant updatedAt,
+            String updatedBy
+    ) {
+    }
+
+    public record StepGroupDetail(
+            Integer id,
+            Integer stepGroupOrder,
+            Integer recipe,
+            String label,
+            String createdBy,
+            Instant createdAt,
+            Instant updatedAt,
+            String updatedBy,
+            List<StepDetail> steps
+    ) {
+
+        public StepGroupDetail {
+            steps = List.copyOf(steps);
+        }
+
+        public StepGroupDetail(Integer id, Integer stepGroupOrder, Integer recipe, String label,
+                               String createdBy, Instant createdAt, Instant updatedAt, String updatedBy) {
+            this(id, stepGroupOrder, recipe, label, createdBy, createdAt, updatedAt, updatedBy, List.of());
+        }
+
+        public StepGroupDetail withSteps(List<StepDetail> steps) {
+            return new StepGroupDetail(id, stepGroupOrder, recipe, label, createdBy, createdAt, updatedAt, updatedBy, steps);
+        }
+    }
+
+    public record StepDetail(
+            Integer id,
+            Integer stepGroup,
+            Integer stepOrder,
+            String label,
+            String imageUrl,
+            String createdBy,
+            Instant createdAt,
+            Instant updatedAt,
+            String updatedBy
+    ) {
+    }
+}
@@ -0,0 +1,14 @@
+package org.group2.comp313.kitchen_companion.dto.recipe;
+
+import java.time.Instant;
+
+/**
+ * Validators of a materialized recipe detail document, kept in memory to answer conditional requests.
+ */
+public record RecipeDetailDocumentHeader(
+        Integer recipeId,
+        String etag,
+        Integer formatVersion,
+        Instant lastModified
+) {
+}
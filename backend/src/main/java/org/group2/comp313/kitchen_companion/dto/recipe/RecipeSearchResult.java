@@ -0,0 +1,12 @@
+package org.group2.comp313.kitchen_companion.dto.recipe;
+
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+public record RecipeSearchResult(
+        Page<RecipeSummaryCardWithCategory> page,
+        Map<String, Integer> categoryCounts,
+        String didYouMean
+) {
+}
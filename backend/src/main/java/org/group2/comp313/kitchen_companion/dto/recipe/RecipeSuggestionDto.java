@@ -0,0 +1,8 @@
+package org.group2.comp313.kitchen_companion.dto.recipe;
+
+public record RecipeSuggestionDto(
+        String text,
+        String type,
+        Integer recipeId
+) {
+}
@@ -0,0 +1,8 @@
+package org.group2.comp313.kitchen_companion.dto.search;
+
+public record RecipeIndexRow(
+        Integer recipeId,
+        String title,
+        String summary
+) {
+}
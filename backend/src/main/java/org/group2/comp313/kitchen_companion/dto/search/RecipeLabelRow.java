@@ -0,0 +1,7 @@
+package org.group2.comp313.kitchen_companion.dto.search;
+
+public record RecipeLabelRow(
+        Integer recipeId,
+        String label
+) {
+}
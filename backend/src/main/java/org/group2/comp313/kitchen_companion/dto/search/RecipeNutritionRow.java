@@ -0,0 +1,12 @@
+package org.group2.comp313.kitchen_companion.dto.search;
+
+import java.math.BigDecimal;
+
+public record RecipeNutritionRow(
+        Integer recipeId,
+        BigDecimal calories,
+        BigDecimal carbsG,
+        BigDecimal sugarsG,
+        BigDecimal fatG
+) {
+}
@@ -0,0 +1,11 @@
+package org.group2.comp313.kitchen_companion.dto.search;
+
+import java.math.BigDecimal;
+
+public record RecipePopularityRow(
+        Integer recipeId,
+        Long interactionScore,
+        BigDecimal ratingValue,
+        Integer ratingCount
+) {
+}
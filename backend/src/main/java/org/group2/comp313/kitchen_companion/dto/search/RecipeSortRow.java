@@ -0,0 +1,18 @@
+package org.group2.comp313.kitchen_companion.dto.search;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record RecipeSortRow(
+        Integer recipeId,
+        String title,
+        Instant createdAt,
+        BigDecimal ratingValue,
+        Integer ratingCount,
+        BigDecimal calories,
+        BigDecimal carbsG,
+        BigDecimal sugarsG,
+        BigDecimal fatG,
+        Integer totalMinutes
+) {
+}
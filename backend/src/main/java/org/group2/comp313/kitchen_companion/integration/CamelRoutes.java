@@ -1,6 +1,12 @@
 package org.group2.comp313.kitchen_companion.integration;
 
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.processor.aggregate.GroupedBodyAggregationStrategy;
+import org.group2.comp313.kitchen_companion.service.CsvImportService;
+import org.group2.comp313.kitchen_companion.service.RatingAggregatorService;
+import org.group2.comp313.kitchen_companion.service.RatingReconciliationService;
+import org.group2.comp313.kitchen_companion.service.RecipeDetailDocumentService;
+import org.group2.comp313.kitchen_companion.service.RecipeSuggestionService;
 import org.group2.comp313.kitchen_companion.service.UserInteractionEventsService;
 import org.springframework.stereotype.Component;
 
@@ -10,13 +16,45 @@ public class CamelRoutes extends RouteBuilder {
     @Override
     public void configure() throws Exception {
 
-        from("quartz://monthlySchedule?cron=0+0+22+1+*+?")
+        from("scheduler://monthlySchedule?scheduler=spring&scheduler.cron=0+0+22+1+*+?")
                 .log("Monthly Job Schedule to clear user interaction events")
                 .bean(UserInteractionEventsService.class, "clearUserInteractionEventTable");
 
-        from("direct:userInteractionEvents")
-                .log("User Interaction Events: ${body}")
-                .bean(UserInteractionEventsService.class, "createUserInteractionEvent");
+        from("scheduler://suggestionSchedule?scheduler=spring&scheduler.cron=0+0/15+*+*+*+?")
+                .log("Scheduled rebuild of recipe search suggestions")
+                .bean(RecipeSuggestionService.class, "rebuildSuggestions");
+
+        from(UserInteractionEventsService.EVENTS_ROUTE)
+                .aggregate(constant(true), new GroupedBodyAggregationStrategy())
+                .completionSize(UserInteractionEventsService.BATCH_SIZE)
+                .completionTimeout(UserInteractionEventsService.BATCH_TIMEOUT_MS)
+                .forceCompletionOnStop()
+                .bean(UserInteractionEventsService.class, "saveUserInteractionEvents");
+
+        from(UserInteractionEventsService.DEDUPE_ROTATION_SCHEDULE)
+                .bean(UserInteractionEventsService.class, "rotateDedupeFilter");
+
+        from(RecipeDetailDocumentService.REGENERATE_ROUTE)
+                .log("Regenerating recipe detail documents: ${body}")
+                .bean(RecipeDetailDocumentService.class, "regenerateDocuments");
+
+        from(CsvImportService.IMPORT_ROUTE)
+                .log("Importing recipes from CSV: ${body}")
+                .bean(CsvImportService.class, "importCsv");
+
+        from(RatingAggregatorService.FLUSH_SCHEDULE)
+                .bean(RatingAggregatorService.class, "flush");
+
+        from(RatingAggregatorService.FLUSH_ROUTE)
+                .bean(RatingAggregatorService.class, "flush");
+
+        from(RatingReconciliationService.RECONCILE_SCHEDULE)
+                .log("Scheduled reconciliation of recipe ratings")
+                .bean(RatingReconciliationService.class, "reconcile");
+
+        from(RatingReconciliationService.RECONCILE_ROUTE)
+                .log("Requested reconciliation of recipe ratings")
+                .bean(RatingReconciliationService.class, "reconcile");
     }
 
 }
\ No newline at end of file
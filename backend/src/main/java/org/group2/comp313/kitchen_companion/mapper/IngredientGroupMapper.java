@@ -20,5 +20,7 @@ public interface IngredientGroupMapper {
     IngredientGroup partialUpdate(RecipeComponentUpdateDto ingredientGroupDTO, @MappingTarget IngredientGroup ingredientGroup);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "ingredients", ignore = true)
     IngredientGroup partialUpdate(IngredientGroupDto ingredientGroupDTO, @MappingTarget IngredientGroup ingredientGroup);
 }
\ No newline at end of file
@@ -17,6 +17,8 @@ public interface StepGroupMapper {
     StepGroupDto toDto(StepGroup stepGroup);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "steps", ignore = true)
     StepGroup partialUpdate(StepGroupDto stepGroupDTO, @MappingTarget StepGroup stepGroup);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
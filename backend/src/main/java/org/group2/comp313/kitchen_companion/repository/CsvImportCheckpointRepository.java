@@ -0,0 +1,7 @@
+package org.group2.comp313.kitchen_companion.repository;
+
+import org.group2.comp313.kitchen_companion.domain.CsvImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CsvImportCheckpointRepository extends JpaRepository<CsvImportCheckpoint, String> {
+}
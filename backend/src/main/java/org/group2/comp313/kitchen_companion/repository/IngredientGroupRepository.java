@@ -1,11 +1,20 @@
 package org.group2.comp313.kitchen_companion.repository;
 
 import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface IngredientGroupRepository extends JpaRepository<IngredientGroup, Integer>, JpaSpecificationExecutor<IngredientGroup> {
     Optional<IngredientGroup> findByIdAndRecipeAndCreatedBy(Integer id, Integer recipe, String createdBy);
-}
\ No newline at end of file
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail$IngredientGroupDetail(" +
+            "ig.id, ig.recipe, ig.ingredientGroupOrder, ig.label, ig.createdBy, ig.createdAt, ig.updatedAt, ig.updatedBy) " +
+            "FROM IngredientGroup ig WHERE ig.recipe = :recipeId ORDER BY ig.ingredientGroupOrder, ig.id")
+    List<RecipeDetail.IngredientGroupDetail> findIngredientGroupDetailsByRecipeId(@Param("recipeId") Integer recipeId);
+}
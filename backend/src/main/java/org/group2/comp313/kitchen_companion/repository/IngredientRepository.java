@@ -1,11 +1,41 @@
 package org.group2.comp313.kitchen_companion.repository;
 
 import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.group2.comp313.kitchen_companion.dto.search.IngredientIndexRow;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface IngredientRepository extends JpaRepository<Ingredient, Integer>, JpaSpecificationExecutor<Ingredient> {
     Optional<Ingredient> findByIdAndCreatedBy(Integer id, String createdBy);
-}
\ No newline at end of file
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail$IngredientDetail(" +
+            "i.id, i.ingredientGroup, i.ingredientOrder, i.imageUrl, i.label, i.createdBy, i.createdAt, i.updatedAt, i.updatedBy) " +
+            "FROM Ingredient i JOIN IngredientGroup ig ON i.ingredientGroup = ig.id " +
+            "WHERE ig.recipe = :recipeId ORDER BY i.ingredientOrder, i.id")
+    List<RecipeDetail.IngredientDetail> findIngredientDetailsByRecipeId(@Param("recipeId") Integer recipeId);
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow(ig.recipe, i.label) " +
+            "FROM Ingredient i JOIN IngredientGroup ig ON i.ingredientGroup = ig.id")
+    List<RecipeLabelRow> findAllRecipeIngredientLabels();
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow(ig.recipe, i.label) " +
+            "FROM Ingredient i JOIN IngredientGroup ig ON i.ingredientGroup = ig.id " +
+            "WHERE ig.recipe = :recipeId")
+    List<RecipeLabelRow> findRecipeIngredientLabelsByRecipeId(@Param("recipeId") Integer recipeId);
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.IngredientIndexRow(i.id, ig.recipe, i.label) " +
+            "FROM Ingredient i JOIN IngredientGroup ig ON i.ingredientGroup = ig.id")
+    List<IngredientIndexRow> findAllIngredientIndexRows();
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.IngredientIndexRow(i.id, ig.recipe, i.label) " +
+            "FROM Ingredient i JOIN IngredientGroup ig ON i.ingredientGroup = ig.id " +
+            "WHERE i.id = :ingredientId")
+    Optional<IngredientIndexRow> findIngredientIndexRowById(@Param("ingredientId") Integer ingredientId);
+}
@@ -0,0 +1,77 @@
+package org.group2.comp313.kitchen_companion.repository;
+
+import org.group2.comp313.kitchen_companion.dto.rating.RatingTotals;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies changes of the ratings of many recipes to their running sum, count and histogram in {@code rating_calculated}.
+ *
+ * Each change is an INSERT ... ON DUPLICATE KEY UPDATE adding to the sum, count and histogram of the recipe and recomputing
+ * the average from them, creating the row on the first rating. The update clause only refers to the inserted row
+ * through its {@code new} alias (the row alias of MySQL 8.0.19+, which replaces the deprecated {@code VALUES(col)}),
+ * so the batch is sent as a single multi-row statement (with {@code rewriteBatchedStatements=true} on the MySQL
+ * connection) whatever the number of recipes.
+ */
+@Repository
+public class RatingCalculatedBatchRepository {
+
+    private static final String ADD_TO_RATING =
+            "INSERT INTO rating_calculated (recipe_id, rating_sum, rating_count, rating_value, " +
+                    "rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) AS new " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "rating_sum = rating_sum + new.rating_sum, " +
+                    "rating_count = rating_count + new.rating_count, " +
+                    "rating_value = LEAST(5, GREATEST(0, COALESCE(CEILING(rating_sum * 10 / NULLIF(rating_count, 0)) / 10, 0))), " +
+                    "rating_count_1 = rating_count_1 + new.rating_count_1, " +
+                    "rating_count_2 = rating_count_2 + new.rating_count_2, " +
+                    "rating_count_3 = rating_count_3 + new.rating_count_3, " +
+                    "rating_count_4 = rating_count_4 + new.rating_count_4, " +
+                    "rating_count_5 = rating_count_5 + new.rating_count_5";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RatingCalculatedBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param deltas the change of the sum and count of the ratings, by recipe id
+     */
+    public void addToRatings(Map<Integer, RatingTotals> deltas) {
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Integer, RatingTotals>> rows = new ArrayList<>(deltas.entrySet());
+
+        this.jdbcTemplate.batchUpdate(ADD_TO_RATING, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RatingTotals delta = rows.get(i).getValue();
+                ps.setInt(1, rows.get(i).getKey());
+                ps.setBigDecimal(2, delta.sum());
+                ps.setLong(3, delta.count());
+                ps.setBigDecimal(4, delta.average());
+                long[] stars = delta.histogram().toArray();
+                for (int star = 0; star < stars.length; star++) {
+                    ps.setLong(5 + star, stars[star]);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
@@ -4,8 +4,12 @@ import jakarta.validation.constraints.NotNull;
 import org.group2.comp313.kitchen_companion.domain.RatingCalculated;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RatingCalculatedRepository extends JpaRepository<RatingCalculated, Integer> {
     Optional<RatingCalculated> findByRecipe(@NotNull Integer recipe);
-}
\ No newline at end of file
+
+    List<RatingCalculated> findAllByRecipeIn(Collection<Integer> recipes);
+}
@@ -0,0 +1,140 @@
+package org.group2.comp313.kitchen_companion.repository;
+
+import org.group2.comp313.kitchen_companion.dto.rating.RatingDriftRow;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingHistogram;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Set-based recomputation of {@code rating_calculated} from the {@code rating} table, one recipe id range at a time.
+ *
+ * Each range is recomputed with one {@code INSERT ... SELECT ... GROUP BY} over the {@code rating_recipe_id_idx}
+ * index and one UPDATE for the recipes that no longer have any rating, so ranges can be recomputed in parallel
+ * without touching the same rows.
+ */
+@Repository
+public class RatingReconciliationRepository {
+
+    private static final String FIND_RECIPE_ID_RANGE =
+            "SELECT MIN(recipe_id), MAX(recipe_id) FROM (" +
+                    "SELECT recipe_id FROM rating WHERE recipe_id IS NOT NULL " +
+                    "UNION ALL " +
+                    "SELECT recipe_id FROM rating_calculated) ids";
+
+    // Stored totals with a sum, count or histogram bucket that is not zero.
+    private static final String NOT_EMPTY =
+            "(rc.rating_count <> 0 OR rc.rating_sum <> 0 OR rc.rating_count_1 <> 0 OR rc.rating_count_2 <> 0 " +
+                    "OR rc.rating_count_3 <> 0 OR rc.rating_count_4 <> 0 OR rc.rating_count_5 <> 0) ";
+
+    // The number of stars a rating counts for, see RatingHistogram#stars.
+    private static final String STARS = "LEAST(5, GREATEST(1, ROUND(rating_value)))";
+
+    private static final String FIND_DRIFT =
+            "SELECT actual.recipe_id, rc.rating_sum, rc.rating_count, " +
+                    "rc.rating_count_1, rc.rating_count_2, rc.rating_count_3, rc.rating_count_4, rc.rating_count_5, " +
+                    "actual.rating_sum, actual.rating_count, " +
+                    "actual.rating_count_1, actual.rating_count_2, actual.rating_count_3, actual.rating_count_4, actual.rating_count_5 " +
+                    "FROM (SELECT recipe_id, SUM(rating_value) AS rating_sum, COUNT(*) AS rating_count, " +
+                    "             SUM(" + STARS + " = 1) AS rating_count_1, " +
+                    "             SUM(" + STARS + " = 2) AS rating_count_2, " +
+                    "             SUM(" + STARS + " = 3) AS rating_count_3, " +
+                    "             SUM(" + STARS + " = 4) AS rating_count_4, " +
+                    "             SUM(" + STARS + " = 5) AS rating_count_5 " +
+                    "      FROM rating WHERE recipe_id BETWEEN ? AND ? GROUP BY recipe_id) actual " +
+                    "LEFT JOIN rating_calculated rc ON rc.recipe_id = actual.recipe_id " +
+                    "WHERE rc.recipe_id IS NULL OR rc.rating_count <> actual.rating_count OR rc.rating_sum <> actual.rating_sum " +
+                    "OR rc.rating_count_1 <> actual.rating_count_1 OR rc.rating_count_2 <> actual.rating_count_2 " +
+                    "OR rc.rating_count_3 <> actual.rating_count_3 OR rc.rating_count_4 <> actual.rating_count_4 " +
+                    "OR rc.rating_count_5 <> actual.rating_count_5 " +
+                    "UNION ALL " +
+                    "SELECT rc.recipe_id, rc.rating_sum, rc.rating_count, " +
+                    "rc.rating_count_1, rc.rating_count_2, rc.rating_count_3, rc.rating_count_4, rc.rating_count_5, " +
+                    "0, 0, 0, 0, 0, 0, 0 " +
+                    "FROM rating_calculated rc " +
+                    "WHERE rc.recipe_id BETWEEN ? AND ? AND " + NOT_EMPTY +
+                    "AND NOT EXISTS (SELECT 1 FROM rating r WHERE r.recipe_id = rc.recipe_id)";
+
+    private static final String RECOMPUTE =
+            "INSERT INTO rating_calculated (recipe_id, rating_sum, rating_count, rating_value, " +
+                    "rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5) " +
+                    "SELECT actual.recipe_id, actual.rating_sum, actual.rating_count, actual.rating_value, " +
+                    "actual.rating_count_1, actual.rating_count_2, actual.rating_count_3, actual.rating_count_4, actual.rating_count_5 " +
+                    "FROM (SELECT recipe_id, SUM(rating_value) AS rating_sum, COUNT(*) AS rating_count, " +
+                    "             LEAST(5, CEILING(AVG(rating_value) * 10) / 10) AS rating_value, " +
+                    "             SUM(" + STARS + " = 1) AS rating_count_1, " +
+                    "             SUM(" + STARS + " = 2) AS rating_count_2, " +
+                    "             SUM(" + STARS + " = 3) AS rating_count_3, " +
+                    "             SUM(" + STARS + " = 4) AS rating_count_4, " +
+                    "             SUM(" + STARS + " = 5) AS rating_count_5 " +
+                    "      FROM rating WHERE recipe_id BETWEEN ? AND ? GROUP BY recipe_id) actual " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "rating_sum = actual.rating_sum, " +
+                    "rating_count = actual.rating_count, " +
+                    "rating_value = actual.rating_value, " +
+                    "rating_count_1 = actual.rating_count_1, " +
+                    "rating_count_2 = actual.rating_count_2, " +
+                    "rating_count_3 = actual.rating_count_3, " +
+                    "rating_count_4 = actual.rating_count_4, " +
+                    "rating_count_5 = actual.rating_count_5";
+
+    private static final String RESET_UNRATED =
+            "UPDATE rating_calculated rc SET rc.rating_sum = 0, rc.rating_count = 0, rc.rating_value = 0, " +
+                    "rc.rating_count_1 = 0, rc.rating_count_2 = 0, rc.rating_count_3 = 0, rc.rating_count_4 = 0, rc.rating_count_5 = 0 " +
+                    "WHERE rc.recipe_id BETWEEN ? AND ? AND " + NOT_EMPTY +
+                    "AND NOT EXISTS (SELECT 1 FROM rating r WHERE r.recipe_id = rc.recipe_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RatingReconciliationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the lowest and highest recipe id having ratings or stored totals, or null if there are none
+     */
+    public int[] findRecipeIdRange() {
+        return this.jdbcTemplate.queryForObject(FIND_RECIPE_ID_RANGE, (rs, rowNum) -> {
+            int min = rs.getInt(1);
+            return rs.wasNull() ? null : new int[]{min, rs.getInt(2)};
+        });
+    }
+
+    /**
+     * @return the recipes of the range whose stored sum, count or histogram differ from their ratings
+     */
+    public List<RatingDriftRow> findDrift(int fromRecipeId, int toRecipeId) {
+        return this.jdbcTemplate.query(FIND_DRIFT, (rs, rowNum) -> new RatingDriftRow(
+                rs.getInt(1),
+                rs.getBigDecimal(2) == null ? BigDecimal.ZERO : rs.getBigDecimal(2),
+                rs.getLong(3),
+                histogram(rs, 4),
+                rs.getBigDecimal(9),
+                rs.getLong(10),
+                histogram(rs, 11)
+        ), fromRecipeId, toRecipeId, fromRecipeId, toRecipeId);
+    }
+
+    /**
+     * Overwrites the stored totals of the recipes of the range with the ones computed from their ratings.
+     */
+    public void recompute(int fromRecipeId, int toRecipeId) {
+        this.jdbcTemplate.update(RECOMPUTE, fromRecipeId, toRecipeId);
+        this.jdbcTemplate.update(RESET_UNRATED, fromRecipeId, toRecipeId);
+    }
+
+    /**
+     * @return the histogram in the five columns starting at the given one, zero where null
+     */
+    private static RatingHistogram histogram(ResultSet rs, int firstColumn) throws SQLException {
+        long[] counts = new long[5];
+        for (int star = 0; star < counts.length; star++) {
+            counts[star] = rs.getLong(firstColumn + star);
+        }
+        return RatingHistogram.of(counts);
+    }
+}
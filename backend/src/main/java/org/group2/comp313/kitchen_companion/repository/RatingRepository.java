@@ -1,21 +1,32 @@
 package org.group2.comp313.kitchen_companion.repository;
 
+import jakarta.persistence.LockModeType;
 import org.group2.comp313.kitchen_companion.domain.Rating;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.Lock;
 
-import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RatingRepository extends JpaRepository<Rating, Integer> {
 
-    Optional<Rating> findOneByRecipeAndCreatedBy(Integer recipe, String createdBy);
+    /**
+     * Same as {@link #findByRecipeAndCreatedBy(Integer, String)}, locking the rating until the end of the
+     * transaction so the old value used to update the running sum cannot change meanwhile.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Rating> findForUpdateByRecipeAndCreatedBy(Integer recipe, String createdBy);
 
-    @Query("SELECT AVG(r.ratingValue) FROM Rating r WHERE r.recipe = ?1")
-    BigDecimal getAverageRatingByRecipe(Integer recipe);
-
-    long countByRecipe(Integer recipe);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Rating> findForUpdateByIdAndCreatedBy(Integer id, String createdBy);
 
     Optional<Rating> findByRecipeAndCreatedBy(Integer recipe, String createdBy);
     Optional<Rating> findByIdAndCreatedBy(Integer id, String createdBy);
-}
\ No newline at end of file
+
+    /**
+     * Finds the ratings of a user for several recipes with one range scan of the unique
+     * {@code (created_by, recipe_id)} index.
+     */
+    List<Rating> findAllByCreatedByAndRecipeIn(String createdBy, Collection<Integer> recipes);
+}
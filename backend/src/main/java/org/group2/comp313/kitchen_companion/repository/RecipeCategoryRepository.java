@@ -2,8 +2,25 @@ package org.group2.comp313.kitchen_companion.repository;
 
 import org.group2.comp313.kitchen_companion.domain.RecipeCategory;
 import org.group2.comp313.kitchen_companion.domain.RecipeCategoryId;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface RecipeCategoryRepository extends JpaRepository<RecipeCategory, RecipeCategoryId>, JpaSpecificationExecutor<RecipeCategory> {
-}
\ No newline at end of file
+
+    @Query("SELECT rc.id FROM RecipeCategory rc")
+    List<RecipeCategoryId> findAllIds();
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow(rc.id.recipeId, c.label) " +
+            "FROM RecipeCategory rc JOIN Category c ON rc.id.categoryId = c.id")
+    List<RecipeLabelRow> findAllRecipeCategoryLabels();
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow(rc.id.recipeId, c.label) " +
+            "FROM RecipeCategory rc JOIN Category c ON rc.id.categoryId = c.id " +
+            "WHERE rc.id.recipeId = :recipeId")
+    List<RecipeLabelRow> findRecipeCategoryLabelsByRecipeId(@Param("recipeId") Integer recipeId);
+}
@@ -0,0 +1,228 @@
+package org.group2.comp313.kitchen_companion.repository;
+
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.domain.RecipeCategory;
+import org.group2.comp313.kitchen_companion.domain.RecipeCategoryId;
+import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Inserts new recipes and their components with one JDBC batch per table.
+ *
+ * The component entities use {@code GenerationType.IDENTITY}, which makes Hibernate insert them one statement at a
+ * time to read back each generated id. The batches below are sent as multi-row INSERTs (with
+ * {@code rewriteBatchedStatements=true} on the MySQL connection) and the generated ids of a batch are read back
+ * together and set on the entities, so a new recipe costs one INSERT per table whatever its number of groups,
+ * ingredients, steps and categories, and so does a whole chunk of imported recipes.
+ *
+ * The statements run on the connection of the current transaction, but bypass the persistence context: the
+ * inserted entities are not managed.
+ */
+@Repository
+public class RecipeComponentBatchRepository {
+
+    private static final String INSERT_RECIPE =
+            "INSERT INTO recipe (title, summary, prep_time, prep_time_unit_cd, cook_time, cook_time_unit_cd, total_minutes, servings, " +
+                    "yield, image_url, thumbnail_url, calories, carbs_g, sugars_g, fat_g, created_by, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_RECIPE_CATEGORY =
+            "INSERT INTO recipe_category (category_id, recipe_id, created_at, created_by) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_INGREDIENT_GROUP =
+            "INSERT INTO ingredient_group (recipe_id, ingredient_group_order, label, created_by, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_INGREDIENT =
+            "INSERT INTO ingredient (ingredient_group_id, ingredient_order, image_url, label, created_by, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STEP_GROUP =
+            "INSERT INTO step_group (step_group_order, recipe_id, label, created_by, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STEP =
+            "INSERT INTO step (step_group_id, step_order, label, image_url, created_by, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecipeComponentBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given recipes, without their components, and sets their generated ids. Used by the bulk import.
+     */
+    public void insertRecipes(List<Recipe> recipes) {
+        this.insertAll(INSERT_RECIPE, recipes, (ps, recipe) -> {
+            ps.setString(1, recipe.getTitle());
+            ps.setString(2, recipe.getSummary());
+            ps.setInt(3, recipe.getPrepTime());
+            ps.setObject(4, recipe.getPrepTimeUnitCd() == null ? null : recipe.getPrepTimeUnitCd().getId(), Types.INTEGER);
+            ps.setInt(5, recipe.getCookTime());
+            ps.setObject(6, recipe.getCookTimeUnitCd() == null ? null : recipe.getCookTimeUnitCd().getId(), Types.INTEGER);
+            ps.setObject(7, recipe.getTotalMinutes(), Types.INTEGER);
+            ps.setInt(8, recipe.getServings());
+            ps.setString(9, recipe.getYield());
+            ps.setString(10, recipe.getImageUrl());
+            ps.setString(11, recipe.getThumbnailUrl());
+            ps.setBigDecimal(12, recipe.getCalories());
+            ps.setBigDecimal(13, recipe.getCarbsG());
+            ps.setBigDecimal(14, recipe.getSugarsG());
+            ps.setBigDecimal(15, recipe.getFatG());
+            ps.setString(16, recipe.getCreatedBy());
+            ps.setTimestamp(17, Timestamp.from(recipe.getCreatedAt()));
+        }, Recipe::setId);
+    }
+
+    /**
+     * @param recipeId the recipe id
+     * @param categoryIds the ids of the categories to link to the recipe
+     * @param createdBy the user creating the links
+     * @param createdAt the creation time of the links
+     */
+    public void insertRecipeCategories(Integer recipeId, List<Integer> categoryIds, String createdBy, Instant createdAt) {
+        this.insertRecipeCategories(categoryIds.stream().map(categoryId -> {
+            RecipeCategoryId id = new RecipeCategoryId();
+            id.setCategoryId(categoryId);
+            id.setRecipeId(recipeId);
+
+            RecipeCategory recipeCategory = new RecipeCategory();
+            recipeCategory.setId(id);
+            recipeCategory.setCreatedBy(createdBy);
+            recipeCategory.setCreatedAt(createdAt);
+            return recipeCategory;
+        }).toList());
+    }
+
+    /**
+     * Inserts the given recipe category links, possibly of several recipes.
+     */
+    public void insertRecipeCategories(List<RecipeCategory> recipeCategories) {
+
+        if (recipeCategories.isEmpty()) {
+            return;
+        }
+
+        this.jdbcTemplate.batchUpdate(INSERT_RECIPE_CATEGORY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RecipeCategory recipeCategory = recipeCategories.get(i);
+                ps.setInt(1, recipeCategory.getId().getCategoryId());
+                ps.setInt(2, recipeCategory.getId().getRecipeId());
+                ps.setTimestamp(3, Timestamp.from(recipeCategory.getCreatedAt()));
+                ps.setString(4, recipeCategory.getCreatedBy());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return recipeCategories.size();
+            }
+        });
+    }
+
+    /**
+     * Inserts the given ingredient groups, without their ingredients, and sets their generated ids.
+     */
+    public void insertIngredientGroups(List<IngredientGroup> groups) {
+        this.insertAll(INSERT_INGREDIENT_GROUP, groups, (ps, group) -> {
+            ps.setInt(1, group.getRecipe());
+            ps.setInt(2, group.getIngredientGroupOrder());
+            ps.setString(3, group.getLabel());
+            ps.setString(4, group.getCreatedBy());
+            ps.setTimestamp(5, Timestamp.from(group.getCreatedAt()));
+        }, IngredientGroup::setId);
+    }
+
+    /**
+     * Inserts the given ingredients, whose groups must already exist, and sets their generated ids.
+     */
+    public void insertIngredients(List<Ingredient> ingredients) {
+        this.insertAll(INSERT_INGREDIENT, ingredients, (ps, ingredient) -> {
+            ps.setInt(1, ingredient.getIngredientGroup());
+            ps.setInt(2, ingredient.getIngredientOrder());
+            ps.setString(3, ingredient.getImageUrl());
+            ps.setString(4, ingredient.getLabel());
+            ps.setString(5, ingredient.getCreatedBy());
+            ps.setTimestamp(6, Timestamp.from(ingredient.getCreatedAt()));
+        }, Ingredient::setId);
+    }
+
+    /**
+     * Inserts the given step groups, without their steps, and sets their generated ids.
+     */
+    public void insertStepGroups(List<StepGroup> groups) {
+        this.insertAll(INSERT_STEP_GROUP, groups, (ps, group) -> {
+            ps.setInt(1, group.getStepGroupOrder());
+            ps.setInt(2, group.getRecipe());
+            ps.setString(3, group.getLabel());
+            ps.setString(4, group.getCreatedBy());
+            ps.setTimestamp(5, Timestamp.from(group.getCreatedAt()));
+        }, StepGroup::setId);
+    }
+
+    /**
+     * Inserts the given steps, whose groups must already exist, and sets their generated ids.
+     */
+    public void insertSteps(List<Step> steps) {
+        this.insertAll(INSERT_STEP, steps, (ps, step) -> {
+            ps.setInt(1, step.getStepGroup());
+            ps.setInt(2, step.getStepOrder());
+            ps.setString(3, step.getLabel());
+            ps.setString(4, step.getImageUrl());
+            ps.setString(5, step.getCreatedBy());
+            ps.setTimestamp(6, Timestamp.from(step.getCreatedAt()));
+        }, Step::setId);
+    }
+
+    private <T> void insertAll(String sql, List<T> rows, RowBinder<T> binder, BiConsumer<T, Integer> idSetter) {
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+
+        this.jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        binder.bind(ps, rows.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+
+        if (generated.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated keys but got " + generated.size());
+        }
+
+        for (int i = 0; i < rows.size(); i++) {
+            idSetter.accept(rows.get(i), ((Number) generated.get(i).values().iterator().next()).intValue());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+}
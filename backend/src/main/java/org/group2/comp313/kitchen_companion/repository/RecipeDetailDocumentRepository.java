@@ -0,0 +1,23 @@
+package org.group2.comp313.kitchen_companion.repository;
+
+import org.group2.comp313.kitchen_companion.domain.RecipeDetailDocument;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetailDocumentHeader;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface RecipeDetailDocumentRepository extends JpaRepository<RecipeDetailDocument, Integer> {
+
+    /**
+     * @return the validators of every materialized document, without the documents themselves
+     */
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetailDocumentHeader(" +
+            "d.recipe, d.etag, d.formatVersion, d.lastModified) " +
+            "FROM RecipeDetailDocument d")
+    List<RecipeDetailDocumentHeader> findAllHeaders();
+
+    @Query("SELECT r.id FROM Recipe r " +
+            "WHERE NOT EXISTS (SELECT d.recipe FROM RecipeDetailDocument d WHERE d.recipe = r.id)")
+    List<Integer> findRecipeIdsWithoutDocument();
+}
@@ -2,9 +2,14 @@ package org.group2.comp313.kitchen_companion.repository;
 
 import org.group2.comp313.kitchen_companion.domain.Category;
 import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCards;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCardsWithScore;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeIndexRow;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeNutritionRow;
+import org.group2.comp313.kitchen_companion.dto.search.RecipePopularityRow;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeSortRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -13,6 +18,7 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -21,23 +27,48 @@ public interface RecipeRepository extends PagingAndSortingRepository<Recipe, Int
 
     Page<RecipeSummaryForCards> findAllByCreatedByOrderByIdDesc(String createdBy, Pageable pageable);
 
+    List<RecipeSummaryForCards> findAllByCreatedByAndIdLessThanOrderByIdDesc(String createdBy, Integer id, Pageable pageable);
+
     Optional<Recipe> findByIdAndCreatedBy(Integer id, String createdBy);
 
+    /**
+     * Loads the columns of a recipe and its time units as a single row, without touching its collections.
+     *
+     * @param recipeId the recipe id
+     * @return the recipe detail without ingredient groups, step groups and categories
+     */
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail(" +
+            "r.id, r.title, r.summary, r.prepTime, pu, r.cookTime, cu, r.servings, r.yield, r.imageUrl, r.thumbnailUrl, " +
+            "r.calories, r.carbsG, r.sugarsG, r.fatG, r.totalMinutes, r.createdBy, r.createdAt, r.updatedAt, r.updatedBy) " +
+            "FROM Recipe r LEFT JOIN r.prepTimeUnitCd pu LEFT JOIN r.cookTimeUnitCd cu " +
+            "WHERE r.id = :recipeId")
+    Optional<RecipeDetail> findRecipeDetailById(@Param("recipeId") Integer recipeId);
+
     @Query("SELECT c FROM Recipe r JOIN r.categories c WHERE r.id = :recipeId")
     Set<Category> findCategoriesByRecipeId(@Param("recipeId") Integer recipeId);
 
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail$CategoryDetail(" +
+            "c.id, c.label, c.createdAt, c.createdBy, c.updatedAt, c.updatedBy) " +
+            "FROM Recipe r JOIN r.categories c WHERE r.id = :recipeId ORDER BY c.id")
+    List<RecipeDetail.CategoryDetail> findCategoryDetailsByRecipeId(@Param("recipeId") Integer recipeId);
+
     /**
      * Finds a paginated list of recipe summary cards, including their categories,
      * based on the provided search keyword. The results are sorted according to the {@link Pageable} parameter.
      * If the keyword is null or empty, all recipes are retrieved.
+     * The cards do not depend on the current user: isFavorite is always 0 and is set afterwards by the services.
+     *
+     * Besides the card columns, {@code totalMinutes} can be used as a sort property.
      *
      * @param keyword the search keyword to match against the recipe titles and summaries;
      *                if null or empty, all recipes are included.
+     * @param category the category label to filter on; if null or empty, all categories are included.
+     * @param maxTotalMinutes the maximum total time in minutes; if null, no time filter is applied.
      * @param pageable the pagination and sorting information.
      * @return a paginated list of {@link RecipeSummaryCardWithCategory} that matches the search criteria.
      */
     @Query(
-            value = "SELECT * FROM ( " +
+            value = "SELECT x.id, x.title, x.description, x.thumbnailUrl, x.ratingCount, x.rating, x.category, x.isFavorite FROM ( " +
                     "  SELECT r.recipe_id AS id, " +
                     "         r.title, " +
                     "         r.summary AS description, " +
@@ -45,16 +76,17 @@ public interface RecipeRepository extends PagingAndSortingRepository<Recipe, Int
                     "         CAST(IFNULL(r_calc.rating_count, 0) AS UNSIGNED) AS ratingCount, " +
                     "         CAST(IFNULL(r_calc.rating_value, 0.0) AS DECIMAL(4,2)) AS rating, " +
                     "         GROUP_CONCAT(DISTINCT c.label SEPARATOR ', ') AS category, " +
-                    "         IF(sr.saved_recipe_id IS NOT NULL, 1, 0) AS isFavorite " +
+                    "         0 AS isFavorite, " +
+                    "         r.total_minutes AS totalMinutes " +
                     "  FROM recipe r " +
                     "       LEFT JOIN recipe_category rc ON r.recipe_id = rc.recipe_id " +
                     "       LEFT JOIN category c ON rc.category_id = c.category_id " +
                     "       LEFT JOIN rating_calculated r_calc ON r.recipe_id = r_calc.recipe_id " +
-                    "       LEFT JOIN saved_recipe sr ON r.recipe_id = sr.recipe_id AND sr.created_by = :username " +
                     "  WHERE (:keyword IS NULL OR :keyword = '' " +
                     "         OR MATCH(r.title, r.summary) AGAINST(:keyword IN NATURAL LANGUAGE MODE)) " +
                     "        AND (:category IS NULL OR :category = '' OR c.label = :category) " +
-                    "  GROUP BY r.recipe_id, r.title, r.summary, r.thumbnail_url, " +
+                    "        AND (:maxTotalMinutes IS NULL OR r.total_minutes <= :maxTotalMinutes) " +
+                    "  GROUP BY r.recipe_id, r.title, r.summary, r.thumbnail_url, r.total_minutes, " +
                     "           r_calc.rating_count, r_calc.rating_value " +
                     ") AS x",
             countQuery = "SELECT COUNT(*) FROM ( " +
@@ -65,21 +97,183 @@ public interface RecipeRepository extends PagingAndSortingRepository<Recipe, Int
                     "  WHERE (:keyword IS NULL OR :keyword = '' " +
                     "         OR MATCH(r.title, r.summary) AGAINST(:keyword IN NATURAL LANGUAGE MODE)) " +
                     "        AND (:category IS NULL OR :category = '' OR c.label = :category) " +
+                    "        AND (:maxTotalMinutes IS NULL OR r.total_minutes <= :maxTotalMinutes) " +
                     "  GROUP BY r.recipe_id " +
                     ") AS countTable",
             nativeQuery = true)
     Page<RecipeSummaryCardWithCategory> findRecipeSummaryCardsByKeywordAndSort(
             @Param("keyword") String keyword,
-            @Param("username") String username,
             @Param("category") String category,
+            @Param("maxTotalMinutes") Integer maxTotalMinutes,
             Pageable pageable);
 
 
+    /**
+     * Loads the recipe summary cards for the given recipe ids in a single statement. Used by the in-memory
+     * search index, which resolves and ranks the matching ids itself, so no FULLTEXT predicate is needed.
+     * The order of the result is not defined; callers re-order by their own ranking.
+     *
+     * @param ids the recipe ids to load
+     * @return the summary cards of the recipes that exist
+     */
+    @Query(
+            value = "SELECT r.recipe_id AS id, " +
+                    "       r.title, " +
+                    "       r.summary AS description, " +
+                    "       r.thumbnail_url AS thumbnailUrl, " +
+                    "       CAST(IFNULL(r_calc.rating_count, 0) AS UNSIGNED) AS ratingCount, " +
+                    "       CAST(IFNULL(r_calc.rating_value, 0.0) AS DECIMAL(4,2)) AS rating, " +
+                    "       GROUP_CONCAT(DISTINCT c.label SEPARATOR ', ') AS category, " +
+                    "       0 AS isFavorite " +
+                    "FROM recipe r " +
+                    "     LEFT JOIN recipe_category rc ON r.recipe_id = rc.recipe_id " +
+                    "     LEFT JOIN category c ON rc.category_id = c.category_id " +
+                    "     LEFT JOIN rating_calculated r_calc ON r.recipe_id = r_calc.recipe_id " +
+                    "WHERE r.recipe_id IN (:ids) " +
+                    "GROUP BY r.recipe_id, r.title, r.summary, r.thumbnail_url, " +
+                    "         r_calc.rating_count, r_calc.rating_value",
+            nativeQuery = true)
+    List<RecipeSummaryCardWithCategory> findRecipeSummaryCardsByIds(
+            @Param("ids") Collection<Integer> ids);
+
+    /**
+     * Same as {@link #findRecipeSummaryCardsByIds(Collection)} but paginated and sorted in the database.
+     * Used when the client asks for an explicit sort order on top of a keyword search; {@code totalMinutes}
+     * can be used as a sort property too.
+     *
+     * @param ids the recipe ids matching the search
+     * @param pageable the pagination and sorting information
+     * @return a page of summary cards
+     */
+    @Query(
+            value = "SELECT x.id, x.title, x.description, x.thumbnailUrl, x.ratingCount, x.rating, x.category, x.isFavorite FROM ( " +
+                    "  SELECT r.recipe_id AS id, " +
+                    "         r.title, " +
+                    "         r.summary AS description, " +
+                    "         r.thumbnail_url AS thumbnailUrl, " +
+                    "         CAST(IFNULL(r_calc.rating_count, 0) AS UNSIGNED) AS ratingCount, " +
+                    "         CAST(IFNULL(r_calc.rating_value, 0.0) AS DECIMAL(4,2)) AS rating, " +
+                    "         GROUP_CONCAT(DISTINCT c.label SEPARATOR ', ') AS category, " +
+                    "         0 AS isFavorite, " +
+                    "         r.total_minutes AS totalMinutes " +
+                    "  FROM recipe r " +
+                    "       LEFT JOIN recipe_category rc ON r.recipe_id = rc.recipe_id " +
+                    "       LEFT JOIN category c ON rc.category_id = c.category_id " +
+                    "       LEFT JOIN rating_calculated r_calc ON r.recipe_id = r_calc.recipe_id " +
+                    "  WHERE r.recipe_id IN (:ids) " +
+                    "  GROUP BY r.recipe_id, r.title, r.summary, r.thumbnail_url, r.total_minutes, " +
+                    "           r_calc.rating_count, r_calc.rating_value " +
+                    ") AS x",
+            countQuery = "SELECT COUNT(*) FROM recipe r WHERE r.recipe_id IN (:ids)",
+            nativeQuery = true)
+    Page<RecipeSummaryCardWithCategory> findRecipeSummaryCardsByIdsAndSort(
+            @Param("ids") Collection<Integer> ids,
+            Pageable pageable);
+
+    /**
+     * Resolves the recipes that take at most the given total time through a range scan of the total minutes index.
+     * Recipes without a total time never match.
+     *
+     * @param maxTotalMinutes the maximum total time in minutes
+     * @return the ids of the matching recipes
+     */
+    @Query(value = "SELECT r.recipe_id FROM recipe r WHERE r.total_minutes <= :maxTotalMinutes", nativeQuery = true)
+    List<Integer> findRecipeIdsByMaxTotalMinutes(@Param("maxTotalMinutes") Integer maxTotalMinutes);
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeIndexRow(r.id, r.title, r.summary) FROM Recipe r")
+    List<RecipeIndexRow> findAllRecipeIndexRows();
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeIndexRow(r.id, r.title, r.summary) FROM Recipe r WHERE r.id = :recipeId")
+    Optional<RecipeIndexRow> findRecipeIndexRowById(@Param("recipeId") Integer recipeId);
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeNutritionRow(r.id, r.calories, r.carbsG, r.sugarsG, r.fatG) FROM Recipe r")
+    List<RecipeNutritionRow> findAllRecipeNutritionRows();
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeNutritionRow(r.id, r.calories, r.carbsG, r.sugarsG, r.fatG) FROM Recipe r WHERE r.id = :recipeId")
+    Optional<RecipeNutritionRow> findRecipeNutritionRowById(@Param("recipeId") Integer recipeId);
+
+    /**
+     * Loads every value a recipe search can be sorted on, one row per recipe.
+     *
+     * @return the sort values of every recipe
+     */
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipeSortRow(" +
+            "r.id, r.title, r.createdAt, rc.ratingValue, rc.ratingCount, r.calories, r.carbsG, r.sugarsG, r.fatG, r.totalMinutes) " +
+            "FROM Recipe r " +
+            "LEFT JOIN RatingCalculated rc ON rc.recipe = r.id")
+    List<RecipeSortRow> findAllRecipeSortRows();
+
+    /**
+     * Aggregates the popularity signals of every recipe: the user interaction score, weighted the same way as
+     * {@link #findTop10RecipesByInteractionScore(Pageable)}, and the calculated rating.
+     *
+     * @return one row per recipe
+     */
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.search.RecipePopularityRow(" +
+            "r.id, " +
+            "SUM(CASE WHEN cv.label = 'view' THEN 1 " +
+            "WHEN cv.label = 'saved' THEN 10 " +
+            "WHEN cv.label = 'rating' THEN 5 " +
+            "ELSE 0 END), " +
+            "rc.ratingValue, rc.ratingCount) " +
+            "FROM Recipe r " +
+            "LEFT JOIN UserInteraction ui ON r.id = ui.recipe " +
+            "LEFT JOIN CodeValue cv ON cv.id = ui.userInteractionEventTypeCode " +
+            "LEFT JOIN RatingCalculated rc ON rc.recipe = r.id " +
+            "GROUP BY r.id, rc.ratingValue, rc.ratingCount")
+    List<RecipePopularityRow> findAllRecipePopularityRows();
+
+    /**
+     * Keyset variant of {@link #findRecipeSummaryCardsByKeywordAndSort(String, String, Integer, Pageable)} ordered by recipe id.
+     * Seeks past {@code afterId} through the primary key instead of skipping rows with an OFFSET and never runs a count query.
+     * The {@link Pageable} is only used to limit the number of rows; it must be unsorted and start at page 0.
+     *
+     * @param keyword the search keyword; null or empty for all recipes
+     * @param category the category label to filter on; null or empty for all categories
+     * @param afterId the recipe id of the last row of the previous slice; 0 for the first slice
+     * @param pageable the row limit
+     * @return the next recipe summary cards in ascending recipe id order
+     */
+    @Query(
+            value = "SELECT r.recipe_id AS id, " +
+                    "       r.title, " +
+                    "       r.summary AS description, " +
+                    "       r.thumbnail_url AS thumbnailUrl, " +
+                    "       CAST(IFNULL(r_calc.rating_count, 0) AS UNSIGNED) AS ratingCount, " +
+                    "       CAST(IFNULL(r_calc.rating_value, 0.0) AS DECIMAL(4,2)) AS rating, " +
+                    "       GROUP_CONCAT(DISTINCT c.label SEPARATOR ', ') AS category, " +
+                    "       0 AS isFavorite " +
+                    "FROM recipe r " +
+                    "     LEFT JOIN recipe_category rc ON r.recipe_id = rc.recipe_id " +
+                    "     LEFT JOIN category c ON rc.category_id = c.category_id " +
+                    "     LEFT JOIN rating_calculated r_calc ON r.recipe_id = r_calc.recipe_id " +
+                    "WHERE r.recipe_id > :afterId " +
+                    "      AND (:keyword IS NULL OR :keyword = '' " +
+                    "           OR MATCH(r.title, r.summary) AGAINST(:keyword IN NATURAL LANGUAGE MODE)) " +
+                    "      AND (:category IS NULL OR :category = '' OR EXISTS ( " +
+                    "           SELECT 1 FROM recipe_category frc JOIN category fc ON frc.category_id = fc.category_id " +
+                    "           WHERE frc.recipe_id = r.recipe_id AND fc.label = :category)) " +
+                    "GROUP BY r.recipe_id, r.title, r.summary, r.thumbnail_url, " +
+                    "         r_calc.rating_count, r_calc.rating_value " +
+                    "ORDER BY r.recipe_id",
+            nativeQuery = true)
+    List<RecipeSummaryCardWithCategory> findRecipeSummaryCardsByKeywordAfterId(
+            @Param("keyword") String keyword,
+            @Param("category") String category,
+            @Param("afterId") Integer afterId,
+            Pageable pageable);
+
     @Query(value = "SELECT r.recipe_id as id, r.title, r.summary, r.thumbnail_url, r.calories " +
             "FROM recipe r LEFT JOIN saved_recipe sr ON r.recipe_id = sr.recipe_id " +
             "WHERE sr.created_by = :username", nativeQuery = true)
     Page<RecipeSummaryForCards> findSavedRecipeSummaryCardsByUser(@Param("username") String username, Pageable pageable);
 
+    @Query(value = "SELECT r.recipe_id as id, r.title, r.summary, r.thumbnail_url, r.calories " +
+            "FROM recipe r JOIN saved_recipe sr ON r.recipe_id = sr.recipe_id " +
+            "WHERE sr.created_by = :username AND r.recipe_id > :afterId " +
+            "ORDER BY r.recipe_id", nativeQuery = true)
+    List<RecipeSummaryForCards> findSavedRecipeSummaryCardsByUserAfterId(@Param("username") String username, @Param("afterId") Integer afterId, Pageable pageable);
+
 
     @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCardsWithScore(" +
             "r.id, r.title, r.thumbnailUrl, r.calories, " +
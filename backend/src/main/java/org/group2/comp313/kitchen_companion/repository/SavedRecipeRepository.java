@@ -2,10 +2,16 @@ package org.group2.comp313.kitchen_companion.repository;
 
 import org.group2.comp313.kitchen_companion.domain.SavedRecipe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface SavedRecipeRepository extends JpaRepository<SavedRecipe, Integer> {
 
     Optional<SavedRecipe> findOneByRecipeAndCreatedBy(Integer recipeId, String createdBy);
+
+    @Query("SELECT sr.recipe FROM SavedRecipe sr WHERE sr.createdBy = :createdBy")
+    List<Integer> findSavedRecipeIdsByCreatedBy(@Param("createdBy") String createdBy);
 }
\ No newline at end of file
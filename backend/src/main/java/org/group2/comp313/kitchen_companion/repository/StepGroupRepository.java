@@ -1,11 +1,20 @@
 package org.group2.comp313.kitchen_companion.repository;
 
 import org.group2.comp313.kitchen_companion.domain.StepGroup;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface StepGroupRepository extends JpaRepository<StepGroup, Integer>, JpaSpecificationExecutor<StepGroup> {
     Optional<StepGroup> findByIdAndRecipeAndCreatedBy(Integer id, Integer recipe, String createdBy);
-}
\ No newline at end of file
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail$StepGroupDetail(" +
+            "sg.id, sg.stepGroupOrder, sg.recipe, sg.label, sg.createdBy, sg.createdAt, sg.updatedAt, sg.updatedBy) " +
+            "FROM StepGroup sg WHERE sg.recipe = :recipeId ORDER BY sg.stepGroupOrder, sg.id")
+    List<RecipeDetail.StepGroupDetail> findStepGroupDetailsByRecipeId(@Param("recipeId") Integer recipeId);
+}
@@ -1,11 +1,21 @@
 package org.group2.comp313.kitchen_companion.repository;
 
 import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface StepRepository extends JpaRepository<Step, Integer>, JpaSpecificationExecutor<Step> {
     Optional<Step> findByIdAndCreatedBy(Integer id, String createdBy);
-}
\ No newline at end of file
+
+    @Query("SELECT new org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail$StepDetail(" +
+            "s.id, s.stepGroup, s.stepOrder, s.label, s.imageUrl, s.createdBy, s.createdAt, s.updatedAt, s.updatedBy) " +
+            "FROM Step s JOIN StepGroup sg ON s.stepGroup = sg.id " +
+            "WHERE sg.recipe = :recipeId ORDER BY s.stepOrder, s.id")
+    List<RecipeDetail.StepDetail> findStepDetailsByRecipeId(@Param("recipeId") Integer recipeId);
+}
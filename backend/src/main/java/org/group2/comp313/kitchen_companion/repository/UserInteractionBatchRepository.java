@@ -0,0 +1,55 @@
+package org.group2.comp313.kitchen_companion.repository;
+
+import org.group2.comp313.kitchen_companion.domain.UserInteraction;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Inserts user interaction events in batches.
+ *
+ * The batch is sent as a single multi-row INSERT IGNORE (with {@code rewriteBatchedStatements=true} on the MySQL
+ * connection): events already recorded for the same session, event type and recipe are skipped by the unique
+ * {@code uidx_user_interaction_session_event_recipe} index instead of being looked up first, and so are events of
+ * recipes deleted meanwhile.
+ */
+@Repository
+public class UserInteractionBatchRepository {
+
+    private static final String INSERT_IGNORE_INTERACTION =
+            "INSERT IGNORE INTO user_interaction (created_by, session_id, recipe_id, user_interaction_event_type_code) " +
+                    "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserInteractionBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertIgnoreInteractions(List<UserInteraction> interactions) {
+
+        if (interactions.isEmpty()) {
+            return;
+        }
+
+        this.jdbcTemplate.batchUpdate(INSERT_IGNORE_INTERACTION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                UserInteraction interaction = interactions.get(i);
+                ps.setString(1, interaction.getCreatedBy());
+                ps.setString(2, interaction.getSessionId());
+                ps.setInt(3, interaction.getRecipe());
+                ps.setInt(4, interaction.getUserInteractionEventTypeCode());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return interactions.size();
+            }
+        });
+    }
+}
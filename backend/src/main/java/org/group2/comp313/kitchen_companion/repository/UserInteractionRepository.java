@@ -5,11 +5,8 @@ import jakarta.validation.constraints.Size;
 import org.group2.comp313.kitchen_companion.domain.UserInteraction;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface UserInteractionRepository extends JpaRepository<UserInteraction, Integer> {
     Optional<UserInteraction> findUserInteractionBySessionIdAndUserInteractionEventTypeCode(@Size(max = 255) String sessionId, @NotNull Integer userInteractionEventTypeCode);
-
-    List<UserInteraction> findAllUserInteractionBySessionIdAndUserInteractionEventTypeCodeAndRecipe(@Size(max = 255) String sessionId, @NotNull Integer userInteractionEventTypeCode, @NotNull Integer recipe);
 }
\ No newline at end of file
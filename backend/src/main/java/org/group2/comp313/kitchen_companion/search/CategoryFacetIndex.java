@@ -0,0 +1,129 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps one bitmap of recipe ids per category so that category filters and per-category counts
+ * can be answered in memory. Recipe ids are dense auto increment values, so a {@link BitSet} indexed by
+ * recipe id stays small (about 12 KB per category for 100k recipes) and counting the recipes of a category
+ * inside a result set is a word-by-word AND followed by a population count.
+ */
+public class CategoryFacetIndex {
+
+    private final Map<Integer, BitSet> recipesByCategory = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Tags a recipe with a category.
+     *
+     * @param categoryId the category id
+     * @param recipeId the recipe id
+     */
+    public void add(int categoryId, int recipeId) {
+        lock.writeLock().lock();
+        try {
+            recipesByCategory.computeIfAbsent(categoryId, key -> new BitSet()).set(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a category from a recipe. Unknown pairs are ignored.
+     *
+     * @param categoryId the category id
+     * @param recipeId the recipe id
+     */
+    public void remove(int categoryId, int recipeId) {
+        lock.writeLock().lock();
+        try {
+            BitSet recipes = recipesByCategory.get(categoryId);
+            if (recipes != null) {
+                recipes.clear(recipeId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param categoryId the category id
+     * @param recipeId the recipe id
+     * @return true if the recipe is tagged with the category
+     */
+    public boolean contains(int categoryId, int recipeId) {
+        lock.readLock().lock();
+        try {
+            BitSet recipes = recipesByCategory.get(categoryId);
+            return recipes != null && recipes.get(recipeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param categoryId the category id
+     * @return a copy of the bitmap of the recipes tagged with the category, empty if the category is unknown
+     */
+    public BitSet recipesOf(int categoryId) {
+        lock.readLock().lock();
+        try {
+            BitSet recipes = recipesByCategory.get(categoryId);
+            return recipes == null ? new BitSet() : (BitSet) recipes.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts, for every category, how many recipes of the given result set are tagged with it.
+     * Categories with no recipe in the result set are left out.
+     *
+     * @param resultSet the recipe ids of the current result set; null to count every recipe
+     * @return the number of matching recipes per category id
+     */
+    public Map<Integer, Integer> count(BitSet resultSet) {
+
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        lock.readLock().lock();
+
+        try {
+            for (Map.Entry<Integer, BitSet> entry : recipesByCategory.entrySet()) {
+
+                int count;
+
+                if (resultSet == null) {
+                    count = entry.getValue().cardinality();
+                } else {
+                    BitSet intersection = (BitSet) entry.getValue().clone();
+                    intersection.and(resultSet);
+                    count = intersection.cardinality();
+                }
+
+                if (count > 0) {
+                    counts.put(entry.getKey(), count);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return counts;
+    }
+
+    /**
+     * @param recipeIds recipe ids
+     * @return a bitmap with the bit of every given recipe id set
+     */
+    public static BitSet toBitSet(int[] recipeIds) {
+        BitSet bitSet = new BitSet();
+        for (int recipeId : recipeIds) {
+            bitSet.set(recipeId);
+        }
+        return bitSet;
+    }
+}
@@ -0,0 +1,287 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Spelling correction over a vocabulary of words (recipe title and ingredient words).
+ *
+ * Every word is split into padded character trigrams ("lasagna" gives "$la", "las", ..., "na$") and each trigram
+ * points to the words containing it. A misspelled word is corrected in two bounded steps: the words sharing the
+ * most trigrams with it are collected as candidates, at most {@link #MAX_CANDIDATES} of them, then the candidate
+ * with the smallest edit distance wins, the most frequent word breaking ties. The work per query therefore depends
+ * on the length of the word and the candidate cap, never on the size of the vocabulary.
+ *
+ * The vocabulary is kept per document (recipe): a word's frequency is the number of documents containing it, and a
+ * word is dropped once no document contains it any more, so words of edited or deleted recipes are not suggested.
+ */
+public class FuzzyTermIndex {
+
+    public static final int MAX_CANDIDATES = 50;
+    public static final int MIN_WORD_LENGTH = 3;
+
+    private final List<String> words = new ArrayList<>();
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final Map<String, SortedIntSet> wordsByTrigram = new HashMap<>();
+    private final Map<Integer, int[]> wordIdsByDocument = new HashMap<>();
+    private final Deque<Integer> freeWordIds = new ArrayDeque<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] frequencies = new int[1024];
+
+    /**
+     * Sets the words of a document to the words of the given texts, replacing the words it had before.
+     *
+     * @param documentId the document id
+     * @param texts the texts of the document; null texts are skipped
+     */
+    public void putDocument(int documentId, List<String> texts) {
+
+        Set<String> documentWords = new LinkedHashSet<>();
+
+        for (String text : texts) {
+            for (String word : SearchTokenizer.words(text)) {
+                if (word.length() >= MIN_WORD_LENGTH && word.chars().allMatch(Character::isLetter)) {
+                    documentWords.add(word);
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            // Adding first keeps the words the document still has from being dropped and added again.
+            int[] documentWordIds = documentWords.stream().mapToInt(this::addWord).toArray();
+            removeWords(wordIdsByDocument.put(documentId, documentWordIds));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the words of a document, dropping the words no other document contains.
+     *
+     * @param documentId the document id
+     */
+    public void removeDocument(int documentId) {
+        lock.writeLock().lock();
+        try {
+            removeWords(wordIdsByDocument.remove(documentId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of words in the vocabulary
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return wordIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param word a normalized word
+     * @return true if the word is part of the vocabulary
+     */
+    public boolean contains(String word) {
+        lock.readLock().lock();
+        try {
+            return wordIds.containsKey(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the closest vocabulary word to the given, presumably misspelled, word.
+     *
+     * @param word a normalized word
+     * @return the correction, the word itself when it is known, or null when nothing is close enough
+     */
+    public String correct(String word) {
+
+        if (word == null || word.length() < MIN_WORD_LENGTH) {
+            return null;
+        }
+
+        lock.readLock().lock();
+
+        try {
+            if (wordIds.containsKey(word)) {
+                return word;
+            }
+
+            int maxDistance = word.length() <= 4 ? 1 : 2;
+            int[] candidates = candidates(word, maxDistance);
+
+            String best = null;
+            int bestDistance = maxDistance + 1;
+            int bestFrequency = 0;
+
+            for (int candidate : candidates) {
+                String candidateWord = words.get(candidate);
+                int distance = distance(word, candidateWord, maxDistance);
+                if (distance < bestDistance || (distance == bestDistance && frequencies[candidate] > bestFrequency)) {
+                    best = candidateWord;
+                    bestDistance = distance;
+                    bestFrequency = frequencies[candidate];
+                }
+            }
+
+            return best;
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int addWord(String word) {
+
+        Integer wordId = wordIds.get(word);
+
+        if (wordId == null) {
+            if (freeWordIds.isEmpty()) {
+                wordId = words.size();
+                words.add(word);
+            } else {
+                wordId = freeWordIds.pop();
+                words.set(wordId, word);
+            }
+            wordIds.put(word, wordId);
+            for (String trigram : trigrams(word)) {
+                wordsByTrigram.computeIfAbsent(trigram, key -> new SortedIntSet()).add(wordId);
+            }
+            if (wordId >= frequencies.length) {
+                frequencies = Arrays.copyOf(frequencies, frequencies.length * 2);
+            }
+        }
+
+        frequencies[wordId]++;
+
+        return wordId;
+    }
+
+    private void removeWords(int[] documentWordIds) {
+
+        if (documentWordIds == null) {
+            return;
+        }
+
+        for (int wordId : documentWordIds) {
+
+            if (--frequencies[wordId] > 0) {
+                continue;
+            }
+
+            String word = words.get(wordId);
+            wordIds.remove(word);
+            for (String trigram : trigrams(word)) {
+                SortedIntSet posting = wordsByTrigram.get(trigram);
+                posting.remove(wordId);
+                if (posting.isEmpty()) {
+                    wordsByTrigram.remove(trigram);
+                }
+            }
+            words.set(wordId, null);
+            freeWordIds.push(wordId);
+        }
+    }
+
+    /**
+     * Collects the words sharing the most trigrams with the given word whose length is within reach of the edit
+     * distance, keeping at most {@link #MAX_CANDIDATES} of them.
+     */
+    private int[] candidates(String word, int maxDistance) {
+
+        Map<Integer, Integer> overlaps = new HashMap<>();
+
+        for (String trigram : trigrams(word)) {
+            SortedIntSet posting = wordsByTrigram.get(trigram);
+            if (posting == null) {
+                continue;
+            }
+            for (int wordId : posting.toArray()) {
+                if (Math.abs(words.get(wordId).length() - word.length()) <= maxDistance) {
+                    overlaps.merge(wordId, 1, Integer::sum);
+                }
+            }
+        }
+
+        return overlaps.entrySet().stream()
+                .sorted((a, b) -> {
+                    int byOverlap = Integer.compare(b.getValue(), a.getValue());
+                    return byOverlap != 0 ? byOverlap : Integer.compare(frequencies[b.getKey()], frequencies[a.getKey()]);
+                })
+                .limit(MAX_CANDIDATES)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+
+    private static List<String> trigrams(String word) {
+
+        String padded = "$" + word + "$";
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+
+        return trigrams;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions), abandoned as soon as
+     * a whole row exceeds the maximum distance.
+     *
+     * @return the distance, or {@code maxDistance + 1} when the words are further apart than that
+     */
+    static int distance(String a, String b, int maxDistance) {
+
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+
+            current[0] = i;
+            int rowMinimum = current[0];
+
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+}
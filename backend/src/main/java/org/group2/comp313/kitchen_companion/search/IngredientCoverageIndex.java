@@ -0,0 +1,206 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index answering "which recipes can I cook with these ingredients".
+ *
+ * Every ingredient row is tokenized and each of its terms points to the ingredient ids containing it.
+ * A pantry item covers an ingredient when all of the item's terms appear in the ingredient label,
+ * so "tomato" covers "2 cups diced tomatoes". Recipes are ranked by the share of their ingredient rows
+ * covered by the pantry.
+ */
+public class IngredientCoverageIndex {
+
+    private final Map<String, SortedIntSet> ingredientsByTerm = new HashMap<>();
+    private final Map<Integer, String[]> termsByIngredient = new HashMap<>();
+    private final Map<Integer, Integer> recipeByIngredient = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] ingredientCountByRecipe = new int[1024];
+
+    /**
+     * Adds or replaces an ingredient row.
+     *
+     * @param ingredientId the ingredient id
+     * @param recipeId the id of the recipe owning the ingredient
+     * @param label the ingredient label
+     */
+    public void putIngredient(int ingredientId, int recipeId, String label) {
+
+        String[] terms = SearchTokenizer.tokenize(label).stream().distinct().toArray(String[]::new);
+
+        lock.writeLock().lock();
+
+        try {
+            removeIngredientInternal(ingredientId);
+
+            for (String term : terms) {
+                ingredientsByTerm.computeIfAbsent(term, key -> new SortedIntSet()).add(ingredientId);
+            }
+
+            termsByIngredient.put(ingredientId, terms);
+            recipeByIngredient.put(ingredientId, recipeId);
+
+            if (recipeId >= ingredientCountByRecipe.length) {
+                ingredientCountByRecipe = Arrays.copyOf(ingredientCountByRecipe, Math.max(recipeId + 1, ingredientCountByRecipe.length * 2));
+            }
+            ingredientCountByRecipe[recipeId]++;
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an ingredient row. Unknown ids are ignored.
+     *
+     * @param ingredientId the ingredient id
+     */
+    public void removeIngredient(int ingredientId) {
+        lock.writeLock().lock();
+        try {
+            removeIngredientInternal(ingredientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param ingredientId the ingredient id
+     * @return the id of the recipe owning the ingredient, or null if the ingredient is not indexed
+     */
+    public Integer recipeOf(int ingredientId) {
+        lock.readLock().lock();
+        try {
+            return recipeByIngredient.get(ingredientId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the recipes by how much of their ingredient list the pantry covers.
+     *
+     * @param pantryItems the pantry ingredients as entered by the user
+     * @return every recipe with at least one covered ingredient, best coverage first,
+     *         then most covered ingredients, then ascending recipe id
+     */
+    public List<Coverage> rank(List<String> pantryItems) {
+
+        lock.readLock().lock();
+
+        try {
+            BitSet covered = new BitSet();
+
+            for (String pantryItem : pantryItems) {
+                int[] matches = matchingIngredients(SearchTokenizer.tokenize(pantryItem));
+                for (int ingredientId : matches) {
+                    covered.set(ingredientId);
+                }
+            }
+
+            int[] coveredByRecipe = new int[ingredientCountByRecipe.length];
+            List<Integer> recipes = new ArrayList<>();
+
+            for (int ingredientId = covered.nextSetBit(0); ingredientId >= 0; ingredientId = covered.nextSetBit(ingredientId + 1)) {
+                int recipeId = recipeByIngredient.get(ingredientId);
+                if (coveredByRecipe[recipeId]++ == 0) {
+                    recipes.add(recipeId);
+                }
+            }
+
+            List<Coverage> result = new ArrayList<>(recipes.size());
+
+            for (int recipeId : recipes) {
+                result.add(new Coverage(recipeId, coveredByRecipe[recipeId], ingredientCountByRecipe[recipeId]));
+            }
+
+            result.sort((a, b) -> {
+                int byRatio = Double.compare(b.ratio(), a.ratio());
+                if (byRatio != 0) {
+                    return byRatio;
+                }
+                int byMatched = Integer.compare(b.matchedIngredientCount(), a.matchedIngredientCount());
+                return byMatched != 0 ? byMatched : Integer.compare(a.recipeId(), b.recipeId());
+            });
+
+            return result;
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] matchingIngredients(List<String> terms) {
+
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+
+        List<SortedIntSet> postings = new ArrayList<>(terms.size());
+
+        for (String term : terms.stream().distinct().toList()) {
+            SortedIntSet posting = ingredientsByTerm.get(term);
+            if (posting == null) {
+                return new int[0];
+            }
+            postings.add(posting);
+        }
+
+        // Intersect the rarest terms first so the working set shrinks as fast as possible.
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        int[] result = postings.getFirst().toArray();
+
+        for (int i = 1; i < postings.size() && result.length > 0; i++) {
+            result = postings.get(i).intersect(result);
+        }
+
+        return result;
+    }
+
+    private void removeIngredientInternal(int ingredientId) {
+
+        String[] terms = termsByIngredient.remove(ingredientId);
+        Integer recipeId = recipeByIngredient.remove(ingredientId);
+
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            SortedIntSet posting = ingredientsByTerm.get(term);
+            if (posting != null) {
+                posting.remove(ingredientId);
+                if (posting.isEmpty()) {
+                    ingredientsByTerm.remove(term);
+                }
+            }
+        }
+
+        if (recipeId != null && ingredientCountByRecipe[recipeId] > 0) {
+            ingredientCountByRecipe[recipeId]--;
+        }
+    }
+
+    /**
+     * How much of a recipe's ingredient list is covered by the pantry.
+     *
+     * @param recipeId the recipe id
+     * @param matchedIngredientCount the number of ingredient rows covered
+     * @param ingredientCount the total number of ingredient rows of the recipe
+     */
+    public record Coverage(int recipeId, int matchedIngredientCount, int ingredientCount) {
+
+        public double ratio() {
+            return ingredientCount == 0 ? 0 : (double) matchedIngredientCount / ingredientCount;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe in-memory inverted index with BM25 ranking.
+ *
+ * Every term maps to a {@link PostingList} holding the ids of the documents containing the term
+ * and the (field weighted) term frequency, both stored in primitive int arrays kept sorted by document id.
+ * A forward map of document to terms is kept so a document can be replaced or removed without scanning
+ * every posting list.
+ *
+ * Readers share a read lock, writers (document put/remove) take the write lock. Writes are rare compared
+ * to searches, so this keeps the search path contention free.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Integer, String[]> documentTerms = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] documentLengths = new int[1024];
+    private long totalLength = 0;
+
+    /**
+     * Adds a document to the index, replacing any previous version of it.
+     *
+     * @param documentId the id of the document, usually the recipe id
+     * @param document the weighted terms of the document
+     */
+    public void putDocument(int documentId, Document document) {
+
+        lock.writeLock().lock();
+
+        try {
+            removeDocumentInternal(documentId);
+
+            if (document.termFrequencies.isEmpty()) {
+                return;
+            }
+
+            for (Map.Entry<String, Integer> entry : document.termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new PostingList()).add(documentId, entry.getValue());
+            }
+
+            documentTerms.put(documentId, document.termFrequencies.keySet().toArray(new String[0]));
+            ensureCapacity(documentId);
+            documentLengths[documentId] = document.length;
+            totalLength += document.length;
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index. Unknown ids are ignored.
+     *
+     * @param documentId the id of the document to remove
+     */
+    public void removeDocument(int documentId) {
+        lock.writeLock().lock();
+        try {
+            removeDocumentInternal(documentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of documents in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param documentId the id of the document
+     * @return true if the document is indexed
+     */
+    public boolean contains(int documentId) {
+        lock.readLock().lock();
+        try {
+            return documentTerms.containsKey(documentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param term a normalized term, see {@link SearchTokenizer}
+     * @return the number of documents containing the term
+     */
+    public int documentFrequency(String term) {
+        lock.readLock().lock();
+        try {
+            PostingList postingList = postings.get(term);
+            return postingList == null ? 0 : postingList.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores every document containing at least one of the query terms with BM25 and returns them
+     * ordered by descending score. Ties are broken by ascending document id so results are stable.
+     *
+     * @param queryTerms the normalized query terms, see {@link SearchTokenizer}
+     * @return the matching documents ordered by relevance
+     */
+    public SearchHits search(List<String> queryTerms) {
+
+        lock.readLock().lock();
+
+        try {
+            int documentCount = documentTerms.size();
+
+            if (documentCount == 0 || queryTerms.isEmpty()) {
+                return SearchHits.EMPTY;
+            }
+
+            float averageLength = (float) totalLength / documentCount;
+            List<String> terms = queryTerms.stream().distinct().toList();
+            long candidates = 0;
+
+            for (String term : terms) {
+                PostingList postingList = postings.get(term);
+                candidates += postingList == null ? 0 : postingList.size;
+            }
+
+            if (candidates == 0) {
+                return SearchHits.EMPTY;
+            }
+
+            // Scores are accumulated in a hash table sized by the matching postings, not by the highest document id.
+            ScoreTable scores = new ScoreTable((int) Math.min(candidates, documentCount));
+
+            for (String term : terms) {
+
+                PostingList postingList = postings.get(term);
+
+                if (postingList == null) {
+                    continue;
+                }
+
+                float idf = (float) Math.log(1 + (documentCount - postingList.size + 0.5) / (postingList.size + 0.5));
+
+                for (int i = 0; i < postingList.size; i++) {
+
+                    int documentId = postingList.documentIds[i];
+                    int frequency = postingList.frequencies[i];
+                    float norm = K1 * (1 - B + B * documentLengths[documentId] / averageLength);
+
+                    scores.add(documentId, idf * (frequency * (K1 + 1)) / (frequency + norm));
+                }
+            }
+
+            // Sort on a packed (score, inverted id) key so the whole ranking stays on primitive arrays.
+            int touchedCount = scores.size;
+            long[] keys = new long[touchedCount];
+            int next = 0;
+            for (int slot = 0; slot < scores.documentIds.length; slot++) {
+                int documentId = scores.documentIds[slot];
+                if (documentId != ScoreTable.FREE) {
+                    keys[next++] = ((long) Float.floatToIntBits(scores.scores[slot]) << 32) | (Integer.MAX_VALUE - documentId);
+                }
+            }
+            Arrays.sort(keys);
+
+            int[] ids = new int[touchedCount];
+            float[] rankedScores = new float[touchedCount];
+            for (int i = 0; i < touchedCount; i++) {
+                long key = keys[touchedCount - 1 - i];
+                ids[i] = Integer.MAX_VALUE - (int) (key & 0xFFFFFFFFL);
+                rankedScores[i] = Float.intBitsToFloat((int) (key >>> 32));
+            }
+
+            return new SearchHits(ids, rankedScores);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocumentInternal(int documentId) {
+
+        String[] terms = documentTerms.remove(documentId);
+
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            PostingList postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(documentId);
+                if (postingList.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        totalLength -= documentLengths[documentId];
+        documentLengths[documentId] = 0;
+    }
+
+    private void ensureCapacity(int documentId) {
+        if (documentId >= documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, Math.max(documentId + 1, documentLengths.length * 2));
+        }
+    }
+
+    /**
+     * The terms of a single document, accumulated field by field. Each occurrence of a term counts
+     * as many times as the weight of the field it appears in, so a title match ranks above a summary match.
+     */
+    public static class Document {
+
+        private final Map<String, Integer> termFrequencies = new LinkedHashMap<>();
+        private int length = 0;
+
+        /**
+         * Tokenizes the given text and adds its terms to the document.
+         *
+         * @param text the field value; null is ignored
+         * @param weight how many times each occurrence counts
+         * @return this document
+         */
+        public Document addField(String text, int weight) {
+            for (String term : SearchTokenizer.tokenize(text)) {
+                termFrequencies.merge(term, weight, Integer::sum);
+                length += weight;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Documents matching a query, ordered by descending score.
+     *
+     * @param ids the matching document ids
+     * @param scores the BM25 score of the document at the same position
+     */
+    public record SearchHits(int[] ids, float[] scores) {
+
+        public static final SearchHits EMPTY = new SearchHits(new int[0], new float[0]);
+
+        /**
+         * @param recipes the document ids, ascending
+         * @return unscored hits in ascending id order
+         */
+        public static SearchHits of(BitSet recipes) {
+            int[] ids = recipes.stream().toArray();
+            return new SearchHits(ids, new float[ids.length]);
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * Keeps only the hits whose id is in the given set, preserving their order.
+         *
+         * @param allowed the allowed document ids
+         * @return the retained hits
+         */
+        public SearchHits retain(BitSet allowed) {
+
+            int[] retainedIds = new int[ids.length];
+            float[] retainedScores = new float[ids.length];
+            int count = 0;
+
+            for (int i = 0; i < ids.length; i++) {
+                if (allowed.get(ids[i])) {
+                    retainedIds[count] = ids[i];
+                    retainedScores[count] = scores[i];
+                    count++;
+                }
+            }
+
+            return new SearchHits(Arrays.copyOf(retainedIds, count), Arrays.copyOf(retainedScores, count));
+        }
+    }
+
+    /**
+     * Open addressing hash table of the score of each matching document of a query, backed by primitive arrays.
+     */
+    private static final class ScoreTable {
+
+        private static final int FREE = -1;
+
+        private final int[] documentIds;
+        private final float[] scores;
+        private final int mask;
+        private int size = 0;
+
+        private ScoreTable(int expectedDocuments) {
+            // At most half full, so probe sequences stay short.
+            int capacity = Integer.highestOneBit(Math.max(8, expectedDocuments) * 2 - 1) << 1;
+            this.documentIds = new int[capacity];
+            this.scores = new float[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(this.documentIds, FREE);
+        }
+
+        private void add(int documentId, float score) {
+
+            int slot = (documentId * 0x9E3779B9) >>> 1 & mask;
+
+            while (documentIds[slot] != FREE && documentIds[slot] != documentId) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (documentIds[slot] == FREE) {
+                documentIds[slot] = documentId;
+                size++;
+            }
+
+            scores[slot] += score;
+        }
+    }
+
+    /**
+     * Sorted posting list of document ids and term frequencies backed by primitive arrays.
+     */
+    private static final class PostingList {
+
+        private int[] documentIds = new int[4];
+        private int[] frequencies = new int[4];
+        private int size = 0;
+
+        private void add(int documentId, int frequency) {
+
+            int position = Arrays.binarySearch(documentIds, 0, size, documentId);
+
+            if (position >= 0) {
+                frequencies[position] = frequency;
+                return;
+            }
+
+            position = -position - 1;
+
+            if (size == documentIds.length) {
+                documentIds = Arrays.copyOf(documentIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+
+            System.arraycopy(documentIds, position, documentIds, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            documentIds[position] = documentId;
+            frequencies[position] = frequency;
+            size++;
+        }
+
+        private void remove(int documentId) {
+
+            int position = Arrays.binarySearch(documentIds, 0, size, documentId);
+
+            if (position < 0) {
+                return;
+            }
+
+            System.arraycopy(documentIds, position + 1, documentIds, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+        }
+    }
+}
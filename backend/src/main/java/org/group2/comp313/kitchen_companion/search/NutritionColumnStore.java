@@ -0,0 +1,219 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column oriented in-memory store of the nutrition facts of every recipe.
+ *
+ * Each {@link Nutrient} is a primitive float array indexed by recipe id, a missing value being NaN. Next to every
+ * column a secondary index keeps the recipe ids sorted by value, so a range predicate is two binary searches
+ * followed by a contiguous scan. Writes only update the columns and mark the sorted indexes stale; they are
+ * re-sorted on the next range query, and a query racing a write falls back to a linear scan of the column.
+ */
+public class NutritionColumnStore {
+
+    public enum Nutrient {
+        CALORIES, CARBS, SUGARS, FAT
+    }
+
+    private static final int NUTRIENTS = Nutrient.values().length;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final float[][] columns = new float[NUTRIENTS][];
+    private final int[][] sortedIds = new int[NUTRIENTS][];
+    private final float[][] sortedValues = new float[NUTRIENTS][];
+    private final BitSet present = new BitSet();
+
+    private volatile boolean sorted = false;
+
+    public NutritionColumnStore() {
+        for (int i = 0; i < NUTRIENTS; i++) {
+            columns[i] = new float[1024];
+            Arrays.fill(columns[i], Float.NaN);
+            sortedIds[i] = new int[0];
+            sortedValues[i] = new float[0];
+        }
+    }
+
+    /**
+     * Adds or replaces the nutrition facts of a recipe.
+     *
+     * @param recipeId the recipe id
+     * @param values the value of every nutrient in {@link Nutrient} order; NaN when unknown
+     */
+    public void put(int recipeId, float[] values) {
+
+        lock.writeLock().lock();
+
+        try {
+            ensureCapacity(recipeId);
+            for (int i = 0; i < NUTRIENTS; i++) {
+                columns[i][recipeId] = values[i];
+            }
+            present.set(recipeId);
+            sorted = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a recipe from the store. Unknown ids are ignored.
+     *
+     * @param recipeId the recipe id
+     */
+    public void remove(int recipeId) {
+
+        lock.writeLock().lock();
+
+        try {
+            if (present.get(recipeId)) {
+                for (int i = 0; i < NUTRIENTS; i++) {
+                    columns[i][recipeId] = Float.NaN;
+                }
+                present.clear(recipeId);
+                sorted = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the recipes whose value of the given nutrient lies within [min, max].
+     *
+     * @param nutrient the nutrient to filter on
+     * @param min the inclusive lower bound; null for no lower bound
+     * @param max the inclusive upper bound; null for no upper bound
+     * @return the matching recipe ids; recipes without a value never match
+     */
+    public BitSet range(Nutrient nutrient, Float min, Float max) {
+
+        ensureSorted();
+
+        float low = min == null ? Float.NEGATIVE_INFINITY : min;
+        float high = max == null ? Float.POSITIVE_INFINITY : max;
+        BitSet result = new BitSet();
+
+        lock.readLock().lock();
+
+        try {
+            int column = nutrient.ordinal();
+
+            if (!sorted) {
+                float[] values = columns[column];
+                for (int recipeId = present.nextSetBit(0); recipeId >= 0; recipeId = present.nextSetBit(recipeId + 1)) {
+                    if (values[recipeId] >= low && values[recipeId] <= high) {
+                        result.set(recipeId);
+                    }
+                }
+                return result;
+            }
+
+            int[] ids = sortedIds[column];
+            float[] values = sortedValues[column];
+
+            for (int i = lowerBound(values, low); i < values.length && values[i] <= high; i++) {
+                result.set(ids[i]);
+            }
+
+            return result;
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ids of every recipe in the store
+     */
+    public BitSet recipes() {
+        lock.readLock().lock();
+        try {
+            return (BitSet) present.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureSorted() {
+
+        if (sorted) {
+            return;
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            if (sorted) {
+                return;
+            }
+
+            for (int column = 0; column < NUTRIENTS; column++) {
+
+                float[] values = columns[column];
+                long[] keys = new long[present.cardinality()];
+                int count = 0;
+
+                for (int recipeId = present.nextSetBit(0); recipeId >= 0; recipeId = present.nextSetBit(recipeId + 1)) {
+                    if (!Float.isNaN(values[recipeId])) {
+                        keys[count++] = ((long) sortableBits(values[recipeId]) << 32) | recipeId;
+                    }
+                }
+
+                // Sort on a packed (value, id) key so the whole index stays on primitive arrays.
+                Arrays.sort(keys, 0, count);
+
+                int[] ids = new int[count];
+                float[] sortedColumn = new float[count];
+                for (int i = 0; i < count; i++) {
+                    ids[i] = (int) keys[i];
+                    sortedColumn[i] = values[ids[i]];
+                }
+
+                sortedIds[column] = ids;
+                sortedValues[column] = sortedColumn;
+            }
+
+            sorted = true;
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Maps a float to an int whose signed order matches the float order, negative values included.
+     */
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits < 0 ? bits ^ Integer.MAX_VALUE : bits;
+    }
+
+    private static int lowerBound(float[] values, float low) {
+        int from = 0;
+        int to = values.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle] < low) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private void ensureCapacity(int recipeId) {
+        if (recipeId >= columns[0].length) {
+            int newLength = Math.max(recipeId + 1, columns[0].length * 2);
+            for (int i = 0; i < NUTRIENTS; i++) {
+                int oldLength = columns[i].length;
+                columns[i] = Arrays.copyOf(columns[i], newLength);
+                Arrays.fill(columns[i], oldLength, newLength, Float.NaN);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable, presorted order of every recipe for one sort key.
+ *
+ * The recipe ids are kept in ascending key order with the recipes that have no value for the key at the end, so
+ * the top N recipes of any result set are read by walking the array from either end instead of sorting the whole
+ * result set. Small result sets are ordered by the position of each recipe in the array instead, which avoids
+ * walking the full array for a handful of hits.
+ *
+ * Recipes without a value always come last, in ascending id order, whatever the direction; in descending order
+ * ties between recipes with the same value come out in descending id order. Recipes created after the order was
+ * built are not part of it and come after every other recipe.
+ */
+public class PresortedOrder {
+
+    /**
+     * Result sets smaller than the order length divided by this factor are sorted by position instead of walked.
+     */
+    private static final int SPARSE_FACTOR = 32;
+
+    private final int[] orderedIds;
+    private final int valuedCount;
+    private final int[] positions;
+
+    /**
+     * @param orderedIds the recipe ids in ascending key order, ties broken by ascending id, followed by the recipes
+     *                   without a value in ascending id order
+     * @param valuedCount the number of recipes at the start of {@code orderedIds} that have a value
+     */
+    public PresortedOrder(int[] orderedIds, int valuedCount) {
+
+        this.orderedIds = orderedIds;
+        this.valuedCount = valuedCount;
+
+        int maxId = Arrays.stream(orderedIds).max().orElse(-1);
+        this.positions = new int[maxId + 1];
+        Arrays.fill(this.positions, -1);
+
+        for (int position = 0; position < orderedIds.length; position++) {
+            this.positions[orderedIds[position]] = position;
+        }
+    }
+
+    /**
+     * Returns one page of the given recipes in this order.
+     *
+     * @param recipeIds the recipes to order
+     * @param ascending true for ascending key order
+     * @param offset the number of recipes to skip
+     * @param limit the maximum number of recipes to return
+     * @return the recipe ids of the page, in order
+     */
+    public int[] page(BitSet recipeIds, boolean ascending, int offset, int limit) {
+
+        int total = recipeIds.cardinality();
+
+        if (offset >= total || limit <= 0) {
+            return new int[0];
+        }
+
+        if ((long) total * SPARSE_FACTOR < orderedIds.length) {
+            return this.pageBySorting(recipeIds, total, ascending, offset, limit);
+        }
+
+        return this.pageByWalking(recipeIds, ascending, offset, limit);
+    }
+
+    private int[] pageByWalking(BitSet recipeIds, boolean ascending, int offset, int limit) {
+
+        int[] result = new int[limit];
+        int count = 0;
+        int skipped = 0;
+        BitSet unordered = (BitSet) recipeIds.clone();
+
+        for (int i = 0; i < orderedIds.length && count < limit; i++) {
+
+            int recipeId = orderedIds[i < valuedCount && !ascending ? valuedCount - 1 - i : i];
+
+            if (recipeIds.get(recipeId)) {
+                unordered.clear(recipeId);
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    result[count++] = recipeId;
+                }
+            }
+        }
+
+        for (int recipeId = unordered.nextSetBit(0); recipeId >= 0 && count < limit; recipeId = unordered.nextSetBit(recipeId + 1)) {
+            if (this.positionOf(recipeId) < 0) {
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    result[count++] = recipeId;
+                }
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private int[] pageBySorting(BitSet recipeIds, int total, boolean ascending, int offset, int limit) {
+
+        long[] keys = new long[total];
+        int count = 0;
+
+        for (int recipeId = recipeIds.nextSetBit(0); recipeId >= 0; recipeId = recipeIds.nextSetBit(recipeId + 1)) {
+            keys[count++] = ((long) this.sequenceOf(recipeId, ascending) << 32) | recipeId;
+        }
+
+        Arrays.sort(keys, 0, count);
+
+        int to = (int) Math.min((long) offset + limit, count);
+        int[] result = new int[to - offset];
+
+        for (int i = offset; i < to; i++) {
+            result[i - offset] = (int) keys[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the position of a recipe in the walk for the given direction; recipes missing from the order
+     *         come after every ordered recipe
+     */
+    private int sequenceOf(int recipeId, boolean ascending) {
+
+        int position = this.positionOf(recipeId);
+
+        if (position < 0) {
+            return orderedIds.length;
+        }
+
+        return position < valuedCount && !ascending ? valuedCount - 1 - position : position;
+    }
+
+    private int positionOf(int recipeId) {
+        return recipeId < positions.length ? positions[recipeId] : -1;
+    }
+}
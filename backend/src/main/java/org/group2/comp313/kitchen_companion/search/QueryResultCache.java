@@ -0,0 +1,124 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * Size bounded LRU cache invalidated by a generation counter.
+ *
+ * Every write that can change cached results calls {@link #invalidate()}, which bumps the generation and drops
+ * every entry, or {@link #invalidate(BiPredicate)} to drop only the entries it changes. A value is stored together
+ * with the generation that was current when its computation started, and {@link #put(String, long, Object)} ignores
+ * values computed before the last invalidation, so a slow query racing with a write can never put stale data back
+ * into the cache.
+ *
+ * @param <V> the type of the cached values; values are shared between callers and must not be mutated
+ */
+public class QueryResultCache<V> {
+
+    private final int maxEntries;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Map<String, V> entries;
+
+    /**
+     * @param maxEntries the maximum number of entries; the least recently used entry is evicted beyond that
+     */
+    public QueryResultCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > QueryResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param key the normalized query key
+     * @return the cached value, or null on a miss
+     */
+    public V get(String key) {
+
+        V value;
+
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+
+        (value == null ? misses : hits).incrementAndGet();
+
+        return value;
+    }
+
+    /**
+     * @return the current generation; read it before computing a value to put
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a value unless the cache was invalidated since the given generation was read.
+     *
+     * @param key the normalized query key
+     * @param computedAtGeneration the generation read before the value was computed
+     * @param value the value to cache
+     */
+    public void put(String key, long computedAtGeneration, V value) {
+        synchronized (entries) {
+            if (computedAtGeneration == generation.get()) {
+                entries.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * Drops every entry and makes values computed so far uncacheable.
+     */
+    public void invalidate() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    /**
+     * Drops the entries matching the given predicate and, like {@link #invalidate()}, makes values computed so far
+     * uncacheable.
+     *
+     * @param predicate tests the key and value of an entry
+     */
+    public void invalidate(BiPredicate<String, V> predicate) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the number of lookups that found a value
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that found nothing
+     */
+    public long missCount() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,113 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text (recipe titles, summaries, ingredient and category labels, search keywords)
+ * into the normalized terms used by the in-memory search indexes.
+ *
+ * Text is lower-cased, accents are stripped, it is split on anything that is not a letter or digit,
+ * stop words and single characters are dropped and a light plural stemming is applied so that
+ * "tomatoes" and "tomato" end up as the same term.
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "with", "your", "you", "our", "my"
+    );
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Tokenizes the given text into normalized search terms. Duplicates are kept so callers can count term frequencies.
+     *
+     * @param text the text to tokenize; may be null
+     * @return the list of normalized terms, never null
+     */
+    public static List<String> tokenize(String text) {
+
+        List<String> terms = new ArrayList<>();
+
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (token.length() < 2 || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            terms.add(stem(token));
+        }
+
+        return terms;
+    }
+
+    /**
+     * Splits the text into normalized words without dropping stop words or stemming, for matching text
+     * as it is typed (e.g. typeahead prefixes).
+     *
+     * @param text the text to split; may be null
+     * @return the normalized words, never null
+     */
+    public static List<String> words(String text) {
+
+        List<String> words = new ArrayList<>();
+
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                words.add(token);
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * Lower-cases the text and strips accents without splitting it.
+     *
+     * @param text the text to normalize; may be null
+     * @return the normalized text, or an empty string when text is null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static String stem(String token) {
+
+        if (token.length() <= 3 || !Character.isLetter(token.charAt(token.length() - 1))) {
+            return token;
+        }
+
+        if (token.endsWith("ies") && token.length() > 4) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+
+        if (token.endsWith("oes") || token.endsWith("ches") || token.endsWith("shes") || token.endsWith("xes") || token.endsWith("sses")) {
+            return token.substring(0, token.length() - 2);
+        }
+
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, token.length() - 1);
+        }
+
+        return token;
+    }
+}
@@ -0,0 +1,108 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable set of ints kept sorted in a primitive array. Used as a posting list when only membership
+ * matters, so lookups are binary searches and intersections are linear merges without boxing.
+ * Not thread safe; callers guard it with their own lock.
+ */
+public class SortedIntSet {
+
+    private int[] values = new int[4];
+    private int size = 0;
+
+    /**
+     * @param value the value to add; ignored if already present
+     */
+    public void add(int value) {
+
+        int position = Arrays.binarySearch(values, 0, size, value);
+
+        if (position >= 0) {
+            return;
+        }
+
+        position = -position - 1;
+
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+        size++;
+    }
+
+    /**
+     * @param value the value to remove; ignored if absent
+     */
+    public void remove(int value) {
+
+        int position = Arrays.binarySearch(values, 0, size, value);
+
+        if (position < 0) {
+            return;
+        }
+
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+    }
+
+    /**
+     * @param value the value to look up
+     * @return true if the value is in the set
+     */
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    /**
+     * @return the number of values in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the set holds no value
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a sorted copy of the values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Intersects a sorted array with this set using a linear merge.
+     *
+     * @param sorted a sorted array of distinct values
+     * @return the sorted values present in both
+     */
+    public int[] intersect(int[] sorted) {
+
+        int[] result = new int[Math.min(sorted.length, size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < sorted.length && j < size) {
+            if (sorted[i] < values[j]) {
+                i++;
+            } else if (sorted[i] > values[j]) {
+                j++;
+            } else {
+                result[count++] = sorted[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+}
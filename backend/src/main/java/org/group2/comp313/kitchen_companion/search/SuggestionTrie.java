@@ -0,0 +1,217 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, path compressed prefix tree used for search box typeahead.
+ *
+ * Each edge holds a run of characters rather than a single one, so the tree has at most two nodes per key.
+ * Every node caches the ids of the {@code maxSuggestions} heaviest entries below it, which makes a lookup
+ * a walk down the prefix followed by returning a precomputed array: no traversal of the subtree and no
+ * allocation proportional to the number of matching keys.
+ *
+ * Instances are built once through {@link Builder} and are safe to share between threads.
+ */
+public class SuggestionTrie {
+
+    private static final int[] NO_ENTRIES = new int[0];
+
+    private final Node root;
+
+    private SuggestionTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the heaviest entries having a key that starts with the given prefix.
+     *
+     * @param prefix the normalized prefix typed by the user
+     * @return the entry ids ordered by descending weight, at most {@code maxSuggestions}
+     */
+    public int[] lookup(String prefix) {
+
+        Node node = root;
+        int position = 0;
+
+        while (node != null && position < prefix.length()) {
+
+            Node child = node.child(prefix.charAt(position));
+
+            if (child == null) {
+                return NO_ENTRIES;
+            }
+
+            int matched = 0;
+            while (matched < child.edge.length() && position < prefix.length()) {
+                if (child.edge.charAt(matched) != prefix.charAt(position)) {
+                    return NO_ENTRIES;
+                }
+                matched++;
+                position++;
+            }
+
+            node = child;
+        }
+
+        return node == null ? NO_ENTRIES : node.top;
+    }
+
+    private static final class Node {
+
+        private final String edge;
+        private final char[] labels;
+        private final Node[] children;
+        private final int[] top;
+
+        private Node(String edge, char[] labels, Node[] children, int[] top) {
+            this.edge = edge;
+            this.labels = labels;
+            this.children = children;
+            this.top = top;
+        }
+
+        private Node child(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            return position < 0 ? null : children[position];
+        }
+    }
+
+    /**
+     * Collects (key, entry) pairs and builds the trie. Several keys may point to the same entry,
+     * e.g. one key per word of a recipe title; an entry is never suggested twice for the same prefix.
+     */
+    public static class Builder {
+
+        private final int maxSuggestions;
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> entries = new ArrayList<>();
+        private float[] weights = new float[16];
+
+        /**
+         * @param maxSuggestions how many entries are cached, and therefore returned, per prefix
+         */
+        public Builder(int maxSuggestions) {
+            this.maxSuggestions = maxSuggestions;
+        }
+
+        /**
+         * @param entryId the id of the entry, an index chosen by the caller
+         * @param weight the popularity of the entry; heavier entries are suggested first
+         * @return this builder
+         */
+        public Builder weight(int entryId, float weight) {
+            if (entryId >= weights.length) {
+                weights = Arrays.copyOf(weights, Math.max(entryId + 1, weights.length * 2));
+            }
+            weights[entryId] = weight;
+            return this;
+        }
+
+        /**
+         * @param key the normalized key; blank keys are ignored
+         * @param entryId the id of the entry the key leads to
+         * @return this builder
+         */
+        public Builder add(String key, int entryId) {
+            if (key != null && !key.isBlank()) {
+                keys.add(key);
+                entries.add(entryId);
+            }
+            return this;
+        }
+
+        public SuggestionTrie build() {
+
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(keys::get));
+
+            String[] sortedKeys = new String[order.length];
+            int[] sortedEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedEntries[i] = entries.get(order[i]);
+            }
+
+            return new SuggestionTrie(buildNode(sortedKeys, sortedEntries, 0, sortedKeys.length, 0, true));
+        }
+
+        /**
+         * Builds the node for the sorted keys in [from, to), which all share their first {@code edgeStart} characters
+         * and the character at {@code edgeStart}. The root has an empty edge so every key stays reachable from it.
+         */
+        private Node buildNode(String[] sortedKeys, int[] sortedEntries, int from, int to, int edgeStart, boolean root) {
+
+            // Extend the edge while every key in the range agrees on the next character.
+            int end = edgeStart;
+            if (!root && to - from > 0) {
+                String first = sortedKeys[from];
+                String last = sortedKeys[to - 1];
+                while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+                    end++;
+                }
+            }
+
+            String edge = to - from > 0 ? sortedKeys[from].substring(edgeStart, end) : "";
+
+            List<int[]> candidates = new ArrayList<>();
+            List<Character> labels = new ArrayList<>();
+            List<Node> children = new ArrayList<>();
+
+            int position = from;
+
+            // Keys ending exactly here sort first.
+            while (position < to && sortedKeys[position].length() == end) {
+                candidates.add(new int[]{sortedEntries[position]});
+                position++;
+            }
+
+            while (position < to) {
+                char label = sortedKeys[position].charAt(end);
+                int groupEnd = position + 1;
+                while (groupEnd < to && sortedKeys[groupEnd].charAt(end) == label) {
+                    groupEnd++;
+                }
+                Node child = buildNode(sortedKeys, sortedEntries, position, groupEnd, end, false);
+                labels.add(label);
+                children.add(child);
+                candidates.add(child.top);
+                position = groupEnd;
+            }
+
+            char[] labelArray = new char[labels.size()];
+            for (int i = 0; i < labelArray.length; i++) {
+                labelArray[i] = labels.get(i);
+            }
+
+            return new Node(edge, labelArray, children.toArray(new Node[0]), mergeTop(candidates));
+        }
+
+        private int[] mergeTop(List<int[]> candidates) {
+
+            int[] merged = candidates.stream().flatMapToInt(Arrays::stream).distinct().toArray();
+
+            Integer[] boxed = Arrays.stream(merged).boxed().toArray(Integer[]::new);
+            Arrays.sort(boxed, (a, b) -> {
+                int byWeight = Float.compare(weightOf(b), weightOf(a));
+                return byWeight != 0 ? byWeight : Integer.compare(a, b);
+            });
+
+            int count = Math.min(boxed.length, maxSuggestions);
+            int[] top = new int[count];
+            for (int i = 0; i < count; i++) {
+                top[i] = boxed[i];
+            }
+            return top;
+        }
+
+        private float weightOf(int entryId) {
+            return entryId < weights.length ? weights[entryId] : 0f;
+        }
+    }
+}
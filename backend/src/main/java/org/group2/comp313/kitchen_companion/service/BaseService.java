@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.group2.comp313.kitchen_companion.dto.ai.ChatCompletionResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * BaseService provides a foundational class for other service classes to extend.
@@ -38,4 +40,23 @@ public class BaseService {
             throw e;
         }
     }
+
+    /**
+     * Runs the given action once the current transaction commits, or immediately when no transaction is active.
+     * Used to keep in-memory indexes and caches in step with the database without exposing uncommitted data.
+     *
+     * @param action the action to run
+     */
+    protected void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 }
@@ -1,248 +1,635 @@
 package org.group2.comp313.kitchen_companion.service;
 
-//import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-//import com.fasterxml.jackson.dataformat.csv.CsvParser;
-//import com.fasterxml.jackson.dataformat.csv.CsvSchema;
-//import org.group2.comp313.kitchen_companion.domain.Category;
-//import org.group2.comp313.kitchen_companion.domain.RecipeCsvRow;
-//import org.group2.comp313.kitchen_companion.dto.recipe.*;
-//import org.group2.comp313.kitchen_companion.repository.CategoryRepository;
-//import org.springframework.beans.factory.annotation.Autowired;
-//import org.springframework.core.io.ClassPathResource;
-//import org.springframework.scheduling.annotation.Async;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.camel.ProducerTemplate;
+import org.group2.comp313.kitchen_companion.domain.Category;
+import org.group2.comp313.kitchen_companion.domain.CodeValue;
+import org.group2.comp313.kitchen_companion.domain.CsvImportCheckpoint;
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.domain.RecipeCategory;
+import org.group2.comp313.kitchen_companion.domain.RecipeCategoryId;
+import org.group2.comp313.kitchen_companion.domain.RecipeCsvRow;
+import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
+import org.group2.comp313.kitchen_companion.repository.CategoryRepository;
+import org.group2.comp313.kitchen_companion.repository.CsvImportCheckpointRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.NonTransientDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
 /**
- * Service responsible for importing recipes from a CSV file, parsing the data
- * into proper format, and saving it into the system's database. This service
- * utilizes data transformation, validation, and asynchronous processing to
- * handle large-scale imports.
+ * Bulk import of recipes from a CSV dataset.
  *
- * The CSV file is expected to adhere to a predefined schema with columns
- * such as name, category, ingredients, preparation time, and various
- * nutritional information fields. The imported data is mapped into domain
- * objects, such as recipes, categories, ingredients, and steps.
+ * The import is a three stage pipeline:
+ * - the CSV file is streamed row by row, so memory stays constant whatever the size of the dataset;
+ * - each chunk of {@link #CHUNK_SIZE} rows is normalized in parallel (category label, prep and cook times,
+ *   ingredient and step splitting) while the previous chunk is being written;
+ * - each chunk is written in one transaction with one batch insert per table through
+ *   {@link RecipeComponentBatchRepository}, together with the import checkpoint. If the chunk fails on bad data, its
+ *   rows are written again one by one, each in its own transaction, and the rows that still fail are skipped.
  *
- * Key responsibilities of the service include:
- * - Reading a CSV file from the classpath resource.
- * - Parsing the CSV data into structured Java objects.
- * - Creating new recipes, categories, and associated entities in the database.
- * - Deduplicating or normalizing categories to avoid redundancy.
- * - Asynchronous execution for long-running import tasks.
+ * The checkpoint, stored in {@code csv_import_checkpoint} under the file name with the size and modification time of
+ * the file, counts the rows already processed, so an import interrupted by a crash resumes after the last committed
+ * chunk and never imports a row twice. A file that was fully imported is not imported again; a file whose size or
+ * modification time changed is imported from the start.
+ *
+ * The import runs on the {@link #IMPORT_ROUTE} Camel route and is started on startup when {@code csv-import.location}
+ * is set, e.g. {@code classpath:recipes.csv} or {@code file:/data/recipes.csv}. Progress is logged per chunk and
+ * published as the {@code csv.import.*} metrics. The in-memory search indexes are rebuilt once the import completes.
  */
-//import java.io.*;
-//import java.time.Instant;
-//import java.util.*;
-//import java.util.regex.Matcher;
-//import java.util.regex.Pattern;
-//import java.util.stream.Collectors;
-//
 @Service
-public class CsvImportService extends BaseService{
-//
-//    @Autowired
-//    private RecipeService recipeService;
-//
-//    @Autowired
-//    private CategoryRepository categoryRepository;
-//
-//    private final Map<String, Integer> categoryCache = new HashMap<>();
-//
-//    private Integer extractTimeInMinutes(String timeString) {
-//        if (timeString == null || timeString.isEmpty()) {
-//            return 0;
-//        }
-//
-//        Pattern pattern = Pattern.compile("^(\\d+)");
-//        Matcher matcher = pattern.matcher(timeString.trim());
-//
-//        if (matcher.find()) {
-//            return Integer.parseInt(matcher.group(1));
-//        } else {
-//            return 0; // Return null if no numeric value is found
-//        }
-//    }
-//
-//    @Async
-//    public void importCsv() {
-//
-//        ClassPathResource resource = new ClassPathResource("recipes.csv");
-//
-//        try {
-//
-//            CsvMapper objectMapper = new CsvMapper();
-//
-//            CsvSchema csvSchema = CsvSchema.builder()
-//                    .addColumn("name")
-//                    .addColumn("url")
-//                    .addColumn("category")
-//                    .addColumn("author")
-//                    .addColumn("summary")
-//                    .addColumn("rating", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("rating_count", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("review_count", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("ingredients")
-//                    .addColumn("directions")
-//                    .addColumn("prep")
-//                    .addColumn("cook")
-//                    .addColumn("total")
-//                    .addColumn("servings", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("yield")
-//                    .addColumn("calories", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("carbohydrate_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("sugar_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("fat_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("saturated_fat_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("cholesterol_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("protein_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("dietary_fiber_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("sodium_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("calories_from_fat", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("calcium_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("iron_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("magnesium_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("potassium_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("zinc_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("phosphorus_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("vitamin_a_iu_IU", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("niacin_equivalents_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("vitamin_b6_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("vitamin_c_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("folate_mcg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("thiamin_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("riboflavin_mg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("vitamin_e_iu_IU", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("vitamin_k_mcg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("biotin_mcg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("vitamin_b12_mcg", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("mono_fat_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("poly_fat_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("trans_fatty_acid_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("omega_3_fatty_acid_g", CsvSchema.ColumnType.NUMBER)
-//                    .addColumn("omega_6_fatty_acid_g", CsvSchema.ColumnType.NUMBER)
-//                    .setSkipFirstDataRow(true)
-//                    .setUseHeader(true)  // This indicates that the first line is a header
-//                    .build();
-//
-//            List<RecipeCsvRow> recipes = objectMapper.readerForListOf(RecipeCsvRow.class)
-//                    .with(CsvParser.Feature.WRAP_AS_ARRAY)
-//                    .with(csvSchema)
-//                    .readValue(resource.getInputStream());
-//
-//            int counter = 14904;
-//
-//            for (int i = counter ; i < recipes.size(); i++) {
-//                RecipeDTO dto = mapCsvToDto(recipes.get(i), recipes.get(i).getAuthor());
-//                this.recipeService.createRecipe(dto, recipes.get(i).getAuthor());
-//                ++counter;
-//                this.log.info("Created recipe: " + counter);
-//            }
-//
-//        } catch (IOException e) {
-//            log.error(e.getMessage(), e);
-//            throw new RuntimeException("Error reading CSV file", e);
-//        }
-//    }
-//
-//    private RecipeDTO mapCsvToDto(RecipeCsvRow csvRow, String createdByEmail) {
-//
-//        Integer categoryId = getOrCreateCategory(csvRow.getCategory(), createdByEmail);
-//
-//        List<IngredientGroupDTO> ingredientGroups = List.of(new IngredientGroupDTO(
-//                1,
-//                "",
-//                parseIngredients(csvRow.getIngredients())
-//        ));
-//
-//        List<StepGroupDTO> stepGroups = List.of(new StepGroupDTO(
-//                1,
-//                "",
-//                parseSteps(csvRow.getDirections())
-//        ));
-//
-//        // Map RecipeDTO
-//        return new RecipeDTO(
-//                csvRow.getName(),
-//                csvRow.getSummary().trim().isEmpty() ? "Nice Recipe!" : csvRow.getSummary().trim(),
-//                extractTimeInMinutes(csvRow.getPrep()),
-//                100,
-//                extractTimeInMinutes(csvRow.getPrep()),
-//                100,
-//                csvRow.getServings(),
-//                csvRow.getYield(),
-//                "x",
-//                "x",
-//                csvRow.getCalories(),
-//                csvRow.getCarbohydratesG(),
-//                csvRow.getSugarsG(),
-//                csvRow.getFatG(),
-//                List.of(categoryId),
-//                ingredientGroups,
-//                stepGroups
-//        );
-//    }
-//
-//    private Integer getOrCreateCategory(String rawCategoryLabel, String createdByEmail) {
-//        String cleanedLabel = normalizeCategory(rawCategoryLabel);
-//
-//        if (categoryCache.containsKey(cleanedLabel)) {
-//            return categoryCache.get(cleanedLabel);
-//        }
-//
-//        Category existingCategory = categoryRepository.findByLabel(cleanedLabel);
-//        if (existingCategory != null) {
-//            categoryCache.put(cleanedLabel, existingCategory.getId());
-//            return existingCategory.getId();
-//        }
-//
-//        Category newCategory = new Category();
-//        newCategory.setLabel(cleanedLabel);
-//        newCategory.setCreatedBy(createdByEmail);
-//        newCategory.setCreatedAt(Instant.now());
-//        categoryRepository.save(newCategory);
-//
-//        categoryCache.put(cleanedLabel, newCategory.getId());
-//        return newCategory.getId();
-//    }
-//
-//    private String normalizeCategory(String category) {
-//        if (category == null || category.isEmpty()) {
-//            return "Uncategorized";
-//        }
-//
-//        // Replace special characters like hyphens and normalize "and" cases
-//        String cleanedCategory = category
-//                .replaceAll("-", " ")
-//                .replaceAll("&", "and")
-//                .replaceAll("\\s+", " ")
-//                .trim();
-//
-//        // Capitalize each word for a UI-friendly label
-//        return Arrays.stream(cleanedCategory.split(" "))
-//                .map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase())
-//                .collect(Collectors.joining(" "));
-//    }
-//
-//    private List<IngredientDTO> parseIngredients(String ingredients) {
-//        String[] items = ingredients.split(";");
-//        List<IngredientDTO> ingredientDTOs = new ArrayList<>();
-//        int order = 1;
-//
-//        for (String item : items) {
-//            ingredientDTOs.add(new IngredientDTO(order++, "y", item.trim()));
-//        }
-//        return ingredientDTOs;
-//    }
-//
-//    private List<StepDTO> parseSteps(String directions) {
-//        String[] steps = directions.split("\\.");
-//        List<StepDTO> stepDTOs = new ArrayList<>();
-//        int order = 1;
-//
-//        for (String step : steps) {
-//            if (!step.isBlank()) {
-//                stepDTOs.add(new StepDTO(order++, step.trim(), "Z"));
-//            }
-//        }
-//        return stepDTOs;
-//    }
+public class CsvImportService extends BaseService implements MeterBinder {
+
+    public static final String IMPORT_ROUTE = "direct:csvImport";
+
+    public static final int CHUNK_SIZE = 500;
+
+    private static final String DEFAULT_AUTHOR = "sysadmin@mail.com";
+    private static final String DEFAULT_SUMMARY = "Nice Recipe!";
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final int MAX_LABEL_LENGTH = 255;
+
+    private static final Pattern TIME_PART = Pattern.compile("(\\d+)\\s*(day|hr|hour|min)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern STEP_BOUNDARY = Pattern.compile("(?<=[.!?])\\s+");
+
+    private static final ObjectReader CSV_READER = new CsvMapper()
+            .readerFor(RecipeCsvRow.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .with(CsvParser.Feature.SKIP_EMPTY_LINES);
+
+    private final CsvImportCheckpointRepository csvImportCheckpointRepository;
+    private final CategoryRepository categoryRepository;
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceLoader resourceLoader;
+    private final ProducerTemplate producerTemplate;
+    private final RecipeSearchIndexService recipeSearchIndexService;
+    private final RecipeNutritionService recipeNutritionService;
+    private final RecipeFacetService recipeFacetService;
+    private final RecipeSortService recipeSortService;
+    private final RecipeSuggestionService recipeSuggestionService;
+    private final PantrySearchService pantrySearchService;
+    private final RecipeSearchCacheService recipeSearchCacheService;
+    private final RecipeDetailDocumentService recipeDetailDocumentService;
+    private final String location;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong recipesCreated = new AtomicLong();
+    private final AtomicLong rowsSkipped = new AtomicLong();
+    private final Map<String, Integer> categoryCache = new ConcurrentHashMap<>();
+
+    public CsvImportService(CsvImportCheckpointRepository csvImportCheckpointRepository, CategoryRepository categoryRepository,
+                            RecipeComponentBatchRepository recipeComponentBatchRepository, PlatformTransactionManager transactionManager,
+                            ResourceLoader resourceLoader, ProducerTemplate producerTemplate,
+                            RecipeSearchIndexService recipeSearchIndexService, RecipeNutritionService recipeNutritionService,
+                            RecipeFacetService recipeFacetService, RecipeSortService recipeSortService,
+                            RecipeSuggestionService recipeSuggestionService, PantrySearchService pantrySearchService,
+                            RecipeSearchCacheService recipeSearchCacheService, RecipeDetailDocumentService recipeDetailDocumentService,
+                            @Value("${csv-import.location:}") String location) {
+        this.csvImportCheckpointRepository = csvImportCheckpointRepository;
+        this.categoryRepository = categoryRepository;
+        this.recipeComponentBatchRepository = recipeComponentBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.resourceLoader = resourceLoader;
+        this.producerTemplate = producerTemplate;
+        this.recipeSearchIndexService = recipeSearchIndexService;
+        this.recipeNutritionService = recipeNutritionService;
+        this.recipeFacetService = recipeFacetService;
+        this.recipeSortService = recipeSortService;
+        this.recipeSuggestionService = recipeSuggestionService;
+        this.pantrySearchService = pantrySearchService;
+        this.recipeSearchCacheService = recipeSearchCacheService;
+        this.recipeDetailDocumentService = recipeDetailDocumentService;
+        this.location = location;
+    }
+
+    /**
+     * Starts the import of the configured CSV file in the background once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void importOnStartup() {
+        if (this.location != null && !this.location.isBlank()) {
+            this.producerTemplate.asyncSendBody(IMPORT_ROUTE, this.location);
+        }
+    }
+
+    /**
+     * Imports a CSV file, resuming after the last committed chunk of a previous run. Called from the
+     * {@link #IMPORT_ROUTE} route; only one import runs at a time.
+     *
+     * @param location the resource location of the CSV file
+     */
+    public void importCsv(String location) {
+
+        if (!this.running.compareAndSet(false, true)) {
+            log.warn("A CSV import is already running, ignoring {}", location);
+            return;
+        }
+
+        ForkJoinPool normalizers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        try {
+            Resource resource = this.resourceLoader.getResource(location);
+            String importName = resource.getFilename();
+            long fileSize = resource.contentLength();
+            long fileLastModified = resource.lastModified();
+
+            CsvImportCheckpoint checkpoint = this.csvImportCheckpointRepository.findById(importName)
+                    .filter(existing -> {
+                        if (isSameFile(existing, fileSize, fileLastModified)) {
+                            return true;
+                        }
+                        log.info("CSV file {} changed since its last import, importing it from the start", importName);
+                        return false;
+                    })
+                    .orElseGet(() -> {
+                        CsvImportCheckpoint newCheckpoint = new CsvImportCheckpoint();
+                        newCheckpoint.setImportName(importName);
+                        newCheckpoint.setFileSize(fileSize);
+                        newCheckpoint.setFileLastModified(fileLastModified);
+                        return newCheckpoint;
+                    });
+
+            if (checkpoint.getCompleted()) {
+                log.info("CSV import {} already completed with {} recipes", importName, checkpoint.getRecipesCreated());
+                return;
+            }
+
+            this.rowsProcessed.set(checkpoint.getRowsProcessed());
+            this.recipesCreated.set(checkpoint.getRecipesCreated());
+            this.rowsSkipped.set(checkpoint.getRowsSkipped());
+            this.loadCategories();
+
+            log.info("Starting CSV import {} after row {}", importName, checkpoint.getRowsProcessed());
+
+            long start = System.currentTimeMillis();
+            long startRow = checkpoint.getRowsProcessed();
+
+            try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8);
+                 MappingIterator<RecipeCsvRow> rows = CSV_READER.readValues(reader)) {
+
+                for (long skipped = 0; skipped < checkpoint.getRowsProcessed() && rows.hasNext(); skipped++) {
+                    rows.next();
+                }
+
+                // Normalize the next chunk while the current one is written.
+                List<RecipeCsvRow> chunk = readChunk(rows);
+                CompletableFuture<List<Recipe>> normalized = this.normalizeAsync(chunk, normalizers);
+
+                while (!chunk.isEmpty()) {
+
+                    List<Recipe> recipes = normalized.join();
+                    int chunkRows = chunk.size();
+
+                    chunk = readChunk(rows);
+                    normalized = this.normalizeAsync(chunk, normalizers);
+
+                    checkpoint = this.writeChunk(checkpoint, recipes, chunkRows);
+
+                    long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                    log.info("CSV import {}: {} rows processed, {} recipes created, {} rows skipped ({} rows/s)", importName,
+                            checkpoint.getRowsProcessed(), checkpoint.getRecipesCreated(), checkpoint.getRowsSkipped(),
+                            (checkpoint.getRowsProcessed() - startRow) * 1000 / elapsed);
+                }
+            }
+
+            checkpoint.setCompleted(true);
+            checkpoint.setUpdatedAt(Instant.now());
+            this.csvImportCheckpointRepository.save(checkpoint);
+
+            log.info("CSV import {} completed in {} ms", importName, System.currentTimeMillis() - start);
+
+            this.refreshSearchIndexes();
+
+        } catch (Exception ex) {
+            log.error("CSV import of {} failed, it resumes from the last checkpoint on the next run", location, ex);
+        } finally {
+            normalizers.shutdown();
+            this.running.set(false);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("csv.import.rows", recipesCreated, AtomicLong::get).tag("result", "imported")
+                .description("CSV rows imported as recipes").register(registry);
+        FunctionCounter.builder("csv.import.rows", rowsSkipped, AtomicLong::get).tag("result", "skipped")
+                .description("CSV rows skipped because they could not be normalized or written").register(registry);
+        Gauge.builder("csv.import.position", rowsProcessed, AtomicLong::get)
+                .description("Rows of the current CSV file processed so far").register(registry);
+        Gauge.builder("csv.import.running", running, value -> value.get() ? 1 : 0)
+                .description("1 while a CSV import is running").register(registry);
+    }
+
+    private static List<RecipeCsvRow> readChunk(MappingIterator<RecipeCsvRow> rows) {
+
+        List<RecipeCsvRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        while (chunk.size() < CHUNK_SIZE && rows.hasNext()) {
+            chunk.add(rows.next());
+        }
+
+        return chunk;
+    }
+
+    private CompletableFuture<List<Recipe>> normalizeAsync(List<RecipeCsvRow> chunk, ForkJoinPool normalizers) {
+        return CompletableFuture.supplyAsync(() -> chunk.parallelStream().map(this::normalize).toList(), normalizers);
+    }
+
+    /**
+     * Writes the normalized recipes of a chunk and advances the checkpoint in a single transaction. If the transaction
+     * fails on bad data, the rows are written one by one instead, see {@link #writeRowByRow}; any other failure stops
+     * the import.
+     *
+     * @param checkpoint the checkpoint before the chunk
+     * @param recipes the normalized recipes of the chunk, null for the rows that could not be normalized
+     * @param chunkRows the number of rows in the chunk
+     * @return the checkpoint after the chunk
+     */
+    private CsvImportCheckpoint writeChunk(CsvImportCheckpoint checkpoint, List<Recipe> recipes, int chunkRows) {
+
+        List<Recipe> valid = recipes.stream().filter(Objects::nonNull).toList();
+
+        // Categories are created before the chunk transaction so the cache never holds ids that were rolled back.
+        Map<Recipe, Integer> categoryIds = valid.stream()
+                .collect(Collectors.toMap(recipe -> recipe, this::getOrCreateCategory, (a, b) -> a, IdentityHashMap::new));
+
+        CsvImportCheckpoint saved;
+
+        try {
+            saved = this.transactionTemplate.execute(status -> {
+                this.insertRecipes(valid, categoryIds);
+                return this.csvImportCheckpointRepository.save(advance(checkpoint, chunkRows, valid.size()));
+            });
+        } catch (NonTransientDataAccessException ex) {
+            log.warn("CSV import chunk after row {} failed, writing its rows one by one: {}", checkpoint.getRowsProcessed(), ex.getMessage());
+            saved = this.writeRowByRow(checkpoint, recipes, categoryIds);
+        }
+
+        this.rowsProcessed.set(saved.getRowsProcessed());
+        this.recipesCreated.set(saved.getRecipesCreated());
+        this.rowsSkipped.set(saved.getRowsSkipped());
+
+        return saved;
+    }
+
+    /**
+     * Writes the rows of a chunk that failed as a whole, each in its own transaction together with the checkpoint, so
+     * an interrupted import still resumes after the last written row. A row failing on bad data is counted as skipped.
+     *
+     * @param checkpoint the checkpoint before the chunk
+     * @param recipes the normalized recipes of the chunk, null for the rows that could not be normalized
+     * @param categoryIds the category id of every recipe
+     * @return the checkpoint after the chunk
+     */
+    private CsvImportCheckpoint writeRowByRow(CsvImportCheckpoint checkpoint, List<Recipe> recipes, Map<Recipe, Integer> categoryIds) {
+
+        CsvImportCheckpoint current = checkpoint;
+
+        for (Recipe recipe : recipes) {
+
+            CsvImportCheckpoint before = current;
+            List<Recipe> row = recipe == null ? List.of() : List.of(recipe);
+
+            try {
+                current = this.transactionTemplate.execute(status -> {
+                    this.insertRecipes(row, categoryIds);
+                    return this.csvImportCheckpointRepository.save(advance(before, 1, row.size()));
+                });
+            } catch (NonTransientDataAccessException ex) {
+                log.warn("Skipping CSV row {}: {}", before.getRowsProcessed() + 1, ex.getMessage());
+                current = this.transactionTemplate.execute(status -> this.csvImportCheckpointRepository.save(advance(before, 1, 0)));
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Inserts new recipes with their category, ingredient group and step group, with one batch insert per table.
+     */
+    private void insertRecipes(List<Recipe> recipes, Map<Recipe, Integer> categoryIds) {
+
+        this.recipeComponentBatchRepository.insertRecipes(recipes);
+
+        List<RecipeCategory> recipeCategories = new ArrayList<>(recipes.size());
+        List<IngredientGroup> ingredientGroups = new ArrayList<>(recipes.size());
+        List<StepGroup> stepGroups = new ArrayList<>(recipes.size());
+
+        for (Recipe recipe : recipes) {
+            recipeCategories.add(toRecipeCategory(recipe, categoryIds.get(recipe)));
+            ingredientGroups.add(recipe.getIngredientGroups().iterator().next());
+            stepGroups.add(recipe.getStepGroups().iterator().next());
+            ingredientGroups.getLast().setRecipe(recipe.getId());
+            stepGroups.getLast().setRecipe(recipe.getId());
+        }
+
+        this.recipeComponentBatchRepository.insertRecipeCategories(recipeCategories);
+        this.recipeComponentBatchRepository.insertIngredientGroups(ingredientGroups);
+        this.recipeComponentBatchRepository.insertStepGroups(stepGroups);
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        List<Step> steps = new ArrayList<>();
+
+        for (IngredientGroup group : ingredientGroups) {
+            group.getIngredients().forEach(ingredient -> ingredient.setIngredientGroup(group.getId()));
+            ingredients.addAll(group.getIngredients());
+        }
+
+        for (StepGroup group : stepGroups) {
+            group.getSteps().forEach(step -> step.setStepGroup(group.getId()));
+            steps.addAll(group.getSteps());
+        }
+
+        this.recipeComponentBatchRepository.insertIngredients(ingredients);
+        this.recipeComponentBatchRepository.insertSteps(steps);
+    }
+
+    /**
+     * @return a copy of the checkpoint advanced by the given rows, leaving the given checkpoint as it was if the
+     *         transaction saving the copy rolls back
+     */
+    private static CsvImportCheckpoint advance(CsvImportCheckpoint checkpoint, long rows, long recipesCreated) {
+
+        CsvImportCheckpoint next = new CsvImportCheckpoint();
+        next.setImportName(checkpoint.getImportName());
+        next.setFileSize(checkpoint.getFileSize());
+        next.setFileLastModified(checkpoint.getFileLastModified());
+        next.setRowsProcessed(checkpoint.getRowsProcessed() + rows);
+        next.setRecipesCreated(checkpoint.getRecipesCreated() + recipesCreated);
+        next.setRowsSkipped(checkpoint.getRowsSkipped() + rows - recipesCreated);
+        next.setCompleted(false);
+        next.setUpdatedAt(Instant.now());
+        return next;
+    }
+
+    /**
+     * @return true if the checkpoint was written for a file of the given size and modification time
+     */
+    private static boolean isSameFile(CsvImportCheckpoint checkpoint, long fileSize, long fileLastModified) {
+        return checkpoint.getFileSize() == fileSize && checkpoint.getFileLastModified() == fileLastModified;
+    }
+
+    /**
+     * Maps one CSV row to a new recipe with one ingredient group and one step group. The category is only a label
+     * at this stage, it is resolved to an id when the chunk is written.
+     *
+     * @return the new recipe, or null if the row cannot be imported
+     */
+    private Recipe normalize(RecipeCsvRow row) {
+
+        try {
+            if (row.getName() == null || row.getName().isBlank()) {
+                return null;
+            }
+
+            Instant now = Instant.now();
+            String author = row.getAuthor() == null || row.getAuthor().isBlank() ? DEFAULT_AUTHOR : truncate(row.getAuthor().trim(), 256);
+
+            CodeValue minutes = new CodeValue();
+            minutes.setId(StaticCodeService.TIME_UNIT_MINUTES_CODE_VALUE_ID);
+
+            Recipe recipe = new Recipe();
+            recipe.setTitle(truncate(row.getName().trim(), 256));
+            recipe.setSummary(row.getSummary() == null || row.getSummary().isBlank() ? DEFAULT_SUMMARY : row.getSummary().trim());
+            recipe.setPrepTime(extractTimeInMinutes(row.getPrep()));
+            recipe.setPrepTimeUnitCd(minutes);
+            recipe.setCookTime(extractTimeInMinutes(row.getCook()));
+            recipe.setCookTimeUnitCd(minutes);
+            recipe.setTotalMinutes(recipe.getPrepTime() + recipe.getCookTime());
+            recipe.setServings(row.getServings() == null ? 1 : row.getServings());
+            recipe.setYield(row.getYield() == null ? null : truncate(row.getYield().trim(), MAX_LABEL_LENGTH));
+            recipe.setCalories(orZero(row.getCalories()));
+            recipe.setCarbsG(orZero(row.getCarbohydratesG()));
+            recipe.setSugarsG(orZero(row.getSugarsG()));
+            recipe.setFatG(orZero(row.getFatG()));
+            recipe.setCreatedBy(author);
+            recipe.setCreatedAt(now);
+
+            Category category = new Category();
+            category.setLabel(normalizeCategory(row.getCategory()));
+            recipe.getCategories().add(category);
+
+            IngredientGroup ingredientGroup = new IngredientGroup();
+            ingredientGroup.setIngredientGroupOrder(1);
+            ingredientGroup.setLabel("");
+            ingredientGroup.setCreatedBy(author);
+            ingredientGroup.setCreatedAt(now);
+            ingredientGroup.setIngredients(new LinkedHashSet<>(parseIngredients(row.getIngredients(), author, now)));
+            recipe.getIngredientGroups().add(ingredientGroup);
+
+            StepGroup stepGroup = new StepGroup();
+            stepGroup.setStepGroupOrder(1);
+            stepGroup.setLabel("");
+            stepGroup.setCreatedBy(author);
+            stepGroup.setCreatedAt(now);
+            stepGroup.setSteps(new LinkedHashSet<>(parseSteps(row.getDirections(), author, now)));
+            recipe.getStepGroups().add(stepGroup);
+
+            return recipe;
+
+        } catch (Exception ex) {
+            log.warn("Skipping CSV row '{}': {}", row.getName(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private void loadCategories() {
+        this.categoryCache.clear();
+        for (Category category : this.categoryRepository.findAll()) {
+            this.categoryCache.putIfAbsent(category.getLabel(), category.getId());
+        }
+    }
+
+    private Integer getOrCreateCategory(Recipe recipe) {
+
+        String label = recipe.getCategories().iterator().next().getLabel();
+
+        return this.categoryCache.computeIfAbsent(label, newLabel -> {
+            Category newCategory = new Category();
+            newCategory.setLabel(newLabel);
+            newCategory.setCreatedBy(recipe.getCreatedBy());
+            newCategory.setCreatedAt(Instant.now());
+            return this.categoryRepository.save(newCategory).getId();
+        });
+    }
+
+    private static RecipeCategory toRecipeCategory(Recipe recipe, Integer categoryId) {
+
+        RecipeCategoryId id = new RecipeCategoryId();
+        id.setCategoryId(categoryId);
+        id.setRecipeId(recipe.getId());
+
+        RecipeCategory recipeCategory = new RecipeCategory();
+        recipeCategory.setId(id);
+        recipeCategory.setCreatedBy(recipe.getCreatedBy());
+        recipeCategory.setCreatedAt(recipe.getCreatedAt());
+        return recipeCategory;
+    }
+
+    /**
+     * Rebuilds every in-memory index and cache derived from the recipes, which do not see rows inserted in bulk.
+     */
+    private void refreshSearchIndexes() {
+        this.recipeSearchIndexService.rebuildIndex();
+        this.recipeNutritionService.rebuildStore();
+        this.recipeFacetService.rebuildFacets();
+        this.recipeSortService.rebuildOrders();
+        this.recipeSuggestionService.rebuildSuggestions();
+        this.pantrySearchService.rebuildIndex();
+        this.recipeSearchCacheService.invalidateAfterCommit();
+        this.recipeDetailDocumentService.regenerateMissingDocuments();
+    }
+
+    /**
+     * Converts a duration such as "15 mins", "1 hr 30 mins" or "1 day 2 hrs" to minutes. A number without a unit
+     * is read as minutes; anything unreadable is 0.
+     */
+    static int extractTimeInMinutes(String timeString) {
+
+        if (timeString == null || timeString.isBlank()) {
+            return 0;
+        }
+
+        Matcher matcher = TIME_PART.matcher(timeString);
+        int minutes = 0;
+
+        while (matcher.find()) {
+            int amount = Integer.parseInt(matcher.group(1));
+            String unit = matcher.group(2) == null ? "min" : matcher.group(2).toLowerCase(Locale.ROOT);
+            minutes += switch (unit) {
+                case "day" -> amount * 1440;
+                case "hr", "hour" -> amount * 60;
+                default -> amount;
+            };
+        }
+
+        return minutes;
+    }
+
+    static String normalizeCategory(String category) {
+
+        if (category == null || category.isBlank()) {
+            return UNCATEGORIZED;
+        }
+
+        // Replace special characters like hyphens and normalize "and" cases
+        String cleanedCategory = category
+                .replaceAll("-", " ")
+                .replaceAll("&", "and")
+                .replaceAll("\\s+", " ")
+                .trim();
+
+        if (cleanedCategory.isBlank()) {
+            return UNCATEGORIZED;
+        }
+
+        // Capitalize each word for a UI-friendly label
+        return truncate(Arrays.stream(cleanedCategory.split(" "))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word.substring(0, 1).toUpperCase(Locale.ROOT) + word.substring(1).toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(" ")), MAX_LABEL_LENGTH);
+    }
+
+    private static List<Ingredient> parseIngredients(String ingredients, String createdBy, Instant createdAt) {
+
+        List<Ingredient> result = new ArrayList<>();
+
+        if (ingredients == null) {
+            return result;
+        }
+
+        int order = 1;
+
+        for (String item : ingredients.split(";")) {
+            if (!item.isBlank()) {
+                Ingredient ingredient = new Ingredient();
+                ingredient.setIngredientOrder(order++);
+                ingredient.setLabel(truncate(item.trim(), MAX_LABEL_LENGTH));
+                ingredient.setCreatedBy(createdBy);
+                ingredient.setCreatedAt(createdAt);
+                result.add(ingredient);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Splits the directions into steps at sentence boundaries, so decimal quantities such as "1.5 cups" stay whole.
+     * Step labels are TEXT columns and are kept whole.
+     */
+    static List<Step> parseSteps(String directions, String createdBy, Instant createdAt) {
+
+        List<Step> result = new ArrayList<>();
+
+        if (directions == null) {
+            return result;
+        }
+
+        int order = 1;
+
+        for (String sentence : STEP_BOUNDARY.split(directions.trim())) {
+            if (!sentence.isBlank()) {
+                Step step = new Step();
+                step.setStepOrder(order++);
+                step.setLabel(sentence.trim());
+                step.setCreatedBy(createdBy);
+                step.setCreatedAt(createdAt);
+                result.add(step);
+            }
+        }
+
+        return result;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
 }
@@ -0,0 +1,165 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
+import org.group2.comp313.kitchen_companion.repository.SavedRecipeRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the ids of the recipes saved by recently active users in memory, so the favorite flag of search results
+ * and recipe details is set without joining {@code saved_recipe} in every query.
+ *
+ * A user's set is loaded on first access and kept as a sorted int array for {@link #TTL_MILLIS}; at most
+ * {@link #MAX_USERS} users are kept, the least recently used being evicted first. Saving or removing a recipe
+ * updates the cached set once the transaction commits.
+ */
+@Service
+public class FavoriteRecipeService extends BaseService {
+
+    public static final int MAX_USERS = 10_000;
+    public static final long TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final SavedRecipeRepository savedRecipeRepository;
+    private final AtomicLong writes = new AtomicLong();
+    private final Map<String, FavoriteSet> favoritesByUser = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FavoriteSet> eldest) {
+            return size() > MAX_USERS;
+        }
+    };
+
+    public FavoriteRecipeService(SavedRecipeRepository savedRecipeRepository) {
+        this.savedRecipeRepository = savedRecipeRepository;
+    }
+
+    /**
+     * @param userEmail the user email; null or empty for an anonymous user
+     * @param recipeId the recipe id
+     * @return true if the user saved the recipe
+     */
+    public boolean isFavorite(String userEmail, Integer recipeId) {
+        return recipeId != null && this.getFavorites(userEmail).contains(recipeId);
+    }
+
+    /**
+     * Sets the favorite flag of the given cards for the given user.
+     *
+     * @param cards the cards, typically loaded for an anonymous user
+     * @param userEmail the user email; null or empty for an anonymous user
+     * @return new cards with the favorite flag of the user
+     */
+    public List<RecipeSummaryCardWithCategory> withFavorites(List<RecipeSummaryCardWithCategory> cards, String userEmail) {
+
+        FavoriteSet favorites = this.getFavorites(userEmail);
+
+        return cards.stream()
+                .map(card -> new RecipeSummaryCardWithCategory(card.id(), card.title(), card.description(), card.thumbnailUrl(),
+                        card.ratingCount(), card.ratingValue(), card.category(), favorites.contains(card.id()) ? 1 : 0))
+                .toList();
+    }
+
+    /**
+     * Adds a recipe to the cached favorites of a user once the current transaction commits.
+     *
+     * @param userEmail the user email
+     * @param recipeId the saved recipe id
+     */
+    public void addFavoriteAfterCommit(String userEmail, Integer recipeId) {
+        this.runAfterCommit(() -> this.update(userEmail, recipeId, true));
+    }
+
+    /**
+     * Removes a recipe from the cached favorites of a user once the current transaction commits.
+     *
+     * @param userEmail the user email
+     * @param recipeId the recipe id no longer saved
+     */
+    public void removeFavoriteAfterCommit(String userEmail, Integer recipeId) {
+        this.runAfterCommit(() -> this.update(userEmail, recipeId, false));
+    }
+
+    private FavoriteSet getFavorites(String userEmail) {
+
+        if (userEmail == null || userEmail.isBlank()) {
+            return FavoriteSet.EMPTY;
+        }
+
+        FavoriteSet favorites;
+
+        synchronized (favoritesByUser) {
+            favorites = favoritesByUser.get(userEmail);
+        }
+
+        if (favorites != null && !favorites.isExpired()) {
+            return favorites;
+        }
+
+        // Only cache the loaded set if no favorite changed while it was read, otherwise it may already be stale.
+        long writesBeforeLoad = writes.get();
+        int[] recipeIds = this.savedRecipeRepository.findSavedRecipeIdsByCreatedBy(userEmail).stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        favorites = new FavoriteSet(recipeIds, System.currentTimeMillis());
+
+        synchronized (favoritesByUser) {
+            if (writesBeforeLoad == writes.get()) {
+                favoritesByUser.put(userEmail, favorites);
+            }
+        }
+
+        return favorites;
+    }
+
+    private void update(String userEmail, Integer recipeId, boolean saved) {
+        synchronized (favoritesByUser) {
+            writes.incrementAndGet();
+            FavoriteSet favorites = favoritesByUser.get(userEmail);
+            if (favorites != null) {
+                favoritesByUser.put(userEmail, saved ? favorites.with(recipeId) : favorites.without(recipeId));
+            }
+        }
+    }
+
+    /**
+     * Immutable sorted set of recipe ids; updates return a copy so readers never need a lock.
+     */
+    private record FavoriteSet(int[] recipeIds, long loadedAt) {
+
+        private static final FavoriteSet EMPTY = new FavoriteSet(new int[0], Long.MAX_VALUE);
+
+        private boolean contains(int recipeId) {
+            return Arrays.binarySearch(recipeIds, recipeId) >= 0;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > TTL_MILLIS;
+        }
+
+        private FavoriteSet with(int recipeId) {
+            int position = Arrays.binarySearch(recipeIds, recipeId);
+            if (position >= 0) {
+                return this;
+            }
+            position = -position - 1;
+            int[] copy = new int[recipeIds.length + 1];
+            System.arraycopy(recipeIds, 0, copy, 0, position);
+            copy[position] = recipeId;
+            System.arraycopy(recipeIds, position, copy, position + 1, recipeIds.length - position);
+            return new FavoriteSet(copy, loadedAt);
+        }
+
+        private FavoriteSet without(int recipeId) {
+            int position = Arrays.binarySearch(recipeIds, recipeId);
+            if (position < 0) {
+                return this;
+            }
+            int[] copy = new int[recipeIds.length - 1];
+            System.arraycopy(recipeIds, 0, copy, 0, position);
+            System.arraycopy(recipeIds, position + 1, copy, position, recipeIds.length - position - 1);
+            return new FavoriteSet(copy, loadedAt);
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package org.group2.comp313.kitchen_companion.service;
 
 import jakarta.transaction.Transactional;
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
 import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
-import org.group2.comp313.kitchen_companion.dto.recipe.ComponentUpdateDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.IngredientDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.IngredientGroupDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeComponentUpdateDto;
 import org.group2.comp313.kitchen_companion.mapper.IngredientGroupMapper;
 import org.group2.comp313.kitchen_companion.repository.IngredientGroupRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
 import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -22,28 +24,48 @@ public class IngredientGroupService extends BaseService {
     private final IngredientGroupRepository ingredientGroupRepository;
     private final IngredientService ingredientService;
     private final IngredientGroupMapper ingredientGroupMapper;
+    private final RecipeSearchIndexService recipeSearchIndexService;
+    private final RecipeSearchCacheService recipeSearchCacheService;
+    private final RecipeDetailCacheService recipeDetailCacheService;
+    private final RecipeDetailDocumentService recipeDetailDocumentService;
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository;
 
     public IngredientGroupService(IngredientGroupRepository ingredientGroupRepository,
                                   IngredientService ingredientService,
-                                  IngredientGroupMapper ingredientGroupMapper) {
+                                  IngredientGroupMapper ingredientGroupMapper,
+                                  RecipeSearchIndexService recipeSearchIndexService,
+                                  RecipeSearchCacheService recipeSearchCacheService,
+                                  RecipeDetailCacheService recipeDetailCacheService,
+                                  RecipeDetailDocumentService recipeDetailDocumentService,
+                                  RecipeComponentBatchRepository recipeComponentBatchRepository) {
         this.ingredientGroupRepository = ingredientGroupRepository;
         this.ingredientService = ingredientService;
         this.ingredientGroupMapper = ingredientGroupMapper;
+        this.recipeSearchIndexService = recipeSearchIndexService;
+        this.recipeSearchCacheService = recipeSearchCacheService;
+        this.recipeDetailCacheService = recipeDetailCacheService;
+        this.recipeDetailDocumentService = recipeDetailDocumentService;
+        this.recipeComponentBatchRepository = recipeComponentBatchRepository;
     }
 
     /**
      * Creates a set of IngredientGroup entities based on the provided list of IngredientGroupDto objects.
      * Saves the newly created IngredientGroup entities into the repository and associates them
-     * with the given recipeId.
+     * with the given recipeId. The groups, then the ingredients of every group, are inserted with one
+     * batch statement each, see {@link RecipeComponentBatchRepository}.
+     *
+     * The returned groups and ingredients carry their generated ids but are not managed by the persistence context:
+     * they are meant to be returned to the client only. Callers must not change them or pass them to the entity
+     * manager in the same transaction, and must reload them through the repositories to work on them.
      *
      * @param newIngredientGroupDtoList the list of IngredientGroupDto objects to be converted into IngredientGroup entities
      * @param recipeId the ID of the recipe to which the IngredientGroups will be associated
      * @param createdBy the username or identifier of the creator of these ingredient groups
-     * @return a set of IngredientGroup entities that were created and saved
+     * @return a set of IngredientGroup entities that were created and saved, not managed
      */
     public Set<IngredientGroup> createIngredientGroups(List<IngredientGroupDto> newIngredientGroupDtoList, Integer recipeId, String createdBy) {
 
-        Set<IngredientGroup> ingredientGroups = new HashSet<>();
+        List<IngredientGroup> ingredientGroups = new ArrayList<>();
 
         for(IngredientGroupDto ingredientGroupDto: newIngredientGroupDtoList){
 
@@ -57,21 +79,33 @@ public class IngredientGroupService extends BaseService {
             ingredientGroup.setUpdatedAt(null);
             ingredientGroup.setUpdatedBy(null);
 
-            ingredientGroup = this.ingredientGroupRepository.save(ingredientGroup);
-            Integer ingredientGroupId = ingredientGroup.getId();
+            ingredientGroups.add(ingredientGroup);
+        }
+
+        this.recipeComponentBatchRepository.insertIngredientGroups(ingredientGroups);
 
-            for(IngredientDto ingredientDto : ingredientGroupDto.ingredients()) {
-                ingredientGroup.getIngredients().add(this.ingredientService.createIngredient(ingredientDto, ingredientGroupId, createdBy));
-            }
+        List<Ingredient> ingredients = new ArrayList<>();
 
-            ingredientGroups.add(ingredientGroup);
+        for(int i = 0; i < ingredientGroups.size(); i++) {
+
+            IngredientGroup ingredientGroup = ingredientGroups.get(i);
+
+            for(IngredientDto ingredientDto : newIngredientGroupDtoList.get(i).ingredients()) {
+                Ingredient ingredient = this.ingredientService.newIngredient(ingredientDto, ingredientGroup.getId(), createdBy);
+                ingredientGroup.getIngredients().add(ingredient);
+                ingredients.add(ingredient);
+            }
         }
 
-        return ingredientGroups;
+        this.ingredientService.createIngredients(ingredients, recipeId);
+
+        return new HashSet<>(ingredientGroups);
     }
 
     /**
      * Updates an ingredient group associated with a specified recipe and updates its related components.
+     * The ingredients are loaded once with the group and only the ones that change are written, see
+     * {@link IngredientService#updateIngredients(IngredientGroup, Integer, List, String)}.
      *
      * @param dto the data transfer object containing updated details for the ingredient group and its components
      * @param recipeId the ID of the recipe the ingredient group belongs to
@@ -94,10 +128,13 @@ public class IngredientGroupService extends BaseService {
             this.ingredientGroupMapper.partialUpdate(dto, ingredientGroup);
 
             if(dto.componentUpdateDtoList() != null && !dto.componentUpdateDtoList().isEmpty()) {
-                for(ComponentUpdateDto componentUpdateDto: dto.componentUpdateDtoList()) {
-                    this.ingredientService.updateIngredient(componentUpdateDto, updatedBy);
-                }
+                this.ingredientService.updateIngredients(ingredientGroup, recipeId, dto.componentUpdateDtoList(), updatedBy);
             }
+
+            this.recipeSearchIndexService.refreshRecipeAfterCommit(recipeId);
+            this.recipeSearchCacheService.invalidateAfterCommit();
+            this.recipeDetailCacheService.evictAfterCommit(recipeId);
+            this.recipeDetailDocumentService.regenerateAfterCommit(recipeId);
         }
     }
 
@@ -105,7 +142,9 @@ public class IngredientGroupService extends BaseService {
      * Updates an existing ingredient group associated with a recipe and a specific user.
      * The method fetches the ingredient group by its ID, recipe ID, and user who created it,
      * then applies updates based on the provided data transfer object (DTO).
-     * It also updates all the ingredients under the group if provided with a list of ingredients in the DTO.
+     * If the DTO provides a list of ingredients, it replaces the ingredients of the group: new ingredients are
+     * inserted, missing ones deleted and only the changed or reordered ones updated, see
+     * {@link IngredientService#syncIngredients(IngredientGroup, Integer, List, String)}.
      *
      * @param dto           The data transfer object containing updates for the ingredient group.
      * @param recipeId      The ID of the recipe the ingredient group belongs to.
@@ -129,11 +168,14 @@ public class IngredientGroupService extends BaseService {
             this.ingredientGroupMapper.partialUpdate(dto, ingredientGroup);
 
             if(dto.ingredients() != null && !dto.ingredients().isEmpty()) {
-                for(IngredientDto ingredient : dto.ingredients()) {
-                    this.ingredientService.updateIngredient(ingredient, updatedBy);
-                }
+                this.ingredientService.syncIngredients(ingredientGroup, recipeId, dto.ingredients(), updatedBy);
             }
 
+            this.recipeSearchIndexService.refreshRecipeAfterCommit(recipeId);
+            this.recipeSearchCacheService.invalidateAfterCommit();
+            this.recipeDetailCacheService.evictAfterCommit(recipeId);
+            this.recipeDetailDocumentService.regenerateAfterCommit(recipeId);
+
             return ingredientGroup;
         }
     }
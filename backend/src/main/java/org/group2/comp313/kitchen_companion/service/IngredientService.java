@@ -1,24 +1,34 @@
 package org.group2.comp313.kitchen_companion.service;
 
 import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
 import org.group2.comp313.kitchen_companion.dto.recipe.ComponentUpdateDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.IngredientDto;
-import org.group2.comp313.kitchen_companion.mapper.IngredientMapper;
 import org.group2.comp313.kitchen_companion.repository.IngredientRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
 import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class IngredientService extends BaseService {
 
     private final IngredientRepository ingredientRepository;
-    private final IngredientMapper ingredientMapper;
+    private final PantrySearchService pantrySearchService;
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository;
 
-    public IngredientService(IngredientRepository ingredientRepository, IngredientMapper ingredientMapper) {
+    public IngredientService(IngredientRepository ingredientRepository, PantrySearchService pantrySearchService, RecipeComponentBatchRepository recipeComponentBatchRepository) {
         this.ingredientRepository = ingredientRepository;
-        this.ingredientMapper = ingredientMapper;
+        this.pantrySearchService = pantrySearchService;
+        this.recipeComponentBatchRepository = recipeComponentBatchRepository;
     }
 
     /**
@@ -31,6 +41,33 @@ public class IngredientService extends BaseService {
      */
     public Ingredient createIngredient(IngredientDto ingredientDTO, Integer ingredientGroupId, String createdBy) {
 
+        Ingredient savedIngredient = ingredientRepository.save(this.newIngredient(ingredientDTO, ingredientGroupId, createdBy));
+        this.pantrySearchService.refreshIngredientAfterCommit(savedIngredient.getId());
+
+        return savedIngredient;
+    }
+
+    /**
+     * Persists the given new ingredients of a recipe with a single batch insert, see {@link RecipeComponentBatchRepository}.
+     *
+     * @param newIngredients the ingredients built with {@link #newIngredient(IngredientDto, Integer, String)}
+     * @param recipeId the identifier of the recipe the ingredients belong to
+     */
+    public void createIngredients(List<Ingredient> newIngredients, Integer recipeId) {
+        this.recipeComponentBatchRepository.insertIngredients(newIngredients);
+        this.pantrySearchService.addIngredientsAfterCommit(recipeId, newIngredients);
+    }
+
+    /**
+     * Builds a new, not yet persisted ingredient.
+     *
+     * @param ingredientDTO the data transfer object containing information about the ingredient to be created
+     * @param ingredientGroupId the identifier of the ingredient group to which the new ingredient belongs
+     * @param createdBy the username or identifier of the user creating the ingredient
+     * @return the new ingredient
+     */
+    public Ingredient newIngredient(IngredientDto ingredientDTO, Integer ingredientGroupId, String createdBy) {
+
         Ingredient newIngredient = new Ingredient();
 
         newIngredient.setIngredientGroup(ingredientGroupId);
@@ -42,61 +79,128 @@ public class IngredientService extends BaseService {
         newIngredient.setUpdatedAt(null);
         newIngredient.setUpdatedBy(null);
 
-        return ingredientRepository.save(newIngredient);
+        return newIngredient;
     }
 
     /**
-     * Updates an existing ingredient using the details provided in the ComponentUpdateDto object.
+     * Applies partial updates to ingredients of a group. The ingredients are the ones loaded with the group, so
+     * no ingredient is read again; only the ones whose label or image actually change are modified, and they are
+     * written together with one batched UPDATE when the caller's transaction flushes.
      *
-     * @param dto the data transfer object containing the updated details for the ingredient
+     * @param ingredientGroup the ingredient group, loaded in the current transaction
+     * @param recipeId the identifier of the recipe the group belongs to
+     * @param dtoList the partial updates, one per ingredient
      * @param updatedBy the username or identifier of the user performing the update
-     * @throws EntityToBeUpdatedNotFoundException if the ingredient to be updated cannot be found
-     *         or does not belong to the user identified by updatedBy
+     * @throws EntityToBeUpdatedNotFoundException if an ingredient does not belong to the group
      */
-    public void updateIngredient(ComponentUpdateDto dto, String updatedBy) {
+    public void updateIngredients(IngredientGroup ingredientGroup, Integer recipeId, List<ComponentUpdateDto> dtoList, String updatedBy) {
 
-        Ingredient ingredient = ingredientRepository.findByIdAndCreatedBy(dto.id(), updatedBy).orElse(null);
+        Map<Integer, Ingredient> current = currentIngredients(ingredientGroup);
+        List<Ingredient> changed = new ArrayList<>();
+        Instant now = Instant.now();
 
-        if (ingredient == null) {
-            throw new EntityToBeUpdatedNotFoundException("Ingredient not found. Please check the id or if this belongs to user.");
-        } else {
-            ingredient.setUpdatedBy(updatedBy);
-            ingredient.setUpdatedAt(Instant.now());
-            if(dto.label() != null){
-                ingredient.setLabel(dto.label());
-            }
+        for (ComponentUpdateDto dto : dtoList) {
 
-            if(dto.imageUrl() != null){
-                ingredient.setImageUrl(dto.imageUrl());
+            Ingredient ingredient = current.get(dto.id());
+
+            if (ingredient == null) {
+                throw new EntityToBeUpdatedNotFoundException("Ingredient not found. Please check the id or if this belongs to the ingredient group.");
             }
 
-            ingredientRepository.save(ingredient);
+            String label = dto.label() != null ? dto.label() : ingredient.getLabel();
+            String imageUrl = dto.imageUrl() != null ? dto.imageUrl() : ingredient.getImageUrl();
+
+            if (applyChanges(ingredient, ingredient.getIngredientOrder(), label, imageUrl, updatedBy, now)) {
+                changed.add(ingredient);
+            }
         }
+
+        this.pantrySearchService.addIngredientsAfterCommit(recipeId, changed);
     }
 
     /**
-     * Updates an existing ingredient using the details provided in the IngredientDto object.
+     * Makes the ingredients of a group match the given list, touching only the rows that differ:
+     * - ingredients with an id are updated when their order, label or image changed, so reordering a group only
+     *   writes the ingredients that moved;
+     * - ingredients without an id are inserted;
+     * - ingredients of the group missing from the list are deleted.
+     *
+     * The ingredients are the ones loaded with the group. Updates are written with one batched UPDATE when the
+     * caller's transaction flushes, inserts with one batch insert and deletes with one DELETE statement. The
+     * deleted ingredients are dropped from the ingredient collection of the group, the inserted ones are not added.
      *
-     * @param dto the data transfer object containing the updated details for the ingredient
+     * @param ingredientGroup the ingredient group, loaded in the current transaction
+     * @param recipeId the identifier of the recipe the group belongs to
+     * @param dtoList the complete list of ingredients of the group
      * @param updatedBy the username or identifier of the user performing the update
-     * @throws EntityToBeUpdatedNotFoundException if the ingredient to be updated cannot be found
-     *         or does not belong to the user identified by updatedBy
+     * @throws EntityToBeUpdatedNotFoundException if an ingredient id does not belong to the group or is repeated
      */
-    public void updateIngredient(IngredientDto dto, String updatedBy) {
+    public void syncIngredients(IngredientGroup ingredientGroup, Integer recipeId, List<IngredientDto> dtoList, String updatedBy) {
 
-        Ingredient ingredient = ingredientRepository.findByIdAndCreatedBy(dto.id(), updatedBy).orElse(null);
+        Map<Integer, Ingredient> current = currentIngredients(ingredientGroup);
+        Set<Integer> keptIds = new HashSet<>();
+        List<Ingredient> changed = new ArrayList<>();
+        List<Ingredient> created = new ArrayList<>();
+        Instant now = Instant.now();
 
-        if (ingredient == null) {
-            throw new EntityToBeUpdatedNotFoundException("Ingredient not found. Please check the id or if this belongs to user.");
-        } else {
+        for (IngredientDto dto : dtoList) {
 
-            ingredient.setUpdatedBy(updatedBy);
-            ingredient.setUpdatedAt(Instant.now());
+            if (dto.id() == null) {
+                created.add(this.newIngredient(dto, ingredientGroup.getId(), updatedBy));
+                continue;
+            }
+
+            Ingredient ingredient = current.get(dto.id());
+
+            if (ingredient == null || !keptIds.add(dto.id())) {
+                throw new EntityToBeUpdatedNotFoundException("Ingredient not found. Please check the id or if this belongs to the ingredient group.");
+            }
+
+            String imageUrl = dto.imageUrl() != null ? dto.imageUrl() : ingredient.getImageUrl();
+
+            if (applyChanges(ingredient, dto.ingredientOrder(), dto.label(), imageUrl, updatedBy, now)) {
+                changed.add(ingredient);
+            }
+        }
+
+        List<Integer> removedIds = current.keySet().stream().filter(id -> !keptIds.contains(id)).toList();
+
+        if (!removedIds.isEmpty()) {
+            this.ingredientRepository.deleteAllByIdInBatch(removedIds);
+            // The bulk delete bypasses the persistence context, so the group would still hold the deleted ingredients.
+            ingredientGroup.getIngredients().removeIf(ingredient -> !keptIds.contains(ingredient.getId()));
+            this.pantrySearchService.removeIngredientsAfterCommit(removedIds);
+        }
+
+        this.createIngredients(created, recipeId);
+        this.pantrySearchService.addIngredientsAfterCommit(recipeId, changed);
+    }
 
-            this.ingredientMapper.partialUpdate(dto, ingredient);
+    private static Map<Integer, Ingredient> currentIngredients(IngredientGroup ingredientGroup) {
 
-            ingredientRepository.save(ingredient);
+        Map<Integer, Ingredient> current = new HashMap<>();
+
+        for (Ingredient ingredient : ingredientGroup.getIngredients()) {
+            current.put(ingredient.getId(), ingredient);
         }
+
+        return current;
     }
 
+    private static boolean applyChanges(Ingredient ingredient, Integer order, String label, String imageUrl, String updatedBy, Instant now) {
+
+        if (Objects.equals(order, ingredient.getIngredientOrder())
+                && Objects.equals(label, ingredient.getLabel())
+                && Objects.equals(imageUrl, ingredient.getImageUrl())) {
+            return false;
+        }
+
+        ingredient.setIngredientOrder(order);
+        ingredient.setLabel(label);
+        ingredient.setImageUrl(imageUrl);
+        ingredient.setUpdatedBy(updatedBy);
+        ingredient.setUpdatedAt(now);
+
+        return true;
+    }
 }
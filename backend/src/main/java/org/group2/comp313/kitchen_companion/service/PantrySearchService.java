@@ -0,0 +1,207 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.dto.recipe.PantryRecipeMatchDto;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
+import org.group2.comp313.kitchen_companion.dto.search.IngredientIndexRow;
+import org.group2.comp313.kitchen_companion.repository.IngredientRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.search.IngredientCoverageIndex;
+import org.group2.comp313.kitchen_companion.utility.SearchIndexNotReadyException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * "Cook with what I have" search. Ranks recipes by the share of their ingredient list covered by a list of
+ * pantry ingredients, using an in-memory term to ingredient posting index built from the ingredient and
+ * ingredient group tables once the application is ready.
+ *
+ * The index is kept current by {@link IngredientService} through {@link #refreshIngredientAfterCommit(Integer)}
+ * and {@link #addIngredientsAfterCommit(Integer, List)}, so ranking never runs SQL; only the summary cards of the requested page are loaded from the database.
+ */
+@Service
+public class PantrySearchService extends BaseService {
+
+    private final IngredientRepository ingredientRepository;
+    private final RecipeRepository recipeRepository;
+    private final FavoriteRecipeService favoriteRecipeService;
+
+    private volatile IngredientCoverageIndex coverageIndex = new IngredientCoverageIndex();
+    private volatile boolean ready = false;
+
+    public PantrySearchService(IngredientRepository ingredientRepository, RecipeRepository recipeRepository, FavoriteRecipeService favoriteRecipeService) {
+        this.ingredientRepository = ingredientRepository;
+        this.recipeRepository = recipeRepository;
+        this.favoriteRecipeService = favoriteRecipeService;
+    }
+
+    /**
+     * Builds the coverage index once the application has started. A failure is logged and leaves the
+     * service not ready, in which case pantry searches are rejected as unavailable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexOnStartup() {
+        try {
+            rebuildIndex();
+        } catch (Exception ex) {
+            log.error("Failed to build ingredient coverage index", ex);
+        }
+    }
+
+    /**
+     * Reloads every ingredient with its recipe and swaps the coverage index in atomically.
+     */
+    public void rebuildIndex() {
+
+        long start = System.currentTimeMillis();
+
+        IngredientCoverageIndex newIndex = new IngredientCoverageIndex();
+        List<IngredientIndexRow> rows = this.ingredientRepository.findAllIngredientIndexRows();
+
+        for (IngredientIndexRow row : rows) {
+            newIndex.putIngredient(row.ingredientId(), row.recipeId(), row.label());
+        }
+
+        this.coverageIndex = newIndex;
+        this.ready = true;
+
+        log.info("Ingredient coverage index built with {} ingredients in {} ms", rows.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return true once the coverage index has been built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Re-indexes the given ingredient once the current transaction commits.
+     *
+     * @param ingredientId the id of the ingredient that was created or updated
+     */
+    public void refreshIngredientAfterCommit(Integer ingredientId) {
+
+        if (ingredientId == null) {
+            return;
+        }
+
+        this.runAfterCommit(() -> refreshIngredient(ingredientId));
+    }
+
+    /**
+     * Indexes the given new or updated ingredients of a recipe once the current transaction commits, without
+     * reading them back.
+     *
+     * @param recipeId the id of the recipe the ingredients belong to
+     * @param ingredients the created or updated ingredients, with their ids
+     */
+    public void addIngredientsAfterCommit(Integer recipeId, List<Ingredient> ingredients) {
+
+        if (recipeId == null || ingredients.isEmpty()) {
+            return;
+        }
+
+        this.runAfterCommit(() -> {
+            for (Ingredient ingredient : ingredients) {
+                this.coverageIndex.putIngredient(ingredient.getId(), recipeId, ingredient.getLabel());
+            }
+        });
+    }
+
+    /**
+     * Removes the given deleted ingredients from the coverage index once the current transaction commits.
+     *
+     * @param ingredientIds the ids of the deleted ingredients
+     */
+    public void removeIngredientsAfterCommit(Collection<Integer> ingredientIds) {
+
+        if (ingredientIds.isEmpty()) {
+            return;
+        }
+
+        this.runAfterCommit(() -> ingredientIds.forEach(this.coverageIndex::removeIngredient));
+    }
+
+    /**
+     * Reloads a single ingredient from the database and replaces its entry in the coverage index.
+     * Ingredients that no longer exist are removed from the index.
+     *
+     * @param ingredientId the id of the ingredient to re-index
+     */
+    public void refreshIngredient(Integer ingredientId) {
+        try {
+            Optional<IngredientIndexRow> row = this.ingredientRepository.findIngredientIndexRowById(ingredientId);
+
+            if (row.isEmpty()) {
+                this.coverageIndex.removeIngredient(ingredientId);
+            } else {
+                this.coverageIndex.putIngredient(ingredientId, row.get().recipeId(), row.get().label());
+            }
+        } catch (Exception ex) {
+            log.error("Failed to refresh ingredient {} in the coverage index", ingredientId, ex);
+        }
+    }
+
+    /**
+     * Finds the recipes that can be cooked with the given pantry ingredients, best covered first.
+     *
+     * @param pantryItems the ingredients the user has, e.g. "chicken", "rice", "green onion"
+     * @param page the page number to retrieve
+     * @param size the number of recipes per page
+     * @param currentUserEmail the current user email used to compute the favorite flag
+     * @return a page of recipes with their ingredient coverage
+     * @throws SearchIndexNotReadyException if the coverage index has not been built yet
+     */
+    public Page<PantryRecipeMatchDto> findRecipesByPantry(List<String> pantryItems, Integer page, Integer size, String currentUserEmail) {
+
+        if (!this.isReady()) {
+            throw new SearchIndexNotReadyException("Ingredient search is starting up, please try again shortly.");
+        }
+
+        PageRequest pageRequest = PageRequest.of(page, size);
+
+        if (pantryItems == null || pantryItems.isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, 0);
+        }
+
+        List<IngredientCoverageIndex.Coverage> ranking = this.coverageIndex.rank(pantryItems);
+
+        int total = ranking.size();
+        int from = (int) Math.min((long) page * size, total);
+        int to = Math.min(from + size, total);
+        List<IngredientCoverageIndex.Coverage> pageRanking = ranking.subList(from, to);
+
+        if (pageRanking.isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, total);
+        }
+
+        List<Integer> pageIds = pageRanking.stream().map(IngredientCoverageIndex.Coverage::recipeId).toList();
+
+        Map<Integer, RecipeSummaryCardWithCategory> cardsById = this.favoriteRecipeService.withFavorites(this.recipeRepository.findRecipeSummaryCardsByIds(pageIds), currentUserEmail)
+                .stream()
+                .collect(Collectors.toMap(RecipeSummaryCardWithCategory::id, card -> card));
+
+        List<PantryRecipeMatchDto> content = new ArrayList<>(pageRanking.size());
+
+        for (IngredientCoverageIndex.Coverage coverage : pageRanking) {
+            RecipeSummaryCardWithCategory card = cardsById.get(coverage.recipeId());
+            if (card != null) {
+                content.add(new PantryRecipeMatchDto(card, coverage.matchedIngredientCount(), coverage.ingredientCount(), coverage.ratio()));
+            }
+        }
+
+        return new PageImpl<>(content, pageRequest, total);
+    }
+}
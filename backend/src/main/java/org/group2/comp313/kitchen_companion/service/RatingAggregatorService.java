@@ -0,0 +1,477 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.ProducerTemplate;
+import org.group2.comp313.kitchen_companion.domain.RatingCalculated;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingHistogram;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingTotals;
+import org.group2.comp313.kitchen_companion.repository.RatingCalculatedBatchRepository;
+import org.group2.comp313.kitchen_companion.repository.RatingCalculatedRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Write-coalescing aggregator of the rating changes of recipes.
+ *
+ * A rating write does not touch {@code rating_calculated}: once its transaction commits, its change of the sum,
+ * count and histogram of the recipe's ratings is added to per-recipe {@link LongAdder} cells, which are read without
+ * blocking the raters. The pending changes of all recipes are flushed to {@code rating_calculated}
+ * with one batched statement every {@link #FLUSH_INTERVAL_MS} ms on the {@link #FLUSH_SCHEDULE} route, or as soon as
+ * {@link #FLUSH_THRESHOLD} changes are pending, and on shutdown.
+ *
+ * Staleness is bounded:
+ * - reads of this instance ({@link #getTotals(Integer)}) merge the stored totals with the pending changes, so they
+ *   are exact, except while a flush commits, when a change can be counted twice or missed for that instant. The
+ *   stored totals are cached: a flush adds what it wrote to the cached totals, a reconciliation drops the cached
+ *   totals of its range, and cached totals are reloaded after {@link #STORED_TOTALS_TTL_MS} ms, which bounds how
+ *   long the flushes of other instances are missed;
+ * - the stored totals, read by the search, sort and card queries and by other instances, lag the ratings by at most
+ *   one flush interval plus the duration of the flush;
+ * - the rating sort orders of {@link RecipeSortService}, and the cached searches sorted by rating or showing a recipe
+ *   whose rating changed, are refreshed from the stored totals at most every {@link #RATING_REFRESH_INTERVAL_MS} ms,
+ *   as re-sorting every recipe on every flush would reload all the sort values several times a second under load.
+ *
+ * A flush that fails keeps its changes pending and they are retried with the next one. Changes still pending when
+ * the process dies are lost from the stored totals until {@link RatingReconciliationService} recomputes them.
+ */
+@Service
+public class RatingAggregatorService extends BaseService implements MeterBinder {
+
+    public static final long FLUSH_INTERVAL_MS = 250;
+
+    public static final int FLUSH_THRESHOLD = 500;
+
+    public static final long RATING_REFRESH_INTERVAL_MS = 30_000;
+
+    public static final long STORED_TOTALS_TTL_MS = 30_000;
+
+    public static final String FLUSH_SCHEDULE = "scheduler://ratingAggregatorFlush?delay=" + FLUSH_INTERVAL_MS;
+
+    public static final String FLUSH_ROUTE = "seda:ratingAggregatorFlush";
+
+    private final RatingCalculatedRepository ratingCalculatedRepository;
+    private final RatingCalculatedBatchRepository ratingCalculatedBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProducerTemplate producerTemplate;
+    private final RecipeSearchCacheService recipeSearchCacheService;
+    private final RecipeSortService recipeSortService;
+    private final RecipeCardCacheService recipeCardCacheService;
+
+    private final Map<Integer, PendingRating> pending = new ConcurrentHashMap<>();
+    private final Map<Integer, StoredTotals> storedTotals = new ConcurrentHashMap<>();
+    // Bumped when a flush or reconciliation starts and ends, so totals loaded meanwhile are not cached.
+    private final AtomicLong storedWrites = new AtomicLong();
+    private final AtomicInteger runningWrites = new AtomicInteger();
+    private final AtomicLong changesSinceFlush = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedChanges = new AtomicLong();
+    // Flushes take the write lock; reconciliations of recipe ranges share the read lock so they run in parallel.
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    // Only used by flushes, under the write lock.
+    private final Set<Integer> flushedSinceRefresh = new HashSet<>();
+    private long lastRefresh = 0;
+    private long lastPurge = 0;
+
+    public RatingAggregatorService(RatingCalculatedRepository ratingCalculatedRepository,
+                                   RatingCalculatedBatchRepository ratingCalculatedBatchRepository,
+                                   PlatformTransactionManager transactionManager, ProducerTemplate producerTemplate,
+                                   RecipeSearchCacheService recipeSearchCacheService, RecipeSortService recipeSortService,
+                                   RecipeCardCacheService recipeCardCacheService) {
+        this.ratingCalculatedRepository = ratingCalculatedRepository;
+        this.ratingCalculatedBatchRepository = ratingCalculatedBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.producerTemplate = producerTemplate;
+        this.recipeSearchCacheService = recipeSearchCacheService;
+        this.recipeSortService = recipeSortService;
+        this.recipeCardCacheService = recipeCardCacheService;
+    }
+
+    /**
+     * Adds a change of the ratings of a recipe once the current transaction commits.
+     *
+     * @param recipeId the recipe id
+     * @param delta the change of the ratings, e.g. {@link RatingTotals#ofRating(BigDecimal)} for a new rating, its
+     *              negation for a removed one, or the difference of both for a changed one
+     */
+    public void addAfterCommit(Integer recipeId, RatingTotals delta) {
+
+        if (recipeId == null || delta.isEmpty()) {
+            return;
+        }
+
+        long sumHundredths = toHundredths(delta.sum());
+        long[] stars = delta.histogram().toArray();
+
+        this.runAfterCommit(() -> {
+            this.addPending(recipeId, sumHundredths, delta.count(), stars);
+
+            if (this.changesSinceFlush.incrementAndGet() == FLUSH_THRESHOLD) {
+                this.producerTemplate.asyncSendBody(FLUSH_ROUTE, null);
+            }
+        });
+    }
+
+    /**
+     * @param recipeId the recipe id
+     * @return the current sum, count and histogram of the ratings of the recipe, stored and pending, or null if it
+     *         was never rated
+     */
+    public RatingTotals getTotals(Integer recipeId) {
+        return this.getTotals(Set.of(recipeId)).get(recipeId);
+    }
+
+    /**
+     * Same as {@link #getTotals(Integer)} for several recipes, reading the stored totals missing from the cache with
+     * one query.
+     *
+     * @param recipeIds the recipe ids
+     * @return the current totals of the recipes that were ever rated, by recipe id
+     */
+    public Map<Integer, RatingTotals> getTotals(Collection<Integer> recipeIds) {
+
+        Map<Integer, RatingTotals> totals = this.getStoredTotals(recipeIds);
+
+        for (Integer recipeId : recipeIds) {
+            PendingRating cell = this.pending.get(recipeId);
+            if (cell != null) {
+                totals.merge(recipeId, cell.snapshot(), RatingTotals::plus);
+            }
+        }
+
+        return totals;
+    }
+
+    /**
+     * Writes the pending changes of every recipe to {@code rating_calculated} in one transaction and batch. Called
+     * from the {@link #FLUSH_SCHEDULE} and {@link #FLUSH_ROUTE} routes; a running flush or reconciliation makes it
+     * a no-op.
+     */
+    public void flush() {
+
+        if (!this.flushLock.writeLock().tryLock()) {
+            return;
+        }
+
+        try {
+            this.flushPending();
+        } finally {
+            this.flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the pending changes before the application stops, waiting for a running flush first.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+
+        this.flushLock.writeLock().lock();
+
+        try {
+            this.flushPending();
+        } finally {
+            this.flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Overwrites the stored totals of a range of recipes with totals recomputed from the {@code rating} table, in one
+     * transaction, while no flush runs.
+     *
+     * The recomputed totals already include the changes still pending for the range, which are flushed again later,
+     * so they are subtracted from the stored totals in the same transaction. A change committed between the snapshot
+     * of the pending changes and the recompute can still be counted twice, until the next reconciliation.
+     *
+     * @param fromRecipeId the first recipe id of the range
+     * @param toRecipeId the last recipe id of the range
+     * @param recompute recomputes the stored totals of the range, given the pending changes of its recipes
+     * @return the result of the recompute
+     */
+    public <T> T reconcileRange(int fromRecipeId, int toRecipeId, Function<Map<Integer, RatingTotals>, T> recompute) {
+
+        this.flushLock.readLock().lock();
+
+        try {
+            Map<Integer, RatingTotals> pendingInRange = new HashMap<>();
+            Map<Integer, RatingTotals> compensation = new HashMap<>();
+
+            this.pending.forEach((recipeId, cell) -> {
+                if (recipeId >= fromRecipeId && recipeId <= toRecipeId) {
+                    RatingTotals change = cell.snapshot();
+                    if (!change.isEmpty()) {
+                        pendingInRange.put(recipeId, change);
+                        compensation.put(recipeId, change.negate());
+                    }
+                }
+            });
+
+            this.startStoredWrite();
+
+            try {
+                return this.transactionTemplate.execute(status -> {
+                    T result = recompute.apply(pendingInRange);
+                    this.ratingCalculatedBatchRepository.addToRatings(compensation);
+                    return result;
+                });
+            } finally {
+                this.storedTotals.keySet().removeIf(recipeId -> recipeId >= fromRecipeId && recipeId <= toRecipeId);
+                this.endStoredWrite();
+            }
+
+        } finally {
+            this.flushLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("rating.aggregator.flushes", flushes, AtomicLong::get)
+                .description("Flushes of pending rating changes").register(registry);
+        FunctionCounter.builder("rating.aggregator.flushed.recipes", flushedChanges, AtomicLong::get)
+                .description("Recipe rating rows written by the flushes").register(registry);
+        Gauge.builder("rating.aggregator.pending", changesSinceFlush, AtomicLong::get)
+                .description("Rating changes added since the last flush").register(registry);
+        Gauge.builder("rating.aggregator.pending.recipes", pending, Map::size)
+                .description("Recipes with rating changes not flushed yet").register(registry);
+    }
+
+    private void flushPending() {
+
+        try {
+            this.changesSinceFlush.set(0);
+
+            Map<Integer, RatingTotals> deltas = new HashMap<>();
+
+            for (Map.Entry<Integer, PendingRating> entry : this.pending.entrySet()) {
+
+                RatingTotals change = entry.getValue().snapshot();
+
+                if (!change.isEmpty()) {
+                    deltas.put(entry.getKey(), change);
+                }
+            }
+
+            if (!deltas.isEmpty()) {
+
+                this.startStoredWrite();
+
+                try {
+                    this.transactionTemplate.executeWithoutResult(status -> this.ratingCalculatedBatchRepository.addToRatings(deltas));
+
+                    deltas.forEach((recipeId, flushed) -> this.storedTotals.computeIfPresent(recipeId, (key, cached) ->
+                            new StoredTotals(cached.totals() == null ? flushed : cached.totals().plus(flushed), cached.loadedAt())));
+                } finally {
+                    this.endStoredWrite();
+                }
+
+                // Only take the flushed changes out once they are committed; changes added meanwhile stay pending.
+                deltas.forEach((recipeId, flushed) -> {
+                    RatingTotals undo = flushed.negate();
+                    this.addPending(recipeId, toHundredths(undo.sum()), undo.count(), undo.histogram().toArray());
+                    this.recipeCardCacheService.evictAfterCommit(recipeId);
+                });
+
+                this.flushedSinceRefresh.addAll(deltas.keySet());
+                this.flushes.incrementAndGet();
+                this.flushedChanges.addAndGet(deltas.size());
+            }
+
+            this.refreshRatingOrdersIfDue();
+            this.purgeStoredTotalsIfDue();
+
+        } catch (Exception ex) {
+            log.error("Failed to flush pending rating changes, they are retried with the next flush", ex);
+        }
+    }
+
+    /**
+     * Adds a change to the pending change of a recipe, removing it if it becomes empty. Runs under the lock of the
+     * recipe's map entry, so a change can never be added to a cell that is being removed.
+     */
+    private void addPending(Integer recipeId, long sumHundredths, long count, long[] stars) {
+        this.pending.compute(recipeId, (key, cell) -> {
+            PendingRating current = cell == null ? new PendingRating() : cell;
+            current.add(sumHundredths, count, stars);
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    /**
+     * Re-sorts the recipes by rating and drops the cached searches depending on the ratings flushed since the last
+     * refresh, if any, once {@link #RATING_REFRESH_INTERVAL_MS} ms have passed since it.
+     */
+    private void refreshRatingOrdersIfDue() {
+
+        long now = System.currentTimeMillis();
+
+        if (this.flushedSinceRefresh.isEmpty() || now - this.lastRefresh < RATING_REFRESH_INTERVAL_MS) {
+            return;
+        }
+
+        this.recipeSearchCacheService.invalidateRatingsAfterCommit(Set.copyOf(this.flushedSinceRefresh));
+        this.recipeSortService.invalidateRatingsAfterCommit();
+
+        this.flushedSinceRefresh.clear();
+        this.lastRefresh = now;
+    }
+
+    /**
+     * Reads the stored totals of recipes, from the cache or, for those missing or expired, with one query. The loaded
+     * totals are only cached if no flush or reconciliation ran while they were read, as they may not include its
+     * write, which would then never be added to them.
+     *
+     * @return the stored totals of the recipes having a {@code rating_calculated} row, by recipe id
+     */
+    private Map<Integer, RatingTotals> getStoredTotals(Collection<Integer> recipeIds) {
+
+        long now = System.currentTimeMillis();
+        Map<Integer, RatingTotals> totals = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        for (Integer recipeId : recipeIds) {
+
+            StoredTotals cached = this.storedTotals.get(recipeId);
+
+            if (cached == null || now - cached.loadedAt() >= STORED_TOTALS_TTL_MS) {
+                missing.add(recipeId);
+            } else if (cached.totals() != null) {
+                totals.put(recipeId, cached.totals());
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return totals;
+        }
+
+        long writes = this.storedWrites.get();
+        boolean cacheable = this.runningWrites.get() == 0;
+
+        Map<Integer, RatingTotals> loaded = new HashMap<>();
+
+        for (RatingCalculated stored : this.ratingCalculatedRepository.findAllByRecipeIn(missing)) {
+            loaded.put(stored.getRecipe(), toTotals(stored));
+        }
+
+        totals.putAll(loaded);
+
+        if (cacheable) {
+            for (Integer recipeId : missing) {
+                // Checked under the lock of the entry, so a write starting now cannot update the entry before it is set.
+                this.storedTotals.compute(recipeId, (key, cached) -> this.storedWrites.get() == writes
+                        ? new StoredTotals(loaded.get(recipeId), now) : cached);
+            }
+        }
+
+        return totals;
+    }
+
+    private void startStoredWrite() {
+        this.runningWrites.incrementAndGet();
+        this.storedWrites.incrementAndGet();
+    }
+
+    private void endStoredWrite() {
+        this.storedWrites.incrementAndGet();
+        this.runningWrites.decrementAndGet();
+    }
+
+    /**
+     * Drops the expired stored totals from the cache once {@link #STORED_TOTALS_TTL_MS} ms have passed since the last
+     * purge, so it only holds the recipes read recently.
+     */
+    private void purgeStoredTotalsIfDue() {
+
+        long now = System.currentTimeMillis();
+
+        if (now - this.lastPurge < STORED_TOTALS_TTL_MS) {
+            return;
+        }
+
+        this.storedTotals.values().removeIf(cached -> now - cached.loadedAt() >= STORED_TOTALS_TTL_MS);
+        this.lastPurge = now;
+    }
+
+    private static RatingTotals toTotals(RatingCalculated stored) {
+        return new RatingTotals(stored.getRatingSum(), stored.getRatingCount(), new RatingHistogram(
+                stored.getRatingCount1(), stored.getRatingCount2(), stored.getRatingCount3(),
+                stored.getRatingCount4(), stored.getRatingCount5()));
+    }
+
+    private static long toHundredths(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromHundredths(long hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+
+    /**
+     * Stored totals of a recipe as last loaded and flushed by this instance, or null totals if it had no
+     * {@code rating_calculated} row.
+     */
+    private record StoredTotals(RatingTotals totals, long loadedAt) {
+    }
+
+    /**
+     * Pending change of the ratings of one recipe. Changes are added through {@link #addPending}, which removes the
+     * cell once it is back to empty, so there is one cell per recipe with changes not flushed yet. Snapshots are
+     * read without that lock.
+     */
+    private static final class PendingRating {
+        private final LongAdder sumHundredths = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder[] stars = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+
+        private void add(long sumHundredths, long count, long[] stars) {
+            this.sumHundredths.add(sumHundredths);
+            this.count.add(count);
+            for (int star = 0; star < stars.length; star++) {
+                if (stars[star] != 0) {
+                    this.stars[star].add(stars[star]);
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            if (this.sumHundredths.sum() != 0 || this.count.sum() != 0) {
+                return false;
+            }
+            for (LongAdder star : this.stars) {
+                if (star.sum() != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private RatingTotals snapshot() {
+            long[] counts = new long[this.stars.length];
+            for (int star = 0; star < counts.length; star++) {
+                counts[star] = this.stars[star].sum();
+            }
+            return new RatingTotals(fromHundredths(this.sumHundredths.sum()), this.count.sum(), RatingHistogram.of(counts));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingDriftRow;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingReconciliationReport;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingTotals;
+import org.group2.comp313.kitchen_companion.repository.RatingReconciliationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles the stored rating totals in {@code rating_calculated} with the {@code rating} table.
+ *
+ * The totals are maintained incrementally by {@link RatingAggregatorService}, so they drift when pending changes are
+ * lost (crash before a flush) or ratings are changed outside the application. A reconciliation splits the recipe ids
+ * into ranges of {@link #RECIPES_PER_CHUNK} and recomputes every range with set-based statements, see
+ * {@link RatingReconciliationRepository}, on {@code rating-reconciliation.workers} parallel workers. Each range is
+ * recomputed in its own transaction through {@link RatingAggregatorService#reconcileRange}, which accounts for the
+ * changes not flushed yet.
+ *
+ * It runs nightly on the {@link #RECONCILE_SCHEDULE} route and on demand on the {@link #RECONCILE_ROUTE} route (see
+ * the {@code ratings} actuator endpoint). The drift found by the last run is kept as a
+ * {@link RatingReconciliationReport}, logged, and published as the {@code rating.reconciliation.*} metrics.
+ */
+@Service
+public class RatingReconciliationService extends BaseService implements MeterBinder {
+
+    public static final String RECONCILE_SCHEDULE = "scheduler://ratingReconciliation?scheduler=spring&scheduler.cron=0+30+3+*+*+?";
+
+    public static final String RECONCILE_ROUTE = "seda:ratingReconciliation";
+
+    public static final int RECIPES_PER_CHUNK = 5_000;
+
+    private final RatingReconciliationRepository ratingReconciliationRepository;
+    private final RatingAggregatorService ratingAggregatorService;
+    private final RecipeSearchCacheService recipeSearchCacheService;
+    private final RecipeSortService recipeSortService;
+    private final RecipeCardCacheService recipeCardCacheService;
+    private final int workers;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong runs = new AtomicLong();
+    private volatile RatingReconciliationReport lastReport;
+
+    public RatingReconciliationService(RatingReconciliationRepository ratingReconciliationRepository,
+                                       RatingAggregatorService ratingAggregatorService,
+                                       RecipeSearchCacheService recipeSearchCacheService, RecipeSortService recipeSortService,
+                                       RecipeCardCacheService recipeCardCacheService,
+                                       @Value("${rating-reconciliation.workers:4}") int workers) {
+        this.ratingReconciliationRepository = ratingReconciliationRepository;
+        this.ratingAggregatorService = ratingAggregatorService;
+        this.recipeSearchCacheService = recipeSearchCacheService;
+        this.recipeSortService = recipeSortService;
+        this.recipeCardCacheService = recipeCardCacheService;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Recomputes the stored totals of every recipe. Called from the {@link #RECONCILE_SCHEDULE} and
+     * {@link #RECONCILE_ROUTE} routes; only one reconciliation runs at a time.
+     *
+     * @return the drift found and corrected, or null if a reconciliation was already running
+     */
+    public RatingReconciliationReport reconcile() {
+
+        if (!this.running.compareAndSet(false, true)) {
+            log.warn("A rating reconciliation is already running");
+            return null;
+        }
+
+        Instant startedAt = Instant.now();
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(this.workers);
+
+        try {
+            int[] range = this.ratingReconciliationRepository.findRecipeIdRange();
+            List<Future<List<RatingDriftRow>>> chunks = new ArrayList<>();
+
+            if (range != null) {
+                for (long from = range[0]; from <= range[1]; from += RECIPES_PER_CHUNK) {
+                    int fromRecipeId = (int) from;
+                    int toRecipeId = (int) Math.min(range[1], from + RECIPES_PER_CHUNK - 1);
+                    chunks.add(executor.submit(() -> this.reconcileChunk(fromRecipeId, toRecipeId)));
+                }
+            }
+
+            int failedChunks = 0;
+            long countDrift = 0;
+            long histogramDrift = 0;
+            BigDecimal sumDrift = BigDecimal.ZERO;
+            List<RatingDriftRow> drifted = new ArrayList<>();
+
+            for (Future<List<RatingDriftRow>> chunk : chunks) {
+                try {
+                    drifted.addAll(chunk.get());
+                } catch (Exception ex) {
+                    failedChunks++;
+                    log.error("Failed to reconcile a range of recipe ratings", ex);
+                }
+            }
+
+            for (RatingDriftRow row : drifted) {
+                countDrift += Math.abs(row.actualCount() - row.storedCount());
+                sumDrift = sumDrift.add(row.actualSum().subtract(row.storedSum()).abs());
+                long[] stored = row.storedHistogram().toArray();
+                long[] actual = row.actualHistogram().toArray();
+                for (int star = 0; star < stored.length; star++) {
+                    histogramDrift += Math.abs(actual[star] - stored[star]);
+                }
+            }
+
+            if (!drifted.isEmpty()) {
+                drifted.forEach(row -> this.recipeCardCacheService.evictAfterCommit(row.recipeId()));
+                this.recipeSearchCacheService.invalidateRatingsAfterCommit(
+                        drifted.stream().map(RatingDriftRow::recipeId).collect(Collectors.toSet()));
+                this.recipeSortService.invalidateRatingsAfterCommit();
+            }
+
+            RatingReconciliationReport report = new RatingReconciliationReport(startedAt, System.currentTimeMillis() - start,
+                    chunks.size(), failedChunks, drifted.size(), countDrift, sumDrift, histogramDrift);
+
+            this.lastReport = report;
+            this.runs.incrementAndGet();
+
+            log.info("Rating reconciliation of {} ranges done in {} ms: {} recipes corrected, rating count drift {}, " +
+                            "rating sum drift {}, rating histogram drift {}, {} ranges failed", report.chunks(), report.durationMs(),
+                    report.recipesCorrected(), report.countDrift(), report.sumDrift(), report.histogramDrift(),
+                    report.failedChunks());
+
+            if (!drifted.isEmpty()) {
+                log.info("Recipes with drifted ratings (first 20): {}",
+                        drifted.stream().limit(20).map(RatingDriftRow::recipeId).toList());
+            }
+
+            return report;
+
+        } finally {
+            executor.shutdown();
+            this.running.set(false);
+        }
+    }
+
+    /**
+     * @return the report of the last reconciliation since startup, or null if none ran
+     */
+    public RatingReconciliationReport getLastReport() {
+        return this.lastReport;
+    }
+
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("rating.reconciliation.runs", runs, AtomicLong::get)
+                .description("Completed rating reconciliations").register(registry);
+        Gauge.builder("rating.reconciliation.corrected", this, service -> service.lastReport == null ? 0 : service.lastReport.recipesCorrected())
+                .description("Recipes whose rating totals were corrected by the last reconciliation").register(registry);
+        Gauge.builder("rating.reconciliation.running", running, value -> value.get() ? 1 : 0)
+                .description("1 while a rating reconciliation is running").register(registry);
+    }
+
+    /**
+     * @return the recipes of the range whose stored sum, count or histogram, with their pending changes, differed from
+     *         their ratings
+     */
+    private List<RatingDriftRow> reconcileChunk(int fromRecipeId, int toRecipeId) {
+        return this.ratingAggregatorService.reconcileRange(fromRecipeId, toRecipeId, pending -> {
+
+            List<RatingDriftRow> drifted = this.ratingReconciliationRepository.findDrift(fromRecipeId, toRecipeId).stream()
+                    .map(row -> {
+                        RatingTotals change = pending.get(row.recipeId());
+                        return change == null ? row : new RatingDriftRow(row.recipeId(), row.storedSum().add(change.sum()),
+                                row.storedCount() + change.count(), row.storedHistogram().plus(change.histogram()),
+                                row.actualSum(), row.actualCount(), row.actualHistogram());
+                    })
+                    .filter(row -> row.storedCount() != row.actualCount() || row.storedSum().compareTo(row.actualSum()) != 0
+                            || !row.storedHistogram().equals(row.actualHistogram()))
+                    .toList();
+
+            // Always recompute: the pending changes of the range are subtracted from the stored totals afterwards.
+            this.ratingReconciliationRepository.recompute(fromRecipeId, toRecipeId);
+
+            return drifted;
+        });
+    }
+}
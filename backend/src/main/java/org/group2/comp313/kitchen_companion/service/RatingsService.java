@@ -2,33 +2,44 @@ package org.group2.comp313.kitchen_companion.service;
 
 import jakarta.transaction.Transactional;
 import org.group2.comp313.kitchen_companion.domain.Rating;
-import org.group2.comp313.kitchen_companion.domain.RatingCalculated;
 import org.group2.comp313.kitchen_companion.domain.Recipe;
 import org.group2.comp313.kitchen_companion.dto.rating.PostRatingDto;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingHistogram;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingTotals;
 import org.group2.comp313.kitchen_companion.dto.rating.RecipeRatingDto;
-import org.group2.comp313.kitchen_companion.repository.RatingCalculatedRepository;
 import org.group2.comp313.kitchen_companion.repository.RatingRepository;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class RatingsService extends BaseService {
 
+    /**
+     * Maximum number of recipe ids resolved by one request.
+     */
+    public static final int MAX_RECIPE_IDS = 200;
+
     private final RatingRepository ratingRepository;
-    private final RatingCalculatedRepository ratingCalculatedRepository;
+    private final RatingAggregatorService ratingAggregatorService;
 
-    public RatingsService(RatingRepository ratingRepository, RatingCalculatedRepository ratingCalculatedRepository) {
+    public RatingsService(RatingRepository ratingRepository, RatingAggregatorService ratingAggregatorService) {
         this.ratingRepository = ratingRepository;
-        this.ratingCalculatedRepository = ratingCalculatedRepository;
+        this.ratingAggregatorService = ratingAggregatorService;
     }
 
     /**
      * Retrieves the recipe rating details for a specific user given a recipe ID and username.
-     * The details include the average rating for the recipe, the number of ratings,
+     * The details include the average rating for the recipe, the number of ratings and their histogram by star
+     * (including the changes not yet flushed by {@link RatingAggregatorService}),
      * the user's specific rating for the recipe (if available), and the user's rating ID (if available).
      *
      * @param recipeId The ID of the recipe for which the rating should be retrieved.
@@ -39,46 +50,73 @@ public class RatingsService extends BaseService {
      */
     public RecipeRatingDto getRecipeRatingForUser(Integer recipeId, String username) {
 
-        Optional<RatingCalculated> calculated = this.ratingCalculatedRepository.findByRecipe(recipeId);
+        RatingTotals totals = this.ratingAggregatorService.getTotals(recipeId);
         Optional<Rating> userRatingForRecipe = ratingRepository.findByRecipeAndCreatedBy(recipeId, username);
 
-        BigDecimal userRating;
-        Integer userRatingId;
-
-        if (calculated.isPresent()) {
-            BigDecimal calculatedRating = calculated.get().getRatingValue();
-            Long getRatingCount = Long.valueOf(calculated.get().getRatingCount());
-            if(userRatingForRecipe.isPresent()) {
-                userRating = userRatingForRecipe.get().getRatingValue();
-                userRatingId = userRatingForRecipe.get().getId();
-            } else {
-                userRating = null;
-                userRatingId = null;
+        return toRecipeRatingDto(totals, userRatingForRecipe.orElse(null));
+    }
+
+    /**
+     * Same as {@link #getRecipeRatingForUser(Integer, String)} for a list of recipes, e.g. a grid of recipe cards,
+     * with one query for the stored totals of the recipes and one for the ratings of the user.
+     *
+     * @param recipeIds the recipe ids, at most {@link #MAX_RECIPE_IDS} distinct ones
+     * @param username the username of the user whose ratings are fetched; can be null
+     * @return the rating details of each distinct recipe, by recipe id in the order of the ids
+     * @throws IllegalArgumentException if more than {@link #MAX_RECIPE_IDS} distinct ids are requested
+     */
+    public Map<Integer, RecipeRatingDto> getRecipeRatingsForUser(Collection<Integer> recipeIds, String username) {
+
+        Set<Integer> ids = new LinkedHashSet<>(recipeIds);
+        ids.remove(null);
+
+        if (ids.size() > MAX_RECIPE_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_RECIPE_IDS + " recipe ids can be requested at once.");
+        }
+
+        Map<Integer, RecipeRatingDto> ratings = new LinkedHashMap<>();
+
+        if (ids.isEmpty()) {
+            return ratings;
+        }
+
+        Map<Integer, RatingTotals> totals = this.ratingAggregatorService.getTotals(ids);
+        Map<Integer, Rating> userRatings = new HashMap<>();
+
+        if (username != null) {
+            for (Rating rating : this.ratingRepository.findAllByCreatedByAndRecipeIn(username, ids)) {
+                userRatings.put(rating.getRecipe(), rating);
             }
-            return new RecipeRatingDto(calculatedRating, getRatingCount, userRating, userRatingId);
-        } else {
-            return new RecipeRatingDto(new BigDecimal("0.0"), 0L, new BigDecimal("0.0"), null);
         }
+
+        for (Integer recipeId : ids) {
+            ratings.put(recipeId, toRecipeRatingDto(totals.get(recipeId), userRatings.get(recipeId)));
+        }
+
+        return ratings;
     }
 
     /**
      * Updates or inserts a rating for a user on a given recipe. If the user has already rated the
      * specified recipe, their rating is updated. If no rating exists from the user for the recipe,
-     * a new rating is created. The overall average rating and rating count for the recipe are also updated.
+     * a new rating is created. The change of the overall average rating, rating count and histogram for the recipe is
+     * handed to {@link RatingAggregatorService}, which writes it to the running sum, count and histogram of the recipe.
      *
      * @param postRatingDto The details of the rating provided by the user, including the rating value.
      * @param recipeId The ID of the recipe for which the rating is being provided.
      * @param username The username of the user submitting the rating.
      * @return A {@code RecipeRatingDto} object containing the updated average rating for the recipe,
-     *         the total count of ratings for the recipe, the user's submitted rating value, and the ID of the user's rating.
+     *         the total count and histogram of ratings for the recipe, the user's submitted rating value, and the ID of the user's rating.
      */
     @Transactional
     public RecipeRatingDto upsertRatingForUser(PostRatingDto postRatingDto, Integer recipeId, String username) {
 
-        Optional<Rating> rating = ratingRepository.findOneByRecipeAndCreatedBy(recipeId, username);
+        Optional<Rating> rating = ratingRepository.findForUpdateByRecipeAndCreatedBy(recipeId, username);
         Rating userRating = null;
+        RatingTotals delta = RatingTotals.ofRating(postRatingDto.ratingValue());
 
         if (rating.isPresent()) {
+            delta = delta.plus(RatingTotals.ofRating(rating.get().getRatingValue()).negate());
             rating.get().setRatingValue(postRatingDto.ratingValue());
             rating.get().setUpdatedAt(Instant.now());
             rating.get().setUpdatedBy(username);
@@ -92,37 +130,48 @@ public class RatingsService extends BaseService {
             userRating = ratingRepository.save(newRating);
         }
 
-        Long currentCount = ratingRepository.countByRecipe(recipeId);
-        BigDecimal ratingValue = ratingRepository.getAverageRatingByRecipe(recipeId).setScale(1, RoundingMode.CEILING);
-
-        Optional<RatingCalculated> calculated = ratingCalculatedRepository.findByRecipe(recipeId);
+        this.ratingAggregatorService.addAfterCommit(recipeId, delta);
 
-        if (calculated.isPresent()) {
-            calculated.get().setRatingValue(ratingValue);
-            calculated.get().setRatingCount(currentCount.intValue());
-            ratingCalculatedRepository.save(calculated.get());
-        } else {
-            RatingCalculated newRatingCalculated = new RatingCalculated();
-            newRatingCalculated.setRatingValue(ratingValue);
-            newRatingCalculated.setRatingCount(currentCount.intValue());
-            newRatingCalculated.setRecipe(recipeId);
-            ratingCalculatedRepository.save(newRatingCalculated);
-        }
+        RatingTotals totals = this.ratingAggregatorService.getTotals(recipeId);
+        totals = (totals == null ? RatingTotals.EMPTY : totals).plus(delta);
 
-        return new RecipeRatingDto(ratingValue, currentCount, postRatingDto.ratingValue(), userRating.getId());
+        return new RecipeRatingDto(totals.average(), totals.count(), postRatingDto.ratingValue(), userRating.getId(), totals.histogram());
 
     }
 
     /**
-     * Removes a rating for a given user if it exists.
+     * Removes a rating for a given user if it exists, and takes it out of the running sum, count and histogram of the recipe
+     * through {@link RatingAggregatorService}.
      *
      * @param ratingId the ID of the rating to be removed
      * @param username the username of the user who created the rating
      * @return true if the rating was found and removed, false otherwise
      */
+    @Transactional
     public Boolean removeRatingForUser(Integer ratingId, String username) {
-        Optional<Rating> rating = ratingRepository.findByIdAndCreatedBy(ratingId, username);
-        rating.ifPresent(value -> this.ratingRepository.deleteById(value.getId()));
-        return rating.isPresent();
+
+        Optional<Rating> rating = ratingRepository.findForUpdateByIdAndCreatedBy(ratingId, username);
+
+        if (rating.isEmpty()) {
+            return false;
+        }
+
+        this.ratingRepository.delete(rating.get());
+
+        this.ratingAggregatorService.addAfterCommit(rating.get().getRecipe(), RatingTotals.ofRating(rating.get().getRatingValue()).negate());
+
+        return true;
+    }
+
+    private static RecipeRatingDto toRecipeRatingDto(RatingTotals totals, Rating userRating) {
+
+        if (totals == null) {
+            return new RecipeRatingDto(new BigDecimal("0.0"), 0L, new BigDecimal("0.0"), null, RatingHistogram.EMPTY);
+        }
+
+        return new RecipeRatingDto(totals.average(), totals.count(),
+                userRating == null ? null : userRating.getRatingValue(),
+                userRating == null ? null : userRating.getId(),
+                totals.histogram());
     }
 }
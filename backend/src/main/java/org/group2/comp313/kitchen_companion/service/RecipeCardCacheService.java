@@ -0,0 +1,152 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-recipe cache of the summary cards shown by meal plans, carousels and top recipe lists.
+ *
+ * Cards are cached for an anonymous user, one entry per recipe and at most {@link #MAX_ENTRIES} of them, the least
+ * recently used being evicted first; the per-user favorite flag is applied on the way out from the user's favorites
+ * held by {@link FavoriteRecipeService}. The recipes missing from the cache are loaded together with a single
+ * IN-list query, so resolving a list of ids costs at most one statement.
+ *
+ * Every write changing what a card shows (recipe update, ratings) must call {@link #evictAfterCommit(Integer)}.
+ * Hit and miss counts are published as the {@code cache.gets} metrics tagged {@code cache=recipeCard}.
+ */
+@Service
+public class RecipeCardCacheService extends BaseService implements MeterBinder {
+
+    public static final int MAX_ENTRIES = 10_000;
+
+    /**
+     * Maximum number of recipe ids resolved by one request.
+     */
+    public static final int MAX_IDS = 200;
+
+    private static final String CACHE_NAME = "recipeCard";
+
+    private final RecipeRepository recipeRepository;
+    private final FavoriteRecipeService favoriteRecipeService;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final Map<Integer, RecipeSummaryCardWithCategory> cards = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, RecipeSummaryCardWithCategory> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public RecipeCardCacheService(RecipeRepository recipeRepository, FavoriteRecipeService favoriteRecipeService) {
+        this.recipeRepository = recipeRepository;
+        this.favoriteRecipeService = favoriteRecipeService;
+    }
+
+    /**
+     * Returns the summary cards of the given recipes, in the order of the ids. Duplicate ids are returned once and
+     * ids of recipes that do not exist are skipped.
+     *
+     * @param recipeIds the recipe ids, at most {@link #MAX_IDS} distinct ones
+     * @param currentUserEmail the current user email used to set the favorite flag; can be null or empty
+     * @return the summary cards with the favorite flag of the current user
+     * @throws IllegalArgumentException if more than {@link #MAX_IDS} distinct ids are requested
+     */
+    public List<RecipeSummaryCardWithCategory> getCards(Collection<Integer> recipeIds, String currentUserEmail) {
+
+        Set<Integer> ids = new LinkedHashSet<>(recipeIds);
+        ids.remove(null);
+
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " recipe ids can be requested at once.");
+        }
+
+        Map<Integer, RecipeSummaryCardWithCategory> found = new LinkedHashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        synchronized (cards) {
+            for (Integer id : ids) {
+                RecipeSummaryCardWithCategory card = cards.get(id);
+                if (card != null) {
+                    found.put(id, card);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+
+        hits.addAndGet(found.size());
+        misses.addAndGet(missing.size());
+
+        if (!missing.isEmpty()) {
+
+            // Only cache the loaded cards if no card changed while they were read, otherwise they may already be stale.
+            long writesBeforeLoad = writes.get();
+            List<RecipeSummaryCardWithCategory> loaded = this.recipeRepository.findRecipeSummaryCardsByIds(missing);
+
+            synchronized (cards) {
+                for (RecipeSummaryCardWithCategory card : loaded) {
+                    found.put(card.id(), card);
+                    if (writesBeforeLoad == writes.get()) {
+                        cards.put(card.id(), card);
+                    }
+                }
+            }
+        }
+
+        List<RecipeSummaryCardWithCategory> ordered = ids.stream().map(found::get).filter(Objects::nonNull).toList();
+
+        return this.favoriteRecipeService.withFavorites(ordered, currentUserEmail);
+    }
+
+    /**
+     * Drops the cached card of a recipe once the current transaction commits.
+     *
+     * @param recipeId the id of the recipe that changed
+     */
+    public void evictAfterCommit(Integer recipeId) {
+
+        if (recipeId == null) {
+            return;
+        }
+
+        this.runAfterCommit(() -> {
+            synchronized (cards) {
+                writes.incrementAndGet();
+                cards.remove(recipeId);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get).tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Recipe cards served from the cache").register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get).tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Recipe cards loaded from the database").register(registry);
+        Gauge.builder("cache.size", this, RecipeCardCacheService::size).tag("cache", CACHE_NAME)
+                .description("Number of cached recipe cards").register(registry);
+    }
+
+    private double size() {
+        synchronized (cards) {
+            return cards.size();
+        }
+    }
+}
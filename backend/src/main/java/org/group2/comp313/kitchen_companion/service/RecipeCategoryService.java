@@ -3,24 +3,31 @@ package org.group2.comp313.kitchen_companion.service;
 import org.group2.comp313.kitchen_companion.domain.RecipeCategory;
 import org.group2.comp313.kitchen_companion.domain.RecipeCategoryId;
 import org.group2.comp313.kitchen_companion.repository.RecipeCategoryRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class RecipeCategoryService {
 
     private final RecipeCategoryRepository recipeCategoryRepository;
+    private final RecipeFacetService recipeFacetService;
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository;
 
-    public RecipeCategoryService(RecipeCategoryRepository recipeCategoryRepository) {
+    public RecipeCategoryService(RecipeCategoryRepository recipeCategoryRepository, RecipeFacetService recipeFacetService, RecipeComponentBatchRepository recipeComponentBatchRepository) {
         this.recipeCategoryRepository = recipeCategoryRepository;
+        this.recipeFacetService = recipeFacetService;
+        this.recipeComponentBatchRepository = recipeComponentBatchRepository;
     }
 
     /**
      * Creates a new recipe category by associating a category with a recipe.
      * This method generates a composite identifier for the association,
      * assigns creation metadata, and saves the new recipe category entity
-     * in the repository.
+     * in the repository. The category facet bitmaps are updated once the transaction commits.
      *
      * @param categoryId the ID of the category to associate with the recipe
      * @param recipeId the ID of the recipe to associate with the category
@@ -39,12 +46,33 @@ public class RecipeCategoryService {
         newRecipeCategory.setUpdatedBy(null);
         newRecipeCategory.setUpdatedAt(null);
         this.recipeCategoryRepository.save(newRecipeCategory);
+        this.recipeFacetService.addRecipeToCategoryAfterCommit(categoryId, recipeId);
+    }
+
+    /**
+     * Associates a new recipe with the given categories using a single batch insert, see
+     * {@link RecipeComponentBatchRepository}. The category facet bitmaps are updated once the transaction commits.
+     *
+     * @param categoryIds the IDs of the categories to associate with the recipe
+     * @param recipeId the ID of the recipe to associate with the categories
+     * @param createdByEmail the email of the user who is creating the recipe categories
+     */
+    public void createRecipeCategories(Collection<Integer> categoryIds, Integer recipeId, String createdByEmail) {
+
+        List<Integer> distinctCategoryIds = categoryIds.stream().distinct().toList();
+
+        this.recipeComponentBatchRepository.insertRecipeCategories(recipeId, distinctCategoryIds, createdByEmail, Instant.now());
+
+        for (Integer categoryId : distinctCategoryIds) {
+            this.recipeFacetService.addRecipeToCategoryAfterCommit(categoryId, recipeId);
+        }
     }
 
     /**
      * Deletes the association between a recipe and a category. This method uses
      * the composite identifier, consisting of the recipe and category IDs, to
-     * locate and remove the corresponding entry from the repository.
+     * locate and remove the corresponding entry from the repository. The category facet bitmaps
+     * are updated once the transaction commits.
      *
      * @param categoryId the ID of the category to be disassociated from the recipe
      * @param recipeId the ID of the recipe to be disassociated from the category
@@ -54,5 +82,6 @@ public class RecipeCategoryService {
         recipeCategoryId.setCategoryId(categoryId);
         recipeCategoryId.setRecipeId(recipeId);
         this.recipeCategoryRepository.deleteById(recipeCategoryId);
+        this.recipeFacetService.removeRecipeFromCategoryAfterCommit(categoryId, recipeId);
     }
 }
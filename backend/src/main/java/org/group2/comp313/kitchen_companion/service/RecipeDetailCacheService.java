@@ -0,0 +1,208 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of full recipe details, so popular recipes are not reloaded with their ingredient groups,
+ * step groups and categories on every view.
+ *
+ * {@link RecipeDetail} is immutable and holds no entities, so every reader gets the cached instance itself. The
+ * cache is split into {@link #SEGMENTS} segments by recipe id, each guarded by its own lock and bounded by its share
+ * of {@link #MAX_WEIGHT_BYTES}, the least recently used recipes of a segment being evicted first. The weight of a
+ * recipe is the size of its JSON, measured once when it is cached.
+ *
+ * Every write changing a recipe detail must call {@link #evictAfterCommit(Integer)}. Hit, miss and eviction counts
+ * are published as the {@code cache.*} metrics tagged {@code cache=recipeDetail}.
+ */
+@Service
+public class RecipeDetailCacheService extends BaseService implements MeterBinder {
+
+    public static final long MAX_WEIGHT_BYTES = 16L * 1024 * 1024;
+
+    static final int SEGMENTS = 16;
+
+    private static final String CACHE_NAME = "recipeDetail";
+
+    private final ObjectMapper objectMapper;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public RecipeDetailCacheService(ObjectMapper objectMapper) {
+
+        this.objectMapper = objectMapper;
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(MAX_WEIGHT_BYTES / SEGMENTS);
+        }
+    }
+
+    /**
+     * Returns the cached detail of a recipe, loading and caching it on a miss.
+     *
+     * @param recipeId the recipe id
+     * @param loader loads the full recipe detail; returns null if the recipe does not exist
+     * @return the recipe detail, or null if the recipe does not exist
+     */
+    public RecipeDetail getOrLoad(Integer recipeId, Supplier<RecipeDetail> loader) {
+
+        Segment segment = this.segmentOf(recipeId);
+        RecipeDetail cached = segment.get(recipeId);
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+
+        // Only cache the loaded recipe if no detail of the segment changed while it was read, otherwise it may
+        // already be stale.
+        long writesBeforeLoad = segment.writes();
+        RecipeDetail recipe = loader.get();
+
+        if (recipe != null) {
+            try {
+                int weight = this.objectMapper.writeValueAsBytes(recipe).length;
+                evictions.addAndGet(segment.put(recipeId, recipe, weight, writesBeforeLoad));
+            } catch (JsonProcessingException ex) {
+                log.error("Failed to cache the detail of recipe {}", recipeId, ex);
+            }
+        }
+
+        return recipe;
+    }
+
+    /**
+     * Drops the cached detail of a recipe once the current transaction commits.
+     *
+     * @param recipeId the id of the recipe that changed
+     */
+    public void evictAfterCommit(Integer recipeId) {
+
+        if (recipeId == null) {
+            return;
+        }
+
+        this.runAfterCommit(() -> this.evict(recipeId));
+    }
+
+    /**
+     * Drops the cached detail of a recipe.
+     *
+     * @param recipeId the id of the recipe that changed
+     */
+    public void evict(Integer recipeId) {
+        this.segmentOf(recipeId).remove(recipeId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get).tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Recipe detail reads served from the cache").register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get).tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Recipe detail reads loaded from the database").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get).tag("cache", CACHE_NAME)
+                .description("Recipe details evicted to stay within the weight bound").register(registry);
+        Gauge.builder("cache.size", this, RecipeDetailCacheService::size).tag("cache", CACHE_NAME)
+                .description("Number of cached recipe details").register(registry);
+        Gauge.builder("cache.weight", this, RecipeDetailCacheService::weight).tag("cache", CACHE_NAME).baseUnit("bytes")
+                .description("Total size of the cached recipe details").register(registry);
+    }
+
+    double size() {
+        return Arrays.stream(segments).mapToLong(Segment::size).sum();
+    }
+
+    double weight() {
+        return Arrays.stream(segments).mapToLong(Segment::weight).sum();
+    }
+
+    private Segment segmentOf(Integer recipeId) {
+        return segments[Math.floorMod(recipeId.hashCode(), SEGMENTS)];
+    }
+
+    private record Entry(RecipeDetail recipe, int weight) {
+    }
+
+    /**
+     * One least recently used part of the cache. Every method runs under the segment lock.
+     */
+    private static final class Segment {
+
+        private final long maxWeight;
+        private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long weight = 0;
+        private long writes = 0;
+
+        private Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized RecipeDetail get(Integer recipeId) {
+            Entry entry = entries.get(recipeId);
+            return entry == null ? null : entry.recipe();
+        }
+
+        /**
+         * @return the number of recipes evicted to make room
+         */
+        synchronized int put(Integer recipeId, RecipeDetail recipe, int recipeWeight, long writesBeforeLoad) {
+
+            if (recipeWeight > maxWeight || writesBeforeLoad != writes) {
+                return 0;
+            }
+
+            Entry replaced = entries.put(recipeId, new Entry(recipe, recipeWeight));
+            weight += recipeWeight - (replaced == null ? 0 : replaced.weight());
+
+            int evicted = 0;
+            Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+
+            while (weight > maxWeight && eldest.hasNext()) {
+                weight -= eldest.next().getValue().weight();
+                eldest.remove();
+                evicted++;
+            }
+
+            return evicted;
+        }
+
+        synchronized void remove(Integer recipeId) {
+            writes++;
+            Entry removed = entries.remove(recipeId);
+            if (removed != null) {
+                weight -= removed.weight();
+            }
+        }
+
+        synchronized long writes() {
+            return writes;
+        }
+
+        synchronized long size() {
+            return entries.size();
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.camel.ProducerTemplate;
+import org.group2.comp313.kitchen_companion.domain.RecipeDetailDocument;
+import org.group2.comp313.kitchen_companion.dto.ApiResult;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetailDocumentHeader;
+import org.group2.comp313.kitchen_companion.repository.RecipeDetailDocumentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Materialized, pre-serialized and pre-compressed recipe detail documents for anonymous readers.
+ *
+ * Each recipe has one gzip compressed JSON document holding the full anonymous response body of the public recipe
+ * endpoint, stored in {@code recipe_detail_document} with a strong ETag (the SHA-256 of the JSON) and the time the
+ * document last changed. The validators of every document are kept in memory, so conditional requests are answered
+ * without touching the database or Jackson, and a full response is a single primary key read of the stored bytes.
+ *
+ * Documents are regenerated asynchronously on the {@link #REGENERATE_ROUTE} Camel route. Every write changing a
+ * recipe detail must call {@link #regenerateAfterCommit(Integer)}, which withdraws the current document until the
+ * new one is stored so a stale document is never served. Missing documents, and documents written by another
+ * {@link #FORMAT_VERSION}, are regenerated on startup.
+ */
+@Service
+public class RecipeDetailDocumentService extends BaseService {
+
+    public static final String REGENERATE_ROUTE = "seda:recipeDetailDocuments";
+
+    /**
+     * Version of the document layout; bump it when {@link RecipeDetail} changes so every document is rebuilt.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private final RecipeDetailDocumentRepository recipeDetailDocumentRepository;
+    private final RecipeDetailService recipeDetailService;
+    private final ObjectMapper objectMapper;
+    private final ProducerTemplate producerTemplate;
+    private final Map<Integer, RecipeDetailDocumentHeader> headers = new ConcurrentHashMap<>();
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready = false;
+
+    public RecipeDetailDocumentService(RecipeDetailDocumentRepository recipeDetailDocumentRepository,
+                                       RecipeDetailService recipeDetailService, ObjectMapper objectMapper,
+                                       ProducerTemplate producerTemplate) {
+        this.recipeDetailDocumentRepository = recipeDetailDocumentRepository;
+        this.recipeDetailService = recipeDetailService;
+        this.objectMapper = objectMapper;
+        this.producerTemplate = producerTemplate;
+    }
+
+    /**
+     * Loads the validators of the stored documents once the application has started, and queues the recipes
+     * without an up-to-date document for regeneration. A failure is logged and leaves the service not ready, in
+     * which case recipe details are served from {@link RecipeDetailCacheService}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDocumentsOnStartup() {
+        try {
+            List<Integer> outdated = new ArrayList<>();
+
+            for (RecipeDetailDocumentHeader header : this.recipeDetailDocumentRepository.findAllHeaders()) {
+                if (header.formatVersion() == FORMAT_VERSION) {
+                    this.publish(header);
+                } else {
+                    outdated.add(header.recipeId());
+                }
+            }
+
+            outdated.addAll(this.recipeDetailDocumentRepository.findRecipeIdsWithoutDocument());
+            this.queue(outdated);
+
+            this.ready = true;
+
+        } catch (Exception ex) {
+            log.error("Failed to load recipe detail documents", ex);
+        }
+    }
+
+    /**
+     * Queues the recipes without a document for regeneration, e.g. after recipes were inserted in bulk.
+     */
+    public void regenerateMissingDocuments() {
+        this.queue(this.recipeDetailDocumentRepository.findRecipeIdsWithoutDocument());
+    }
+
+    /**
+     * @param recipeId the recipe id
+     * @return the validators of the current document of a recipe, or null if it has no up-to-date document
+     */
+    public RecipeDetailDocumentHeader getHeader(Integer recipeId) {
+        return this.ready && recipeId != null ? this.headers.get(recipeId) : null;
+    }
+
+    /**
+     * @param header the validators returned by {@link #getHeader(Integer)}
+     * @return the stored document, or null if it was regenerated or withdrawn since the header was read
+     */
+    public RecipeDetailDocument getDocument(RecipeDetailDocumentHeader header) {
+        return this.recipeDetailDocumentRepository.findById(header.recipeId())
+                .filter(document -> document.getEtag().equals(header.etag()))
+                .orElse(null);
+    }
+
+    /**
+     * @param document a stored document
+     * @return the uncompressed JSON of the document, for clients that do not accept gzip
+     */
+    public byte[] decompress(RecipeDetailDocument document) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(document.getDocumentGzip()))) {
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Withdraws the document of a recipe once the current transaction commits and queues it for regeneration.
+     *
+     * @param recipeId the id of the recipe that changed
+     */
+    public void regenerateAfterCommit(Integer recipeId) {
+
+        if (recipeId == null) {
+            return;
+        }
+
+        this.runAfterCommit(() -> {
+            this.pending.add(recipeId);
+            this.headers.remove(recipeId);
+            this.producerTemplate.asyncSendBody(REGENERATE_ROUTE, List.of(recipeId));
+        });
+    }
+
+    /**
+     * Regenerates and stores the documents of the given recipes. Called from the {@link #REGENERATE_ROUTE} route;
+     * a failure is logged and leaves the recipe served from {@link RecipeDetailCacheService}.
+     *
+     * @param recipeIds the ids of the recipes to regenerate
+     */
+    public void regenerateDocuments(Collection<Integer> recipeIds) {
+        for (Integer recipeId : recipeIds) {
+            try {
+                this.regenerateDocument(recipeId);
+            } catch (Exception ex) {
+                log.error("Failed to regenerate the detail document of recipe {}", recipeId, ex);
+            }
+        }
+    }
+
+    private void regenerateDocument(Integer recipeId) throws IOException {
+
+        this.pending.remove(recipeId);
+
+        RecipeDetail recipe = this.recipeDetailService.loadRecipeDetail(recipeId);
+
+        if (recipe == null) {
+            this.headers.remove(recipeId);
+            return;
+        }
+
+        byte[] json = this.objectMapper.writeValueAsBytes(new ApiResult<>("", recipe.withFavorite(false)));
+        String etag = sha256(json);
+
+        RecipeDetailDocument document = this.recipeDetailDocumentRepository.findById(recipeId).orElseGet(() -> {
+            RecipeDetailDocument newDocument = new RecipeDetailDocument();
+            newDocument.setRecipe(recipeId);
+            return newDocument;
+        });
+
+        // Keep the last modified time of an unchanged document, so clients keep their cached copy.
+        if (!etag.equals(document.getEtag()) || !Integer.valueOf(FORMAT_VERSION).equals(document.getFormatVersion())) {
+            document.setDocumentGzip(gzip(json));
+            document.setEtag(etag);
+            document.setFormatVersion(FORMAT_VERSION);
+            document.setLastModified(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+            document = this.recipeDetailDocumentRepository.save(document);
+        }
+
+        this.publish(new RecipeDetailDocumentHeader(recipeId, document.getEtag(), document.getFormatVersion(), document.getLastModified()));
+    }
+
+    private void queue(List<Integer> recipeIds) {
+        if (!recipeIds.isEmpty()) {
+            log.info("Queueing {} recipe detail documents for regeneration", recipeIds.size());
+            this.producerTemplate.asyncSendBody(REGENERATE_ROUTE, recipeIds);
+        }
+    }
+
+    private void publish(RecipeDetailDocumentHeader header) {
+
+        this.headers.put(header.recipeId(), header);
+
+        // A write committed meanwhile withdraws the document again until its own regeneration runs.
+        if (this.pending.contains(header.recipeId())) {
+            this.headers.remove(header.recipeId());
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] json) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
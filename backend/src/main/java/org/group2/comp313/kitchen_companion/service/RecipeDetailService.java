@@ -0,0 +1,79 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import jakarta.transaction.Transactional;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.group2.comp313.kitchen_companion.repository.IngredientGroupRepository;
+import org.group2.comp313.kitchen_companion.repository.IngredientRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.repository.StepGroupRepository;
+import org.group2.comp313.kitchen_companion.repository.StepRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the full detail of a recipe without the Cartesian product of the entity graph.
+ *
+ * Loading {@code Recipe} joins its ingredient groups, step groups and categories together with the ingredients and
+ * steps of every group, which returns one row per ingredient x step x category combination. This service runs one
+ * flat query per table instead, so a recipe costs six statements returning one row per recipe, group, ingredient,
+ * step and category, and assembles the {@link RecipeDetail} in memory. Rows are read as DTOs, so nothing the
+ * detail holds is attached to the persistence context.
+ */
+@Service
+public class RecipeDetailService extends BaseService {
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientGroupRepository ingredientGroupRepository;
+    private final IngredientRepository ingredientRepository;
+    private final StepGroupRepository stepGroupRepository;
+    private final StepRepository stepRepository;
+
+    public RecipeDetailService(RecipeRepository recipeRepository, IngredientGroupRepository ingredientGroupRepository,
+                               IngredientRepository ingredientRepository, StepGroupRepository stepGroupRepository,
+                               StepRepository stepRepository) {
+        this.recipeRepository = recipeRepository;
+        this.ingredientGroupRepository = ingredientGroupRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.stepGroupRepository = stepGroupRepository;
+        this.stepRepository = stepRepository;
+    }
+
+    /**
+     * @param recipeId the recipe id
+     * @return the full recipe detail without the favorite flag, or null if the recipe does not exist
+     */
+    @Transactional
+    public RecipeDetail loadRecipeDetail(Integer recipeId) {
+
+        RecipeDetail recipe = this.recipeRepository.findRecipeDetailById(recipeId).orElse(null);
+
+        if (recipe == null) {
+            return null;
+        }
+
+        Map<Integer, List<RecipeDetail.IngredientDetail>> ingredientsByGroup = this.ingredientRepository.findIngredientDetailsByRecipeId(recipeId)
+                .stream()
+                .collect(Collectors.groupingBy(RecipeDetail.IngredientDetail::ingredientGroup));
+
+        Map<Integer, List<RecipeDetail.StepDetail>> stepsByGroup = this.stepRepository.findStepDetailsByRecipeId(recipeId)
+                .stream()
+                .collect(Collectors.groupingBy(RecipeDetail.StepDetail::stepGroup));
+
+        List<RecipeDetail.IngredientGroupDetail> ingredientGroups = this.ingredientGroupRepository.findIngredientGroupDetailsByRecipeId(recipeId)
+                .stream()
+                .map(group -> group.withIngredients(ingredientsByGroup.getOrDefault(group.id(), List.of())))
+                .toList();
+
+        List<RecipeDetail.StepGroupDetail> stepGroups = this.stepGroupRepository.findStepGroupDetailsByRecipeId(recipeId)
+                .stream()
+                .map(group -> group.withSteps(stepsByGroup.getOrDefault(group.id(), List.of())))
+                .toList();
+
+        List<RecipeDetail.CategoryDetail> categories = this.recipeRepository.findCategoryDetailsByRecipeId(recipeId);
+
+        return recipe.withComponents(ingredientGroups, stepGroups, categories);
+    }
+}
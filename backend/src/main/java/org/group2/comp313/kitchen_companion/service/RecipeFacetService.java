@@ -0,0 +1,138 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.domain.RecipeCategoryId;
+import org.group2.comp313.kitchen_companion.dto.category.CategorySummary;
+import org.group2.comp313.kitchen_companion.repository.CategoryRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeCategoryRepository;
+import org.group2.comp313.kitchen_companion.search.CategoryFacetIndex;
+import org.group2.comp313.kitchen_companion.search.SearchTokenizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Category facet engine for the recipe search. Holds one bitmap of recipe ids per category, built from
+ * {@code recipe_category} once the application is ready and maintained by {@link RecipeCategoryService}.
+ *
+ * Category filters and the per-category counts returned with search results are answered by bitmap
+ * intersection instead of one SQL query per category.
+ */
+@Service
+public class RecipeFacetService extends BaseService {
+
+    private final RecipeCategoryRepository recipeCategoryRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final Map<Integer, String> categoryLabels = new ConcurrentHashMap<>();
+    private final Map<String, Integer> categoryIdsByLabel = new ConcurrentHashMap<>();
+    private volatile CategoryFacetIndex facetIndex = new CategoryFacetIndex();
+    private volatile boolean ready = false;
+
+    public RecipeFacetService(RecipeCategoryRepository recipeCategoryRepository, CategoryRepository categoryRepository) {
+        this.recipeCategoryRepository = recipeCategoryRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Builds the category bitmaps once the application has started. A failure is logged and leaves
+     * the service not ready, in which case search responses simply carry no category counts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildFacetsOnStartup() {
+        try {
+            rebuildFacets();
+        } catch (Exception ex) {
+            log.error("Failed to build recipe category facets", ex);
+        }
+    }
+
+    /**
+     * Reloads the category labels and every recipe to category association and swaps the bitmaps in atomically.
+     */
+    public void rebuildFacets() {
+
+        this.loadCategoryLabels();
+
+        CategoryFacetIndex newFacetIndex = new CategoryFacetIndex();
+
+        for (RecipeCategoryId id : this.recipeCategoryRepository.findAllIds()) {
+            newFacetIndex.add(id.getCategoryId(), id.getRecipeId());
+        }
+
+        this.facetIndex = newFacetIndex;
+        this.ready = true;
+    }
+
+    /**
+     * @return true once the bitmaps have been built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Tags a recipe with a category in the bitmaps once the current transaction commits.
+     *
+     * @param categoryId the category id
+     * @param recipeId the recipe id
+     */
+    public void addRecipeToCategoryAfterCommit(Integer categoryId, Integer recipeId) {
+        this.runAfterCommit(() -> {
+            if (!categoryLabels.containsKey(categoryId)) {
+                this.loadCategoryLabels();
+            }
+            this.facetIndex.add(categoryId, recipeId);
+        });
+    }
+
+    /**
+     * Removes a category from a recipe in the bitmaps once the current transaction commits.
+     *
+     * @param categoryId the category id
+     * @param recipeId the recipe id
+     */
+    public void removeRecipeFromCategoryAfterCommit(Integer categoryId, Integer recipeId) {
+        this.runAfterCommit(() -> this.facetIndex.remove(categoryId, recipeId));
+    }
+
+    /**
+     * @param categoryLabel the category label, matched case and accent insensitively
+     * @return the bitmap of the recipes tagged with the category, empty if the category is unknown
+     */
+    public BitSet getRecipesOfCategory(String categoryLabel) {
+        Integer categoryId = categoryIdsByLabel.get(SearchTokenizer.normalize(categoryLabel));
+        return categoryId == null ? new BitSet() : this.facetIndex.recipesOf(categoryId);
+    }
+
+    /**
+     * Counts the recipes of the given result set per category label.
+     *
+     * @param resultSet the recipe ids of the current result set; null to count every recipe
+     * @return the number of recipes per category label, sorted by label; categories without any recipe are left out
+     */
+    public Map<String, Integer> countByCategory(BitSet resultSet) {
+
+        Map<String, Integer> counts = new TreeMap<>();
+
+        for (Map.Entry<Integer, Integer> entry : this.facetIndex.count(resultSet).entrySet()) {
+            String label = categoryLabels.get(entry.getKey());
+            if (label != null) {
+                counts.put(label, entry.getValue());
+            }
+        }
+
+        return counts;
+    }
+
+    private void loadCategoryLabels() {
+        for (CategorySummary category : this.categoryRepository.findAllBy()) {
+            categoryLabels.put(category.id(), category.label());
+            categoryIdsByLabel.put(SearchTokenizer.normalize(category.label()), category.id());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.recipe.NutritionFilter;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeNutritionRow;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.search.NutritionColumnStore;
+import org.group2.comp313.kitchen_companion.search.NutritionColumnStore.Nutrient;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Optional;
+
+/**
+ * Nutrition range filters for the recipe search, served from an in-memory
+ * {@link NutritionColumnStore} instead of range predicates on the recipe table.
+ *
+ * The store is built once the application is ready and kept current by the recipe write paths through
+ * {@link #refreshRecipeAfterCommit(Integer)}.
+ */
+@Service
+public class RecipeNutritionService extends BaseService {
+
+    private final RecipeRepository recipeRepository;
+
+    private volatile NutritionColumnStore store = new NutritionColumnStore();
+    private volatile boolean ready = false;
+
+    public RecipeNutritionService(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    /**
+     * Builds the nutrition store once the application has started. A failure is logged and leaves the service
+     * not ready, in which case searches with nutrition filters are rejected as unavailable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildStoreOnStartup() {
+        try {
+            rebuildStore();
+        } catch (Exception ex) {
+            log.error("Failed to build recipe nutrition store", ex);
+        }
+    }
+
+    /**
+     * Reloads the nutrition facts of every recipe and swaps the store in atomically.
+     */
+    public void rebuildStore() {
+
+        NutritionColumnStore newStore = new NutritionColumnStore();
+
+        for (RecipeNutritionRow row : this.recipeRepository.findAllRecipeNutritionRows()) {
+            newStore.put(row.recipeId(), toValues(row));
+        }
+
+        this.store = newStore;
+        this.ready = true;
+    }
+
+    /**
+     * @return true once the store has been built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reloads the nutrition facts of a recipe once the current transaction commits.
+     *
+     * @param recipeId the id of the recipe that changed
+     */
+    public void refreshRecipeAfterCommit(Integer recipeId) {
+
+        if (recipeId == null) {
+            return;
+        }
+
+        this.runAfterCommit(() -> refreshRecipe(recipeId));
+    }
+
+    /**
+     * Reloads the nutrition facts of a recipe; recipes that no longer exist are removed from the store.
+     *
+     * @param recipeId the id of the recipe to reload
+     */
+    public void refreshRecipe(Integer recipeId) {
+        try {
+            Optional<RecipeNutritionRow> row = this.recipeRepository.findRecipeNutritionRowById(recipeId);
+
+            if (row.isEmpty()) {
+                this.store.remove(recipeId);
+            } else {
+                this.store.put(recipeId, toValues(row.get()));
+            }
+        } catch (Exception ex) {
+            log.error("Failed to refresh recipe {} in the nutrition store", recipeId, ex);
+        }
+    }
+
+    /**
+     * @param filter the nutrition ranges; must not be empty
+     * @return the ids of the recipes within every range of the filter
+     */
+    public BitSet matching(NutritionFilter filter) {
+
+        NutritionColumnStore current = this.store;
+        BitSet result = current.recipes();
+
+        this.intersect(result, current, Nutrient.CALORIES, filter.caloriesMin(), filter.caloriesMax());
+        this.intersect(result, current, Nutrient.CARBS, filter.carbsMin(), filter.carbsMax());
+        this.intersect(result, current, Nutrient.SUGARS, filter.sugarsMin(), filter.sugarsMax());
+        this.intersect(result, current, Nutrient.FAT, filter.fatMin(), filter.fatMax());
+
+        return result;
+    }
+
+    private void intersect(BitSet result, NutritionColumnStore current, Nutrient nutrient, Float min, Float max) {
+        if (min != null || max != null) {
+            result.and(current.range(nutrient, min, max));
+        }
+    }
+
+    private float[] toValues(RecipeNutritionRow row) {
+        return new float[]{toFloat(row.calories()), toFloat(row.carbsG()), toFloat(row.sugarsG()), toFloat(row.fatG())};
+    }
+
+    private float toFloat(BigDecimal value) {
+        return value == null ? Float.NaN : value.floatValue();
+    }
+}
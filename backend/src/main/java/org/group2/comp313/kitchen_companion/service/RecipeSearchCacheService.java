@@ -0,0 +1,148 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.recipe.NutritionFilter;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSearchResult;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
+import org.group2.comp313.kitchen_companion.search.QueryResultCache;
+import org.group2.comp313.kitchen_companion.search.SearchTokenizer;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Result cache in front of the public recipe search.
+ *
+ * Results are computed for an anonymous user and cached under the normalized keyword, category, nutrition ranges,
+ * maximum total time, sort and page, so they can be shared by every user; the per-user favorite flag is applied on
+ * the way out from the user's favorites held by {@link FavoriteRecipeService}.
+ *
+ * Any write changing what the cards show (recipe create/update, ingredient changes) must call
+ * {@link #invalidateAfterCommit()}, which drops every cached result once the transaction commits. Rating changes call
+ * {@link #invalidateRatingsAfterCommit(Set)}, which only drops the results sorted by rating or showing a rated recipe.
+ *
+ * Results computed while the search index, category facets, nutrition store or sort orders are not built yet are the
+ * database fallbacks (no category counts, FULLTEXT ranking), so they are returned but not cached.
+ */
+@Service
+public class RecipeSearchCacheService extends BaseService {
+
+    public static final int MAX_ENTRIES = 1000;
+
+    private final FavoriteRecipeService favoriteRecipeService;
+    private final RecipeSearchIndexService recipeSearchIndexService;
+    private final RecipeFacetService recipeFacetService;
+    private final RecipeNutritionService recipeNutritionService;
+    private final RecipeSortService recipeSortService;
+    private final QueryResultCache<CachedSearch> cache = new QueryResultCache<>(MAX_ENTRIES);
+
+    public RecipeSearchCacheService(FavoriteRecipeService favoriteRecipeService, RecipeSearchIndexService recipeSearchIndexService,
+                                    RecipeFacetService recipeFacetService, RecipeNutritionService recipeNutritionService,
+                                    RecipeSortService recipeSortService) {
+        this.favoriteRecipeService = favoriteRecipeService;
+        this.recipeSearchIndexService = recipeSearchIndexService;
+        this.recipeFacetService = recipeFacetService;
+        this.recipeNutritionService = recipeNutritionService;
+        this.recipeSortService = recipeSortService;
+    }
+
+    /**
+     * Returns the cached result for the given search, computing and caching it on a miss. A result computed while
+     * the in-memory search services are not all ready is not cached.
+     *
+     * @param keyword the search keyword; can be null or empty
+     * @param categoryLabel the category label to filter on; can be null or empty
+     * @param nutrition the nutrition ranges to filter on
+     * @param maxTotalMinutes the maximum total time in minutes; can be null
+     * @param page the page number, starting from 0
+     * @param size the number of records per page
+     * @param orders the explicit sort orders; empty for the default order
+     * @param currentUserEmail the current user email used to set the favorite flag; can be null or empty
+     * @param anonymousSearch runs the search for an anonymous user
+     * @return the search result with the favorite flag of the current user
+     */
+    public RecipeSearchResult getOrCompute(String keyword, String categoryLabel, NutritionFilter nutrition, Integer maxTotalMinutes, Integer page, Integer size, List<Sort.Order> orders,
+                                           String currentUserEmail, Supplier<RecipeSearchResult> anonymousSearch) {
+
+        String key = toKey(keyword, categoryLabel, nutrition, maxTotalMinutes, page, size, orders);
+        CachedSearch cached = this.cache.get(key);
+
+        if (cached == null) {
+            long generation = this.cache.generation();
+            // The services never go back to not ready, so checking before the search is enough.
+            boolean cacheable = this.isSearchReady();
+            cached = CachedSearch.of(anonymousSearch.get(), orders);
+            if (cacheable) {
+                this.cache.put(key, generation, cached);
+            }
+        }
+
+        return this.withFavorites(cached, currentUserEmail);
+    }
+
+    /**
+     * Drops every cached search result once the current transaction commits.
+     */
+    public void invalidateAfterCommit() {
+        this.runAfterCommit(this.cache::invalidate);
+    }
+
+    /**
+     * Drops the cached search results depending on the ratings of the given recipes once the current transaction
+     * commits: the results sorted by a key depending on ratings, and the results showing one of the recipes.
+     *
+     * @param recipeIds the recipes whose ratings changed
+     */
+    public void invalidateRatingsAfterCommit(Set<Integer> recipeIds) {
+        this.runAfterCommit(() -> this.cache.invalidate((key, cached) -> cached.ratingSorted() || cached.showsAny(recipeIds)));
+    }
+
+    private boolean isSearchReady() {
+        return this.recipeSearchIndexService.isReady() && this.recipeFacetService.isReady()
+                && this.recipeNutritionService.isReady() && this.recipeSortService.isReady();
+    }
+
+    private RecipeSearchResult withFavorites(CachedSearch cached, String currentUserEmail) {
+
+        List<RecipeSummaryCardWithCategory> content = this.favoriteRecipeService.withFavorites(Arrays.asList(cached.cards()), currentUserEmail);
+
+        return new RecipeSearchResult(new PageImpl<>(content, cached.pageable(), cached.total()), cached.categoryCounts(), cached.didYouMean());
+    }
+
+    private String toKey(String keyword, String categoryLabel, NutritionFilter nutrition, Integer maxTotalMinutes, Integer page, Integer size, List<Sort.Order> orders) {
+        return String.join(" ", SearchTokenizer.words(keyword)) + "|" +
+                SearchTokenizer.normalize(categoryLabel) + "|" +
+                nutrition + "|" +
+                maxTotalMinutes + "|" +
+                orders.stream().map(order -> order.getProperty() + ":" + order.getDirection()).collect(Collectors.joining(",")) + "|" +
+                page + "|" + size;
+    }
+
+    private record CachedSearch(RecipeSummaryCardWithCategory[] cards, Pageable pageable, long total,
+                                Map<String, Integer> categoryCounts, String didYouMean, boolean ratingSorted) {
+
+        private static CachedSearch of(RecipeSearchResult result, List<Sort.Order> orders) {
+
+            boolean ratingSorted = orders.stream()
+                    .map(order -> RecipeSortService.SortKey.of(order.getProperty()))
+                    .anyMatch(key -> key != null && key.dependsOnRatings());
+
+            return new CachedSearch(result.page().getContent().toArray(new RecipeSummaryCardWithCategory[0]),
+                    result.page().getPageable(), result.page().getTotalElements(),
+                    result.categoryCounts() == null ? null : Collections.unmodifiableMap(result.categoryCounts()), result.didYouMean(),
+                    ratingSorted);
+        }
+
+        private boolean showsAny(Set<Integer> recipeIds) {
+            return Arrays.stream(this.cards).anyMatch(card -> recipeIds.contains(card.id()));
+        }
+    }
+}
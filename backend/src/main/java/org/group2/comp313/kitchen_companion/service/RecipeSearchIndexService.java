@@ -0,0 +1,295 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.search.RecipeIndexRow;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow;
+import org.group2.comp313.kitchen_companion.repository.IngredientRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeCategoryRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.search.FuzzyTermIndex;
+import org.group2.comp313.kitchen_companion.search.InvertedIndex;
+import org.group2.comp313.kitchen_companion.search.SearchTokenizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps an in-memory inverted index of every recipe (title, summary, ingredient labels and category labels)
+ * so that keyword searches on the public recipe endpoint are resolved and ranked without a MySQL FULLTEXT query.
+ *
+ * The index is built once the application is ready and is then kept current by the recipe and ingredient group
+ * write paths through {@link #refreshRecipeAfterCommit(Integer)}. Until the first build completes
+ * {@link #isReady()} returns false and callers are expected to fall back to the database search.
+ *
+ * Next to the inverted index a {@link FuzzyTermIndex} over the title and ingredient words is kept to correct
+ * misspelled keywords, see {@link #suggestCorrection(String)}.
+ */
+@Service
+public class RecipeSearchIndexService extends BaseService {
+
+    public static final int TITLE_WEIGHT = 3;
+    public static final int CATEGORY_WEIGHT = 2;
+    public static final int INGREDIENT_WEIGHT = 1;
+    public static final int SUMMARY_WEIGHT = 1;
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final RecipeCategoryRepository recipeCategoryRepository;
+    private final RecipeFacetService recipeFacetService;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile FuzzyTermIndex fuzzyIndex = new FuzzyTermIndex();
+    private volatile boolean ready = false;
+
+    // Refreshes hold the read lock; a rebuild takes the write lock to start and to end recording the refreshed recipes.
+    private final ReentrantReadWriteLock refreshLock = new ReentrantReadWriteLock();
+    private Set<Integer> refreshedDuringRebuild;
+
+    public RecipeSearchIndexService(RecipeRepository recipeRepository, IngredientRepository ingredientRepository, RecipeCategoryRepository recipeCategoryRepository, RecipeFacetService recipeFacetService) {
+        this.recipeRepository = recipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeCategoryRepository = recipeCategoryRepository;
+        this.recipeFacetService = recipeFacetService;
+    }
+
+    /**
+     * Builds the index from the recipe, ingredient and category tables once the application has started.
+     * A failure is logged and leaves the service not ready, so search keeps working through the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexOnStartup() {
+        try {
+            rebuildIndex();
+        } catch (Exception ex) {
+            log.error("Failed to build recipe search index, keyword search will use the database", ex);
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the database and swaps it in atomically.
+     *
+     * Recipes refreshed while the rebuild reads the database may be missing from what it read and are only updated
+     * in the index being replaced, so they are recorded and refreshed again in the new index once it is swapped in.
+     */
+    public synchronized void rebuildIndex() {
+
+        long start = System.currentTimeMillis();
+
+        // Waits for the running refreshes, whose commits the rebuild then reads.
+        this.refreshLock.writeLock().lock();
+        try {
+            this.refreshedDuringRebuild = ConcurrentHashMap.newKeySet();
+        } finally {
+            this.refreshLock.writeLock().unlock();
+        }
+
+        Set<Integer> replay;
+
+        try {
+            this.buildAndSwapIndex();
+        } finally {
+            this.refreshLock.writeLock().lock();
+            try {
+                replay = this.refreshedDuringRebuild;
+                this.refreshedDuringRebuild = null;
+            } finally {
+                this.refreshLock.writeLock().unlock();
+            }
+        }
+
+        replay.forEach(this::refreshRecipe);
+
+        log.info("Recipe search index built with {} recipes in {} ms, {} recipes refreshed meanwhile",
+                this.index.size(), System.currentTimeMillis() - start, replay.size());
+    }
+
+    private void buildAndSwapIndex() {
+
+        Map<Integer, List<String>> ingredientsByRecipe = groupLabels(this.ingredientRepository.findAllRecipeIngredientLabels());
+        Map<Integer, List<String>> categoriesByRecipe = groupLabels(this.recipeCategoryRepository.findAllRecipeCategoryLabels());
+
+        InvertedIndex newIndex = new InvertedIndex();
+        FuzzyTermIndex newFuzzyIndex = new FuzzyTermIndex();
+
+        for (RecipeIndexRow row : this.recipeRepository.findAllRecipeIndexRows()) {
+            List<String> ingredients = ingredientsByRecipe.getOrDefault(row.recipeId(), List.of());
+            newIndex.putDocument(row.recipeId(), toDocument(row, ingredients, categoriesByRecipe.getOrDefault(row.recipeId(), List.of())));
+            newFuzzyIndex.putDocument(row.recipeId(), vocabulary(row, ingredients));
+        }
+
+        this.refreshLock.writeLock().lock();
+        try {
+            this.index = newIndex;
+            this.fuzzyIndex = newFuzzyIndex;
+            this.ready = true;
+        } finally {
+            this.refreshLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true once the index and the category facets have been built and can serve searches
+     */
+    public boolean isReady() {
+        return ready && this.recipeFacetService.isReady();
+    }
+
+    /**
+     * Searches the index for the given keyword and returns the matching recipes ordered by BM25 relevance.
+     * When a category label is given only recipes tagged with that category are returned.
+     *
+     * @param keyword the raw search keyword entered by the user
+     * @param categoryLabel the category label to filter on; null or empty for no filtering
+     * @return the matching recipes ordered by descending score, ties by ascending id
+     */
+    public InvertedIndex.SearchHits searchHits(String keyword, String categoryLabel) {
+        return this.filterByCategory(this.index.search(SearchTokenizer.tokenize(keyword)), categoryLabel);
+    }
+
+    /**
+     * Keeps only the hits tagged with the given category, preserving their order.
+     *
+     * @param hits the search hits to filter
+     * @param categoryLabel the category label to filter on; null or empty for no filtering
+     * @return the filtered hits
+     */
+    public InvertedIndex.SearchHits filterByCategory(InvertedIndex.SearchHits hits, String categoryLabel) {
+
+        if (categoryLabel == null || categoryLabel.isBlank()) {
+            return hits;
+        }
+
+        return hits.retain(this.recipeFacetService.getRecipesOfCategory(categoryLabel));
+    }
+
+    /**
+     * Rewrites a keyword by replacing every word that matches no indexed recipe with the closest title or
+     * ingredient word, e.g. "lasgna" becomes "lasagna". Stop words and words found in the index are kept as typed.
+     *
+     * @param keyword the raw search keyword entered by the user
+     * @return the corrected keyword, or null when no word needed or could be given a correction
+     */
+    public String suggestCorrection(String keyword) {
+
+        List<String> words = SearchTokenizer.words(keyword);
+        List<String> corrected = new ArrayList<>(words.size());
+        boolean changed = false;
+
+        for (String word : words) {
+
+            List<String> terms = SearchTokenizer.tokenize(word);
+            String correction = null;
+
+            if (!terms.isEmpty() && this.index.documentFrequency(terms.getFirst()) == 0) {
+                correction = this.fuzzyIndex.correct(word);
+            }
+
+            if (correction != null && !correction.equals(word)) {
+                corrected.add(correction);
+                changed = true;
+            } else {
+                corrected.add(word);
+            }
+        }
+
+        return changed ? String.join(" ", corrected) : null;
+    }
+
+    /**
+     * Re-indexes the given recipe once the current transaction commits, so the index never sees uncommitted data.
+     * When no transaction is active the recipe is re-indexed immediately.
+     *
+     * @param recipeId the id of the recipe that changed
+     */
+    public void refreshRecipeAfterCommit(Integer recipeId) {
+
+        if (recipeId == null) {
+            return;
+        }
+
+        this.runAfterCommit(() -> refreshRecipe(recipeId));
+    }
+
+    /**
+     * Reloads a single recipe from the database and replaces its entry in the index.
+     * Recipes that no longer exist are removed from the index.
+     *
+     * The recipe is read before taking the refresh lock, so a slow query never holds up a rebuild. A refresh that
+     * read the recipe before a rebuild started is still recorded and replayed by it, as it updates the index under
+     * the lock.
+     *
+     * @param recipeId the id of the recipe to re-index
+     */
+    public void refreshRecipe(Integer recipeId) {
+
+        Optional<RecipeIndexRow> row;
+        List<String> ingredients;
+        List<String> categories;
+
+        try {
+            row = this.recipeRepository.findRecipeIndexRowById(recipeId);
+            ingredients = row.isEmpty() ? List.of()
+                    : this.ingredientRepository.findRecipeIngredientLabelsByRecipeId(recipeId).stream().map(RecipeLabelRow::label).toList();
+            categories = row.isEmpty() ? List.of()
+                    : this.recipeCategoryRepository.findRecipeCategoryLabelsByRecipeId(recipeId).stream().map(RecipeLabelRow::label).toList();
+        } catch (Exception ex) {
+            log.error("Failed to refresh recipe {} in the search index", recipeId, ex);
+            return;
+        }
+
+        this.refreshLock.readLock().lock();
+
+        try {
+            if (this.refreshedDuringRebuild != null) {
+                this.refreshedDuringRebuild.add(recipeId);
+            }
+
+            if (row.isEmpty()) {
+                this.index.removeDocument(recipeId);
+                this.fuzzyIndex.removeDocument(recipeId);
+                return;
+            }
+
+            this.index.putDocument(recipeId, toDocument(row.get(), ingredients, categories));
+            this.fuzzyIndex.putDocument(recipeId, vocabulary(row.get(), ingredients));
+
+        } finally {
+            this.refreshLock.readLock().unlock();
+        }
+    }
+
+    private InvertedIndex.Document toDocument(RecipeIndexRow row, List<String> ingredients, List<String> categories) {
+
+        InvertedIndex.Document document = new InvertedIndex.Document()
+                .addField(row.title(), TITLE_WEIGHT)
+                .addField(row.summary(), SUMMARY_WEIGHT);
+
+        for (String ingredient : ingredients) {
+            document.addField(ingredient, INGREDIENT_WEIGHT);
+        }
+
+        for (String category : categories) {
+            document.addField(category, CATEGORY_WEIGHT);
+        }
+
+        return document;
+    }
+
+    private List<String> vocabulary(RecipeIndexRow row, List<String> ingredients) {
+        List<String> texts = new ArrayList<>(ingredients.size() + 1);
+        texts.add(row.title());
+        texts.addAll(ingredients);
+        return texts;
+    }
+
+    private Map<Integer, List<String>> groupLabels(List<RecipeLabelRow> rows) {
+        Map<Integer, List<String>> grouped = new HashMap<>();
+        for (RecipeLabelRow row : rows) {
+            grouped.computeIfAbsent(row.recipeId(), key -> new ArrayList<>()).add(row.label());
+        }
+        return grouped;
+    }
+}
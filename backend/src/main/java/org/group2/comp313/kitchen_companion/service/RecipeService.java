@@ -9,16 +9,27 @@ import jakarta.validation.constraints.NotNull;
 import org.group2.comp313.kitchen_companion.domain.Category;
 import org.group2.comp313.kitchen_companion.domain.Recipe;
 import org.group2.comp313.kitchen_companion.domain.SavedRecipe;
+import org.group2.comp313.kitchen_companion.dto.CursorPage;
 import org.group2.comp313.kitchen_companion.dto.ai.*;
+import org.group2.comp313.kitchen_companion.dto.recipe.NutritionFilter;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDto;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSearchResult;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCards;
 import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryForCardsWithScore;
 import org.group2.comp313.kitchen_companion.mapper.RecipeMapper;
 import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
 import org.group2.comp313.kitchen_companion.repository.SavedRecipeRepository;
+import org.group2.comp313.kitchen_companion.search.CategoryFacetIndex;
+import org.group2.comp313.kitchen_companion.search.InvertedIndex;
 import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
+import org.group2.comp313.kitchen_companion.utility.InvalidCursorException;
+import org.group2.comp313.kitchen_companion.utility.InvalidSortException;
+import org.group2.comp313.kitchen_companion.utility.KeysetCursor;
+import org.group2.comp313.kitchen_companion.utility.SearchIndexNotReadyException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -26,13 +37,20 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class RecipeService extends BaseService {
 
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final RecipeRepository recipeRepository;
     private final IngredientGroupService ingredientGroupService;
     private final StepGroupService stepGroupService;
@@ -40,11 +58,22 @@ public class RecipeService extends BaseService {
     private final ChatGptClientService chatGptClientService;
     private final RecipeMapper recipeMapper;
     private final SavedRecipeRepository savedRecipeRepository;
+    private final RecipeSearchIndexService recipeSearchIndexService;
+    private final RecipeFacetService recipeFacetService;
+    private final RecipeSearchCacheService recipeSearchCacheService;
+    private final FavoriteRecipeService favoriteRecipeService;
+    private final RecipeNutritionService recipeNutritionService;
+    private final StaticCodeService staticCodeService;
+    private final RecipeSortService recipeSortService;
+    private final RecipeDetailCacheService recipeDetailCacheService;
+    private final RecipeDetailService recipeDetailService;
+    private final RecipeDetailDocumentService recipeDetailDocumentService;
+    private final RecipeCardCacheService recipeCardCacheService;
 
     @PersistenceContext
     private EntityManager entityManager;
 
-    public RecipeService(RecipeRepository recipeRepository, IngredientGroupService ingredientGroupService, StepGroupService stepGroupService, RecipeCategoryService recipeCategoryService, ChatGptClientService chatGptClientService, RecipeMapper recipeMapper, SavedRecipeRepository savedRecipeRepository) {
+    public RecipeService(RecipeRepository recipeRepository, IngredientGroupService ingredientGroupService, StepGroupService stepGroupService, RecipeCategoryService recipeCategoryService, ChatGptClientService chatGptClientService, RecipeMapper recipeMapper, SavedRecipeRepository savedRecipeRepository, RecipeSearchIndexService recipeSearchIndexService, RecipeFacetService recipeFacetService, RecipeSearchCacheService recipeSearchCacheService, FavoriteRecipeService favoriteRecipeService, RecipeNutritionService recipeNutritionService, StaticCodeService staticCodeService, RecipeSortService recipeSortService, RecipeDetailCacheService recipeDetailCacheService, RecipeDetailService recipeDetailService, RecipeDetailDocumentService recipeDetailDocumentService, RecipeCardCacheService recipeCardCacheService) {
         this.recipeRepository = recipeRepository;
         this.ingredientGroupService = ingredientGroupService;
         this.stepGroupService = stepGroupService;
@@ -52,23 +81,32 @@ public class RecipeService extends BaseService {
         this.chatGptClientService = chatGptClientService;
         this.recipeMapper = recipeMapper;
         this.savedRecipeRepository = savedRecipeRepository;
+        this.recipeSearchIndexService = recipeSearchIndexService;
+        this.recipeFacetService = recipeFacetService;
+        this.recipeSearchCacheService = recipeSearchCacheService;
+        this.favoriteRecipeService = favoriteRecipeService;
+        this.recipeNutritionService = recipeNutritionService;
+        this.staticCodeService = staticCodeService;
+        this.recipeSortService = recipeSortService;
+        this.recipeDetailCacheService = recipeDetailCacheService;
+        this.recipeDetailService = recipeDetailService;
+        this.recipeDetailDocumentService = recipeDetailDocumentService;
+        this.recipeCardCacheService = recipeCardCacheService;
     }
 
     /**
-     * Retrieves a recipe by its unique identifier.
+     * Retrieves a recipe by its unique identifier. The detail is loaded by {@link RecipeDetailService} with one flat
+     * query per table, and served from {@link RecipeDetailCacheService} when the recipe was read before.
      *
      * @param id the unique identifier of the recipe to retrieve; must not be null
-     * @return the Recipe object if found, or null if no recipe is found with the given identifier
+     * @return the recipe detail if found, or null if no recipe is found with the given identifier
      */
-    @Transactional
-    public Recipe getRecipeById(@NotNull Integer id, String userEmail) {
+    public RecipeDetail getRecipeById(@NotNull Integer id, String userEmail) {
 
-         Recipe recipe = recipeRepository.findById(id).orElse(null);
+         RecipeDetail recipe = this.recipeDetailCacheService.getOrLoad(id, () -> this.recipeDetailService.loadRecipeDetail(id));
 
          if (recipe != null) {
-             SavedRecipe savedRecipe = savedRecipeRepository.findOneByRecipeAndCreatedBy(id, userEmail).orElse(null);
-             recipe.setIsFavorite(savedRecipe != null);
-             return recipe;
+             return recipe.withFavorite(this.favoriteRecipeService.isFavorite(userEmail, id));
          } else {
              return null;
          }
@@ -76,22 +114,275 @@ public class RecipeService extends BaseService {
 
     /**
      * Retrieves a paginated list of recipe summaries filtered by a keyword and sorted based on the provided parameters.
+     * Keyword searches are resolved and ranked by the in-memory {@link RecipeSearchIndexService}; the database
+     * FULLTEXT search is only used while the index is not ready yet.
      *
      * @param keyword the search keyword to filter recipes; can be null or empty for no keyword filtering.
+     * @param nutrition the nutrition ranges to filter on; {@link NutritionFilter#NONE} for no filtering.
+     * @param maxTotalMinutes the maximum prep plus cook time in minutes; null for no filtering.
      * @param page the page number for pagination, starting from 0.
      * @param size the number of records per page.
      * @param sort an array of sorting parameters where the first element specifies the property name,
      *             and the second element (optional) specifies the direction ("asc" or "desc").
-     * @return a paginated {@code Page<RecipeSummaryCardWithCategory>} containing recipe summaries filtered
-     *         by the given keyword and sorted as specified.
+     *             The property must be one of the {@link RecipeSortService.SortKey} properties.
+     * @return a {@link RecipeSearchResult} holding the page of recipe summaries filtered by the given keyword and
+     *         sorted as specified, and the number of recipes per category for the keyword, ignoring the category filter.
+     *         The category counts are null while the category facets are not built yet. When the keyword contains
+     *         misspelled words the corrected keyword is returned as a "did you mean" suggestion, and if the keyword
+     *         as typed matches nothing the results are those of the corrected keyword.
+     *         Results are served from {@link RecipeSearchCacheService} when the same search was run before.
+     * @throws SearchIndexNotReadyException if nutrition filtering is requested before the nutrition store is built, or a
+     *         sort that can only be served from memory before the sort orders are built
+     * @throws InvalidSortException if the sort is not a supported sort key or more than one sort is requested
      */
-    public Page<RecipeSummaryCardWithCategory> getRecipes(String keyword, String categoryLabel, Integer page, Integer size, String[] sort, String currentUserEmail) {
+    public RecipeSearchResult getRecipes(String keyword, String categoryLabel, NutritionFilter nutrition, Integer maxTotalMinutes, Integer page, Integer size, String[] sort, String currentUserEmail) {
 
-        Pageable pageable;
+        List<Sort.Order> orders = this.toSortOrders(sort);
+        this.recipeSortService.validate(orders);
 
-        if (sort != null && sort.length > 0) {
+        return this.recipeSearchCacheService.getOrCompute(keyword, categoryLabel, nutrition, maxTotalMinutes, page, size, orders, currentUserEmail,
+                () -> this.searchRecipes(keyword, categoryLabel, nutrition, maxTotalMinutes, page, size, orders.isEmpty() ? null : orders.getFirst()));
+    }
+
+    private RecipeSearchResult searchRecipes(String keyword, String categoryLabel, NutritionFilter nutrition, Integer maxTotalMinutes, Integer page, Integer size, Sort.Order order) {
+
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+
+        if (!nutrition.isEmpty() && !this.recipeNutritionService.isReady()) {
+            throw new SearchIndexNotReadyException("Nutrition search is starting up, please try again shortly.");
+        }
+
+        if (hasKeyword && this.recipeSearchIndexService.isReady()) {
+
+            InvertedIndex.SearchHits keywordHits = this.recipeSearchIndexService.searchHits(keyword, null);
+            String didYouMean = this.recipeSearchIndexService.suggestCorrection(keyword);
+
+            if (keywordHits.size() == 0 && didYouMean != null) {
+                keywordHits = this.recipeSearchIndexService.searchHits(didYouMean, null);
+            }
+
+            if (!nutrition.isEmpty()) {
+                keywordHits = keywordHits.retain(this.recipeNutritionService.matching(nutrition));
+            }
+
+            if (maxTotalMinutes != null) {
+                keywordHits = keywordHits.retain(this.findRecipesByMaxTotalMinutes(maxTotalMinutes));
+            }
+
+            Map<String, Integer> categoryCounts = this.recipeFacetService.countByCategory(CategoryFacetIndex.toBitSet(keywordHits.ids()));
+            InvertedIndex.SearchHits hits = this.recipeSearchIndexService.filterByCategory(keywordHits, categoryLabel);
+
+            return new RecipeSearchResult(this.searchRecipesFromIndex(hits, page, size, order), categoryCounts, didYouMean);
+        }
+
+        boolean sortInMemory = order != null && this.recipeSortService.isReady();
+
+        if (!hasKeyword && (!nutrition.isEmpty() || sortInMemory) && this.recipeSearchIndexService.isReady()) {
+
+            BitSet candidates = nutrition.isEmpty() ? this.recipeSortService.allRecipes() : this.recipeNutritionService.matching(nutrition);
+
+            if (maxTotalMinutes != null) {
+                candidates.and(this.findRecipesByMaxTotalMinutes(maxTotalMinutes));
+            }
+
+            Map<String, Integer> categoryCounts = this.recipeFacetService.countByCategory(candidates);
+            InvertedIndex.SearchHits hits = this.recipeSearchIndexService.filterByCategory(InvertedIndex.SearchHits.of(candidates), categoryLabel);
+
+            return new RecipeSearchResult(this.searchRecipesFromIndex(hits, page, size, order), categoryCounts, null);
+        }
+
+        if (!nutrition.isEmpty()) {
+            throw new SearchIndexNotReadyException("Nutrition search is starting up, please try again shortly.");
+        }
+
+        Pageable pageable = PageRequest.of(page, size, order == null ? Sort.by("id").ascending() : this.toDatabaseSort(order));
+
+        Map<String, Integer> categoryCounts = null;
+
+        if (!hasKeyword && this.recipeFacetService.isReady()) {
+            categoryCounts = this.recipeFacetService.countByCategory(maxTotalMinutes == null ? null : this.findRecipesByMaxTotalMinutes(maxTotalMinutes));
+        }
+
+        return new RecipeSearchResult(recipeRepository.findRecipeSummaryCardsByKeywordAndSort(keyword, categoryLabel, maxTotalMinutes, pageable), categoryCounts, null);
+    }
+
+    private BitSet findRecipesByMaxTotalMinutes(Integer maxTotalMinutes) {
+        BitSet recipes = new BitSet();
+        this.recipeRepository.findRecipeIdsByMaxTotalMinutes(maxTotalMinutes).forEach(recipes::set);
+        return recipes;
+    }
+
+    /**
+     * Maps a validated sort order to the card query column it sorts on, for when the in-memory sort orders are not
+     * built yet.
+     *
+     * @throws SearchIndexNotReadyException if the sort key can only be served from memory
+     */
+    private Sort toDatabaseSort(Sort.Order order) {
+
+        String databaseProperty = RecipeSortService.SortKey.of(order.getProperty()).getDatabaseProperty();
+
+        if (databaseProperty == null) {
+            throw new SearchIndexNotReadyException("Sorting by " + order.getProperty() + " is starting up, please try again shortly.");
+        }
+
+        return Sort.by(order.getDirection(), databaseProperty);
+    }
+
+    /**
+     * Resolves a search through the in-memory indexes. Without an explicit sort the results are returned in
+     * relevance order; with a sort the requested page is read from the presorted orders of {@link RecipeSortService},
+     * or sorted by the database while those are not built yet. Either way only the cards of the requested page are
+     * loaded from the database.
+     *
+     * @param hits the matching recipes in relevance order
+     * @param page the page number, starting from 0
+     * @param size the number of records per page
+     * @param order the validated sort order; null for relevance order
+     * @return a page of recipe summaries
+     */
+    private Page<RecipeSummaryCardWithCategory> searchRecipesFromIndex(InvertedIndex.SearchHits hits, Integer page, Integer size, Sort.Order order) {
+
+        int total = hits.size();
+
+        if (total == 0) {
+            return new PageImpl<>(List.of(), PageRequest.of(page, size), 0);
+        }
+
+        List<Integer> pageIds;
+
+        if (order == null) {
+            int from = (int) Math.min((long) page * size, total);
+            int to = Math.min(from + size, total);
+            pageIds = Arrays.stream(hits.ids(), from, to).boxed().toList();
+        } else if (this.recipeSortService.isReady()) {
+            RecipeSortService.SortKey key = RecipeSortService.SortKey.of(order.getProperty());
+            pageIds = Arrays.stream(this.recipeSortService.page(CategoryFacetIndex.toBitSet(hits.ids()), key, order.isAscending(), page, size)).boxed().toList();
+        } else {
+            List<Integer> matchingIds = Arrays.stream(hits.ids()).boxed().toList();
+            return this.recipeRepository.findRecipeSummaryCardsByIdsAndSort(matchingIds, PageRequest.of(page, size, this.toDatabaseSort(order)));
+        }
+
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), PageRequest.of(page, size), total);
+        }
+
+        Map<Integer, RecipeSummaryCardWithCategory> cardsById = this.recipeRepository.findRecipeSummaryCardsByIds(pageIds)
+                .stream()
+                .collect(Collectors.toMap(RecipeSummaryCardWithCategory::id, card -> card));
+
+        List<RecipeSummaryCardWithCategory> content = pageIds.stream().map(cardsById::get).filter(Objects::nonNull).toList();
+
+        return new PageImpl<>(content, PageRequest.of(page, size), total);
+    }
+
+    /**
+     * Retrieves a slice of recipe summaries using keyset (seek) pagination instead of an OFFSET, and without
+     * running a count query. Keyword searches are returned in relevance order and the cursor encodes the score
+     * and recipe id of the last card; other listings are returned in ascending recipe id order.
+     *
+     * @param keyword the search keyword; can be null or empty for no keyword filtering
+     * @param categoryLabel the category label to filter on; can be null or empty
+     * @param cursor the continuation token returned with the previous slice; null for the first slice
+     * @param size the maximum number of cards to return
+     * @param currentUserEmail the current user email used to compute the favorite flag
+     * @return the slice of recipe summaries with the token for the next slice
+     * @throws InvalidCursorException if the cursor cannot be decoded or the size is out of range
+     */
+    public CursorPage<RecipeSummaryCardWithCategory> getRecipesByCursor(String keyword, String categoryLabel, String cursor, Integer size, String currentUserEmail) {
+
+        checkCursorPageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        // A listing keeps the order it started with: the index once it became ready, the database meanwhile.
+        boolean fromIndex = after == null
+                ? keyword != null && !keyword.isBlank() && this.recipeSearchIndexService.isReady()
+                : after.mode() == KeysetCursor.Mode.SCORE;
+
+        if (fromIndex) {
+            if (keyword == null || keyword.isBlank() || !this.recipeSearchIndexService.isReady()) {
+                throw new InvalidCursorException("The cursor was issued for a different listing.");
+            }
+            return this.searchRecipesFromIndexByCursor(keyword, categoryLabel, after, size, currentUserEmail);
+        }
+
+        int afterId = after == null ? 0 : after.recipeId();
+
+        List<RecipeSummaryCardWithCategory> rows = this.recipeRepository.findRecipeSummaryCardsByKeywordAfterId(keyword, categoryLabel, afterId, PageRequest.of(0, size + 1));
+
+        return this.toCursorPage(this.favoriteRecipeService.withFavorites(rows, currentUserEmail), size, RecipeSummaryCardWithCategory::id, card -> String.valueOf(card.id()));
+    }
+
+    /**
+     * Keyset pagination over the in-memory search ranking. The ranking is ordered by descending score then ascending id,
+     * so the slice starts at the first hit that sorts strictly after the (score, id) stored in the cursor, found with
+     * a binary search.
+     */
+    private CursorPage<RecipeSummaryCardWithCategory> searchRecipesFromIndexByCursor(String keyword, String categoryLabel, KeysetCursor after, Integer size, String currentUserEmail) {
+
+        InvertedIndex.SearchHits hits = this.recipeSearchIndexService.searchHits(keyword, categoryLabel);
+
+        int start = after == null ? 0 : firstHitAfter(hits, after.sortKeyAsFloat(), after.recipeId());
+
+        int end = Math.min(start + size, hits.size());
+
+        if (start >= end) {
+            return new CursorPage<>(List.of(), null, false);
+        }
+
+        List<Integer> sliceIds = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            sliceIds.add(hits.ids()[i]);
+        }
+
+        Map<Integer, RecipeSummaryCardWithCategory> cardsById = this.recipeRepository.findRecipeSummaryCardsByIds(sliceIds)
+                .stream()
+                .collect(Collectors.toMap(RecipeSummaryCardWithCategory::id, card -> card));
+
+        List<RecipeSummaryCardWithCategory> content = this.favoriteRecipeService.withFavorites(
+                sliceIds.stream().map(cardsById::get).filter(Objects::nonNull).toList(), currentUserEmail);
+
+        boolean hasNext = end < hits.size();
+        String nextCursor = hasNext ? new KeysetCursor(KeysetCursor.Mode.SCORE, String.valueOf(hits.scores()[end - 1]), hits.ids()[end - 1]).encode() : null;
+
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    /**
+     * @return the position of the first hit sorting strictly after the given score and id, in (score desc, id asc)
+     *         order, or the number of hits if there is none
+     */
+    static int firstHitAfter(InvertedIndex.SearchHits hits, float afterScore, int afterId) {
+
+        int low = 0;
+        int high = hits.size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            float score = hits.scores()[middle];
+            if (score > afterScore || (score == afterScore && hits.ids()[middle] <= afterId)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
 
-            List<Sort.Order> orders = new ArrayList<>();
+    /**
+     * Converts the sort request parameters into sort orders. Accepts either {@code ["property", "direction"]}
+     * or a list of {@code "property,direction"} entries. Malformed entries are ignored.
+     *
+     * @param sort the sort request parameters; can be null
+     * @return the sort orders, empty when no valid sort was requested
+     */
+    private List<Sort.Order> toSortOrders(String[] sort) {
+
+        List<Sort.Order> orders = new ArrayList<>();
+
+        if (sort != null && sort.length > 0) {
 
             if (sort.length == 2 &&
                     ("asc".equalsIgnoreCase(sort[1]) || "desc".equalsIgnoreCase(sort[1]))) {
@@ -107,14 +398,9 @@ public class RecipeService extends BaseService {
                     orders.add(new Sort.Order(direction, property));
                 }
             }
-
-            pageable = PageRequest.of(page, size, Sort.by(orders));
-
-        } else {
-            pageable = PageRequest.of(page, size, Sort.by("id").ascending());
         }
 
-        return recipeRepository.findRecipeSummaryCardsByKeywordAndSort(keyword, currentUserEmail, categoryLabel,pageable);
+        return orders;
     }
 
     /**
@@ -130,6 +416,27 @@ public class RecipeService extends BaseService {
         return this.recipeRepository.findAllByCreatedByOrderByIdDesc(createdBy, pageRequest);
     }
 
+    /**
+     * Retrieves a slice of the recipes created by a specified user, newest first, using keyset pagination.
+     *
+     * @param createdBy the unique identifier of the user who created the recipes
+     * @param cursor the continuation token returned with the previous slice; null for the first slice
+     * @param size the maximum number of recipes to return
+     * @return the slice of recipes with the token for the next slice
+     * @throws InvalidCursorException if the cursor cannot be decoded or the size is out of range
+     */
+    public CursorPage<RecipeSummaryForCards> getRecipesByCreatedByCursor(String createdBy, String cursor, Integer size) {
+
+        checkCursorPageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor, KeysetCursor.Mode.ID);
+        int beforeId = after == null ? Integer.MAX_VALUE : after.recipeId();
+
+        List<RecipeSummaryForCards> rows = this.recipeRepository.findAllByCreatedByAndIdLessThanOrderByIdDesc(createdBy, beforeId, PageRequest.of(0, size + 1));
+
+        return this.toCursorPage(rows, size, RecipeSummaryForCards::id, card -> String.valueOf(card.id()));
+    }
+
     /**
      * Creates a new recipe and saves it to the database. The method maps the provided
      * {@link RecipeDto} to a {@link Recipe} entity, saves it, and associates the recipe with
@@ -150,21 +457,27 @@ public class RecipeService extends BaseService {
             newRecipe.setCreatedAt(Instant.now());
             newRecipe.setUpdatedBy(null);
             newRecipe.setUpdatedAt(null);
+            newRecipe.setTotalMinutes(this.computeTotalMinutes(newRecipe));
 
             newRecipe = this.recipeRepository.save(newRecipe);
 
-            for(Integer categoryId : dto.categoryIds()) {
-                this.recipeCategoryService.createRecipeCategory(categoryId, newRecipe.getId(), createdByEmail);
-            }
+            // The categories and components are inserted in batches and are not managed, so the recipe is detached
+            // before they are set on it. It is only returned to the client from here on.
+            this.entityManager.detach(newRecipe);
+
+            this.recipeCategoryService.createRecipeCategories(dto.categoryIds(), newRecipe.getId(), createdByEmail);
 
             newRecipe.setIngredientGroups(this.ingredientGroupService.createIngredientGroups(dto.ingredientGroups(), newRecipe.getId(), createdByEmail));
             newRecipe.setStepGroups(this.stepGroupService.createStepGroup(dto.stepGroups(), newRecipe.getId(), createdByEmail));
 
-            // Just wanted to return categories of the new recipe. If entity is not detached it will try to persist the category which will break stuff
-            this.entityManager.detach(newRecipe);
-
             newRecipe.setCategories(this.recipeRepository.findCategoriesByRecipeId(newRecipe.getId()));
 
+            this.recipeSearchIndexService.refreshRecipeAfterCommit(newRecipe.getId());
+            this.recipeNutritionService.refreshRecipeAfterCommit(newRecipe.getId());
+            this.recipeSortService.invalidateAfterCommit();
+            this.recipeSearchCacheService.invalidateAfterCommit();
+            this.recipeDetailDocumentService.regenerateAfterCommit(newRecipe.getId());
+
             return newRecipe;
 
         } catch (Exception ex) {
@@ -208,10 +521,19 @@ public class RecipeService extends BaseService {
 
             recipeToUpdate.setUpdatedBy(updatedByEmail);
             recipeToUpdate.setUpdatedAt(Instant.now());
+            recipeToUpdate.setTotalMinutes(this.computeTotalMinutes(recipeToUpdate));
             this.updateRecipeCategory(recipeToUpdate.getCategories(), updateRecipeDto.categoryIds(), recipeToUpdate.getId(), updatedByEmail);
 
             this.recipeRepository.save(recipeToUpdate);
 
+            this.recipeSearchIndexService.refreshRecipeAfterCommit(recipeToUpdate.getId());
+            this.recipeNutritionService.refreshRecipeAfterCommit(recipeToUpdate.getId());
+            this.recipeSortService.invalidateAfterCommit();
+            this.recipeSearchCacheService.invalidateAfterCommit();
+            this.recipeDetailCacheService.evictAfterCommit(recipeToUpdate.getId());
+            this.recipeDetailDocumentService.regenerateAfterCommit(recipeToUpdate.getId());
+            this.recipeCardCacheService.evictAfterCommit(recipeToUpdate.getId());
+
            return true;
 
         } else {
@@ -219,6 +541,20 @@ public class RecipeService extends BaseService {
         }
     }
 
+    /**
+     * Computes the prep plus cook time of a recipe in minutes from the cached time unit code values.
+     *
+     * @param recipe the recipe with its prep and cook times set
+     * @return the total time in minutes, or null if a time unit is unknown
+     */
+    private Integer computeTotalMinutes(Recipe recipe) {
+
+        Integer prepMinutes = this.staticCodeService.toMinutes(recipe.getPrepTime(), recipe.getPrepTimeUnitCd() == null ? null : recipe.getPrepTimeUnitCd().getId());
+        Integer cookMinutes = this.staticCodeService.toMinutes(recipe.getCookTime(), recipe.getCookTimeUnitCd() == null ? null : recipe.getCookTimeUnitCd().getId());
+
+        return prepMinutes == null || cookMinutes == null ? null : prepMinutes + cookMinutes;
+    }
+
     /**
      * Updates the categories associated with a recipe by comparing the current set of categories
      * with a new set of category IDs. This method removes categories that are no longer associated
@@ -267,6 +603,7 @@ public class RecipeService extends BaseService {
             newSavedRecipe.setCreatedAt(Instant.now());
             newSavedRecipe.setRecipe(recipeId);
             this.savedRecipeRepository.save(newSavedRecipe);
+            this.favoriteRecipeService.addFavoriteAfterCommit(userEmail, recipeId);
         }
     }
 
@@ -282,6 +619,7 @@ public class RecipeService extends BaseService {
 
         if(savedRecipe != null) {
             this.savedRecipeRepository.delete(savedRecipe);
+            this.favoriteRecipeService.removeFavoriteAfterCommit(userEmail, recipeId);
         }
     }
 
@@ -298,6 +636,64 @@ public class RecipeService extends BaseService {
         return this.recipeRepository.findSavedRecipeSummaryCardsByUser(userEmail, pageRequest);
     }
 
+    /**
+     * Retrieves a slice of the saved recipe summaries of a user in ascending recipe id order using keyset pagination.
+     *
+     * @param cursor the continuation token returned with the previous slice; null for the first slice
+     * @param size the maximum number of recipes to return
+     * @param userEmail the email address of the user whose saved recipes are to be fetched
+     * @return the slice of recipes with the token for the next slice
+     * @throws InvalidCursorException if the cursor cannot be decoded or the size is out of range
+     */
+    public CursorPage<RecipeSummaryForCards> getSavedRecipeForUserByCursor(String cursor, Integer size, String userEmail) {
+
+        checkCursorPageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor, KeysetCursor.Mode.ID);
+        int afterId = after == null ? 0 : after.recipeId();
+
+        List<RecipeSummaryForCards> rows = this.recipeRepository.findSavedRecipeSummaryCardsByUserAfterId(userEmail, afterId, PageRequest.of(0, size + 1));
+
+        return this.toCursorPage(rows, size, RecipeSummaryForCards::id, card -> String.valueOf(card.id()));
+    }
+
+    /**
+     * Rejects a slice size outside 1..{@link #MAX_CURSOR_PAGE_SIZE}, which the keyset queries would turn into an
+     * empty slice with a next cursor, an invalid LIMIT or an overflowing size + 1.
+     *
+     * @throws InvalidCursorException if the size is out of range
+     */
+    private static void checkCursorPageSize(Integer size) {
+        if (size == null || size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidCursorException("The size must be between 1 and " + MAX_CURSOR_PAGE_SIZE + ".");
+        }
+    }
+
+    /**
+     * Turns the rows of a keyset query, fetched with one extra row to detect whether a next slice exists,
+     * into a {@link CursorPage}.
+     *
+     * @param rows the rows returned by the query, at most size + 1
+     * @param size the requested slice size
+     * @param idGetter extracts the recipe id of a row
+     * @param sortKeyGetter extracts the sort key of a row
+     * @return the slice with the cursor pointing at its last row
+     */
+    private <T> CursorPage<T> toCursorPage(List<T> rows, int size, Function<T, Integer> idGetter, Function<T, String> sortKeyGetter) {
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+
+        if (hasNext) {
+            T last = content.getLast();
+            nextCursor = new KeysetCursor(KeysetCursor.Mode.ID, sortKeyGetter.apply(last), idGetter.apply(last)).encode();
+        }
+
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
     /***
      * Retrieves Top 10 recipes based on user interaction algorithm
      * @return List RecipeSummaryCards
@@ -0,0 +1,282 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.search.RecipeSortRow;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.search.PresortedOrder;
+import org.group2.comp313.kitchen_companion.utility.InvalidSortException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of the sort orders supported by the public recipe search.
+ *
+ * Every {@link SortKey} is served from a {@link PresortedOrder} built in memory, so a page of sorted results is
+ * read from a presorted array instead of sorting the whole result set in the database. Sort keys that also exist as
+ * a column of the card queries name that column, which is used while the orders are not built yet.
+ *
+ * Writes changing a sort value (recipe create/update) must call {@link #invalidateAfterCommit()}; the orders are
+ * then rebuilt by the next search, while concurrent searches keep using the previous orders. Rating changes call
+ * {@link #invalidateRatingsAfterCommit()} instead, which only rebuilds the orders of the keys that depend on ratings.
+ */
+@Service
+public class RecipeSortService extends BaseService {
+
+    /**
+     * The supported sort keys, by request property name.
+     */
+    public enum SortKey {
+
+        RATING("rating", "rating", row -> row.ratingValue() == null ? BigDecimal.ZERO : row.ratingValue()),
+        RATING_COUNT("ratingCount", "ratingCount", row -> row.ratingCount() == null ? 0 : row.ratingCount()),
+        NEWEST("newest", "id", RecipeSortRow::createdAt),
+        TITLE("title", "title", row -> row.title().toLowerCase(Locale.ROOT)),
+        CALORIES("calories", null, RecipeSortRow::calories),
+        CARBS("carbsG", null, RecipeSortRow::carbsG),
+        SUGARS("sugarsG", null, RecipeSortRow::sugarsG),
+        FAT("fatG", null, RecipeSortRow::fatG),
+        TOTAL_MINUTES("totalMinutes", "totalMinutes", RecipeSortRow::totalMinutes);
+
+        private static final Map<String, SortKey> BY_PROPERTY = Arrays.stream(values())
+                .collect(Collectors.toMap(SortKey::getProperty, Function.identity()));
+
+        private final String property;
+        private final String databaseProperty;
+        private final Function<RecipeSortRow, Comparable<?>> value;
+
+        SortKey(String property, String databaseProperty, Function<RecipeSortRow, Comparable<?>> value) {
+            this.property = property;
+            this.databaseProperty = databaseProperty;
+            this.value = value;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        /**
+         * @return true if the order of this key changes with the ratings of the recipes
+         */
+        public boolean dependsOnRatings() {
+            return this == RATING || this == RATING_COUNT;
+        }
+
+        /**
+         * @return the card query column this key sorts on, or null if it can only be sorted in memory
+         */
+        public String getDatabaseProperty() {
+            return databaseProperty;
+        }
+
+        /**
+         * @param property the sort property requested by the client
+         * @return the matching sort key, or null if the property is not supported
+         */
+        public static SortKey of(String property) {
+            return BY_PROPERTY.get(property);
+        }
+
+        private boolean hasValue(RecipeSortRow row) {
+            return value.apply(row) != null;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Comparator<RecipeSortRow> comparator() {
+            return Comparator.comparing(row -> (Comparable) value.apply(row));
+        }
+    }
+
+    private final RecipeRepository recipeRepository;
+    private final AtomicBoolean stale = new AtomicBoolean(false);
+    private final AtomicBoolean staleRatings = new AtomicBoolean(false);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Map<SortKey, PresortedOrder> orders = new EnumMap<>(SortKey.class);
+    private volatile BitSet recipes = new BitSet();
+    private volatile boolean ready = false;
+
+    public RecipeSortService(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    /**
+     * Builds the sort orders once the application has started. A failure is logged and leaves the service not
+     * ready, in which case sorts fall back to the database where possible.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOrdersOnStartup() {
+        try {
+            rebuildOrders();
+        } catch (Exception ex) {
+            log.error("Failed to build recipe sort orders", ex);
+        }
+    }
+
+    /**
+     * Reloads the sort values of every recipe and swaps the orders in atomically.
+     */
+    public void rebuildOrders() {
+
+        rebuildLock.lock();
+
+        try {
+            stale.set(false);
+            staleRatings.set(false);
+
+            List<RecipeSortRow> rows = this.recipeRepository.findAllRecipeSortRows();
+            Map<SortKey, PresortedOrder> newOrders = new EnumMap<>(SortKey.class);
+            BitSet newRecipes = new BitSet();
+
+            rows.forEach(row -> newRecipes.set(row.recipeId()));
+
+            for (SortKey key : SortKey.values()) {
+                newOrders.put(key, this.buildOrder(rows, key));
+            }
+
+            this.orders = newOrders;
+            this.recipes = newRecipes;
+            this.ready = true;
+
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * @return true once the orders have been built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Marks the orders stale once the current transaction commits, so the next search rebuilds them.
+     */
+    public void invalidateAfterCommit() {
+        this.runAfterCommit(() -> stale.set(true));
+    }
+
+    /**
+     * Marks the orders of the keys depending on ratings stale once the current transaction commits, so the next
+     * search rebuilds them and keeps the other orders.
+     */
+    public void invalidateRatingsAfterCommit() {
+        this.runAfterCommit(() -> staleRatings.set(true));
+    }
+
+    /**
+     * Validates the sort orders requested by a client against the supported sort keys.
+     *
+     * @param requested the requested sort orders
+     * @throws InvalidSortException if more than one order is requested or a property is not a supported sort key
+     */
+    public void validate(List<Sort.Order> requested) {
+
+        if (requested.size() > 1) {
+            throw new InvalidSortException("Only one sort order is supported.");
+        }
+
+        for (Sort.Order order : requested) {
+            if (SortKey.of(order.getProperty()) == null) {
+                throw new InvalidSortException("Unsupported sort '" + order.getProperty() + "'. Supported sorts are "
+                        + Arrays.stream(SortKey.values()).map(SortKey::getProperty).collect(Collectors.joining(", ")) + ".");
+            }
+        }
+    }
+
+    /**
+     * @return the ids of every recipe known to the sort orders
+     */
+    public BitSet allRecipes() {
+        this.rebuildIfStale();
+        return (BitSet) this.recipes.clone();
+    }
+
+    /**
+     * Returns one page of the given recipes sorted by a sort key.
+     *
+     * @param recipeIds the recipes to sort
+     * @param key the sort key
+     * @param ascending true for ascending order
+     * @param page the page number, starting from 0
+     * @param size the number of records per page
+     * @return the recipe ids of the page, in order
+     */
+    public int[] page(BitSet recipeIds, SortKey key, boolean ascending, int page, int size) {
+
+        this.rebuildIfStale();
+
+        long offset = (long) page * size;
+
+        if (offset > Integer.MAX_VALUE) {
+            return new int[0];
+        }
+
+        return this.orders.get(key).page(recipeIds, ascending, (int) offset, size);
+    }
+
+    private void rebuildIfStale() {
+
+        // Only one search rebuilds, the others keep reading the previous orders meanwhile.
+        if ((stale.get() || staleRatings.get()) && rebuildLock.tryLock()) {
+            try {
+                if (stale.get()) {
+                    rebuildOrders();
+                } else if (ready) {
+                    // Before the first build there are no other orders to keep; it reads the current ratings anyway.
+                    rebuildRatingOrders();
+                }
+            } catch (Exception ex) {
+                log.error("Failed to rebuild recipe sort orders", ex);
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reloads the sort values and swaps in new orders for the keys depending on ratings, keeping the other orders.
+     */
+    private void rebuildRatingOrders() {
+
+        staleRatings.set(false);
+
+        List<RecipeSortRow> rows = this.recipeRepository.findAllRecipeSortRows();
+        Map<SortKey, PresortedOrder> newOrders = new EnumMap<>(this.orders);
+
+        for (SortKey key : SortKey.values()) {
+            if (key.dependsOnRatings()) {
+                newOrders.put(key, this.buildOrder(rows, key));
+            }
+        }
+
+        this.orders = newOrders;
+    }
+
+    private PresortedOrder buildOrder(List<RecipeSortRow> rows, SortKey key) {
+
+        Comparator<RecipeSortRow> byValue = key.comparator().thenComparing(RecipeSortRow::recipeId);
+
+        int[] valued = rows.stream().filter(key::hasValue).sorted(byValue).mapToInt(RecipeSortRow::recipeId).toArray();
+        int[] missing = rows.stream().filter(row -> !key.hasValue(row)).mapToInt(RecipeSortRow::recipeId).sorted().toArray();
+
+        int[] orderedIds = Arrays.copyOf(valued, valued.length + missing.length);
+        System.arraycopy(missing, 0, orderedIds, valued.length, missing.length);
+
+        return new PresortedOrder(orderedIds, valued.length);
+    }
+}
@@ -0,0 +1,197 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSuggestionDto;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeIndexRow;
+import org.group2.comp313.kitchen_companion.dto.search.RecipeLabelRow;
+import org.group2.comp313.kitchen_companion.dto.search.RecipePopularityRow;
+import org.group2.comp313.kitchen_companion.repository.IngredientRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeCategoryRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.search.SearchTokenizer;
+import org.group2.comp313.kitchen_companion.search.SuggestionTrie;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Search box typeahead. Serves suggestions for recipe titles, category labels and ingredient names from an
+ * in-memory {@link SuggestionTrie}, so keystroke-rate traffic never reaches the database.
+ *
+ * Suggestions are weighted by recipe popularity (user interactions and calculated rating); a category or an
+ * ingredient is as popular as its most popular recipe. The trie is built once the application is ready and
+ * rebuilt periodically by the Camel scheduler, see {@link #rebuildSuggestions()}.
+ */
+@Service
+public class RecipeSuggestionService extends BaseService {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    public static final String TYPE_RECIPE = "recipe";
+    public static final String TYPE_CATEGORY = "category";
+    public static final String TYPE_INGREDIENT = "ingredient";
+
+    /**
+     * Quantities, units and preparation words stripped from ingredient labels to get the ingredient name,
+     * e.g. "2 cups diced tomatoes" suggests "tomatoes".
+     */
+    private static final Set<String> INGREDIENT_NOISE = Set.of(
+            "cup", "cups", "tbsp", "tsp", "tablespoon", "tablespoons", "teaspoon", "teaspoons", "g", "gram", "grams",
+            "kg", "ml", "l", "oz", "ounce", "ounces", "lb", "lbs", "pound", "pounds", "pinch", "dash", "can", "cans",
+            "package", "large", "medium", "small", "chopped", "diced", "minced", "sliced", "grated", "shredded",
+            "fresh", "finely", "roughly", "thinly", "peeled", "to", "taste", "of", "and", "or", "for", "optional"
+    );
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final RecipeCategoryRepository recipeCategoryRepository;
+
+    private volatile Suggestions suggestions = new Suggestions(new SuggestionTrie.Builder(MAX_SUGGESTIONS).build(), new RecipeSuggestionDto[0]);
+    private volatile boolean ready = false;
+
+    public RecipeSuggestionService(RecipeRepository recipeRepository, IngredientRepository ingredientRepository, RecipeCategoryRepository recipeCategoryRepository) {
+        this.recipeRepository = recipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeCategoryRepository = recipeCategoryRepository;
+    }
+
+    /**
+     * Builds the suggestions once the application has started. A failure is logged and leaves
+     * the service not ready, in which case no suggestion is returned.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSuggestionsOnStartup() {
+        try {
+            rebuildSuggestions();
+        } catch (Exception ex) {
+            log.error("Failed to build recipe suggestions", ex);
+        }
+    }
+
+    /**
+     * Reloads titles, labels and popularity from the database and swaps the suggestion trie in atomically.
+     */
+    public void rebuildSuggestions() {
+
+        long start = System.currentTimeMillis();
+
+        Map<Integer, Float> popularity = new HashMap<>();
+        for (RecipePopularityRow row : this.recipeRepository.findAllRecipePopularityRows()) {
+            popularity.put(row.recipeId(), popularityOf(row));
+        }
+
+        List<RecipeSuggestionDto> entries = new ArrayList<>();
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(MAX_SUGGESTIONS);
+
+        for (RecipeIndexRow row : this.recipeRepository.findAllRecipeIndexRows()) {
+            int entryId = entries.size();
+            entries.add(new RecipeSuggestionDto(row.title(), TYPE_RECIPE, row.recipeId()));
+            builder.weight(entryId, popularity.getOrDefault(row.recipeId(), 1f));
+            addKeys(builder, SearchTokenizer.words(row.title()), entryId);
+        }
+
+        addLabels(builder, entries, TYPE_CATEGORY, this.recipeCategoryRepository.findAllRecipeCategoryLabels(), popularity);
+        addLabels(builder, entries, TYPE_INGREDIENT, this.ingredientRepository.findAllRecipeIngredientLabels(), popularity);
+
+        this.suggestions = new Suggestions(builder.build(), entries.toArray(new RecipeSuggestionDto[0]));
+        this.ready = true;
+
+        log.info("Recipe suggestions built with {} entries in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return true once the suggestions have been built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Suggests recipes, categories and ingredients starting with the given text, most popular first.
+     * Every word of a suggestion can start the match, so "alf" suggests "Chicken Alfredo".
+     *
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions, capped at {@link #MAX_SUGGESTIONS}
+     * @return the suggestions, empty when the prefix is blank
+     */
+    public List<RecipeSuggestionDto> suggest(String prefix, Integer limit) {
+
+        String key = String.join(" ", SearchTokenizer.words(prefix));
+
+        if (key.isEmpty() || limit == null || limit <= 0) {
+            return List.of();
+        }
+
+        Suggestions current = this.suggestions;
+        int[] entryIds = current.trie().lookup(key);
+        int count = Math.min(entryIds.length, Math.min(limit, MAX_SUGGESTIONS));
+
+        List<RecipeSuggestionDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(current.entries()[entryIds[i]]);
+        }
+
+        return result;
+    }
+
+    private void addLabels(SuggestionTrie.Builder builder, List<RecipeSuggestionDto> entries, String type, List<RecipeLabelRow> rows, Map<Integer, Float> popularity) {
+
+        Map<String, Integer> entryIdsByKey = new HashMap<>();
+        Map<Integer, Float> weights = new HashMap<>();
+
+        for (RecipeLabelRow row : rows) {
+
+            List<String> words = SearchTokenizer.words(row.label());
+
+            if (TYPE_INGREDIENT.equals(type)) {
+                words = words.stream().filter(word -> !INGREDIENT_NOISE.contains(word) && !Character.isDigit(word.charAt(0))).toList();
+            }
+
+            if (words.isEmpty()) {
+                continue;
+            }
+
+            String key = String.join(" ", words);
+            Integer entryId = entryIdsByKey.get(key);
+
+            if (entryId == null) {
+                entryId = entries.size();
+                entries.add(new RecipeSuggestionDto(TYPE_INGREDIENT.equals(type) ? key : row.label(), type, null));
+                entryIdsByKey.put(key, entryId);
+                addKeys(builder, words, entryId);
+            }
+
+            weights.merge(entryId, popularity.getOrDefault(row.recipeId(), 1f), Math::max);
+        }
+
+        weights.forEach(builder::weight);
+    }
+
+    /**
+     * Adds one key per word start, so a suggestion matches from any of its words.
+     */
+    private void addKeys(SuggestionTrie.Builder builder, List<String> words, int entryId) {
+        for (int i = 0; i < words.size(); i++) {
+            builder.add(String.join(" ", words.subList(i, words.size())), entryId);
+        }
+    }
+
+    private float popularityOf(RecipePopularityRow row) {
+
+        float popularity = 1f;
+
+        if (row.interactionScore() != null) {
+            popularity += row.interactionScore();
+        }
+
+        if (row.ratingValue() != null && row.ratingCount() != null) {
+            popularity += row.ratingValue().floatValue() * row.ratingCount();
+        }
+
+        return popularity;
+    }
+
+    private record Suggestions(SuggestionTrie trie, RecipeSuggestionDto[] entries) {
+    }
+}
@@ -8,6 +8,7 @@ import org.group2.comp313.kitchen_companion.repository.CodeValueRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -18,10 +19,20 @@ import java.util.Optional;
 public class StaticCodeService extends BaseService {
 
     public static final Integer TIME_UNIT_CODE_BOOK_ID = 100;
+    public static final Integer TIME_UNIT_MINUTES_CODE_VALUE_ID = 100;
     public static final Integer DAYS_OF_WEEK_CODE_BOOK_ID = 200;
     public static final Integer NON_RECIPE_SUBSTITUTION_CODE_BOOK_ID = 300;
     public static final Integer USER_INTERACTION_EVENT_CODE_BOOK_ID = 400;
 
+    /**
+     * Number of minutes in one unit of each time unit code value label.
+     */
+    private static final Map<String, Integer> MINUTES_PER_TIME_UNIT = Map.of(
+            "minutes", 1,
+            "hours", 60,
+            "days", 1440
+    );
+
     private final CodeBookRepository codeBookRepository;
     private final CodeValueRepository codeValueRepository;
 
@@ -78,4 +89,27 @@ public class StaticCodeService extends BaseService {
         return Optional.empty();
     }
 
+    /**
+     * Converts a duration expressed in a time unit of code book {@link #TIME_UNIT_CODE_BOOK_ID} to minutes,
+     * resolving the unit from the cached code book instead of the database.
+     *
+     * @param amount the duration in the given unit
+     * @param timeUnitCodeValueId the code value id of the time unit
+     * @return the duration in minutes, or null if the amount is null or the unit is unknown
+     */
+    public Integer toMinutes(Integer amount, Integer timeUnitCodeValueId) {
+
+        if (amount == null || timeUnitCodeValueId == null) {
+            return null;
+        }
+
+        return this.getCodeValueListUsingCodeBookID(TIME_UNIT_CODE_BOOK_ID)
+                .flatMap(timeUnits -> timeUnits.getCodeValues().stream()
+                        .filter(codeValue -> Objects.equals(codeValue.getId(), timeUnitCodeValueId))
+                        .findFirst())
+                .map(codeValue -> MINUTES_PER_TIME_UNIT.get(codeValue.getLabel()))
+                .map(minutesPerUnit -> amount * minutesPerUnit)
+                .orElse(null);
+    }
+
 }
@@ -1,14 +1,17 @@
 package org.group2.comp313.kitchen_companion.service;
 
 import jakarta.transaction.Transactional;
+import org.group2.comp313.kitchen_companion.domain.Step;
 import org.group2.comp313.kitchen_companion.domain.StepGroup;
 import org.group2.comp313.kitchen_companion.dto.recipe.*;
 import org.group2.comp313.kitchen_companion.mapper.StepGroupMapper;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
 import org.group2.comp313.kitchen_companion.repository.StepGroupRepository;
 import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -19,26 +22,37 @@ public class StepGroupService extends BaseService {
     private final StepGroupRepository stepGroupRepository;
     private final StepService stepService;
     private final StepGroupMapper stepGroupMapper;
+    private final RecipeDetailCacheService recipeDetailCacheService;
+    private final RecipeDetailDocumentService recipeDetailDocumentService;
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository;
 
-    public StepGroupService(StepGroupRepository stepGroupRepository, StepService stepService, StepGroupMapper stepGroupMapper) {
+    public StepGroupService(StepGroupRepository stepGroupRepository, StepService stepService, StepGroupMapper stepGroupMapper, RecipeDetailCacheService recipeDetailCacheService, RecipeDetailDocumentService recipeDetailDocumentService, RecipeComponentBatchRepository recipeComponentBatchRepository) {
         this.stepGroupRepository = stepGroupRepository;
         this.stepService = stepService;
         this.stepGroupMapper = stepGroupMapper;
+        this.recipeDetailCacheService = recipeDetailCacheService;
+        this.recipeDetailDocumentService = recipeDetailDocumentService;
+        this.recipeComponentBatchRepository = recipeComponentBatchRepository;
     }
 
     /**
      * Creates a set of StepGroup entities from a list of StepGroupDto objects, associates
      * them with a specific recipe, and sets the createdBy field. Each StepGroup is persisted
-     * in the repository and populated with associated steps.
+     * in the repository and populated with associated steps. The groups, then the steps of every
+     * group, are inserted with one batch statement each, see {@link RecipeComponentBatchRepository}.
+     *
+     * The returned groups and steps carry their generated ids but are not managed by the persistence context: they
+     * are meant to be returned to the client only. Callers must not change them or pass them to the entity manager
+     * in the same transaction, and must reload them through the repositories to work on them.
      *
      * @param newStepGroupList the list of StepGroupDto objects representing the step groups to be created
      * @param recipeId the unique identifier of the recipe to associate with the step groups
      * @param createdBy the identifier of the user creating the step groups
-     * @return a set of newly created and persisted StepGroup entities
+     * @return a set of newly created and persisted StepGroup entities, not managed
      */
     public Set<StepGroup> createStepGroup(List<StepGroupDto> newStepGroupList, Integer recipeId, String createdBy) {
 
-        Set<StepGroup> stepGroups = new HashSet<>();
+        List<StepGroup> stepGroups = new ArrayList<>();
 
         for(StepGroupDto stepGroupDto: newStepGroupList){
 
@@ -52,24 +66,34 @@ public class StepGroupService extends BaseService {
             newStepGroup.setUpdatedAt(null);
             newStepGroup.setUpdatedBy(null);
 
-            newStepGroup = this.stepGroupRepository.save(newStepGroup);
+            stepGroups.add(newStepGroup);
+        }
+
+        this.recipeComponentBatchRepository.insertStepGroups(stepGroups);
 
-            Integer newStepGroupId = newStepGroup.getId();
+        List<Step> steps = new ArrayList<>();
 
-            for(StepDto stepDto: stepGroupDto.steps()) {
-                newStepGroup.getSteps().add(this.stepService.createStep(stepDto, newStepGroupId, createdBy));
-            }
+        for(int i = 0; i < stepGroups.size(); i++) {
 
-            stepGroups.add(newStepGroup);
+            StepGroup newStepGroup = stepGroups.get(i);
+
+            for(StepDto stepDto: newStepGroupList.get(i).steps()) {
+                Step step = this.stepService.newStep(stepDto, newStepGroup.getId(), createdBy);
+                newStepGroup.getSteps().add(step);
+                steps.add(step);
+            }
         }
 
-        return stepGroups;
+        this.stepService.createSteps(steps);
+
+        return new HashSet<>(stepGroups);
     }
 
     /**
      * Updates an existing StepGroup entity associated with a specific recipe and user.
      * The method updates the StepGroup's label and its associated components based on
-     * the provided data transfer object (DTO).
+     * the provided data transfer object (DTO). The steps are loaded once with the group and only the ones
+     * that change are written, see {@link StepService#updateSteps(StepGroup, List, String)}.
      *
      * @param dto the data transfer object containing updated StepGroup and component information
      * @param recipeId the unique identifier of the recipe to which the StepGroup belongs
@@ -94,10 +118,11 @@ public class StepGroupService extends BaseService {
             }
 
             if(dto.componentUpdateDtoList() != null && !dto.componentUpdateDtoList().isEmpty()) {
-                for(ComponentUpdateDto componentUpdateDto: dto.componentUpdateDtoList()) {
-                    this.stepService.updateStep(componentUpdateDto, updatedBy);
-                }
+                this.stepService.updateSteps(stepGroup, dto.componentUpdateDtoList(), updatedBy);
             }
+
+            this.recipeDetailCacheService.evictAfterCommit(recipeId);
+            this.recipeDetailDocumentService.regenerateAfterCommit(recipeId);
         }
     }
 
@@ -105,8 +130,9 @@ public class StepGroupService extends BaseService {
      * Updates an existing step group entity associated with a given recipe.
      * The method retrieves the step group using the provided recipe ID, step group ID,
      * and the identifier of the user who is updating it. If the step group is found,
-     * it applies updates from the provided {@code StepGroupDto}. Additionally, it processes
-     * any associated steps within the step group for updates.
+     * it applies updates from the provided {@code StepGroupDto}. The steps of the DTO replace the steps of
+     * the group: new steps are inserted, missing ones deleted and only the changed or reordered ones updated,
+     * see {@link StepService#syncSteps(StepGroup, List, String)}.
      *
      * @param dto the data transfer object containing the updated data for the step group
      * @param recipeId the ID of the recipe the step group belongs to
@@ -126,11 +152,12 @@ public class StepGroupService extends BaseService {
 
             this.stepGroupMapper.partialUpdate(dto, stepGroup);
 
-            if(dto != null && !dto.steps().isEmpty()) {
-                for(StepDto step: dto.steps()) {
-                    this.stepService.updateStep(step, updatedBy);
-                }
+            if(dto.steps() != null && !dto.steps().isEmpty()) {
+                this.stepService.syncSteps(stepGroup, dto.steps(), updatedBy);
             }
+
+            this.recipeDetailCacheService.evictAfterCommit(recipeId);
+            this.recipeDetailDocumentService.regenerateAfterCommit(recipeId);
         }
     }
 }
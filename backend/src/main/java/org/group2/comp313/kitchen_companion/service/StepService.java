@@ -1,24 +1,32 @@
 package org.group2.comp313.kitchen_companion.service;
 
 import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
 import org.group2.comp313.kitchen_companion.dto.recipe.ComponentUpdateDto;
 import org.group2.comp313.kitchen_companion.dto.recipe.StepDto;
-import org.group2.comp313.kitchen_companion.mapper.StepMapper;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
 import org.group2.comp313.kitchen_companion.repository.StepRepository;
 import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class StepService extends BaseService {
 
     private final StepRepository stepRepository;
-    private final StepMapper stepMapper;
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository;
 
-    public StepService(StepRepository stepRepository, StepMapper stepMapper) {
+    public StepService(StepRepository stepRepository, RecipeComponentBatchRepository recipeComponentBatchRepository) {
         this.stepRepository = stepRepository;
-        this.stepMapper = stepMapper;
+        this.recipeComponentBatchRepository = recipeComponentBatchRepository;
     }
 
     /**
@@ -30,6 +38,27 @@ public class StepService extends BaseService {
      * @return the created Step entity after saving it to the repository
      */
     public Step createStep(StepDto newStepDto, Integer stepGroupId, String createdBy) {
+        return stepRepository.save(this.newStep(newStepDto, stepGroupId, createdBy));
+    }
+
+    /**
+     * Persists the given new steps with a single batch insert, see {@link RecipeComponentBatchRepository}.
+     *
+     * @param newSteps the steps built with {@link #newStep(StepDto, Integer, String)}
+     */
+    public void createSteps(List<Step> newSteps) {
+        this.recipeComponentBatchRepository.insertSteps(newSteps);
+    }
+
+    /**
+     * Builds a new, not yet persisted step.
+     *
+     * @param newStepDto the data transfer object containing the details of the step to be created
+     * @param stepGroupId the identifier of the step group to which the new step belongs
+     * @param createdBy the username or identifier of the user creating the step
+     * @return the new step
+     */
+    public Step newStep(StepDto newStepDto, Integer stepGroupId, String createdBy) {
 
         Step newStep = new Step();
 
@@ -42,68 +71,114 @@ public class StepService extends BaseService {
         newStep.setUpdatedAt(null);
         newStep.setUpdatedBy(null);
 
-        return stepRepository.save(newStep);
+        return newStep;
     }
 
     /**
-     * Updates an existing step with new data provided in the ComponentUpdateDto object.
-     * The updates include modifying fields like label and image URL if they are not null.
-     * The method also records the user who performed the update and the timestamp of the update.
-     * If the step is not found or does not belong to the specified user, an exception is thrown.
+     * Applies partial updates to steps of a group. The steps are the ones loaded with the group, so no step is
+     * read again; only the ones whose label or image actually change are modified, and they are written together
+     * with one batched UPDATE when the caller's transaction flushes.
      *
-     * @param dto the data transfer object containing the details to update the step, such as id, label, and image URL
+     * @param stepGroup the step group, loaded in the current transaction
+     * @param dtoList the partial updates, one per step
      * @param updatedBy the username or identifier of the user attempting to perform the update
-     * @throws EntityToBeUpdatedNotFoundException if the step with the given id does not exist or does not belong to the user
+     * @throws EntityToBeUpdatedNotFoundException if a step does not belong to the group
      */
-    public void updateStep(ComponentUpdateDto dto, String updatedBy) {
+    public void updateSteps(StepGroup stepGroup, List<ComponentUpdateDto> dtoList, String updatedBy) {
 
-        Step step = stepRepository.findByIdAndCreatedBy(dto.id(), updatedBy).orElse(null);
+        Map<Integer, Step> current = currentSteps(stepGroup);
+        Instant now = Instant.now();
 
-        if (step == null) {
-            throw new EntityToBeUpdatedNotFoundException("Step not found. Please check the id or if this belongs to user.");
-        } else {
+        for (ComponentUpdateDto dto : dtoList) {
 
-            step.setUpdatedBy(updatedBy);
-            step.setUpdatedAt(Instant.now());
+            Step step = current.get(dto.id());
 
-            if(dto.label() != null){
-                step.setLabel(dto.label());
+            if (step == null) {
+                throw new EntityToBeUpdatedNotFoundException("Step not found. Please check the id or if this belongs to the step group.");
             }
 
-            if(dto.imageUrl() != null){
-                step.setImageUrl(dto.imageUrl());
-            }
-
-            stepRepository.save(step);
+            String label = dto.label() != null ? dto.label() : step.getLabel();
+            String imageUrl = dto.imageUrl() != null ? dto.imageUrl() : step.getImageUrl();
 
+            applyChanges(step, step.getStepOrder(), label, imageUrl, updatedBy, now);
         }
     }
 
     /**
-     * Updates an existing step with new data provided in the StepDto object.
-     * The method applies partial updates using the provided data transfer object and
-     * records the user who performed the update and the timestamp of the update.
-     * If the step is not found or does not belong to the specified user, an exception is thrown.
+     * Makes the steps of a group match the given list, touching only the rows that differ:
+     * - steps with an id are updated when their order, label or image changed, so reordering a group only writes
+     *   the steps that moved;
+     * - steps without an id are inserted;
+     * - steps of the group missing from the list are deleted.
      *
-     * @param dto the data transfer object containing the details to update the step, such as id, label, and image URL
+     * The steps are the ones loaded with the group. Updates are written with one batched UPDATE when the caller's
+     * transaction flushes, inserts with one batch insert and deletes with one DELETE statement. The deleted steps
+     * are dropped from the step collection of the group, the inserted ones are not added.
+     *
+     * @param stepGroup the step group, loaded in the current transaction
+     * @param dtoList the complete list of steps of the group
      * @param updatedBy the username or identifier of the user attempting to perform the update
-     * @throws EntityToBeUpdatedNotFoundException if the step with the given id does not exist or does not belong to the user
+     * @throws EntityToBeUpdatedNotFoundException if a step id does not belong to the group or is repeated
      */
-    public void updateStep(StepDto dto, String updatedBy) {
+    public void syncSteps(StepGroup stepGroup, List<StepDto> dtoList, String updatedBy) {
+
+        Map<Integer, Step> current = currentSteps(stepGroup);
+        Set<Integer> keptIds = new HashSet<>();
+        List<Step> created = new ArrayList<>();
+        Instant now = Instant.now();
 
-        Step step = stepRepository.findByIdAndCreatedBy(dto.id(), updatedBy).orElse(null);
+        for (StepDto dto : dtoList) {
 
-        if (step == null) {
-            throw new EntityToBeUpdatedNotFoundException("Step not found. Please check the id or if this belongs to user.");
-        } else {
+            if (dto.id() == null) {
+                created.add(this.newStep(dto, stepGroup.getId(), updatedBy));
+                continue;
+            }
+
+            Step step = current.get(dto.id());
 
-            step.setUpdatedBy(updatedBy);
-            step.setUpdatedAt(Instant.now());
+            if (step == null || !keptIds.add(dto.id())) {
+                throw new EntityToBeUpdatedNotFoundException("Step not found. Please check the id or if this belongs to the step group.");
+            }
 
-            this.stepMapper.partialUpdate(dto, step);
+            String imageUrl = dto.imageUrl() != null ? dto.imageUrl() : step.getImageUrl();
+
+            applyChanges(step, dto.stepOrder(), dto.label(), imageUrl, updatedBy, now);
+        }
 
-            stepRepository.save(step);
+        List<Integer> removedIds = current.keySet().stream().filter(id -> !keptIds.contains(id)).toList();
 
+        if (!removedIds.isEmpty()) {
+            this.stepRepository.deleteAllByIdInBatch(removedIds);
+            // The bulk delete bypasses the persistence context, so the group would still hold the deleted steps.
+            stepGroup.getSteps().removeIf(step -> !keptIds.contains(step.getId()));
         }
+
+        this.createSteps(created);
+    }
+
+    private static Map<Integer, Step> currentSteps(StepGroup stepGroup) {
+
+        Map<Integer, Step> current = new HashMap<>();
+
+        for (Step step : stepGroup.getSteps()) {
+            current.put(step.getId(), step);
+        }
+
+        return current;
+    }
+
+    private static void applyChanges(Step step, Integer order, String label, String imageUrl, String updatedBy, Instant now) {
+
+        if (Objects.equals(order, step.getStepOrder())
+                && Objects.equals(label, step.getLabel())
+                && Objects.equals(imageUrl, step.getImageUrl())) {
+            return;
+        }
+
+        step.setStepOrder(order);
+        step.setLabel(label);
+        step.setImageUrl(imageUrl);
+        step.setUpdatedBy(updatedBy);
+        step.setUpdatedAt(now);
     }
 }
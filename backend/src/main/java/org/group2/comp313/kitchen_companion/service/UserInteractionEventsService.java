@@ -1,57 +1,222 @@
 package org.group2.comp313.kitchen_companion.service;
 
-import jakarta.validation.Valid;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.seda.SedaEndpoint;
 import org.group2.comp313.kitchen_companion.domain.CodeBook;
+import org.group2.comp313.kitchen_companion.domain.CodeValue;
 import org.group2.comp313.kitchen_companion.domain.UserInteraction;
 import org.group2.comp313.kitchen_companion.dto.UserInteractionDto;
+import org.group2.comp313.kitchen_companion.repository.UserInteractionBatchRepository;
 import org.group2.comp313.kitchen_companion.repository.UserInteractionRepository;
+import org.group2.comp313.kitchen_companion.utility.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
-
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the user interaction events (views, saves, ratings...) of anonymous sessions.
+ *
+ * Events are queued by {@link #queueUserInteractionEvent(UserInteractionDto)} on the bounded {@link #EVENTS_ROUTE}
+ * queue without touching the database; an event arriving while the queue is full is dropped. The route aggregates
+ * the queued events into batches of up to {@link #BATCH_SIZE} events or {@link #BATCH_TIMEOUT_MS} ms, and
+ * {@link #saveUserInteractionEvents(List)} writes each batch with one INSERT IGNORE after removing its duplicates,
+ * so an interaction already recorded costs no statement of its own.
+ *
+ * Repeated events of a session, e.g. views of the same recipe, are rejected before being queued by a time-bucketed
+ * {@link BloomFilter} of the queued events, rotated every hour on the {@link #DEDUPE_ROTATION_SCHEDULE} route: an
+ * event is looked up in the filters of the current and previous hours, so a repeat is rejected for one to two hours
+ * after the first event. The filters are sized from the {@code user-interaction.dedupe.*} properties; with the
+ * configured false positive rate, a new event is wrongly rejected as a repeat and never recorded.
+ */
 @Service
-public class UserInteractionEventsService extends BaseService{
+public class UserInteractionEventsService extends BaseService implements MeterBinder {
 
-    private final UserInteractionRepository userInteractionRepository;
-    private final StaticCodeService staticCodeService;
+    public static final int QUEUE_CAPACITY = 10_000;
+
+    public static final int BATCH_SIZE = 500;
+
+    public static final long BATCH_TIMEOUT_MS = 1_000;
 
-    private CodeBook userInteractionEventCodeBook;
+    public static final String EVENTS_ROUTE = "seda:userInteractionEvents?size=" + QUEUE_CAPACITY;
 
-    public UserInteractionEventsService(UserInteractionRepository userInteractionRepository, StaticCodeService staticCodeService) {
+    public static final String DEDUPE_ROTATION_SCHEDULE = "scheduler://userInteractionDedupeRotation?scheduler=spring&scheduler.cron=0+0+*+*+*+?";
+
+    private final UserInteractionRepository userInteractionRepository;
+    private final UserInteractionBatchRepository userInteractionBatchRepository;
+    private final StaticCodeService staticCodeService;
+    private final ProducerTemplate producerTemplate;
+    private final long dedupeExpectedEvents;
+    private final double dedupeFalsePositiveRate;
+    private final long dedupeMaxBytes;
+
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final AtomicLong flushedEvents = new AtomicLong();
+
+    private volatile CodeBook userInteractionEventCodeBook;
+    private volatile SedaEndpoint eventsEndpoint;
+    private volatile BloomFilter currentEvents;
+    private volatile BloomFilter previousEvents;
+
+    public UserInteractionEventsService(UserInteractionRepository userInteractionRepository,
+                                        UserInteractionBatchRepository userInteractionBatchRepository,
+                                        StaticCodeService staticCodeService, ProducerTemplate producerTemplate,
+                                        @Value("${user-interaction.dedupe.expected-events-per-hour:1000000}") long dedupeExpectedEvents,
+                                        @Value("${user-interaction.dedupe.false-positive-rate:0.001}") double dedupeFalsePositiveRate,
+                                        @Value("${user-interaction.dedupe.max-memory-mb:16}") long dedupeMaxMemoryMb) {
         this.userInteractionRepository = userInteractionRepository;
+        this.userInteractionBatchRepository = userInteractionBatchRepository;
         this.staticCodeService = staticCodeService;
+        this.producerTemplate = producerTemplate;
+        this.dedupeExpectedEvents = dedupeExpectedEvents;
+        this.dedupeFalsePositiveRate = dedupeFalsePositiveRate;
+        // Two hourly filters are kept at a time.
+        this.dedupeMaxBytes = dedupeMaxMemoryMb * 1024 * 1024 / 2;
+        this.currentEvents = this.newDedupeFilter();
+        this.previousEvents = this.newDedupeFilter();
     }
 
-    public void createUserInteractionEvent(@Valid UserInteractionDto userInteractionDto) {
+    /**
+     * Queues an event to be recorded with the next batch. The event is skipped if the same event was queued in the
+     * current or previous hour, and dropped if the queue is full.
+     *
+     * @param userInteractionDto the event
+     */
+    public void queueUserInteractionEvent(UserInteractionDto userInteractionDto) {
+
+        String key = userInteractionDto.sessionId() + '\n' + userInteractionDto.eventType() + '\n' + userInteractionDto.recipeId();
+        BloomFilter current = this.currentEvents;
+
+        if (current.mightContain(key) || this.previousEvents.mightContain(key)) {
+            this.deduplicated.incrementAndGet();
+            return;
+        }
+
+        try {
+            this.producerTemplate.sendBody(EVENTS_ROUTE, userInteractionDto);
+            current.put(key);
+        } catch (Exception ex) {
+            if (this.dropped.incrementAndGet() % 1_000 == 1) {
+                log.warn("User interaction event queue is full, {} events dropped so far", this.dropped.get());
+            }
+        }
+    }
+
+    /**
+     * Records a batch of events, skipping the duplicates and the events already recorded. Called from the
+     * {@link #EVENTS_ROUTE} route with the aggregated events.
+     *
+     * @param userInteractionDtos the events
+     */
+    public void saveUserInteractionEvents(List<UserInteractionDto> userInteractionDtos) {
+
+        long start = System.nanoTime();
+
+        Set<UserInteractionDto> events = new LinkedHashSet<>(userInteractionDtos);
+        List<UserInteraction> interactions = new ArrayList<>(events.size());
 
-        Integer codeValueId = this.getCodeValueIdForInteractionEvent(userInteractionDto.eventType());
+        for (UserInteractionDto event : events) {
 
-        List<UserInteraction> existingInteraction = this.userInteractionRepository.findAllUserInteractionBySessionIdAndUserInteractionEventTypeCodeAndRecipe(userInteractionDto.sessionId(), codeValueId, userInteractionDto.recipeId());
+            Integer codeValueId = this.getCodeValueIdForInteractionEvent(event.eventType());
+
+            if (event.sessionId() == null || event.recipeId() == null || codeValueId == null) {
+                log.warn("Skipping invalid user interaction event {}", event);
+                continue;
+            }
 
-        if (existingInteraction.isEmpty()) {
             UserInteraction userInteraction = new UserInteraction();
             userInteraction.setCreatedBy(null);
-            userInteraction.setSessionId(userInteractionDto.sessionId());
-            userInteraction.setRecipe(userInteractionDto.recipeId());
+            userInteraction.setSessionId(event.sessionId());
+            userInteraction.setRecipe(event.recipeId());
             userInteraction.setUserInteractionEventTypeCode(codeValueId);
-            this.userInteractionRepository.save(userInteraction);
+            interactions.add(userInteraction);
         }
 
+        this.userInteractionBatchRepository.insertIgnoreInteractions(interactions);
+
+        this.flushes.incrementAndGet();
+        this.flushNanos.addAndGet(System.nanoTime() - start);
+        this.flushedEvents.addAndGet(interactions.size());
+    }
+
+    /**
+     * Starts a new hourly filter of the queued events and drops the one of two hours ago. Called from the
+     * {@link #DEDUPE_ROTATION_SCHEDULE} route.
+     */
+    public void rotateDedupeFilter() {
+
+        BloomFilter expired = this.currentEvents;
+
+        log.info("Rotating the user interaction dedupe filter, estimated false positive rate {}",
+                expired.expectedFalsePositiveRate());
+
+        this.previousEvents = expired;
+        this.currentEvents = this.newDedupeFilter();
     }
 
     public void clearUserInteractionEventTable() {
         this.userInteractionRepository.deleteAll();
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("user.interaction.queue.depth", this, UserInteractionEventsService::getQueueDepth)
+                .description("User interaction events queued and not aggregated yet").register(registry);
+        FunctionCounter.builder("user.interaction.deduplicated", deduplicated, AtomicLong::get)
+                .description("User interaction events rejected as repeats by the dedupe filter").register(registry);
+        Gauge.builder("user.interaction.dedupe.fpp", this, service -> service.currentEvents.expectedFalsePositiveRate())
+                .description("Estimated false positive rate of the current dedupe filter").register(registry);
+        Gauge.builder("user.interaction.dedupe.memory", this,
+                        service -> service.currentEvents.sizeInBytes() + service.previousEvents.sizeInBytes())
+                .description("Memory of the dedupe filters, in bytes").baseUnit("bytes").register(registry);
+        FunctionCounter.builder("user.interaction.dropped", dropped, AtomicLong::get)
+                .description("User interaction events dropped because the queue was full").register(registry);
+        FunctionCounter.builder("user.interaction.flushed", flushedEvents, AtomicLong::get)
+                .description("Distinct user interaction events written, including the ones already recorded").register(registry);
+        FunctionTimer.builder("user.interaction.flush", this, service -> service.flushes.get(),
+                        service -> service.flushNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Writes of batches of user interaction events").register(registry);
+    }
+
+    private BloomFilter newDedupeFilter() {
+        return BloomFilter.create(this.dedupeExpectedEvents, this.dedupeFalsePositiveRate, this.dedupeMaxBytes);
+    }
+
+    private double getQueueDepth() {
+
+        if (this.eventsEndpoint == null) {
+            this.eventsEndpoint = this.producerTemplate.getCamelContext().getEndpoint(EVENTS_ROUTE, SedaEndpoint.class);
+        }
+
+        return this.eventsEndpoint.getCurrentQueueSize();
+    }
+
     private Integer getCodeValueIdForInteractionEvent(String event) {
 
         if(userInteractionEventCodeBook == null) {
             userInteractionEventCodeBook = this.staticCodeService.getCodeValueListUsingCodeBookID(StaticCodeService.USER_INTERACTION_EVENT_CODE_BOOK_ID).get();
         }
 
-        return Objects.requireNonNull(userInteractionEventCodeBook.getCodeValues().stream().filter((value) -> value.getLabel().equals(event)).findFirst().orElse(null)).getId();
+        return userInteractionEventCodeBook.getCodeValues().stream()
+                .filter((value) -> Objects.equals(value.getLabel(), event))
+                .findFirst()
+                .map(CodeValue::getId)
+                .orElse(null);
     }
 
 }
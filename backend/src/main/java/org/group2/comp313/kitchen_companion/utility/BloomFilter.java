@@ -0,0 +1,132 @@
+package org.group2.comp313.kitchen_companion.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings: a set that answers "maybe present" or "definitely absent" in a fixed amount
+ * of memory. Keys are hashed to {@code k} of its {@code m} bits with double hashing of a 64-bit hash; a key is
+ * present if all its bits are set, so it can be wrongly reported present with a probability that grows as bits fill
+ * up, but never wrongly reported absent.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final AtomicLong bitsSet = new AtomicLong();
+
+    private BloomFilter(long bits, int hashes) {
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bits = bits;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Creates a filter with the optimal number of bits and hashes for the expected number of keys and false
+     * positive rate, using at most the given memory; a smaller filter has a higher false positive rate.
+     *
+     * @param expectedKeys the number of keys expected to be added
+     * @param falsePositiveRate the wanted probability of reporting an absent key as present, e.g. 0.01
+     * @param maxBytes the maximum memory of the bits
+     * @return the filter
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate, long maxBytes) {
+
+        long keys = Math.max(1, expectedKeys);
+        double rate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+
+        long optimalBits = (long) Math.ceil(-keys * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        long bits = Math.max(64, Math.min(optimalBits, Math.min(maxBytes * 8, Integer.MAX_VALUE)));
+        int hashes = (int) Math.max(1, Math.min(30, Math.round((double) bits / keys * Math.log(2))));
+
+        return new BloomFilter(bits, hashes);
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @return true if the key was definitely absent before, false if it may already have been added
+     */
+    public boolean put(String key) {
+
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean changed = false;
+
+        for (int i = 1; i <= this.hashes; i++) {
+            long bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long previous = this.words.getAndAccumulate(word, mask, (current, value) -> current | value);
+            if ((previous & mask) == 0) {
+                this.bitsSet.incrementAndGet();
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return false if the key was definitely never added, true if it may have been
+     */
+    public boolean mightContain(String key) {
+
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= this.hashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((this.words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the memory of the bits, in bytes
+     */
+    public long sizeInBytes() {
+        return this.words.length() * 8L;
+    }
+
+    /**
+     * @return the probability that an absent key is currently reported as present
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) this.bitsSet.get() / this.bits, this.hashes);
+    }
+
+    private long index(int combinedHash) {
+        // Flip a negative combined hash so every bit is reachable.
+        return (combinedHash < 0 ? ~combinedHash : combinedHash) % this.bits;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes of the key, finished with the MurmurHash3 mix so both halves are usable
+     * as independent hashes.
+     */
+    private static long hash(String key) {
+
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,19 @@
+package org.group2.comp313.kitchen_companion.utility;
+
+/**
+ * Exception thrown when a continuation token sent by a client for a cursor based listing
+ * cannot be decoded, either because it was tampered with or because it was issued
+ * for a different sort order, or when the requested slice size is out of range.
+ *
+ * InvalidCursorException extends RuntimeException so it can be raised from the service layer
+ * and translated into a bad request by the controllers.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
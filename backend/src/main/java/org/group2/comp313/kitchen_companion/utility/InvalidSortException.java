@@ -0,0 +1,14 @@
+package org.group2.comp313.kitchen_companion.utility;
+
+/**
+ * Exception thrown when a client asks for a sort order that is not one of the supported recipe sort keys.
+ *
+ * InvalidSortException extends RuntimeException so it can be raised from the service layer
+ * and translated into a bad request by the controllers.
+ */
+public class InvalidSortException extends RuntimeException {
+
+    public InvalidSortException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,104 @@
+package org.group2.comp313.kitchen_companion.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row returned by a cursor (keyset) based listing: the value of the sort key
+ * and the recipe id used as a tie breaker. It is handed to clients as an opaque URL safe token and
+ * the next page is read with a {@code WHERE (sort_key, recipe_id) > (:sortKey, :recipeId)} style seek
+ * instead of an OFFSET, so deep pages cost the same as the first one.
+ *
+ * The cursor records the {@link Mode} of the listing that issued it, so a cursor is never read against a listing
+ * ordered by another key, e.g. a database listing cursor against the relevance ranking of the search index.
+ *
+ * @param mode the order of the listing that issued the cursor
+ * @param sortKey the sort key value of the last row, as a string
+ * @param recipeId the recipe id of the last row
+ */
+public record KeysetCursor(Mode mode, String sortKey, Integer recipeId) {
+
+    private static final String VERSION = "v2";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Order of the listing a cursor was issued by.
+     */
+    public enum Mode {
+        /**
+         * Recipe id order; the sort key is the recipe id.
+         */
+        ID,
+        /**
+         * Descending relevance score of the search index, then ascending recipe id; the sort key is the score.
+         */
+        SCORE
+    }
+
+    /**
+     * @return the opaque continuation token for this position
+     */
+    public String encode() {
+        String raw = VERSION + SEPARATOR + mode + SEPARATOR + sortKey + SEPARATOR + recipeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token previously produced by {@link #encode()}.
+     *
+     * @param token the token sent by the client; null or blank means "first page"
+     * @return the decoded cursor, or null when no token was given
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+
+            if (parts.length == 4 && VERSION.equals(parts[0])) {
+                return new KeysetCursor(Mode.valueOf(parts[1]), parts[2], Integer.valueOf(parts[3]));
+            }
+
+            throw new InvalidCursorException("Invalid cursor.");
+
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor.", e);
+        }
+    }
+
+    /**
+     * Decodes a continuation token of a listing of the given mode.
+     *
+     * @param token the token sent by the client; null or blank means "first page"
+     * @param mode the mode of the listing
+     * @return the decoded cursor, or null when no token was given
+     * @throws InvalidCursorException if the token is malformed or was issued by a listing of another mode
+     */
+    public static KeysetCursor decode(String token, Mode mode) {
+
+        KeysetCursor cursor = decode(token);
+
+        if (cursor != null && cursor.mode() != mode) {
+            throw new InvalidCursorException("The cursor was issued for a different listing.");
+        }
+
+        return cursor;
+    }
+
+    /**
+     * @return the sort key parsed as a float
+     * @throws InvalidCursorException if the sort key is not a number
+     */
+    public float sortKeyAsFloat() {
+        try {
+            return Float.parseFloat(sortKey);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.group2.comp313.kitchen_companion.utility;
+
+/**
+ * Exception thrown when a request can only be served from an in-memory index that has not
+ * finished building yet, typically right after the application started.
+ *
+ * SearchIndexNotReadyException extends RuntimeException so it can be raised from the service layer
+ * and translated into a service unavailable response by the controllers.
+ */
+public class SearchIndexNotReadyException extends RuntimeException {
+
+    public SearchIndexNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+alter table `recipe` add column `total_minutes` int null;
+
+update `recipe` r
+    join `code_value` prep_unit on prep_unit.code_value_id = r.prep_time_unit_cd
+    join `code_value` cook_unit on cook_unit.code_value_id = r.cook_time_unit_cd
+set r.total_minutes =
+        r.prep_time * case prep_unit.label when 'minutes' then 1 when 'hours' then 60 when 'days' then 1440 end +
+        r.cook_time * case cook_unit.label when 'minutes' then 1 when 'hours' then 60 when 'days' then 1440 end;
+
+create index `recipe_total_minutes_idx` on `recipe` (`total_minutes`);
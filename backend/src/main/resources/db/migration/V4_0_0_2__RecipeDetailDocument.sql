@@ -0,0 +1,8 @@
+CREATE TABLE recipe_detail_document (
+               recipe_id integer primary key,
+               document_gzip mediumblob NOT NULL,
+               etag varchar(64) NOT NULL,
+               format_version integer NOT NULL,
+               last_modified timestamp NOT NULL,
+               foreign key (`recipe_id`) references `recipe` (`recipe_id`) on delete cascade
+);
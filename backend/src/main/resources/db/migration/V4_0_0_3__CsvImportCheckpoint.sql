@@ -0,0 +1,11 @@
+-- file_size and file_last_modified identify the imported file, a checkpoint only applies to the same file
+CREATE TABLE csv_import_checkpoint (
+               import_name varchar(255) primary key,
+               file_size bigint NOT NULL,
+               file_last_modified bigint NOT NULL,
+               rows_processed bigint NOT NULL DEFAULT 0,
+               recipes_created bigint NOT NULL DEFAULT 0,
+               rows_skipped bigint NOT NULL DEFAULT 0,
+               completed boolean NOT NULL DEFAULT false,
+               updated_at timestamp NOT NULL
+);
@@ -0,0 +1,21 @@
+alter table `rating_calculated` add column `rating_sum` decimal(12, 2) not null default 0;
+
+-- keep one aggregate row per recipe so it can be upserted on recipe_id
+delete rc from `rating_calculated` rc
+    join `rating_calculated` newer on newer.recipe_id = rc.recipe_id and newer.rating_calculated_id > rc.rating_calculated_id;
+
+alter table `rating_calculated` add unique index `uidx_rating_calculated_recipe_id` (`recipe_id`);
+alter table `rating_calculated` drop index `rating_calculated_recipe_id_idx`;
+
+insert into `rating_calculated` (recipe_id, rating_sum, rating_count, rating_value)
+select totals.recipe_id, totals.rating_sum, totals.rating_count, totals.rating_value
+from (select r.recipe_id,
+             sum(r.rating_value)                   as rating_sum,
+             count(*)                              as rating_count,
+             ceiling(avg(r.rating_value) * 10) / 10 as rating_value
+      from `rating` r
+      where r.recipe_id is not null
+      group by r.recipe_id) totals
+on duplicate key update rating_sum   = totals.rating_sum,
+                        rating_count = totals.rating_count,
+                        rating_value = totals.rating_value;
@@ -0,0 +1,23 @@
+-- number of ratings of each recipe by star, a rating counting for its value rounded half up, 0 counting as 1 star
+alter table `rating_calculated`
+    add column `rating_count_1` int not null default 0,
+    add column `rating_count_2` int not null default 0,
+    add column `rating_count_3` int not null default 0,
+    add column `rating_count_4` int not null default 0,
+    add column `rating_count_5` int not null default 0;
+
+update `rating_calculated` rc
+    join (select r.recipe_id,
+                 sum(least(5, greatest(1, round(r.rating_value))) = 1) as rating_count_1,
+                 sum(least(5, greatest(1, round(r.rating_value))) = 2) as rating_count_2,
+                 sum(least(5, greatest(1, round(r.rating_value))) = 3) as rating_count_3,
+                 sum(least(5, greatest(1, round(r.rating_value))) = 4) as rating_count_4,
+                 sum(least(5, greatest(1, round(r.rating_value))) = 5) as rating_count_5
+          from `rating` r
+          where r.recipe_id is not null
+          group by r.recipe_id) stars on stars.recipe_id = rc.recipe_id
+set rc.rating_count_1 = stars.rating_count_1,
+    rc.rating_count_2 = stars.rating_count_2,
+    rc.rating_count_3 = stars.rating_count_3,
+    rc.rating_count_4 = stars.rating_count_4,
+    rc.rating_count_5 = stars.rating_count_5;
@@ -0,0 +1,11 @@
+-- keep one interaction per session, event type and recipe so events can be inserted with INSERT IGNORE
+delete ui from `user_interaction` ui
+    join `user_interaction` older
+         on older.session_id = ui.session_id
+             and older.user_interaction_event_type_code = ui.user_interaction_event_type_code
+             and older.recipe_id = ui.recipe_id
+             and older.user_interaction_id < ui.user_interaction_id;
+
+alter table `user_interaction`
+    add unique index `uidx_user_interaction_session_event_recipe` (`session_id`, `user_interaction_event_type_code`, `recipe_id`);
+alter table `user_interaction` drop index `idx_user_interaction_session_id`;
@@ -0,0 +1,34 @@
+package org.group2.comp313.kitchen_companion;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base of the tests running against a real MySQL database, started once in a container and shared by every test
+ * class (the Spring context is cached between them). The tests are skipped when Docker is not available.
+ *
+ * The connection is configured like the deployed one, with {@code rewriteBatchedStatements=true}, and Hibernate
+ * statistics are enabled so tests can count the statements and rows of a code path.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+
+    // Named like spring.flyway.default-schema in the test properties.
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0").withDatabaseName("TEST");
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+
+        MYSQL.start();
+
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.hikari.data-source-properties.rewriteBatchedStatements", () -> "true");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+}
@@ -0,0 +1,88 @@
+package org.group2.comp313.kitchen_companion;
+
+import org.group2.comp313.kitchen_companion.domain.Category;
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
+
+import java.time.Instant;
+
+/**
+ * New, not yet persisted recipe entities for the database tests.
+ */
+public final class TestRecipes {
+
+    public static final String CREATED_BY = "test@mail.com";
+
+    private TestRecipes() {
+    }
+
+    public static Recipe recipe(String title) {
+
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setSummary("Summary of " + title);
+        recipe.setPrepTime(10);
+        recipe.setCookTime(20);
+        recipe.setTotalMinutes(30);
+        recipe.setServings(4);
+        recipe.setCreatedBy(CREATED_BY);
+        recipe.setCreatedAt(Instant.now());
+        return recipe;
+    }
+
+    public static Category category(String label) {
+
+        Category category = new Category();
+        category.setLabel(label);
+        category.setCreatedBy(CREATED_BY);
+        category.setCreatedAt(Instant.now());
+        return category;
+    }
+
+    public static IngredientGroup ingredientGroup(Integer recipeId, int order) {
+
+        IngredientGroup group = new IngredientGroup();
+        group.setRecipe(recipeId);
+        group.setIngredientGroupOrder(order);
+        group.setLabel("Ingredients " + order);
+        group.setCreatedBy(CREATED_BY);
+        group.setCreatedAt(Instant.now());
+        return group;
+    }
+
+    public static Ingredient ingredient(Integer ingredientGroupId, int order) {
+
+        Ingredient ingredient = new Ingredient();
+        ingredient.setIngredientGroup(ingredientGroupId);
+        ingredient.setIngredientOrder(order);
+        ingredient.setLabel("Ingredient " + order);
+        ingredient.setCreatedBy(CREATED_BY);
+        ingredient.setCreatedAt(Instant.now());
+        return ingredient;
+    }
+
+    public static StepGroup stepGroup(Integer recipeId, int order) {
+
+        StepGroup group = new StepGroup();
+        group.setRecipe(recipeId);
+        group.setStepGroupOrder(order);
+        group.setLabel("Steps " + order);
+        group.setCreatedBy(CREATED_BY);
+        group.setCreatedAt(Instant.now());
+        return group;
+    }
+
+    public static Step step(Integer stepGroupId, int order) {
+
+        Step step = new Step();
+        step.setStepGroup(stepGroupId);
+        step.setStepOrder(order);
+        step.setLabel("Step " + order);
+        step.setCreatedBy(CREATED_BY);
+        step.setCreatedAt(Instant.now());
+        return step;
+    }
+}
@@ -0,0 +1,84 @@
+package org.group2.comp313.kitchen_companion.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig(SecurityConfigTest.TestConfig.class)
+@TestPropertySource(properties = "spring.security.oauth2.resourceserver.jwt.jwk-set-uri=http://localhost/jwks")
+class SecurityConfigTest {
+
+    private static final String ADMIN_AUTHORITY = "SCOPE_" + RatingReconciliationEndpoint.ADMIN_SCOPE;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void requiresATokenToReadTheRatingReport() throws Exception {
+        mockMvc.perform(get("/actuator/ratings")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void requiresTheAdminScopeToReadTheRatingReport() throws Exception {
+        mockMvc.perform(get("/actuator/ratings").with(jwt())).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/ratings").with(jwt().authorities(new SimpleGrantedAuthority(ADMIN_AUTHORITY))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void requiresTheAdminScopeToReconcileTheRatings() throws Exception {
+        mockMvc.perform(post("/actuator/ratings").with(jwt())).andExpect(status().isForbidden());
+        mockMvc.perform(post("/actuator/ratings").with(jwt().authorities(new SimpleGrantedAuthority(ADMIN_AUTHORITY))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void keepsTheOtherActuatorEndpointsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import({SecurityConfig.class, StubActuatorController.class})
+    static class TestConfig {
+    }
+
+    @RestController
+    static class StubActuatorController {
+
+        @GetMapping({"/actuator/ratings", "/actuator/health"})
+        String read() {
+            return "{}";
+        }
+
+        @PostMapping("/actuator/ratings")
+        String reconcile() {
+            return "{}";
+        }
+    }
+}
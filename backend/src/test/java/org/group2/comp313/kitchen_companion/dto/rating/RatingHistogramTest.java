@@ -0,0 +1,40 @@
+package org.group2.comp313.kitchen_companion.dto.rating;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RatingHistogramTest {
+
+    @Test
+    void countsARatingForItsValueRoundedHalfUp() {
+        assertThat(RatingHistogram.stars(new BigDecimal("3.49"))).isEqualTo(3);
+        assertThat(RatingHistogram.stars(new BigDecimal("3.5"))).isEqualTo(4);
+        assertThat(RatingHistogram.stars(new BigDecimal("5"))).isEqualTo(5);
+    }
+
+    @Test
+    void countsARatingOfZeroAsOneStar() {
+        assertThat(RatingHistogram.stars(BigDecimal.ZERO)).isEqualTo(1);
+        assertThat(RatingHistogram.ofRating(BigDecimal.ZERO)).isEqualTo(new RatingHistogram(1, 0, 0, 0, 0));
+    }
+
+    @Test
+    void roundTripsThroughItsArray() {
+
+        RatingHistogram histogram = new RatingHistogram(1, 2, 3, 4, 5);
+
+        assertThat(RatingHistogram.of(histogram.toArray())).isEqualTo(histogram);
+    }
+
+    @Test
+    void addsAndNegatesByStar() {
+
+        RatingHistogram histogram = new RatingHistogram(1, 2, 3, 4, 5);
+
+        assertThat(histogram.plus(new RatingHistogram(1, 1, 1, 1, 1))).isEqualTo(new RatingHistogram(2, 3, 4, 5, 6));
+        assertThat(histogram.plus(histogram.negate()).isEmpty()).isTrue();
+    }
+}
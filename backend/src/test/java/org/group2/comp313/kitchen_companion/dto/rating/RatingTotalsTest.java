@@ -0,0 +1,50 @@
+package org.group2.comp313.kitchen_companion.dto.rating;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RatingTotalsTest {
+
+    @Test
+    void roundsTheAverageUpToOneDecimal() {
+        assertThat(totals("10", 3).average()).isEqualByComparingTo("3.4");
+        assertThat(totals("11", 3).average()).isEqualByComparingTo("3.7");
+        assertThat(totals("7", 2).average()).isEqualByComparingTo("3.5");
+        assertThat(totals("4.01", 1).average()).isEqualByComparingTo("4.1");
+    }
+
+    @Test
+    void keepsTwoDecimalsLikeTheStoredAverage() {
+        assertThat(totals("10", 3).average()).isEqualTo(new BigDecimal("3.40"));
+        assertThat(RatingTotals.EMPTY.average()).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void clampsTheAverageOfDriftedTotals() {
+        assertThat(totals("-1", 1).average()).isEqualByComparingTo("0");
+        assertThat(totals("12", 2).average()).isEqualByComparingTo("5");
+        assertThat(totals("3", -1).average()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void addsAndUndoesRatings() {
+
+        RatingTotals totals = RatingTotals.EMPTY
+                .plus(RatingTotals.ofRating(new BigDecimal("4")))
+                .plus(RatingTotals.ofRating(new BigDecimal("2.5")));
+
+        assertThat(totals.sum()).isEqualByComparingTo("6.5");
+        assertThat(totals.count()).isEqualTo(2);
+        assertThat(totals.histogram()).isEqualTo(new RatingHistogram(0, 0, 1, 1, 0));
+
+        assertThat(totals.plus(totals.negate()).isEmpty()).isTrue();
+        assertThat(totals.isEmpty()).isFalse();
+    }
+
+    private static RatingTotals totals(String sum, long count) {
+        return new RatingTotals(new BigDecimal(sum), count, RatingHistogram.EMPTY);
+    }
+}
@@ -0,0 +1,274 @@
+package org.group2.comp313.kitchen_companion.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.group2.comp313.kitchen_companion.MySqlIntegrationTest;
+import org.group2.comp313.kitchen_companion.TestRecipes;
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.domain.RecipeCategory;
+import org.group2.comp313.kitchen_companion.domain.RecipeCategoryId;
+import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares inserting a new recipe with one repository save per row, as recipe creation did before, with the batch
+ * inserts of {@link RecipeComponentBatchRepository}. The statements are counted by the server for the session of the
+ * transaction, so a rewritten multi-row INSERT counts once; the latency of both is logged.
+ */
+class RecipeComponentBatchRepositoryTest extends MySqlIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeComponentBatchRepositoryTest.class);
+
+    private static final int CATEGORIES = 3;
+    private static final int INGREDIENT_GROUPS = 2;
+    private static final int INGREDIENTS_PER_GROUP = 12;
+    private static final int STEP_GROUPS = 2;
+    private static final int STEPS_PER_GROUP = 6;
+
+    private static final int WARMUP_RECIPES = 20;
+    private static final int TIMED_RECIPES = 100;
+
+    @Autowired
+    private RecipeComponentBatchRepository recipeComponentBatchRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeCategoryRepository recipeCategoryRepository;
+
+    @Autowired
+    private IngredientGroupRepository ingredientGroupRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private StepGroupRepository stepGroupRepository;
+
+    @Autowired
+    private StepRepository stepRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private List<Integer> categoryIds;
+
+    @BeforeEach
+    void createCategories() {
+        this.categoryIds = this.transactionTemplate.execute(status -> IntStream.range(0, CATEGORIES)
+                .mapToObj(i -> this.categoryRepository.save(TestRecipes.category("Category " + UUID.randomUUID())).getId())
+                .toList());
+    }
+
+    @Test
+    void insertsEveryTableOfARecipeWithOneStatement() {
+
+        long rows = 1 + CATEGORIES + INGREDIENT_GROUPS + INGREDIENT_GROUPS * INGREDIENTS_PER_GROUP
+                + STEP_GROUPS + STEP_GROUPS * STEPS_PER_GROUP;
+
+        long repositoryStatements = this.countStatements(this::insertWithRepositories);
+        long batchStatements = this.countStatements(this::insertWithBatches);
+
+        log.info("Statements per recipe of {} rows: {} with repository saves, {} with batches", rows, repositoryStatements, batchStatements);
+
+        assertThat(repositoryStatements).isGreaterThanOrEqualTo(rows);
+        assertThat(batchStatements).isEqualTo(6);
+    }
+
+    @Test
+    void setsTheGeneratedIdsInInsertOrder() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+
+            Recipe recipe = TestRecipes.recipe("Generated id test");
+            this.recipeComponentBatchRepository.insertRecipes(List.of(recipe));
+
+            List<IngredientGroup> groups = IntStream.range(0, INGREDIENT_GROUPS)
+                    .mapToObj(i -> TestRecipes.ingredientGroup(recipe.getId(), i))
+                    .toList();
+            this.recipeComponentBatchRepository.insertIngredientGroups(groups);
+
+            List<Ingredient> ingredients = new ArrayList<>();
+            for (IngredientGroup group : groups) {
+                IntStream.range(0, INGREDIENTS_PER_GROUP).forEach(j -> ingredients.add(TestRecipes.ingredient(group.getId(), j)));
+            }
+            this.recipeComponentBatchRepository.insertIngredients(ingredients);
+
+            List<StepGroup> stepGroups = IntStream.range(0, STEP_GROUPS)
+                    .mapToObj(i -> TestRecipes.stepGroup(recipe.getId(), i))
+                    .toList();
+            this.recipeComponentBatchRepository.insertStepGroups(stepGroups);
+
+            List<Step> steps = new ArrayList<>();
+            for (StepGroup group : stepGroups) {
+                IntStream.range(0, STEPS_PER_GROUP).forEach(j -> steps.add(TestRecipes.step(group.getId(), j)));
+            }
+            this.recipeComponentBatchRepository.insertSteps(steps);
+
+            // Every row, read back by its generated id, holds the values of the entity the id was set on.
+            assertThat(this.jdbcTemplate.queryForList(
+                    "SELECT label FROM ingredient_group WHERE recipe_id = ? ORDER BY ingredient_group_id", String.class, recipe.getId()))
+                    .containsExactlyElementsOf(groups.stream().map(IngredientGroup::getLabel).toList());
+            assertThat(groups).extracting(IngredientGroup::getId).isSorted().doesNotHaveDuplicates();
+
+            for (Ingredient ingredient : ingredients) {
+                assertThat(this.jdbcTemplate.queryForMap(
+                        "SELECT ingredient_group_id, ingredient_order FROM ingredient WHERE ingredient_id = ?", ingredient.getId()))
+                        .containsEntry("ingredient_group_id", ingredient.getIngredientGroup())
+                        .containsEntry("ingredient_order", ingredient.getIngredientOrder());
+            }
+
+            assertThat(this.jdbcTemplate.queryForList(
+                    "SELECT label FROM step_group WHERE recipe_id = ? ORDER BY step_group_id", String.class, recipe.getId()))
+                    .containsExactlyElementsOf(stepGroups.stream().map(StepGroup::getLabel).toList());
+
+            for (Step step : steps) {
+                assertThat(this.jdbcTemplate.queryForMap(
+                        "SELECT step_group_id, step_order FROM step WHERE step_id = ?", step.getId()))
+                        .containsEntry("step_group_id", step.getStepGroup())
+                        .containsEntry("step_order", step.getStepOrder());
+            }
+        });
+    }
+
+    @Test
+    void measuresTheLatencyOfBothInserts() {
+
+        this.timePerRecipe(this::insertWithRepositories, WARMUP_RECIPES);
+        this.timePerRecipe(this::insertWithBatches, WARMUP_RECIPES);
+
+        double repositoryMillis = this.timePerRecipe(this::insertWithRepositories, TIMED_RECIPES);
+        double batchMillis = this.timePerRecipe(this::insertWithBatches, TIMED_RECIPES);
+
+        log.info("Mean latency per recipe over {} recipes: {} ms with repository saves, {} ms with batches",
+                TIMED_RECIPES, String.format("%.2f", repositoryMillis), String.format("%.2f", batchMillis));
+
+        assertThat(this.recipeRepository.count()).isGreaterThanOrEqualTo(2 * (WARMUP_RECIPES + TIMED_RECIPES));
+    }
+
+    /**
+     * @return the statements the server received to insert one recipe, excluding the commit
+     */
+    private long countStatements(Consumer<Recipe> insert) {
+        return this.transactionTemplate.execute(status -> {
+
+            long before = this.sessionQuestions();
+            insert.accept(TestRecipes.recipe("Statement count test"));
+            this.entityManager.flush();
+
+            // The second SHOW STATUS counts itself.
+            return this.sessionQuestions() - before - 1;
+        });
+    }
+
+    /**
+     * @return the mean time to insert and commit one recipe, in milliseconds
+     */
+    private double timePerRecipe(Consumer<Recipe> insert, int recipes) {
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < recipes; i++) {
+            this.transactionTemplate.executeWithoutResult(status -> insert.accept(TestRecipes.recipe("Latency test")));
+        }
+
+        return (System.nanoTime() - start) / 1_000_000.0 / recipes;
+    }
+
+    private long sessionQuestions() {
+        return this.jdbcTemplate.queryForObject("SHOW SESSION STATUS LIKE 'Questions'", (rs, rowNum) -> rs.getLong(2));
+    }
+
+    /**
+     * Recipe creation before the batch inserts: one save per category link, group, ingredient and step.
+     */
+    private void insertWithRepositories(Recipe recipe) {
+
+        Integer recipeId = this.recipeRepository.save(recipe).getId();
+
+        for (Integer categoryId : this.categoryIds) {
+            RecipeCategoryId id = new RecipeCategoryId();
+            id.setCategoryId(categoryId);
+            id.setRecipeId(recipeId);
+
+            RecipeCategory recipeCategory = new RecipeCategory();
+            recipeCategory.setId(id);
+            recipeCategory.setCreatedBy(TestRecipes.CREATED_BY);
+            recipeCategory.setCreatedAt(Instant.now());
+            this.recipeCategoryRepository.save(recipeCategory);
+        }
+
+        for (int i = 0; i < INGREDIENT_GROUPS; i++) {
+            Integer groupId = this.ingredientGroupRepository.save(TestRecipes.ingredientGroup(recipeId, i)).getId();
+            for (int j = 0; j < INGREDIENTS_PER_GROUP; j++) {
+                this.ingredientRepository.save(TestRecipes.ingredient(groupId, j));
+            }
+        }
+
+        for (int i = 0; i < STEP_GROUPS; i++) {
+            Integer groupId = this.stepGroupRepository.save(TestRecipes.stepGroup(recipeId, i)).getId();
+            for (int j = 0; j < STEPS_PER_GROUP; j++) {
+                this.stepRepository.save(TestRecipes.step(groupId, j));
+            }
+        }
+    }
+
+    /**
+     * Recipe creation with the batch inserts, as in {@code RecipeService.createRecipe}.
+     */
+    private void insertWithBatches(Recipe recipe) {
+
+        Integer recipeId = this.recipeRepository.save(recipe).getId();
+
+        this.recipeComponentBatchRepository.insertRecipeCategories(recipeId, this.categoryIds, TestRecipes.CREATED_BY, Instant.now());
+
+        List<IngredientGroup> ingredientGroups = IntStream.range(0, INGREDIENT_GROUPS)
+                .mapToObj(i -> TestRecipes.ingredientGroup(recipeId, i))
+                .toList();
+        this.recipeComponentBatchRepository.insertIngredientGroups(ingredientGroups);
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (IngredientGroup group : ingredientGroups) {
+            IntStream.range(0, INGREDIENTS_PER_GROUP).forEach(j -> ingredients.add(TestRecipes.ingredient(group.getId(), j)));
+        }
+        this.recipeComponentBatchRepository.insertIngredients(ingredients);
+
+        List<StepGroup> stepGroups = IntStream.range(0, STEP_GROUPS)
+                .mapToObj(i -> TestRecipes.stepGroup(recipeId, i))
+                .toList();
+        this.recipeComponentBatchRepository.insertStepGroups(stepGroups);
+
+        List<Step> steps = new ArrayList<>();
+        for (StepGroup group : stepGroups) {
+            IntStream.range(0, STEPS_PER_GROUP).forEach(j -> steps.add(TestRecipes.step(group.getId(), j)));
+        }
+        this.recipeComponentBatchRepository.insertSteps(steps);
+    }
+}
@@ -0,0 +1,51 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryFacetIndexTest {
+
+    @Test
+    void countsTheRecipesOfEveryCategoryInAResultSet() {
+
+        CategoryFacetIndex index = new CategoryFacetIndex();
+        index.add(1, 10);
+        index.add(1, 11);
+        index.add(1, 12);
+        index.add(2, 11);
+        index.add(3, 99);
+
+        assertThat(index.count(CategoryFacetIndex.toBitSet(new int[]{11, 12}))).isEqualTo(Map.of(1, 2, 2, 1));
+        assertThat(index.count(null)).isEqualTo(Map.of(1, 3, 2, 1, 3, 1));
+    }
+
+    @Test
+    void forgetsRemovedTags() {
+
+        CategoryFacetIndex index = new CategoryFacetIndex();
+        index.add(1, 10);
+        index.remove(1, 10);
+        index.remove(2, 10);
+
+        assertThat(index.contains(1, 10)).isFalse();
+        assertThat(index.count(null)).isEmpty();
+    }
+
+    @Test
+    void returnsACopyOfTheRecipesOfACategory() {
+
+        CategoryFacetIndex index = new CategoryFacetIndex();
+        index.add(1, 10);
+
+        BitSet recipes = index.recipesOf(1);
+        recipes.set(20);
+
+        assertThat(index.contains(1, 20)).isFalse();
+        assertThat(index.recipesOf(1)).isEqualTo(CategoryFacetIndex.toBitSet(new int[]{10}));
+        assertThat(index.recipesOf(7).isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTermIndexTest {
+
+    @Test
+    void correctsTyposWithinTheEditDistanceOfTheWordLength() {
+
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.putDocument(1, List.of("Classic lasagna", "ricotta cheese"));
+        index.putDocument(2, List.of("Beef stew", "carrots"));
+
+        assertThat(index.correct("lasgna")).isEqualTo("lasagna");
+        assertThat(index.correct("ricotat")).isEqualTo("ricotta");
+        assertThat(index.correct("lasagna")).isEqualTo("lasagna");
+        assertThat(index.correct("stwe")).isEqualTo("stew");
+        assertThat(index.correct("salmon")).isNull();
+        assertThat(index.correct("be")).isNull();
+    }
+
+    @Test
+    void prefersTheWordOfMostDocumentsAtEqualDistance() {
+
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.putDocument(1, List.of("bake"));
+        index.putDocument(2, List.of("cake"));
+        index.putDocument(3, List.of("cake"));
+
+        assertThat(index.correct("dake")).isEqualTo("cake");
+    }
+
+    @Test
+    void skipsShortWordsAndWordsWithDigits() {
+
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.putDocument(1, List.of("2 eggs", "oil", "7up"));
+
+        assertThat(index.contains("eggs")).isTrue();
+        assertThat(index.contains("oil")).isTrue();
+        assertThat(index.contains("7up")).isFalse();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void measuresTheOptimalStringAlignmentDistance() {
+        assertThat(FuzzyTermIndex.distance("lasagna", "lasagna", 2)).isZero();
+        assertThat(FuzzyTermIndex.distance("lasagna", "lasagan", 2)).isEqualTo(1);
+        assertThat(FuzzyTermIndex.distance("lasagna", "lsgna", 2)).isEqualTo(2);
+        assertThat(FuzzyTermIndex.distance("lasagna", "pasta", 2)).isEqualTo(3);
+    }
+
+    @Test
+    void dropsWordsNoDocumentContainsAnyMore() {
+
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.putDocument(1, List.of("Lasagna", "tomato"));
+        index.putDocument(2, List.of("Tomato soup"));
+
+        index.putDocument(1, List.of("Risotto"));
+
+        assertThat(index.contains("lasagna")).isFalse();
+        assertThat(index.correct("lasgna")).isNull();
+        assertThat(index.contains("tomato")).isTrue();
+        assertThat(index.correct("risoto")).isEqualTo("risotto");
+
+        index.removeDocument(2);
+
+        assertThat(index.contains("tomato")).isFalse();
+        assertThat(index.contains("soup")).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void reusesTheSlotsOfDroppedWords() {
+
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.putDocument(1, List.of("lasagna"));
+        index.removeDocument(1);
+        index.putDocument(2, List.of("gnocchi"));
+
+        assertThat(index.correct("gnochi")).isEqualTo("gnocchi");
+        assertThat(index.correct("lasgna")).isNull();
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
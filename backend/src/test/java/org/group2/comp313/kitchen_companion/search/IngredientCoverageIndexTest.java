@@ -0,0 +1,67 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientCoverageIndexTest {
+
+    @Test
+    void ranksRecipesByTheShareOfTheirIngredientsCovered() {
+
+        IngredientCoverageIndex index = new IngredientCoverageIndex();
+        index.putIngredient(1, 10, "2 cups diced tomatoes");
+        index.putIngredient(2, 10, "1 cup basil leaves");
+        index.putIngredient(3, 20, "3 ripe tomatoes");
+        index.putIngredient(4, 30, "olive oil");
+
+        List<IngredientCoverageIndex.Coverage> ranking = index.rank(List.of("Tomato", "fresh basil"));
+
+        assertThat(ranking).containsExactly(
+                new IngredientCoverageIndex.Coverage(20, 1, 1),
+                new IngredientCoverageIndex.Coverage(10, 1, 2));
+    }
+
+    @Test
+    void breaksCoverageTiesByMatchedIngredientsThenRecipeId() {
+
+        IngredientCoverageIndex index = new IngredientCoverageIndex();
+        index.putIngredient(1, 30, "garlic");
+        index.putIngredient(2, 30, "onion");
+        index.putIngredient(3, 20, "garlic");
+        index.putIngredient(4, 10, "garlic");
+
+        assertThat(index.rank(List.of("garlic", "onion")))
+                .extracting(IngredientCoverageIndex.Coverage::recipeId)
+                .containsExactly(30, 10, 20);
+    }
+
+    @Test
+    void requiresEveryTermOfAPantryItem() {
+
+        IngredientCoverageIndex index = new IngredientCoverageIndex();
+        index.putIngredient(1, 10, "red onion");
+        index.putIngredient(2, 20, "onion");
+
+        assertThat(index.rank(List.of("red onion")))
+                .extracting(IngredientCoverageIndex.Coverage::recipeId)
+                .containsExactly(10);
+        assertThat(index.rank(List.of("green onion"))).isEmpty();
+    }
+
+    @Test
+    void replacesAndRemovesIngredients() {
+
+        IngredientCoverageIndex index = new IngredientCoverageIndex();
+        index.putIngredient(1, 10, "tomato");
+        index.putIngredient(2, 10, "basil");
+        index.putIngredient(1, 10, "mozzarella");
+        index.removeIngredient(2);
+
+        assertThat(index.rank(List.of("tomato"))).isEmpty();
+        assertThat(index.rank(List.of("mozzarella"))).containsExactly(new IngredientCoverageIndex.Coverage(10, 1, 1));
+        assertThat(index.recipeOf(2)).isNull();
+    }
+}
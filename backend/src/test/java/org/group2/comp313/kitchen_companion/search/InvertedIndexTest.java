@@ -0,0 +1,65 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    @Test
+    void ranksTitleMatchesFirstAndBreaksTiesById() {
+
+        InvertedIndex index = new InvertedIndex();
+        index.putDocument(3, new InvertedIndex.Document().addField("Tomato soup", 3));
+        index.putDocument(1, new InvertedIndex.Document().addField("Pasta", 3).addField("with tomato", 1));
+        index.putDocument(2, new InvertedIndex.Document().addField("Pasta", 3).addField("with tomato", 1));
+
+        InvertedIndex.SearchHits hits = index.search(List.of("tomato"));
+
+        assertThat(hits.ids()).containsExactly(3, 1, 2);
+        assertThat(hits.scores()[0]).isGreaterThan(hits.scores()[1]);
+        assertThat(hits.scores()[1]).isEqualTo(hits.scores()[2]);
+    }
+
+    @Test
+    void sumsTheScoresOfEveryQueryTerm() {
+
+        InvertedIndex index = new InvertedIndex();
+        index.putDocument(1, new InvertedIndex.Document().addField("tomato basil", 1));
+        index.putDocument(2, new InvertedIndex.Document().addField("tomato", 1));
+        index.putDocument(3, new InvertedIndex.Document().addField("basil", 1));
+
+        assertThat(index.search(List.of("tomato", "basil")).ids()).startsWith(1).hasSize(3);
+    }
+
+    @Test
+    void scoresSparseAndLargeDocumentIds() {
+
+        InvertedIndex index = new InvertedIndex();
+        for (int id = 1; id <= 2_000; id++) {
+            index.putDocument(id * 1_000, new InvertedIndex.Document().addField(id % 2 == 0 ? "even" : "odd", 1));
+        }
+
+        InvertedIndex.SearchHits hits = index.search(List.of("even"));
+
+        assertThat(hits.size()).isEqualTo(1_000);
+        assertThat(hits.ids()[0]).isEqualTo(2_000);
+        assertThat(hits.ids()[999]).isEqualTo(2_000_000);
+    }
+
+    @Test
+    void forgetsReplacedAndRemovedDocuments() {
+
+        InvertedIndex index = new InvertedIndex();
+        index.putDocument(1, new InvertedIndex.Document().addField("tomato", 1));
+        index.putDocument(2, new InvertedIndex.Document().addField("tomato", 1));
+        index.putDocument(1, new InvertedIndex.Document().addField("basil", 1));
+        index.removeDocument(2);
+
+        assertThat(index.search(List.of("tomato")).size()).isZero();
+        assertThat(index.search(List.of("basil")).ids()).containsExactly(1);
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
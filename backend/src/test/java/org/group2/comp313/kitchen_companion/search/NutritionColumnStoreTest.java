@@ -0,0 +1,66 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.group2.comp313.kitchen_companion.search.NutritionColumnStore.Nutrient;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NutritionColumnStoreTest {
+
+    private static float[] values(float calories, float carbs, float sugars, float fat) {
+        return new float[]{calories, carbs, sugars, fat};
+    }
+
+    @Test
+    void matchesInclusiveRanges() {
+
+        NutritionColumnStore store = new NutritionColumnStore();
+        store.put(1, values(200, 10, 2, 5));
+        store.put(2, values(450, 40, 12, 20));
+        store.put(3, values(800, 90, 30, 45));
+
+        assertThat(store.range(Nutrient.CALORIES, 200f, 450f).stream()).containsExactly(1, 2);
+        assertThat(store.range(Nutrient.FAT, null, 20f).stream()).containsExactly(1, 2);
+        assertThat(store.range(Nutrient.SUGARS, 13f, null).stream()).containsExactly(3);
+        assertThat(store.range(Nutrient.CARBS, 50f, 60f).isEmpty()).isTrue();
+    }
+
+    @Test
+    void neverMatchesMissingValues() {
+
+        NutritionColumnStore store = new NutritionColumnStore();
+        store.put(1, values(Float.NaN, 10, 2, 5));
+        store.put(2, values(300, 10, 2, 5));
+
+        assertThat(store.range(Nutrient.CALORIES, null, null).stream()).containsExactly(2);
+        assertThat(store.recipes().stream()).containsExactly(1, 2);
+    }
+
+    @Test
+    void ordersNegativeValuesBelowPositiveOnes() {
+
+        NutritionColumnStore store = new NutritionColumnStore();
+        store.put(1, values(-5, 0, 0, 0));
+        store.put(2, values(-0.5f, 0, 0, 0));
+        store.put(3, values(3, 0, 0, 0));
+
+        assertThat(store.range(Nutrient.CALORIES, -1f, 5f).stream()).containsExactly(2, 3);
+        assertThat(store.range(Nutrient.CALORIES, null, -1f).stream()).containsExactly(1);
+    }
+
+    @Test
+    void reflectsWritesMadeAfterASortedQuery() {
+
+        NutritionColumnStore store = new NutritionColumnStore();
+        store.put(1, values(100, 0, 0, 0));
+        store.put(2, values(200, 0, 0, 0));
+        assertThat(store.range(Nutrient.CALORIES, 150f, null).stream()).containsExactly(2);
+
+        store.put(1, values(300, 0, 0, 0));
+        store.remove(2);
+        store.put(5_000, values(250, 0, 0, 0));
+
+        assertThat(store.range(Nutrient.CALORIES, 150f, null).stream()).containsExactly(1, 5_000);
+        assertThat(store.recipes().stream()).containsExactly(1, 5_000);
+    }
+}
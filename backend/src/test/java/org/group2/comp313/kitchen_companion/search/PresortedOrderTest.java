@@ -0,0 +1,79 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresortedOrderTest {
+
+    @Test
+    void walksTheOrderInBothDirectionsWithUnvaluedRecipesLast() {
+
+        PresortedOrder order = new PresortedOrder(new int[]{4, 2, 7, 1, 3, 5}, 4);
+        BitSet recipeIds = bits(1, 2, 3, 4, 5, 7);
+
+        assertThat(order.page(recipeIds, true, 0, 10)).containsExactly(4, 2, 7, 1, 3, 5);
+        assertThat(order.page(recipeIds, false, 0, 10)).containsExactly(1, 7, 2, 4, 3, 5);
+    }
+
+    @Test
+    void pagesWithOffsetAndLimit() {
+
+        PresortedOrder order = new PresortedOrder(new int[]{4, 2, 7, 1, 3, 5}, 4);
+        BitSet recipeIds = bits(1, 2, 3, 4, 5, 7);
+
+        assertThat(order.page(recipeIds, true, 2, 3)).containsExactly(7, 1, 3);
+        assertThat(order.page(recipeIds, false, 4, 3)).containsExactly(3, 5);
+        assertThat(order.page(recipeIds, true, 6, 3)).isEmpty();
+        assertThat(order.page(recipeIds, true, 0, 0)).isEmpty();
+    }
+
+    @Test
+    void putsRecipesMissingFromTheOrderAfterEveryOtherRecipe() {
+
+        PresortedOrder order = new PresortedOrder(new int[]{4, 2, 7, 1, 3, 5}, 4);
+        BitSet recipeIds = bits(2, 3, 9, 12, 7);
+
+        assertThat(order.page(recipeIds, true, 0, 10)).containsExactly(2, 7, 3, 9, 12);
+        assertThat(order.page(recipeIds, false, 0, 10)).containsExactly(7, 2, 3, 9, 12);
+        assertThat(order.page(recipeIds, false, 3, 10)).containsExactly(9, 12);
+    }
+
+    @Test
+    void sortsSmallResultSetsByPosition() {
+
+        int[] orderedIds = IntStream.range(0, 100).map(i -> 99 - i).toArray();
+        PresortedOrder order = new PresortedOrder(orderedIds, 90);
+
+        assertThat(order.page(bits(10, 20, 5, 150), true, 0, 10)).containsExactly(20, 10, 5, 150);
+        assertThat(order.page(bits(10, 20, 5, 150), false, 0, 10)).containsExactly(10, 20, 5, 150);
+        assertThat(order.page(bits(10, 20, 5, 150), true, 1, 2)).containsExactly(10, 5);
+    }
+
+    @Test
+    void sortingAndWalkingAgree() {
+
+        int[] orderedIds = IntStream.range(0, 100).map(i -> (i * 37) % 100).toArray();
+        PresortedOrder order = new PresortedOrder(orderedIds, 80);
+        BitSet sparse = bits(3, 41, 77);
+        BitSet dense = (BitSet) sparse.clone();
+        IntStream.range(0, 100).filter(id -> id % 2 == 0).forEach(dense::set);
+
+        int[] sparsePage = order.page(sparse, false, 0, 10);
+        int[] densePage = order.page(dense, false, 0, 100);
+
+        assertThat(IntStream.of(densePage).filter(sparse::get).toArray()).containsExactly(sparsePage);
+    }
+
+    private static BitSet bits(int... values) {
+
+        BitSet bits = new BitSet();
+        for (int value : values) {
+            bits.set(value);
+        }
+        return bits;
+    }
+}
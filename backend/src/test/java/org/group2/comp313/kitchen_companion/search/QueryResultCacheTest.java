@@ -0,0 +1,68 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+
+        QueryResultCache<String> cache = new QueryResultCache<>(2);
+        cache.put("a", cache.generation(), "A");
+        cache.put("b", cache.generation(), "B");
+        cache.get("a");
+        cache.put("c", cache.generation(), "C");
+
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("C");
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void ignoresValuesComputedBeforeAnInvalidation() {
+
+        QueryResultCache<String> cache = new QueryResultCache<>(10);
+        long generation = cache.generation();
+
+        cache.invalidate();
+        cache.put("a", generation, "stale");
+
+        assertThat(cache.get("a")).isNull();
+
+        cache.put("a", cache.generation(), "fresh");
+
+        assertThat(cache.get("a")).isEqualTo("fresh");
+    }
+
+    @Test
+    void dropsOnlyTheMatchingEntriesOnAPartialInvalidation() {
+
+        QueryResultCache<String> cache = new QueryResultCache<>(10);
+        cache.put("rating", cache.generation(), "sorted by rating");
+        cache.put("title", cache.generation(), "sorted by title");
+        long generation = cache.generation();
+
+        cache.invalidate((key, value) -> key.equals("rating"));
+        cache.put("late", generation, "computed before");
+
+        assertThat(cache.get("rating")).isNull();
+        assertThat(cache.get("title")).isEqualTo("sorted by title");
+        assertThat(cache.get("late")).isNull();
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+
+        QueryResultCache<String> cache = new QueryResultCache<>(10);
+        cache.put("a", cache.generation(), "A");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        assertThat(cache.hitCount()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedIntSetTest {
+
+    @Test
+    void keepsDistinctValuesSorted() {
+
+        SortedIntSet set = new SortedIntSet();
+        for (int value : new int[]{9, 3, 7, 3, 1, 12, 5}) {
+            set.add(value);
+        }
+
+        assertThat(set.toArray()).containsExactly(1, 3, 5, 7, 9, 12);
+        assertThat(set.size()).isEqualTo(6);
+        assertThat(set.contains(7)).isTrue();
+        assertThat(set.contains(8)).isFalse();
+    }
+
+    @Test
+    void removesValues() {
+
+        SortedIntSet set = new SortedIntSet();
+        set.add(1);
+        set.add(2);
+        set.remove(1);
+        set.remove(5);
+
+        assertThat(set.toArray()).containsExactly(2);
+
+        set.remove(2);
+
+        assertThat(set.isEmpty()).isTrue();
+    }
+
+    @Test
+    void intersectsWithASortedArray() {
+
+        SortedIntSet set = new SortedIntSet();
+        for (int value : new int[]{2, 4, 6, 8}) {
+            set.add(value);
+        }
+
+        assertThat(set.intersect(new int[]{1, 2, 3, 8, 10})).containsExactly(2, 8);
+        assertThat(set.intersect(new int[]{})).isEmpty();
+        assertThat(new SortedIntSet().intersect(new int[]{1, 2})).isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package org.group2.comp313.kitchen_companion.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    private static final int LASAGNA = 0;
+    private static final int LASAGNA_SOUP = 1;
+    private static final int LAMB_STEW = 2;
+    private static final int TOMATO_SOUP = 3;
+
+    private static SuggestionTrie trie(int maxSuggestions) {
+        return new SuggestionTrie.Builder(maxSuggestions)
+                .weight(LASAGNA, 5f).weight(LASAGNA_SOUP, 1f).weight(LAMB_STEW, 3f).weight(TOMATO_SOUP, 3f)
+                .add("lasagna", LASAGNA)
+                .add("lasagna soup", LASAGNA_SOUP)
+                .add("soup", LASAGNA_SOUP)
+                .add("lamb stew", LAMB_STEW)
+                .add("stew", LAMB_STEW)
+                .add("tomato soup", TOMATO_SOUP)
+                .add("soup", TOMATO_SOUP)
+                .add(" ", TOMATO_SOUP)
+                .build();
+    }
+
+    @Test
+    void suggestsTheHeaviestEntriesOfAPrefix() {
+
+        SuggestionTrie trie = trie(10);
+
+        assertThat(trie.lookup("la")).containsExactly(LASAGNA, LAMB_STEW, LASAGNA_SOUP);
+        assertThat(trie.lookup("lasagna")).containsExactly(LASAGNA, LASAGNA_SOUP);
+        assertThat(trie.lookup("lasagna s")).containsExactly(LASAGNA_SOUP);
+        assertThat(trie.lookup("")).containsExactly(LASAGNA, LAMB_STEW, TOMATO_SOUP, LASAGNA_SOUP);
+    }
+
+    @Test
+    void matchesPrefixesEndingInsideACompressedEdge() {
+
+        SuggestionTrie trie = trie(10);
+
+        assertThat(trie.lookup("toma")).containsExactly(TOMATO_SOUP);
+        assertThat(trie.lookup("tomb")).isEmpty();
+        assertThat(trie.lookup("lasagnas")).isEmpty();
+        assertThat(trie.lookup("x")).isEmpty();
+    }
+
+    @Test
+    void suggestsAnEntryOnceAndBreaksWeightTiesById() {
+        assertThat(trie(10).lookup("s")).containsExactly(LAMB_STEW, TOMATO_SOUP, LASAGNA_SOUP);
+    }
+
+    @Test
+    void capsTheSuggestionsPerPrefix() {
+        assertThat(trie(2).lookup("")).containsExactly(LASAGNA, LAMB_STEW);
+        assertThat(new SuggestionTrie.Builder(5).build().lookup("a")).isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.domain.Step;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvImportServiceTest {
+
+    @Test
+    void capitalizesCategoryWords() {
+
+        assertThat(CsvImportService.normalizeCategory("main-dish")).isEqualTo("Main Dish");
+        assertThat(CsvImportService.normalizeCategory("  soups  &   STEWS ")).isEqualTo("Soups And Stews");
+        assertThat(CsvImportService.normalizeCategory("&-")).isEqualTo("And");
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "-", "--", " - - "})
+    void categorizesLabelsWithoutWordsAsUncategorized(String category) {
+        assertThat(CsvImportService.normalizeCategory(category)).isEqualTo("Uncategorized");
+    }
+
+    @Test
+    void splitsDirectionsAtSentenceBoundaries() {
+
+        List<Step> steps = CsvImportService.parseSteps("Add 1.5 cups of flour. Mix well!  Bake for 20 min?", "admin", Instant.now());
+
+        assertThat(steps).extracting(Step::getLabel).containsExactly("Add 1.5 cups of flour.", "Mix well!", "Bake for 20 min?");
+        assertThat(steps).extracting(Step::getStepOrder).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void keepsLongStepsWhole() {
+
+        String sentence = "Stir " + "slowly ".repeat(100) + "until thick.";
+
+        assertThat(CsvImportService.parseSteps(sentence, "admin", Instant.now()))
+                .extracting(Step::getLabel)
+                .containsExactly(sentence);
+    }
+}
@@ -0,0 +1,73 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
+import org.group2.comp313.kitchen_companion.repository.SavedRecipeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FavoriteRecipeServiceTest {
+
+    private static final String USER = "user@example.com";
+
+    private final SavedRecipeRepository savedRecipeRepository = mock(SavedRecipeRepository.class);
+    private final FavoriteRecipeService favoriteRecipeService = new FavoriteRecipeService(savedRecipeRepository);
+
+    @Test
+    void loadsTheFavoritesOfAUserOnce() {
+
+        when(savedRecipeRepository.findSavedRecipeIdsByCreatedBy(USER)).thenReturn(List.of(7, 3, 7));
+
+        assertThat(favoriteRecipeService.isFavorite(USER, 3)).isTrue();
+        assertThat(favoriteRecipeService.isFavorite(USER, 7)).isTrue();
+        assertThat(favoriteRecipeService.isFavorite(USER, 5)).isFalse();
+
+        verify(savedRecipeRepository, times(1)).findSavedRecipeIdsByCreatedBy(USER);
+    }
+
+    @Test
+    void neverQueriesForAnonymousUsers() {
+
+        assertThat(favoriteRecipeService.isFavorite(null, 3)).isFalse();
+        assertThat(favoriteRecipeService.isFavorite("", 3)).isFalse();
+
+        verifyNoInteractions(savedRecipeRepository);
+    }
+
+    @Test
+    void updatesTheCachedFavoritesOnSaveAndRemove() {
+
+        when(savedRecipeRepository.findSavedRecipeIdsByCreatedBy(USER)).thenReturn(List.of(3));
+        favoriteRecipeService.isFavorite(USER, 3);
+
+        favoriteRecipeService.addFavoriteAfterCommit(USER, 5);
+        favoriteRecipeService.removeFavoriteAfterCommit(USER, 3);
+
+        assertThat(favoriteRecipeService.isFavorite(USER, 5)).isTrue();
+        assertThat(favoriteRecipeService.isFavorite(USER, 3)).isFalse();
+        verify(savedRecipeRepository, times(1)).findSavedRecipeIdsByCreatedBy(USER);
+    }
+
+    @Test
+    void setsTheFavoriteFlagOfCards() {
+
+        when(savedRecipeRepository.findSavedRecipeIdsByCreatedBy(USER)).thenReturn(List.of(2));
+
+        List<RecipeSummaryCardWithCategory> cards = favoriteRecipeService.withFavorites(List.of(card(1), card(2)), USER);
+
+        assertThat(cards).extracting(RecipeSummaryCardWithCategory::isFavorite).containsExactly(0, 1);
+        assertThat(cards.get(1).title()).isEqualTo("Recipe 2");
+    }
+
+    private static RecipeSummaryCardWithCategory card(int id) {
+        return new RecipeSummaryCardWithCategory(id, "Recipe " + id, "", null, 0L, BigDecimal.ZERO, "Dinner", 0);
+    }
+}
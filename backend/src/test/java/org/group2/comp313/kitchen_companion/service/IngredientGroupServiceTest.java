@@ -0,0 +1,73 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.group2.comp313.kitchen_companion.MySqlIntegrationTest;
+import org.group2.comp313.kitchen_companion.TestRecipes;
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.dto.recipe.IngredientDto;
+import org.group2.comp313.kitchen_companion.dto.recipe.IngredientGroupDto;
+import org.group2.comp313.kitchen_companion.repository.IngredientGroupRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientGroupServiceTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private IngredientGroupService ingredientGroupService;
+
+    @Autowired
+    private IngredientGroupRepository ingredientGroupRepository;
+
+    @Autowired
+    private RecipeComponentBatchRepository recipeComponentBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void returnsUnmanagedGroupsMatchingTheStoredRows() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+
+            Recipe recipe = TestRecipes.recipe("Ingredient group creation test");
+            this.recipeComponentBatchRepository.insertRecipes(List.of(recipe));
+
+            Set<IngredientGroup> created = this.ingredientGroupService.createIngredientGroups(List.of(
+                    new IngredientGroupDto(null, 1, "Dough", List.of(
+                            new IngredientDto(null, 1, null, "Flour"),
+                            new IngredientDto(null, 2, null, "Water"))),
+                    new IngredientGroupDto(null, 2, "Sauce", List.of(
+                            new IngredientDto(null, 1, null, "Tomato")))), recipe.getId(), TestRecipes.CREATED_BY);
+
+            assertThat(created).hasSize(2);
+
+            for (IngredientGroup group : created) {
+
+                assertThat(this.entityManager.contains(group)).isFalse();
+                group.getIngredients().forEach(ingredient -> assertThat(this.entityManager.contains(ingredient)).isFalse());
+
+                // Reloading in the same transaction reads the batch-inserted rows, not the returned instances.
+                IngredientGroup stored = this.ingredientGroupRepository.findById(group.getId()).orElseThrow();
+
+                assertThat(stored).isNotSameAs(group);
+                assertThat(stored.getRecipe()).isEqualTo(recipe.getId());
+                assertThat(stored.getLabel()).isEqualTo(group.getLabel());
+                assertThat(stored.getIngredients()).extracting(Ingredient::getId)
+                        .containsExactlyInAnyOrderElementsOf(group.getIngredients().stream().map(Ingredient::getId).toList());
+                assertThat(stored.getIngredients()).extracting(Ingredient::getIngredientGroup).containsOnly(group.getId());
+            }
+        });
+    }
+}
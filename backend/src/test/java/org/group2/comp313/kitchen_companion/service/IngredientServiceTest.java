@@ -0,0 +1,136 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.domain.Ingredient;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.dto.recipe.IngredientDto;
+import org.group2.comp313.kitchen_companion.repository.IngredientRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
+import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class IngredientServiceTest {
+
+    private static final Integer RECIPE_ID = 7;
+    private static final String USER = "user@example.com";
+
+    private final IngredientRepository ingredientRepository = mock(IngredientRepository.class);
+    private final PantrySearchService pantrySearchService = mock(PantrySearchService.class);
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository = mock(RecipeComponentBatchRepository.class);
+    private final IngredientService ingredientService = new IngredientService(ingredientRepository, pantrySearchService, recipeComponentBatchRepository);
+
+    @Test
+    void writesNothingForAnUnchangedGroup() {
+
+        IngredientGroup group = group(ingredient(1, 1, "Flour"), ingredient(2, 2, "Water"));
+
+        ingredientService.syncIngredients(group, RECIPE_ID, List.of(
+                new IngredientDto(1, 1, null, "Flour"),
+                new IngredientDto(2, 2, null, "Water")), USER);
+
+        assertThat(group.getIngredients()).extracting(Ingredient::getUpdatedBy).containsOnlyNulls();
+        verify(ingredientRepository, never()).deleteAllByIdInBatch(any());
+        verify(recipeComponentBatchRepository).insertIngredients(List.of());
+        verify(pantrySearchService, never()).removeIngredientsAfterCommit(any());
+    }
+
+    @Test
+    void updatesOnlyTheIngredientsThatMoved() {
+
+        Ingredient flour = ingredient(1, 1, "Flour");
+        Ingredient water = ingredient(2, 2, "Water");
+        Ingredient salt = ingredient(3, 3, "Salt");
+        IngredientGroup group = group(flour, water, salt);
+
+        ingredientService.syncIngredients(group, RECIPE_ID, List.of(
+                new IngredientDto(2, 1, null, "Water"),
+                new IngredientDto(1, 2, null, "Flour"),
+                new IngredientDto(3, 3, null, "Salt")), USER);
+
+        assertThat(flour.getIngredientOrder()).isEqualTo(2);
+        assertThat(water.getIngredientOrder()).isEqualTo(1);
+        assertThat(flour.getUpdatedBy()).isEqualTo(USER);
+        assertThat(water.getUpdatedBy()).isEqualTo(USER);
+        assertThat(salt.getUpdatedBy()).isNull();
+        verify(pantrySearchService).addIngredientsAfterCommit(RECIPE_ID, List.of(water, flour));
+    }
+
+    @Test
+    void insertsNewIngredientsAndDeletesMissingOnes() {
+
+        Ingredient flour = ingredient(1, 1, "Flour");
+        IngredientGroup group = group(flour, ingredient(2, 2, "Water"), ingredient(3, 3, "Salt"));
+
+        ingredientService.syncIngredients(group, RECIPE_ID, List.of(
+                new IngredientDto(1, 1, null, "Flour"),
+                new IngredientDto(null, 2, null, "Milk")), USER);
+
+        ArgumentCaptor<List<Ingredient>> inserted = ArgumentCaptor.captor();
+        verify(recipeComponentBatchRepository).insertIngredients(inserted.capture());
+        assertThat(inserted.getValue()).singleElement().satisfies(milk -> {
+            assertThat(milk.getLabel()).isEqualTo("Milk");
+            assertThat(milk.getIngredientGroup()).isEqualTo(group.getId());
+            assertThat(milk.getCreatedBy()).isEqualTo(USER);
+        });
+
+        ArgumentCaptor<List<Integer>> deleted = ArgumentCaptor.captor();
+        verify(ingredientRepository).deleteAllByIdInBatch(deleted.capture());
+        assertThat(deleted.getValue()).containsExactlyInAnyOrder(2, 3);
+        verify(pantrySearchService).removeIngredientsAfterCommit(deleted.getValue());
+
+        assertThat(group.getIngredients()).containsExactly(flour);
+    }
+
+    @Test
+    void rejectsIngredientsOfAnotherGroup() {
+
+        IngredientGroup group = group(ingredient(1, 1, "Flour"));
+
+        assertThatThrownBy(() -> ingredientService.syncIngredients(group, RECIPE_ID,
+                List.of(new IngredientDto(99, 1, null, "Sugar")), USER))
+                .isInstanceOf(EntityToBeUpdatedNotFoundException.class);
+        verify(recipeComponentBatchRepository, never()).insertIngredients(anyList());
+    }
+
+    @Test
+    void rejectsRepeatedIngredients() {
+
+        IngredientGroup group = group(ingredient(1, 1, "Flour"));
+
+        assertThatThrownBy(() -> ingredientService.syncIngredients(group, RECIPE_ID, List.of(
+                new IngredientDto(1, 1, null, "Flour"),
+                new IngredientDto(1, 2, null, "Flour")), USER))
+                .isInstanceOf(EntityToBeUpdatedNotFoundException.class);
+        verify(ingredientRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private static IngredientGroup group(Ingredient... ingredients) {
+
+        IngredientGroup group = new IngredientGroup();
+        group.setId(5);
+        group.setRecipe(RECIPE_ID);
+        group.setIngredients(new LinkedHashSet<>(List.of(ingredients)));
+        return group;
+    }
+
+    private static Ingredient ingredient(int id, int order, String label) {
+
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setIngredientGroup(5);
+        ingredient.setIngredientOrder(order);
+        ingredient.setLabel(label);
+        return ingredient;
+    }
+}
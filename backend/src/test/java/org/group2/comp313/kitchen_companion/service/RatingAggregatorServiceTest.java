@@ -0,0 +1,129 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.apache.camel.ProducerTemplate;
+import org.group2.comp313.kitchen_companion.domain.RatingCalculated;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingHistogram;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingTotals;
+import org.group2.comp313.kitchen_companion.repository.RatingCalculatedBatchRepository;
+import org.group2.comp313.kitchen_companion.repository.RatingCalculatedRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingAggregatorServiceTest {
+
+    private static final Integer RECIPE_ID = 7;
+
+    private final RatingCalculatedRepository ratingCalculatedRepository = mock(RatingCalculatedRepository.class);
+    private final RatingCalculatedBatchRepository ratingCalculatedBatchRepository = mock(RatingCalculatedBatchRepository.class);
+    private final RatingAggregatorService ratingAggregatorService = new RatingAggregatorService(
+            ratingCalculatedRepository, ratingCalculatedBatchRepository, mock(PlatformTransactionManager.class),
+            mock(ProducerTemplate.class), mock(RecipeSearchCacheService.class), mock(RecipeSortService.class),
+            mock(RecipeCardCacheService.class));
+
+    @Test
+    void readsTheStoredTotalsOfARecipeOnce() {
+
+        when(ratingCalculatedRepository.findAllByRecipeIn(any())).thenReturn(List.of(stored(RECIPE_ID, "9.00", 2)));
+
+        assertThat(ratingAggregatorService.getTotals(RECIPE_ID).sum()).isEqualByComparingTo("9.00");
+        assertThat(ratingAggregatorService.getTotals(RECIPE_ID).count()).isEqualTo(2);
+
+        verify(ratingCalculatedRepository, times(1)).findAllByRecipeIn(any());
+        verify(ratingCalculatedRepository, never()).findByRecipe(any());
+    }
+
+    @Test
+    void remembersRecipesNeverRated() {
+
+        when(ratingCalculatedRepository.findAllByRecipeIn(any())).thenReturn(List.of());
+
+        assertThat(ratingAggregatorService.getTotals(RECIPE_ID)).isNull();
+        assertThat(ratingAggregatorService.getTotals(RECIPE_ID)).isNull();
+
+        verify(ratingCalculatedRepository, times(1)).findAllByRecipeIn(any());
+    }
+
+    @Test
+    void mergesThePendingChangesIntoTheCachedTotals() {
+
+        when(ratingCalculatedRepository.findAllByRecipeIn(any())).thenReturn(List.of(stored(RECIPE_ID, "9.00", 2)));
+        ratingAggregatorService.getTotals(RECIPE_ID);
+
+        ratingAggregatorService.addAfterCommit(RECIPE_ID, RatingTotals.ofRating(new BigDecimal("3")));
+
+        RatingTotals totals = ratingAggregatorService.getTotals(RECIPE_ID);
+        assertThat(totals.sum()).isEqualByComparingTo("12.00");
+        assertThat(totals.count()).isEqualTo(3);
+        assertThat(totals.histogram()).isEqualTo(new RatingHistogram(0, 0, 1, 2, 0));
+        verify(ratingCalculatedRepository, times(1)).findAllByRecipeIn(any());
+    }
+
+    @Test
+    void addsTheFlushedChangesToTheCachedTotals() {
+
+        when(ratingCalculatedRepository.findAllByRecipeIn(any())).thenReturn(List.of());
+        assertThat(ratingAggregatorService.getTotals(RECIPE_ID)).isNull();
+
+        ratingAggregatorService.addAfterCommit(RECIPE_ID, RatingTotals.ofRating(new BigDecimal("4")));
+        ratingAggregatorService.flush();
+
+        ArgumentCaptor<Map<Integer, RatingTotals>> deltas = ArgumentCaptor.captor();
+        verify(ratingCalculatedBatchRepository).addToRatings(deltas.capture());
+        assertThat(deltas.getValue()).containsOnlyKeys(RECIPE_ID);
+
+        RatingTotals totals = ratingAggregatorService.getTotals(RECIPE_ID);
+        assertThat(totals.sum()).isEqualByComparingTo("4.00");
+        assertThat(totals.count()).isEqualTo(1);
+        verify(ratingCalculatedRepository, times(1)).findAllByRecipeIn(any());
+    }
+
+    @Test
+    void reloadsTheTotalsOfAReconciledRange() {
+
+        when(ratingCalculatedRepository.findAllByRecipeIn(any())).thenReturn(List.of(stored(RECIPE_ID, "9.00", 2)));
+        ratingAggregatorService.getTotals(RECIPE_ID);
+
+        ratingAggregatorService.reconcileRange(1, 10, pendingInRange -> null);
+        ratingAggregatorService.getTotals(RECIPE_ID);
+
+        verify(ratingCalculatedRepository, times(2)).findAllByRecipeIn(any());
+    }
+
+    @Test
+    void onlyQueriesTheRecipesMissingFromTheCache() {
+
+        when(ratingCalculatedRepository.findAllByRecipeIn(any())).thenReturn(List.of(stored(RECIPE_ID, "9.00", 2)));
+        ratingAggregatorService.getTotals(RECIPE_ID);
+
+        when(ratingCalculatedRepository.findAllByRecipeIn(List.of(8))).thenReturn(List.of(stored(8, "5.00", 1)));
+
+        Map<Integer, RatingTotals> totals = ratingAggregatorService.getTotals(List.of(RECIPE_ID, 8));
+
+        assertThat(totals).containsOnlyKeys(RECIPE_ID, 8);
+        assertThat(totals.get(8).count()).isEqualTo(1);
+        verify(ratingCalculatedRepository).findAllByRecipeIn(List.of(8));
+    }
+
+    private static RatingCalculated stored(Integer recipeId, String sum, int count) {
+        RatingCalculated stored = new RatingCalculated();
+        stored.setRecipe(recipeId);
+        stored.setRatingSum(new BigDecimal(sum));
+        stored.setRatingCount(count);
+        stored.setRatingValue(BigDecimal.ZERO);
+        stored.setRatingCount4(count);
+        return stored;
+    }
+}
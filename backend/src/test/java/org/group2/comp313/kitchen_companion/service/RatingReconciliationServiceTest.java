@@ -0,0 +1,91 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.rating.RatingDriftRow;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingHistogram;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingReconciliationReport;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingTotals;
+import org.group2.comp313.kitchen_companion.repository.RatingReconciliationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingReconciliationServiceTest {
+
+    private static final Integer RECIPE_ID = 7;
+
+    private final RatingReconciliationRepository ratingReconciliationRepository = mock(RatingReconciliationRepository.class);
+    private final RatingAggregatorService ratingAggregatorService = mock(RatingAggregatorService.class);
+    private final RecipeCardCacheService recipeCardCacheService = mock(RecipeCardCacheService.class);
+    private final RatingReconciliationService ratingReconciliationService = new RatingReconciliationService(
+            ratingReconciliationRepository, ratingAggregatorService, mock(RecipeSearchCacheService.class),
+            mock(RecipeSortService.class), recipeCardCacheService, 2);
+
+    private Map<Integer, RatingTotals> pending = Map.of();
+
+    @Test
+    void correctsAHistogramThatDriftedAlone() {
+
+        this.givenRange(RECIPE_ID, RECIPE_ID);
+        when(ratingReconciliationRepository.findDrift(RECIPE_ID, RECIPE_ID)).thenReturn(List.of(new RatingDriftRow(RECIPE_ID,
+                new BigDecimal("8.00"), 2, new RatingHistogram(0, 0, 1, 0, 1),
+                new BigDecimal("8.00"), 2, new RatingHistogram(0, 0, 0, 2, 0))));
+
+        RatingReconciliationReport report = ratingReconciliationService.reconcile();
+
+        assertThat(report.recipesCorrected()).isEqualTo(1);
+        assertThat(report.countDrift()).isZero();
+        assertThat(report.sumDrift()).isEqualByComparingTo("0");
+        assertThat(report.histogramDrift()).isEqualTo(4);
+        verify(ratingReconciliationRepository).recompute(RECIPE_ID, RECIPE_ID);
+        verify(recipeCardCacheService).evictAfterCommit(RECIPE_ID);
+    }
+
+    @Test
+    void countsThePendingChangesAsStored() {
+
+        this.givenRange(RECIPE_ID, RECIPE_ID);
+        this.pending = Map.of(RECIPE_ID, RatingTotals.ofRating(new BigDecimal("4")));
+        when(ratingReconciliationRepository.findDrift(RECIPE_ID, RECIPE_ID)).thenReturn(List.of(new RatingDriftRow(RECIPE_ID,
+                new BigDecimal("3.00"), 1, new RatingHistogram(0, 0, 1, 0, 0),
+                new BigDecimal("7.00"), 2, new RatingHistogram(0, 0, 1, 1, 0))));
+
+        RatingReconciliationReport report = ratingReconciliationService.reconcile();
+
+        assertThat(report.recipesCorrected()).isZero();
+        assertThat(report.histogramDrift()).isZero();
+        verify(ratingReconciliationRepository).recompute(RECIPE_ID, RECIPE_ID);
+    }
+
+    @Test
+    void reconcilesTheRecipeIdsInRanges() {
+
+        this.givenRange(1, 2 * RatingReconciliationService.RECIPES_PER_CHUNK + 1);
+        when(ratingReconciliationRepository.findDrift(anyInt(), anyInt())).thenReturn(List.of());
+
+        RatingReconciliationReport report = ratingReconciliationService.reconcile();
+
+        assertThat(report.chunks()).isEqualTo(3);
+        assertThat(report.failedChunks()).isZero();
+        verify(ratingReconciliationRepository).recompute(1, RatingReconciliationService.RECIPES_PER_CHUNK);
+        verify(ratingReconciliationRepository).recompute(2 * RatingReconciliationService.RECIPES_PER_CHUNK + 1,
+                2 * RatingReconciliationService.RECIPES_PER_CHUNK + 1);
+    }
+
+    private void givenRange(int fromRecipeId, int toRecipeId) {
+        when(ratingReconciliationRepository.findRecipeIdRange()).thenReturn(new int[]{fromRecipeId, toRecipeId});
+        when(ratingAggregatorService.reconcileRange(anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+            Function<Map<Integer, RatingTotals>, ?> recompute = invocation.getArgument(2);
+            return recompute.apply(this.pending);
+        });
+    }
+}
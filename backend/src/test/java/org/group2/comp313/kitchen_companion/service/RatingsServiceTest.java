@@ -0,0 +1,180 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.domain.Rating;
+import org.group2.comp313.kitchen_companion.dto.rating.PostRatingDto;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingHistogram;
+import org.group2.comp313.kitchen_companion.dto.rating.RatingTotals;
+import org.group2.comp313.kitchen_companion.dto.rating.RecipeRatingDto;
+import org.group2.comp313.kitchen_companion.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingsServiceTest {
+
+    private static final Integer RECIPE_ID = 7;
+    private static final String USER = "user@example.com";
+
+    private final RatingRepository ratingRepository = mock(RatingRepository.class);
+    private final RatingAggregatorService ratingAggregatorService = mock(RatingAggregatorService.class);
+    private final RatingsService ratingsService = new RatingsService(ratingRepository, ratingAggregatorService);
+
+    @BeforeEach
+    void setUp() {
+        when(ratingRepository.save(any())).thenAnswer(invocation -> {
+            Rating rating = invocation.getArgument(0);
+            if (rating.getId() == null) {
+                rating.setId(42);
+            }
+            return rating;
+        });
+        when(ratingAggregatorService.getTotals(anyInt())).thenReturn(
+                new RatingTotals(new BigDecimal("8.0"), 2, new RatingHistogram(0, 0, 1, 0, 1)));
+    }
+
+    @Test
+    void addsANewRatingToTheTotals() {
+
+        when(ratingRepository.findForUpdateByRecipeAndCreatedBy(RECIPE_ID, USER)).thenReturn(Optional.empty());
+
+        RecipeRatingDto result = ratingsService.upsertRatingForUser(new PostRatingDto(new BigDecimal("4.0")), RECIPE_ID, USER);
+
+        RatingTotals delta = this.delta();
+        assertThat(delta.sum()).isEqualByComparingTo("4.0");
+        assertThat(delta.count()).isEqualTo(1);
+        assertThat(delta.histogram()).isEqualTo(new RatingHistogram(0, 0, 0, 1, 0));
+
+        assertThat(result.numberOfRatings()).isEqualTo(3);
+        assertThat(result.ratingValue()).isEqualByComparingTo("4.0");
+        assertThat(result.ratingIdForUser()).isEqualTo(42);
+        assertThat(result.ratingHistogram()).isEqualTo(new RatingHistogram(0, 0, 1, 1, 1));
+    }
+
+    @Test
+    void addsTheDifferenceOfAChangedRating() {
+
+        when(ratingRepository.findForUpdateByRecipeAndCreatedBy(RECIPE_ID, USER)).thenReturn(Optional.of(rating(5, "3.0")));
+
+        RecipeRatingDto result = ratingsService.upsertRatingForUser(new PostRatingDto(new BigDecimal("5.0")), RECIPE_ID, USER);
+
+        RatingTotals delta = this.delta();
+        assertThat(delta.sum()).isEqualByComparingTo("2.0");
+        assertThat(delta.count()).isZero();
+        assertThat(delta.histogram()).isEqualTo(new RatingHistogram(0, 0, -1, 0, 1));
+
+        assertThat(result.numberOfRatings()).isEqualTo(2);
+        assertThat(result.ratingValue()).isEqualByComparingTo("5.0");
+        assertThat(result.ratingIdForUser()).isEqualTo(5);
+    }
+
+    @Test
+    void subtractsARemovedRating() {
+
+        Rating rating = rating(5, "3.0");
+        when(ratingRepository.findForUpdateByIdAndCreatedBy(5, USER)).thenReturn(Optional.of(rating));
+
+        assertThat(ratingsService.removeRatingForUser(5, USER)).isTrue();
+
+        verify(ratingRepository).delete(rating);
+        RatingTotals delta = this.delta();
+        assertThat(delta.sum()).isEqualByComparingTo("-3.0");
+        assertThat(delta.count()).isEqualTo(-1);
+        assertThat(delta.histogram()).isEqualTo(new RatingHistogram(0, 0, -1, 0, 0));
+    }
+
+    @Test
+    void leavesTheTotalsAloneWhenNoRatingIsRemoved() {
+
+        when(ratingRepository.findForUpdateByIdAndCreatedBy(5, USER)).thenReturn(Optional.empty());
+
+        assertThat(ratingsService.removeRatingForUser(5, USER)).isFalse();
+
+        verify(ratingAggregatorService, never()).addAfterCommit(any(), any());
+    }
+
+    @Test
+    void readsTheRatingsOfSeveralRecipesWithOneQueryEach() {
+
+        when(ratingAggregatorService.getTotals(anyCollection())).thenReturn(Map.of(
+                RECIPE_ID, new RatingTotals(new BigDecimal("8.0"), 2, new RatingHistogram(0, 0, 1, 0, 1))));
+        when(ratingRepository.findAllByCreatedByAndRecipeIn(eq(USER), anyCollection())).thenReturn(List.of(rating(5, "3.0")));
+
+        Map<Integer, RecipeRatingDto> ratings = ratingsService.getRecipeRatingsForUser(Arrays.asList(8, RECIPE_ID, 8, null), USER);
+
+        assertThat(ratings).containsOnlyKeys(8, RECIPE_ID);
+        assertThat(ratings.keySet()).containsExactly(8, RECIPE_ID);
+        assertThat(ratings.get(RECIPE_ID).numberOfRatings()).isEqualTo(2);
+        assertThat(ratings.get(RECIPE_ID).ratingIdForUser()).isEqualTo(5);
+        assertThat(ratings.get(8).numberOfRatings()).isZero();
+        assertThat(ratings.get(8).ratingIdForUser()).isNull();
+
+        verify(ratingAggregatorService).getTotals(Set.of(8, RECIPE_ID));
+        verify(ratingAggregatorService, never()).getTotals(anyInt());
+        verify(ratingRepository).findAllByCreatedByAndRecipeIn(USER, Set.of(8, RECIPE_ID));
+    }
+
+    @Test
+    void skipsTheRatingsOfTheUserWithoutAUser() {
+
+        when(ratingAggregatorService.getTotals(anyCollection())).thenReturn(Map.of());
+
+        Map<Integer, RecipeRatingDto> ratings = ratingsService.getRecipeRatingsForUser(List.of(RECIPE_ID), null);
+
+        assertThat(ratings.get(RECIPE_ID).ratingIdForUser()).isNull();
+        verify(ratingRepository, never()).findAllByCreatedByAndRecipeIn(any(), anyCollection());
+    }
+
+    @Test
+    void rejectsTooManyRecipeIds() {
+
+        List<Integer> ids = IntStream.rangeClosed(1, RatingsService.MAX_RECIPE_IDS + 1).boxed().toList();
+
+        assertThatThrownBy(() -> ratingsService.getRecipeRatingsForUser(ids, USER)).isInstanceOf(IllegalArgumentException.class);
+        verify(ratingAggregatorService, never()).getTotals(anyCollection());
+    }
+
+    @Test
+    void countsRepeatedRecipeIdsOnceAgainstTheLimit() {
+
+        when(ratingAggregatorService.getTotals(anyCollection())).thenReturn(Map.of());
+        List<Integer> ids = IntStream.rangeClosed(1, 2 * RatingsService.MAX_RECIPE_IDS)
+                .map(i -> 1 + i % RatingsService.MAX_RECIPE_IDS).boxed().toList();
+
+        assertThat(ratingsService.getRecipeRatingsForUser(ids, USER)).hasSize(RatingsService.MAX_RECIPE_IDS);
+    }
+
+    private RatingTotals delta() {
+        ArgumentCaptor<RatingTotals> delta = ArgumentCaptor.forClass(RatingTotals.class);
+        verify(ratingAggregatorService).addAfterCommit(eq(RECIPE_ID), delta.capture());
+        return delta.getValue();
+    }
+
+    private static Rating rating(int id, String value) {
+
+        Rating rating = new Rating();
+        rating.setId(id);
+        rating.setRecipe(RECIPE_ID);
+        rating.setRatingValue(new BigDecimal(value));
+        rating.setCreatedBy(USER);
+        return rating;
+    }
+}
@@ -0,0 +1,92 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeSummaryCardWithCategory;
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.repository.SavedRecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecipeCardCacheServiceTest {
+
+    private static final String USER = "user@example.com";
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final SavedRecipeRepository savedRecipeRepository = mock(SavedRecipeRepository.class);
+    private final RecipeCardCacheService cardCache = new RecipeCardCacheService(recipeRepository,
+            new FavoriteRecipeService(savedRecipeRepository));
+
+    @BeforeEach
+    void setUp() {
+        when(recipeRepository.findRecipeSummaryCardsByIds(anyList())).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id < 100).map(RecipeCardCacheServiceTest::card).toList();
+        });
+    }
+
+    @Test
+    void returnsCardsInTheOrderOfTheIdsWithoutDuplicatesOrUnknownRecipes() {
+
+        List<RecipeSummaryCardWithCategory> cards = cardCache.getCards(Arrays.asList(3, 1, null, 3, 500, 2), null);
+
+        assertThat(cards).extracting(RecipeSummaryCardWithCategory::id).containsExactly(3, 1, 2);
+        verify(recipeRepository).findRecipeSummaryCardsByIds(List.of(3, 1, 500, 2));
+    }
+
+    @Test
+    void loadsOnlyTheMissingCards() {
+
+        cardCache.getCards(List.of(1, 2), null);
+        cardCache.getCards(List.of(2, 3, 1), null);
+
+        verify(recipeRepository).findRecipeSummaryCardsByIds(List.of(1, 2));
+        verify(recipeRepository).findRecipeSummaryCardsByIds(List.of(3));
+    }
+
+    @Test
+    void reloadsAnEvictedCard() {
+
+        cardCache.getCards(List.of(1, 2), null);
+        cardCache.evictAfterCommit(1);
+        cardCache.getCards(List.of(1, 2), null);
+
+        verify(recipeRepository).findRecipeSummaryCardsByIds(List.of(1));
+    }
+
+    @Test
+    void setsTheFavoriteFlagOfTheCurrentUser() {
+
+        when(savedRecipeRepository.findSavedRecipeIdsByCreatedBy(USER)).thenReturn(List.of(2));
+        cardCache.getCards(List.of(1, 2), null);
+
+        assertThat(cardCache.getCards(List.of(1, 2), USER)).extracting(RecipeSummaryCardWithCategory::isFavorite)
+                .containsExactly(0, 1);
+        assertThat(cardCache.getCards(List.of(1, 2), null)).extracting(RecipeSummaryCardWithCategory::isFavorite)
+                .containsExactly(0, 0);
+    }
+
+    @Test
+    void rejectsTooManyIds() {
+
+        List<Integer> ids = IntStream.rangeClosed(1, RecipeCardCacheService.MAX_IDS + 1).boxed().toList();
+
+        assertThatThrownBy(() -> cardCache.getCards(ids, null)).isInstanceOf(IllegalArgumentException.class);
+        verify(recipeRepository, never()).findRecipeSummaryCardsByIds(anyList());
+    }
+
+    private static RecipeSummaryCardWithCategory card(int id) {
+        return new RecipeSummaryCardWithCategory(id, "Recipe " + id, "", null, 0L, BigDecimal.ZERO, "Dinner", 0);
+    }
+}
@@ -0,0 +1,114 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipeDetailCacheServiceTest {
+
+    private static final int SEGMENT_WEIGHT = (int) (RecipeDetailCacheService.MAX_WEIGHT_BYTES / RecipeDetailCacheService.SEGMENTS);
+
+    private final RecipeDetailCacheService cache = new RecipeDetailCacheService(new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    void returnsTheCachedInstanceWithoutReloading() {
+
+        AtomicInteger loads = new AtomicInteger();
+        RecipeDetail recipe = recipe(1, "Stew");
+
+        RecipeDetail first = cache.getOrLoad(1, () -> {
+            loads.incrementAndGet();
+            return recipe;
+        });
+        RecipeDetail second = cache.getOrLoad(1, () -> {
+            loads.incrementAndGet();
+            return recipe(1, "Other");
+        });
+
+        assertThat(first).isSameAs(recipe);
+        assertThat(second).isSameAs(recipe);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.weight()).isGreaterThan(0);
+    }
+
+    @Test
+    void reloadsAnEvictedRecipe() {
+
+        cache.getOrLoad(1, () -> recipe(1, "Stew"));
+        cache.evict(1);
+
+        assertThat(cache.getOrLoad(1, () -> recipe(1, "Soup")).title()).isEqualTo("Soup");
+        assertThat(cache.getOrLoad(1, () -> recipe(1, "Other")).title()).isEqualTo("Soup");
+    }
+
+    @Test
+    void doesNotCacheARecipeChangedWhileItWasLoaded() {
+
+        RecipeDetail loaded = cache.getOrLoad(1, () -> {
+            cache.evict(1);
+            return recipe(1, "Stale");
+        });
+
+        assertThat(loaded.title()).isEqualTo("Stale");
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getOrLoad(1, () -> recipe(1, "Fresh")).title()).isEqualTo("Fresh");
+    }
+
+    @Test
+    void doesNotCacheMissingRecipes() {
+
+        assertThat(cache.getOrLoad(1, () -> null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedRecipeOfASegment() {
+
+        // Recipes 1, 17 and 33 share a segment and only two of them fit in it.
+        String summary = "x".repeat(SEGMENT_WEIGHT / 3);
+        cache.getOrLoad(1, () -> recipe(1, summary));
+        cache.getOrLoad(17, () -> recipe(17, summary));
+        cache.getOrLoad(1, () -> recipe(1, "reloaded"));
+        cache.getOrLoad(33, () -> recipe(33, summary));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.weight()).isLessThanOrEqualTo(SEGMENT_WEIGHT);
+        assertThat(cache.getOrLoad(1, () -> recipe(1, "reloaded")).title()).isEqualTo(summary);
+        assertThat(cache.getOrLoad(17, () -> recipe(17, "reloaded")).title()).isEqualTo("reloaded");
+    }
+
+    @Test
+    void skipsRecipesLargerThanASegment() {
+
+        String summary = "x".repeat(SEGMENT_WEIGHT + 1);
+
+        assertThat(cache.getOrLoad(1, () -> recipe(1, summary)).title()).isEqualTo(summary);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void sharesOnlyImmutableDetails() {
+
+        List<RecipeDetail.CategoryDetail> categories = new ArrayList<>();
+        categories.add(new RecipeDetail.CategoryDetail(1, "Dinner", null, "admin", null, null));
+
+        RecipeDetail recipe = cache.getOrLoad(1, () -> recipe(1, "Stew").withComponents(List.of(), List.of(), categories));
+        categories.clear();
+
+        assertThat(recipe.categories()).hasSize(1);
+        assertThatThrownBy(() -> recipe.categories().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static RecipeDetail recipe(int id, String title) {
+        return new RecipeDetail(id, title, null, 10, null, 20, null, 4, null, null, null,
+                null, null, null, null, 30, "admin", null, null, null);
+    }
+}
@@ -0,0 +1,153 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.camel.ProducerTemplate;
+import org.group2.comp313.kitchen_companion.domain.RecipeDetailDocument;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetailDocumentHeader;
+import org.group2.comp313.kitchen_companion.repository.RecipeDetailDocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecipeDetailDocumentServiceTest {
+
+    private final RecipeDetailDocumentRepository documentRepository = mock(RecipeDetailDocumentRepository.class);
+    private final RecipeDetailService recipeDetailService = mock(RecipeDetailService.class);
+    private final ProducerTemplate producerTemplate = mock(ProducerTemplate.class);
+    private final RecipeDetailDocumentService documentService = new RecipeDetailDocumentService(
+            documentRepository, recipeDetailService, new ObjectMapper().findAndRegisterModules(), producerTemplate);
+
+    @BeforeEach
+    void setUp() {
+        when(documentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void servesNoHeadersBeforeTheDocumentsAreLoaded() {
+
+        when(recipeDetailService.loadRecipeDetail(1)).thenReturn(recipe(1, "Stew"));
+        documentService.regenerateDocuments(List.of(1));
+
+        assertThat(documentService.getHeader(1)).isNull();
+    }
+
+    @Test
+    void storesAGzippedDocumentWithItsHash() {
+
+        this.loadDocuments(List.of(), List.of());
+        when(recipeDetailService.loadRecipeDetail(1)).thenReturn(recipe(1, "Stew"));
+
+        documentService.regenerateDocuments(List.of(1));
+
+        RecipeDetailDocument document = this.savedDocument();
+        String json = new String(documentService.decompress(document), StandardCharsets.UTF_8);
+        RecipeDetailDocumentHeader header = documentService.getHeader(1);
+
+        assertThat(json).contains("\"title\":\"Stew\"").contains("\"isFavorite\":false");
+        assertThat(document.getEtag()).hasSize(64);
+        assertThat(document.getFormatVersion()).isEqualTo(RecipeDetailDocumentService.FORMAT_VERSION);
+        assertThat(header.etag()).isEqualTo(document.getEtag());
+        assertThat(header.lastModified()).isEqualTo(document.getLastModified());
+    }
+
+    @Test
+    void keepsAnUnchangedDocument() {
+
+        this.loadDocuments(List.of(), List.of());
+        when(recipeDetailService.loadRecipeDetail(1)).thenReturn(recipe(1, "Stew"));
+        documentService.regenerateDocuments(List.of(1));
+        RecipeDetailDocument document = this.savedDocument();
+        when(documentRepository.findById(1)).thenReturn(Optional.of(document));
+
+        documentService.regenerateDocuments(List.of(1));
+
+        verify(documentRepository, times(1)).save(any());
+        assertThat(documentService.getHeader(1).lastModified()).isEqualTo(document.getLastModified());
+    }
+
+    @Test
+    void withdrawsTheDocumentOfAChangedRecipeUntilItIsRegenerated() {
+
+        this.loadDocuments(List.of(), List.of());
+        when(recipeDetailService.loadRecipeDetail(1)).thenReturn(recipe(1, "Stew"));
+        documentService.regenerateDocuments(List.of(1));
+
+        documentService.regenerateAfterCommit(1);
+
+        assertThat(documentService.getHeader(1)).isNull();
+        verify(producerTemplate).asyncSendBody(RecipeDetailDocumentService.REGENERATE_ROUTE, List.of(1));
+
+        documentService.regenerateDocuments(List.of(1));
+
+        assertThat(documentService.getHeader(1)).isNotNull();
+    }
+
+    @Test
+    void dropsTheHeaderOfADeletedRecipe() {
+
+        this.loadDocuments(List.of(header(1, "a", RecipeDetailDocumentService.FORMAT_VERSION)), List.of());
+
+        documentService.regenerateDocuments(List.of(1));
+
+        assertThat(documentService.getHeader(1)).isNull();
+        verify(documentRepository, never()).save(any());
+    }
+
+    @Test
+    void queuesOutdatedAndMissingDocumentsOnStartup() {
+
+        this.loadDocuments(List.of(header(1, "a", RecipeDetailDocumentService.FORMAT_VERSION),
+                header(2, "b", RecipeDetailDocumentService.FORMAT_VERSION - 1)), List.of(3));
+
+        assertThat(documentService.getHeader(1).etag()).isEqualTo("a");
+        assertThat(documentService.getHeader(2)).isNull();
+        verify(producerTemplate).asyncSendBody(RecipeDetailDocumentService.REGENERATE_ROUTE, List.of(2, 3));
+    }
+
+    @Test
+    void returnsNoDocumentWhenItChangedSinceTheHeaderWasRead() {
+
+        RecipeDetailDocument document = new RecipeDetailDocument();
+        document.setRecipe(1);
+        document.setEtag("b");
+        when(documentRepository.findById(1)).thenReturn(Optional.of(document));
+
+        assertThat(documentService.getDocument(header(1, "a", 1))).isNull();
+        assertThat(documentService.getDocument(header(1, "b", 1))).isSameAs(document);
+    }
+
+    private void loadDocuments(List<RecipeDetailDocumentHeader> headers, List<Integer> missing) {
+        when(documentRepository.findAllHeaders()).thenReturn(headers);
+        when(documentRepository.findRecipeIdsWithoutDocument()).thenReturn(missing);
+        documentService.loadDocumentsOnStartup();
+    }
+
+    private RecipeDetailDocument savedDocument() {
+        ArgumentCaptor<RecipeDetailDocument> captor = ArgumentCaptor.forClass(RecipeDetailDocument.class);
+        verify(documentRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static RecipeDetailDocumentHeader header(int recipeId, String etag, int formatVersion) {
+        return new RecipeDetailDocumentHeader(recipeId, etag, formatVersion, Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    private static RecipeDetail recipe(int id, String title) {
+        return new RecipeDetail(id, title, null, 10, null, 20, null, 4, null, null, null,
+                null, null, null, null, 30, "admin", null, null, null);
+    }
+}
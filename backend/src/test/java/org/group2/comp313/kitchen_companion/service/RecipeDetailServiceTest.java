@@ -0,0 +1,110 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.group2.comp313.kitchen_companion.MySqlIntegrationTest;
+import org.group2.comp313.kitchen_companion.TestRecipes;
+import org.group2.comp313.kitchen_companion.domain.IngredientGroup;
+import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
+import org.group2.comp313.kitchen_companion.dto.recipe.RecipeDetail;
+import org.group2.comp313.kitchen_companion.repository.CategoryRepository;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeDetailServiceTest extends MySqlIntegrationTest {
+
+    private static final int INGREDIENT_GROUPS = 2;
+    private static final int INGREDIENTS_PER_GROUP = 10;
+    private static final int STEP_GROUPS = 3;
+    private static final int STEPS_PER_GROUP = 5;
+    private static final int CATEGORIES = 3;
+
+    @Autowired
+    private RecipeDetailService recipeDetailService;
+
+    @Autowired
+    private RecipeComponentBatchRepository recipeComponentBatchRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void loadsARecipeWithOneFlatQueryPerTable() {
+
+        Integer recipeId = this.insertRecipe();
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RecipeDetail detail = this.recipeDetailService.loadRecipeDetail(recipeId);
+
+        long rows = Arrays.stream(statistics.getQueries())
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionRowCount())
+                .sum();
+
+        // One row per recipe, group, ingredient, step and category, where the joined entity graph returned one row
+        // per ingredient x step x category combination.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(rows).isEqualTo(1 + INGREDIENT_GROUPS + INGREDIENT_GROUPS * INGREDIENTS_PER_GROUP
+                + STEP_GROUPS + STEP_GROUPS * STEPS_PER_GROUP + CATEGORIES);
+
+        assertThat(detail.ingredientGroups()).hasSize(INGREDIENT_GROUPS)
+                .allSatisfy(group -> assertThat(group.ingredients()).hasSize(INGREDIENTS_PER_GROUP));
+        assertThat(detail.stepGroups()).hasSize(STEP_GROUPS)
+                .allSatisfy(group -> assertThat(group.steps()).hasSize(STEPS_PER_GROUP));
+        assertThat(detail.categories()).hasSize(CATEGORIES);
+    }
+
+    @Test
+    void returnsNullForAnUnknownRecipe() {
+        assertThat(this.recipeDetailService.loadRecipeDetail(Integer.MAX_VALUE)).isNull();
+    }
+
+    private Integer insertRecipe() {
+        return this.transactionTemplate.execute(status -> {
+
+            List<Integer> categoryIds = IntStream.range(0, CATEGORIES)
+                    .mapToObj(i -> this.categoryRepository.save(TestRecipes.category("Category " + UUID.randomUUID())).getId())
+                    .toList();
+
+            Recipe recipe = TestRecipes.recipe("Recipe detail test");
+            this.recipeComponentBatchRepository.insertRecipes(List.of(recipe));
+            this.recipeComponentBatchRepository.insertRecipeCategories(recipe.getId(), categoryIds, TestRecipes.CREATED_BY, Instant.now());
+
+            List<IngredientGroup> ingredientGroups = IntStream.range(0, INGREDIENT_GROUPS)
+                    .mapToObj(i -> TestRecipes.ingredientGroup(recipe.getId(), i))
+                    .toList();
+            this.recipeComponentBatchRepository.insertIngredientGroups(ingredientGroups);
+            this.recipeComponentBatchRepository.insertIngredients(ingredientGroups.stream()
+                    .flatMap(group -> IntStream.range(0, INGREDIENTS_PER_GROUP).mapToObj(i -> TestRecipes.ingredient(group.getId(), i)))
+                    .toList());
+
+            List<StepGroup> stepGroups = IntStream.range(0, STEP_GROUPS)
+                    .mapToObj(i -> TestRecipes.stepGroup(recipe.getId(), i))
+                    .toList();
+            this.recipeComponentBatchRepository.insertStepGroups(stepGroups);
+            this.recipeComponentBatchRepository.insertSteps(stepGroups.stream()
+                    .flatMap(group -> IntStream.range(0, STEPS_PER_GROUP).mapToObj(i -> TestRecipes.step(group.getId(), i)))
+                    .toList());
+
+            return recipe.getId();
+        });
+    }
+}
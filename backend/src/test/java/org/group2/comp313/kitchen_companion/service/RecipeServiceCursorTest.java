@@ -0,0 +1,54 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.repository.RecipeRepository;
+import org.group2.comp313.kitchen_companion.search.InvertedIndex;
+import org.group2.comp313.kitchen_companion.utility.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class RecipeServiceCursorTest {
+
+    private static final InvertedIndex.SearchHits HITS = new InvertedIndex.SearchHits(
+            new int[]{7, 2, 5, 9, 1},
+            new float[]{4.0f, 2.5f, 2.5f, 2.5f, 1.0f});
+
+    @Test
+    void startsAfterTheCursorPosition() {
+        assertThat(RecipeService.firstHitAfter(HITS, 4.0f, 7)).isEqualTo(1);
+        assertThat(RecipeService.firstHitAfter(HITS, 2.5f, 2)).isEqualTo(2);
+        assertThat(RecipeService.firstHitAfter(HITS, 2.5f, 9)).isEqualTo(4);
+        assertThat(RecipeService.firstHitAfter(HITS, 1.0f, 1)).isEqualTo(5);
+    }
+
+    @Test
+    void startsAfterAPositionNoLongerInTheRanking() {
+        assertThat(RecipeService.firstHitAfter(HITS, 2.5f, 3)).isEqualTo(2);
+        assertThat(RecipeService.firstHitAfter(HITS, 3.0f, 100)).isEqualTo(1);
+        assertThat(RecipeService.firstHitAfter(HITS, 9.0f, 1)).isZero();
+        assertThat(RecipeService.firstHitAfter(InvertedIndex.SearchHits.EMPTY, 1.0f, 1)).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, RecipeService.MAX_CURSOR_PAGE_SIZE + 1, Integer.MAX_VALUE})
+    void rejectsASizeOutOfRangeBeforeQuerying(int size) {
+
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        RecipeService recipeService = new RecipeService(recipeRepository, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null);
+
+        assertThatThrownBy(() -> recipeService.getRecipesByCursor(null, null, null, size, ""))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> recipeService.getRecipesByCreatedByCursor("user@example.com", null, size))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> recipeService.getSavedRecipeForUserByCursor(null, size, "user@example.com"))
+                .isInstanceOf(InvalidCursorException.class);
+
+        verifyNoInteractions(recipeRepository);
+    }
+}
@@ -0,0 +1,60 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.domain.CodeBook;
+import org.group2.comp313.kitchen_companion.domain.CodeValue;
+import org.group2.comp313.kitchen_companion.repository.CodeBookRepository;
+import org.group2.comp313.kitchen_companion.repository.CodeValueRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaticCodeServiceTest {
+
+    private static StaticCodeService staticCodeService() {
+
+        CodeBook timeUnits = new CodeBook();
+        timeUnits.setId(StaticCodeService.TIME_UNIT_CODE_BOOK_ID);
+        timeUnits.getCodeValues().add(codeValue(100, "minutes"));
+        timeUnits.getCodeValues().add(codeValue(101, "hours"));
+        timeUnits.getCodeValues().add(codeValue(102, "days"));
+        timeUnits.getCodeValues().add(codeValue(103, "fortnights"));
+
+        CodeBookRepository codeBookRepository = mock(CodeBookRepository.class);
+        when(codeBookRepository.findAll()).thenReturn(List.of(timeUnits));
+
+        return new StaticCodeService(codeBookRepository, mock(CodeValueRepository.class));
+    }
+
+    private static CodeValue codeValue(int id, String label) {
+        CodeValue codeValue = new CodeValue();
+        codeValue.setId(id);
+        codeValue.setCodeBook(StaticCodeService.TIME_UNIT_CODE_BOOK_ID);
+        codeValue.setLabel(label);
+        return codeValue;
+    }
+
+    @Test
+    void convertsEveryTimeUnitToMinutes() {
+
+        StaticCodeService staticCodeService = staticCodeService();
+
+        assertThat(staticCodeService.toMinutes(45, 100)).isEqualTo(45);
+        assertThat(staticCodeService.toMinutes(2, 101)).isEqualTo(120);
+        assertThat(staticCodeService.toMinutes(1, 102)).isEqualTo(1440);
+    }
+
+    @Test
+    void returnsNullForAMissingAmountOrAnUnknownUnit() {
+
+        StaticCodeService staticCodeService = staticCodeService();
+
+        assertThat(staticCodeService.toMinutes(null, 100)).isNull();
+        assertThat(staticCodeService.toMinutes(10, null)).isNull();
+        assertThat(staticCodeService.toMinutes(10, 103)).isNull();
+        assertThat(staticCodeService.toMinutes(10, 999)).isNull();
+    }
+}
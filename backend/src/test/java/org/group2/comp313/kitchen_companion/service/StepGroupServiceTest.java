@@ -0,0 +1,73 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.group2.comp313.kitchen_companion.MySqlIntegrationTest;
+import org.group2.comp313.kitchen_companion.TestRecipes;
+import org.group2.comp313.kitchen_companion.domain.Recipe;
+import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
+import org.group2.comp313.kitchen_companion.dto.recipe.StepDto;
+import org.group2.comp313.kitchen_companion.dto.recipe.StepGroupDto;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
+import org.group2.comp313.kitchen_companion.repository.StepGroupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StepGroupServiceTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private StepGroupService stepGroupService;
+
+    @Autowired
+    private StepGroupRepository stepGroupRepository;
+
+    @Autowired
+    private RecipeComponentBatchRepository recipeComponentBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void returnsUnmanagedGroupsMatchingTheStoredRows() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+
+            Recipe recipe = TestRecipes.recipe("Step group creation test");
+            this.recipeComponentBatchRepository.insertRecipes(List.of(recipe));
+
+            Set<StepGroup> created = this.stepGroupService.createStepGroup(List.of(
+                    new StepGroupDto(null, 0, "Prepare", List.of(
+                            new StepDto(null, 0, "Mix", null),
+                            new StepDto(null, 1, "Rest", null))),
+                    new StepGroupDto(null, 1, "Bake", List.of(
+                            new StepDto(null, 0, "Bake", null)))), recipe.getId(), TestRecipes.CREATED_BY);
+
+            assertThat(created).hasSize(2);
+
+            for (StepGroup group : created) {
+
+                assertThat(this.entityManager.contains(group)).isFalse();
+                group.getSteps().forEach(step -> assertThat(this.entityManager.contains(step)).isFalse());
+
+                // Reloading in the same transaction reads the batch-inserted rows, not the returned instances.
+                StepGroup stored = this.stepGroupRepository.findById(group.getId()).orElseThrow();
+
+                assertThat(stored).isNotSameAs(group);
+                assertThat(stored.getRecipe()).isEqualTo(recipe.getId());
+                assertThat(stored.getLabel()).isEqualTo(group.getLabel());
+                assertThat(stored.getSteps()).extracting(Step::getId)
+                        .containsExactlyInAnyOrderElementsOf(group.getSteps().stream().map(Step::getId).toList());
+                assertThat(stored.getSteps()).extracting(Step::getStepGroup).containsOnly(group.getId());
+            }
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.group2.comp313.kitchen_companion.domain.Step;
+import org.group2.comp313.kitchen_companion.domain.StepGroup;
+import org.group2.comp313.kitchen_companion.dto.recipe.StepDto;
+import org.group2.comp313.kitchen_companion.repository.RecipeComponentBatchRepository;
+import org.group2.comp313.kitchen_companion.repository.StepRepository;
+import org.group2.comp313.kitchen_companion.utility.EntityToBeUpdatedNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class StepServiceTest {
+
+    private static final String USER = "user@example.com";
+
+    private final StepRepository stepRepository = mock(StepRepository.class);
+    private final RecipeComponentBatchRepository recipeComponentBatchRepository = mock(RecipeComponentBatchRepository.class);
+    private final StepService stepService = new StepService(stepRepository, recipeComponentBatchRepository);
+
+    @Test
+    void updatesOnlyTheStepsThatChanged() {
+
+        Step mix = step(1, 0, "Mix");
+        Step rest = step(2, 1, "Rest");
+        Step bake = step(3, 2, "Bake");
+        StepGroup group = group(mix, rest, bake);
+
+        stepService.syncSteps(group, List.of(
+                new StepDto(1, 0, "Mix", null),
+                new StepDto(3, 1, "Bake", null),
+                new StepDto(2, 2, "Rest for an hour", null)), USER);
+
+        assertThat(mix.getUpdatedBy()).isNull();
+        assertThat(bake.getStepOrder()).isEqualTo(1);
+        assertThat(rest.getStepOrder()).isEqualTo(2);
+        assertThat(rest.getLabel()).isEqualTo("Rest for an hour");
+        assertThat(List.of(bake, rest)).extracting(Step::getUpdatedBy).containsOnly(USER);
+        verify(stepRepository, never()).deleteAllByIdInBatch(any());
+        verify(recipeComponentBatchRepository).insertSteps(List.of());
+    }
+
+    @Test
+    void insertsNewStepsAndDeletesMissingOnes() {
+
+        Step mix = step(1, 0, "Mix");
+        StepGroup group = group(mix, step(2, 1, "Rest"));
+
+        stepService.syncSteps(group, List.of(
+                new StepDto(1, 0, "Mix", null),
+                new StepDto(null, 1, "Serve", null)), USER);
+
+        ArgumentCaptor<List<Step>> inserted = ArgumentCaptor.captor();
+        verify(recipeComponentBatchRepository).insertSteps(inserted.capture());
+        assertThat(inserted.getValue()).singleElement().satisfies(serve -> {
+            assertThat(serve.getLabel()).isEqualTo("Serve");
+            assertThat(serve.getStepGroup()).isEqualTo(group.getId());
+        });
+
+        verify(stepRepository).deleteAllByIdInBatch(List.of(2));
+        assertThat(group.getSteps()).containsExactly(mix);
+    }
+
+    @Test
+    void rejectsStepsOfAnotherGroupOrRepeatedOnes() {
+
+        StepGroup group = group(step(1, 0, "Mix"));
+
+        assertThatThrownBy(() -> stepService.syncSteps(group, List.of(new StepDto(99, 0, "Mix", null)), USER))
+                .isInstanceOf(EntityToBeUpdatedNotFoundException.class);
+        assertThatThrownBy(() -> stepService.syncSteps(group, List.of(
+                new StepDto(1, 0, "Mix", null),
+                new StepDto(1, 1, "Mix", null)), USER))
+                .isInstanceOf(EntityToBeUpdatedNotFoundException.class);
+        verify(recipeComponentBatchRepository, never()).insertSteps(anyList());
+    }
+
+    private static StepGroup group(Step... steps) {
+
+        StepGroup group = new StepGroup();
+        group.setId(5);
+        group.setSteps(new LinkedHashSet<>(List.of(steps)));
+        return group;
+    }
+
+    private static Step step(int id, int order, String label) {
+
+        Step step = new Step();
+        step.setId(id);
+        step.setStepGroup(5);
+        step.setStepOrder(order);
+        step.setLabel(label);
+        return step;
+    }
+}
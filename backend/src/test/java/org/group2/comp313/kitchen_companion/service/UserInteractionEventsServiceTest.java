@@ -0,0 +1,153 @@
+package org.group2.comp313.kitchen_companion.service;
+
+import org.apache.camel.ProducerTemplate;
+import org.group2.comp313.kitchen_companion.domain.CodeBook;
+import org.group2.comp313.kitchen_companion.domain.CodeValue;
+import org.group2.comp313.kitchen_companion.domain.UserInteraction;
+import org.group2.comp313.kitchen_companion.dto.UserInteractionDto;
+import org.group2.comp313.kitchen_companion.repository.UserInteractionBatchRepository;
+import org.group2.comp313.kitchen_companion.repository.UserInteractionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserInteractionEventsServiceTest {
+
+    private static final int VIEW_CODE = 401;
+    private static final int SAVE_CODE = 402;
+
+    private final UserInteractionRepository userInteractionRepository = mock(UserInteractionRepository.class);
+    private final UserInteractionBatchRepository userInteractionBatchRepository = mock(UserInteractionBatchRepository.class);
+    private final StaticCodeService staticCodeService = mock(StaticCodeService.class);
+    private final ProducerTemplate producerTemplate = mock(ProducerTemplate.class);
+    private final UserInteractionEventsService userInteractionEventsService = new UserInteractionEventsService(
+            userInteractionRepository, userInteractionBatchRepository, staticCodeService, producerTemplate,
+            1_000, 0.001, 1);
+
+    @BeforeEach
+    void setUp() {
+
+        CodeBook codeBook = new CodeBook();
+        codeBook.getCodeValues().add(codeValue(VIEW_CODE, "view"));
+        codeBook.getCodeValues().add(codeValue(SAVE_CODE, "save"));
+
+        when(staticCodeService.getCodeValueListUsingCodeBookID(StaticCodeService.USER_INTERACTION_EVENT_CODE_BOOK_ID))
+                .thenReturn(Optional.of(codeBook));
+    }
+
+    @Test
+    void writesABatchWithOneInsertIgnore() {
+
+        userInteractionEventsService.saveUserInteractionEvents(List.of(
+                new UserInteractionDto("session-1", 7, "view"),
+                new UserInteractionDto("session-1", 7, "save"),
+                new UserInteractionDto("session-2", 8, "view")));
+
+        assertThat(this.inserted())
+                .extracting(UserInteraction::getSessionId, UserInteraction::getRecipe, UserInteraction::getUserInteractionEventTypeCode)
+                .containsExactly(tuple("session-1", 7, VIEW_CODE), tuple("session-1", 7, SAVE_CODE), tuple("session-2", 8, VIEW_CODE));
+        verify(userInteractionRepository, never()).save(any());
+        verify(userInteractionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void writesTheDuplicatesOfABatchOnce() {
+
+        userInteractionEventsService.saveUserInteractionEvents(List.of(
+                new UserInteractionDto("session-1", 7, "view"),
+                new UserInteractionDto("session-1", 7, "view")));
+
+        assertThat(this.inserted()).hasSize(1);
+    }
+
+    @Test
+    void skipsTheInvalidEventsOfABatch() {
+
+        userInteractionEventsService.saveUserInteractionEvents(List.of(
+                new UserInteractionDto(null, 7, "view"),
+                new UserInteractionDto("session-1", null, "view"),
+                new UserInteractionDto("session-1", 7, "unknown"),
+                new UserInteractionDto("session-1", 7, "view")));
+
+        assertThat(this.inserted()).extracting(UserInteraction::getSessionId).containsExactly("session-1");
+    }
+
+    @Test
+    void loadsTheEventTypesOnce() {
+
+        userInteractionEventsService.saveUserInteractionEvents(List.of(new UserInteractionDto("session-1", 7, "view")));
+        userInteractionEventsService.saveUserInteractionEvents(List.of(new UserInteractionDto("session-1", 8, "view")));
+
+        verify(staticCodeService, times(1)).getCodeValueListUsingCodeBookID(any());
+        verify(userInteractionBatchRepository, times(2)).insertIgnoreInteractions(anyList());
+    }
+
+    @Test
+    void queuesARepeatedEventOnce() {
+
+        UserInteractionDto event = new UserInteractionDto("session-1", 7, "view");
+
+        userInteractionEventsService.queueUserInteractionEvent(event);
+        userInteractionEventsService.queueUserInteractionEvent(new UserInteractionDto("session-1", 7, "view"));
+        userInteractionEventsService.queueUserInteractionEvent(new UserInteractionDto("session-1", 8, "view"));
+
+        verify(producerTemplate, times(1)).sendBody(UserInteractionEventsService.EVENTS_ROUTE, event);
+        verify(producerTemplate, times(2)).sendBody(eq(UserInteractionEventsService.EVENTS_ROUTE), any());
+    }
+
+    @Test
+    void rejectsARepeatedEventUntilTheSecondRotation() {
+
+        UserInteractionDto event = new UserInteractionDto("session-1", 7, "view");
+
+        userInteractionEventsService.queueUserInteractionEvent(event);
+        userInteractionEventsService.rotateDedupeFilter();
+        userInteractionEventsService.queueUserInteractionEvent(event);
+        verify(producerTemplate, times(1)).sendBody(UserInteractionEventsService.EVENTS_ROUTE, event);
+
+        userInteractionEventsService.rotateDedupeFilter();
+        userInteractionEventsService.queueUserInteractionEvent(event);
+        verify(producerTemplate, times(2)).sendBody(UserInteractionEventsService.EVENTS_ROUTE, event);
+    }
+
+    @Test
+    void queuesAnEventAgainIfTheQueueWasFull() {
+
+        UserInteractionDto event = new UserInteractionDto("session-1", 7, "view");
+        doThrow(new IllegalStateException("Queue full")).doNothing()
+                .when(producerTemplate).sendBody(UserInteractionEventsService.EVENTS_ROUTE, event);
+
+        userInteractionEventsService.queueUserInteractionEvent(event);
+        userInteractionEventsService.queueUserInteractionEvent(event);
+
+        verify(producerTemplate, times(2)).sendBody(UserInteractionEventsService.EVENTS_ROUTE, event);
+    }
+
+    private List<UserInteraction> inserted() {
+        ArgumentCaptor<List<UserInteraction>> interactions = ArgumentCaptor.captor();
+        verify(userInteractionBatchRepository).insertIgnoreInteractions(interactions.capture());
+        return interactions.getValue();
+    }
+
+    private static CodeValue codeValue(int id, String label) {
+        CodeValue codeValue = new CodeValue();
+        codeValue.setId(id);
+        codeValue.setLabel(label);
+        return codeValue;
+    }
+}
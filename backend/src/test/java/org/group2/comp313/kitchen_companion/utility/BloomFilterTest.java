@@ -0,0 +1,50 @@
+package org.group2.comp313.kitchen_companion.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedKeyAsAbsent() {
+
+        BloomFilter filter = BloomFilter.create(10_000, 0.01, 1024 * 1024);
+
+        IntStream.range(0, 10_000).forEach(i -> filter.put("key-" + i));
+
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("key-" + i));
+    }
+
+    @Test
+    void keepsTheFalsePositiveRateNearTheConfiguredOne() {
+
+        BloomFilter filter = BloomFilter.create(10_000, 0.01, 1024 * 1024);
+
+        IntStream.range(0, 10_000).forEach(i -> filter.put("key-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("absent-" + i)).count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.0, 0.02);
+    }
+
+    @Test
+    void reportsWhetherAKeyWasNew() {
+
+        BloomFilter filter = BloomFilter.create(100, 0.01, 1024);
+
+        assertThat(filter.put("session\nview\n42")).isTrue();
+        assertThat(filter.put("session\nview\n42")).isFalse();
+    }
+
+    @Test
+    void capsItsMemory() {
+
+        BloomFilter filter = BloomFilter.create(1_000_000_000L, 0.001, 1024);
+
+        assertThat(filter.sizeInBytes()).isLessThanOrEqualTo(1024);
+    }
+}
@@ -0,0 +1,46 @@
+package org.group2.comp313.kitchen_companion.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+
+        KeysetCursor cursor = new KeysetCursor(KeysetCursor.Mode.SCORE, "3.25", 42);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void treatsABlankTokenAsTheFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ", KeysetCursor.Mode.ID)).isNull();
+    }
+
+    @Test
+    void rejectsACursorOfAnotherMode() {
+
+        String token = new KeysetCursor(KeysetCursor.Mode.SCORE, "3.25", 42).encode();
+
+        assertThatThrownBy(() -> KeysetCursor.decode(token, KeysetCursor.Mode.ID)).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(token("v1|42|42"))).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(token("v2|OFFSET|1|1"))).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(token("v2|ID|1|x"))).isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
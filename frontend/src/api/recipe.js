@@ -27,6 +27,32 @@ export async function getRecipeById(recipeId) {
   }
 }
 
+/**
+ * Fetch the summary cards of several recipes in one request.
+ * @param {Array<number|string>} recipeIds - The recipe identifiers, at most 200.
+ * @returns {Array|number} The recipe cards in the order of the ids or an HTTP status code.
+ */
+export async function getRecipeCards(recipeIds) {
+  try {
+    const response = await axios.get(
+      `${recipeUrl}/kc/v1/public/recipe/cards?ids=${recipeIds.join(",")}`,
+      {
+        withCredentials: true,
+      }
+    );
+    return response.data.result;
+  } catch (error) {
+    if (error.response) {
+      console.error("Error fetching recipe cards:", error.response.data);
+      if (error.response.status === 401) {
+        return error.response.status;
+      }
+    } else {
+      console.error("Error fetching recipe cards:", error);
+    }
+  }
+}
+
 /**
  * Fetch multiple recipes with pagination, filtering, and sorting.
  * @param {number} page - Current page index (starting at 1).